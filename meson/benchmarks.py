@@ -0,0 +1,80 @@
+#!/usr/bin/env python3
+
+import sys, os
+import subprocess
+import tempfile
+import zipfile
+
+
+## Build the executable JAR of the benchmarks
+##
+## usage: benchmarks.py <output> <jmh class path> <resources> [javac arguments] -- <sources>
+
+output, classpath, resources = sys.argv[1:4]
+
+separator = sys.argv.index('--')
+
+arguments = sys.argv[4:separator]
+sources = sys.argv[separator + 1:]
+
+
+with tempfile.TemporaryDirectory() as classes:
+
+	## Compile the sources, the JMH annotation processor generates
+	## the benchmark classes and the META-INF/BenchmarkList resource
+	subprocess.check_call(
+		['javac', '-encoding', 'UTF-8', '-cp', classpath, '-d', classes] + arguments + sources
+	)
+
+
+	jar = zipfile.ZipFile(output, 'w', zipfile.ZIP_DEFLATED)
+
+	jar.writestr('META-INF/MANIFEST.MF', 'Manifest-Version: 1.0\nMain-Class: org.openjdk.jmh.Main\n')
+
+	namelist = set(['META-INF/MANIFEST.MF'])
+
+
+	## Append the compiled classes and the generated resources
+	for directory, subdirs, files in os.walk(classes):
+
+		for file in files:
+
+			file = os.path.join(directory, file)
+
+			# name of the current file, relative to the classes directory
+			filename = os.path.relpath(file, classes).replace(os.sep, '/')
+
+			jar.write(file, filename)
+			namelist.add(filename)
+
+
+	## Append the resources, loaded from the class path by the benchmarks
+	for directory, subdirs, files in os.walk(resources):
+
+		for file in files:
+
+			file = os.path.join(directory, file)
+
+			# name of the current file, relative to the project directory
+			filename = os.path.relpath(file, os.path.dirname(resources)).replace(os.sep, '/')
+
+			jar.write(file, filename)
+			namelist.add(filename)
+
+
+	## Append the JMH libraries, so that the JAR runs on its own
+	for library in classpath.split(os.pathsep):
+
+		with zipfile.ZipFile(library) as dependency:
+
+			for entry in dependency.infolist():
+
+				# keep the first copy of a file and drop the signatures
+				if entry.filename in namelist or entry.filename.startswith('META-INF/') and entry.filename.endswith(('.SF', '.RSA', '.DSA')):
+					continue
+
+				jar.writestr(entry, dependency.read(entry))
+				namelist.add(entry.filename)
+
+
+	jar.close()
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automaton.grid.Cell;
+import automaton.grid.Chunk;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.maths.Point;
+
+/**
+ * <p>
+ * Measures the count of the neighbors of every living cell
+ * of a random soup.
+ * </p>
+ *
+ * <p>
+ * The soup is seeded, so that every trial counts the same
+ * neighborhoods. Its side is a parameter, to compare a soup
+ * held by a single chunk with a soup spread across many.
+ * </p>
+ *
+ * @see Cell#getNumberOfNeighbors()
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CellBenchmark {
+
+	/**
+	 * The seed of the soup.
+	 */
+	public static final long SEED = 42;
+
+
+	/**
+	 * The side of the soup, in cells.
+	 */
+	@Param({"16", "64", "256"})
+	public int side;
+
+	/**
+	 * The living cells of the soup.
+	 */
+	protected Cell[] cells;
+
+
+	/**
+	 * Fills half of the soup and collects its living cells.
+	 */
+	@Setup(Level.Trial)
+	public void fill() {
+
+		World world = new World();
+		Random random = new Random(SEED);
+
+		for (int i = 0; i < side * side / 2; i++) {
+			world.active(new Coordinates(random.nextInt(side) - side / 2, random.nextInt(side) - side / 2));
+		}
+
+		List<Cell> list = new ArrayList<Cell>();
+
+		for (Iterator<Entry<Point, Chunk>> chunks = world.getChunks(); chunks.hasNext();) {
+
+			for (Iterator<Entry<Point, Cell>> it = chunks.next().getValue().getCells(); it.hasNext();) {
+				list.add(it.next().getValue());
+			}
+
+		}
+
+		cells = list.toArray(new Cell[list.size()]);
+	}
+
+	/**
+	 * Counts the neighbors of every living cell.
+	 *
+	 * @return The sum of the neighbors, so that the count is not eliminated.
+	 */
+	@Benchmark
+	public int getNumberOfNeighbors() {
+
+		int number = 0;
+
+		for (int i = 0; i < cells.length; i++) {
+			number += cells[i].getNumberOfNeighbors();
+		}
+
+		return number;
+	}
+
+}
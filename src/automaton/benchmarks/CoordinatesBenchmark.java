@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
+import automaton.maths.Point;
+
+/**
+ * <p>
+ * Measures the hashing of the points and of the chunk
+ * format coordinates, alone and through a hash map.
+ * </p>
+ *
+ * <p>
+ * The coordinates are seeded and spread across many
+ * chunks, so that the hash codes are not all the same.
+ * </p>
+ *
+ * @see Point#hashCode()
+ * @see Coordinates#toChunkPoint()
+ * @see PackedCoordinates
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CoordinatesBenchmark {
+
+	/**
+	 * The seed of the coordinates.
+	 */
+	public static final long SEED = 42;
+
+	/**
+	 * The number of coordinates hashed by each invocation.
+	 */
+	public static final int COUNT = 1024;
+
+	/**
+	 * The bound of the coordinates, in cells.
+	 */
+	public static final int BOUND = 1000;
+
+
+	/**
+	 * The coordinates hashed.
+	 */
+	protected Coordinates[] coordinates;
+
+	/**
+	 * The absolute points of the coordinates.
+	 */
+	protected Point[] points;
+
+	/**
+	 * The packed coordinates of the coordinates.
+	 */
+	protected long[] packed;
+
+	/**
+	 * A map holding every second point.
+	 */
+	protected Map<Point, Integer> map;
+
+
+	/**
+	 * Draws the coordinates and fills the map.
+	 */
+	@Setup(Level.Trial)
+	public void fill() {
+
+		Random random = new Random(SEED);
+
+		coordinates = new Coordinates[COUNT];
+		points = new Point[COUNT];
+		packed = new long[COUNT];
+		map = new HashMap<Point, Integer>();
+
+		for (int i = 0; i < COUNT; i++) {
+
+			coordinates[i] = new Coordinates(random.nextInt(2 * BOUND) - BOUND, random.nextInt(2 * BOUND) - BOUND);
+			points[i] = coordinates[i].toAbsolutePoint();
+			packed[i] = coordinates[i].toPacked();
+
+			if (i % 2 == 0) {
+				map.put(points[i], i);
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Hashes the absolute points.
+	 *
+	 * @return The sum of the hash codes, so that the hashing is not eliminated.
+	 */
+	@Benchmark
+	public int pointHashCode() {
+
+		int hash = 0;
+
+		for (int i = 0; i < points.length; i++) {
+			hash += points[i].hashCode();
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Converts the coordinates to chunk format and hashes them.
+	 *
+	 * @return The sum of the hash codes, so that the hashing is not eliminated.
+	 */
+	@Benchmark
+	public int chunkPointHashCode() {
+
+		int hash = 0;
+
+		for (int i = 0; i < coordinates.length; i++) {
+			hash += coordinates[i].toChunkPoint().hashCode();
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Converts the packed coordinates to chunk format and
+	 * hashes them, without allocating.
+	 *
+	 * @return The sum of the hash codes, so that the hashing is not eliminated.
+	 */
+	@Benchmark
+	public int packedChunkHashCode() {
+
+		int hash = 0;
+
+		for (int i = 0; i < packed.length; i++) {
+			hash += PackedCoordinates.hash(PackedCoordinates.toChunk(packed[i]));
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Looks the absolute points up in the map, half of
+	 * them being present.
+	 *
+	 * @return The number of points found.
+	 */
+	@Benchmark
+	public int mapLookup() {
+
+		int found = 0;
+
+		for (int i = 0; i < points.length; i++) {
+
+			if (map.containsKey(points[i])) {
+				found++;
+			}
+
+		}
+
+		return found;
+	}
+
+}
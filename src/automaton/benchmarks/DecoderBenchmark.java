@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automaton.decoder.Decoder;
+import automaton.grid.World;
+import automaton.io.Resource;
+
+/**
+ * <p>
+ * Measures the throughput of the decoder, reading a life
+ * file and writing a world back to a life file.
+ * </p>
+ *
+ * <p>
+ * The life file is read in memory once per trial, so that
+ * the decoding does not measure the disk. The encoding
+ * writes to a temporary file, deleted after the trial.
+ * </p>
+ *
+ * @see Decoder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DecoderBenchmark {
+
+	/**
+	 * The path of the preset decoded and encoded.
+	 */
+	@Param({
+		"res/presets/spaceships/glider.life",
+		"res/presets/guns/glider_gun.life",
+		"res/presets/about/about.life",
+		"res/presets/spacefillers/max.life"
+	})
+	public String preset;
+
+	/**
+	 * The content of the life file.
+	 */
+	protected byte[] content;
+
+	/**
+	 * The world encoded.
+	 */
+	protected World world;
+
+	/**
+	 * The temporary file written by the encoder.
+	 */
+	protected File file;
+
+
+	/**
+	 * Reads the life file and decodes the world to encode.
+	 *
+	 * @throws IOException If the life file cannot be read or the temporary file cannot be created.
+	 */
+	@Setup(Level.Trial)
+	public void load() throws IOException {
+
+		content = Resource.getRes(preset).readAllBytes();
+
+		world = new World();
+		Decoder.decode(new ByteArrayInputStream(content), world);
+
+		file = File.createTempFile("automaton", ".life");
+	}
+
+	/**
+	 * Deletes the temporary file.
+	 */
+	@TearDown(Level.Trial)
+	public void delete() {
+		file.delete();
+	}
+
+
+	/**
+	 * Decodes the life file in a new world.
+	 *
+	 * @return The decoded world.
+	 */
+	@Benchmark
+	public World decode() {
+
+		World world = new World();
+
+		Decoder.decode(new ByteArrayInputStream(content), world);
+
+		return world;
+	}
+
+	/**
+	 * Encodes the world in the temporary file.
+	 *
+	 * @return The length of the written file.
+	 */
+	@Benchmark
+	public long encode() {
+
+		Decoder.encode(world, file);
+
+		return file.length();
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automaton.decoder.Decoder;
+import automaton.grid.World;
+import automaton.io.Resource;
+import automaton.render.RenderingContext;
+
+/**
+ * <p>
+ * Measures the drawing of a world into an offscreen image,
+ * from the world itself and from its published snapshot.
+ * </p>
+ *
+ * <p>
+ * The image has the size of a window and its origin is
+ * centered, like the canvas, so that only the visible
+ * chunks are drawn. The benchmark runs headless.
+ * </p>
+ *
+ * @see RenderingContext
+ * @see automaton.grid.Snapshot
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderingBenchmark {
+
+	/**
+	 * The width of the image, in pixels.
+	 */
+	public static final int WIDTH = 1280;
+
+	/**
+	 * The height of the image, in pixels.
+	 */
+	public static final int HEIGHT = 800;
+
+
+	/**
+	 * The path of the preset drawn.
+	 */
+	@Param({
+		"res/presets/guns/glider_gun.life",
+		"res/presets/about/about.life",
+		"res/presets/spacefillers/max.life"
+	})
+	public String preset;
+
+	/**
+	 * The world drawn.
+	 */
+	protected World world;
+
+	/**
+	 * The graphics of the offscreen image.
+	 */
+	protected Graphics2D graphics;
+
+	/**
+	 * The rendering context drawing into the image.
+	 */
+	protected RenderingContext context;
+
+
+	/**
+	 * Decodes the preset, publishes its snapshot and
+	 * creates the offscreen image.
+	 */
+	@Setup(Level.Trial)
+	public void load() {
+
+		world = new World();
+		Decoder.decode(Resource.getRes(preset), world);
+		world.publish();
+
+		graphics = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+		graphics.setClip(0, 0, WIDTH, HEIGHT);
+		graphics.translate(WIDTH / 2, HEIGHT / 2);
+
+		context = new RenderingContext();
+		context.setGraphics(graphics);
+	}
+
+	/**
+	 * Releases the graphics of the image.
+	 */
+	@TearDown(Level.Trial)
+	public void dispose() {
+		graphics.dispose();
+	}
+
+
+	/**
+	 * Draws the world.
+	 */
+	@Benchmark
+	public void renderWorld() {
+		world.render(context);
+	}
+
+	/**
+	 * Draws the published snapshot of the world.
+	 */
+	@Benchmark
+	public void renderSnapshot() {
+		world.getSnapshot().render(context);
+	}
+
+	/**
+	 * Publishes a new snapshot of the world and draws it.
+	 */
+	@Benchmark
+	public void publishAndRender() {
+		world.publish();
+		world.getSnapshot().render(context);
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automaton.decoder.Decoder;
+import automaton.grid.World;
+import automaton.io.Resource;
+
+/**
+ * <p>
+ * Measures the time taken by the world to compute a number
+ * of generations, on each bundled preset.
+ * </p>
+ *
+ * <p>
+ * The preset is decoded once per trial, then copied before
+ * each invocation, so every invocation starts from the
+ * first generation and the decoding is not measured.
+ * </p>
+ *
+ * @see World#update()
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorldBenchmark {
+
+	/**
+	 * The path of the preset computed.
+	 */
+	@Param({
+		"res/presets/about/about.life",
+		"res/presets/guns/glider_gun.life",
+		"res/presets/logic/not0.life",
+		"res/presets/logic/not1.life",
+		"res/presets/methuselahs/acorn.life",
+		"res/presets/methuselahs/bunnies.life",
+		"res/presets/methuselahs/die_hard.life",
+		"res/presets/methuselahs/r-pentomino.life",
+		"res/presets/oscillators/beacon.life",
+		"res/presets/oscillators/blinker.life",
+		"res/presets/oscillators/penta_decathlon.life",
+		"res/presets/oscillators/pulsar.life",
+		"res/presets/oscillators/toad.life",
+		"res/presets/puffers/puffer_1.life",
+		"res/presets/spacefillers/max.life",
+		"res/presets/spaceships/60P5H2V0.life",
+		"res/presets/spaceships/canada_goose.life",
+		"res/presets/spaceships/glider.life",
+		"res/presets/spaceships/hwss.life",
+		"res/presets/spaceships/lwss.life",
+		"res/presets/spaceships/mwss.life",
+		"res/presets/still_lifes/bee_hive.life",
+		"res/presets/still_lifes/block.life",
+		"res/presets/still_lifes/boat.life",
+		"res/presets/still_lifes/cthulhu.life",
+		"res/presets/still_lifes/loaf.life",
+		"res/presets/still_lifes/tub.life"
+	})
+	public String preset;
+
+	/**
+	 * The number of generations computed by each invocation.
+	 */
+	@Param({"10", "100", "1000"})
+	public int generations;
+
+	/**
+	 * The world decoded from the preset.
+	 */
+	protected World template;
+
+	/**
+	 * The world computed by the next invocation.
+	 */
+	protected World world;
+
+
+	/**
+	 * Decodes the preset.
+	 */
+	@Setup(Level.Trial)
+	public void load() {
+		template = new World();
+		Decoder.decode(Resource.getRes(preset), template);
+	}
+
+	/**
+	 * Restores the first generation of the preset.
+	 */
+	@Setup(Level.Invocation)
+	public void restore() {
+		world = new World();
+		world.copy(template);
+	}
+
+
+	/**
+	 * Computes the generations of the preset.
+	 *
+	 * @return The final population, so that the computation is not eliminated.
+	 */
+	@Benchmark
+	public long update() {
+
+		for (int i = 0; i < generations; i++) {
+			world.update();
+		}
+
+		return world.getPopulation();
+	}
+
+}
@@ -45,6 +45,23 @@ public class Conf {
 
 	public static double ENGINE_TPS = 6;
 	public static final double ENGINE_FPS = 12;
+	public static int ENGINE_THREADS = 1;
+	public static String ENGINE_KERNEL = System.getProperty("automaton.kernel", "scalar");
+	public static final int ENGINE_CHUNK_SIZE = Integer.getInteger("automaton.chunk.size", 32);
+	public static int ENGINE_PAGING_IDLE = Integer.getInteger("automaton.paging.idle", 0);
+	public static int ENGINE_PAGING_BUDGET = Integer.getInteger("automaton.paging.budget", 0);
+	public static boolean ENGINE_CYCLES = Boolean.getBoolean("automaton.cycles");
+	public static boolean ENGINE_CYCLES_PAUSE = false;
+	public static final int ENGINE_CYCLES_WINDOW = Integer.getInteger("automaton.cycles.window", 1024);
+
+	public static boolean ENGINE_HASHLIFE = false;
+	public static int ENGINE_HASHLIFE_STEP = 0;
+	public static final int ENGINE_HASHLIFE_MAXIMUM_NODES = 1 << 22;
+
+	public static boolean ENGINE_OFF_HEAP = Boolean.getBoolean("automaton.offheap");
+
+	public static final boolean ENGINE_METRICS = Boolean.parseBoolean(System.getProperty("automaton.metrics", "true"));
+	public static final int ENGINE_METRICS_WINDOW = Integer.getInteger("automaton.metrics.window", 1024);
 
 
 	public static boolean CANVAS_ACTIVE_EDITING = true;
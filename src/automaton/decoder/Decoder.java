@@ -24,21 +24,22 @@
 
 package automaton.decoder;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Scanner;
 
-import automaton.grid.Cell;
-import automaton.grid.Chunk;
+import automaton.grid.Rule;
 import automaton.grid.World;
 import automaton.io.Console;
-import automaton.maths.Coordinates;
-import automaton.maths.Point;
+import automaton.maths.PackedCoordinates;
+import automaton.metrics.DecodeEvent;
+import automaton.metrics.EncodeEvent;
 
 /**
  * Decode and encode the world in life format.
@@ -48,6 +49,11 @@ import automaton.maths.Point;
  */
 public class Decoder {
 
+	/**
+	 * The start of the line giving the rule of the world.
+	 */
+	public static final String RULE_HEADER = "#rule ";
+
 	/**
 	 * Decode from a file.
 	 */
@@ -88,9 +94,14 @@ public class Decoder {
 
 	/**
 	 * Decode from a scanner.
+	 *
+	 * @see DecodeEvent
 	 */
 	public static void decode(Scanner scanner, World world) {
 
+		DecodeEvent event = new DecodeEvent();
+		event.begin();
+
 		/*
 		 * Le scanner permet de lire le contenu
 		 * du fichier du preset sélectionné.
@@ -107,6 +118,21 @@ public class Decoder {
 				/* Cette variable enregistre le contenu de la ligne suivante. */
 				String line = scanner.nextLine();
 
+				event.bytes += line.length() + 1;
+
+				/*
+				 * Les lignes commençant par un dièse ne sont pas des cellules,
+				 * par exemple "#rule B36/S23" donne la règle du monde.
+				 */
+				if (line.startsWith("#")) {
+
+					if (line.startsWith(RULE_HEADER)) {
+						world.setRule(Rule.parse(line.substring(RULE_HEADER.length())));
+					}
+
+					continue;
+				}
+
 				/*
 				 * Cette variable est un tableau qui contient la ligne
 				 * précédemment récupérée mais coupée en deux au
@@ -132,18 +158,22 @@ public class Decoder {
 				 * Finalement une nouvelle cellule est créee aux
 				 * coordonnées récupérées avant.
 				 */
-				world.active(new Coordinates(x, y));
+				world.active(PackedCoordinates.pack(x, y));
+				event.cells++;
 
 			}
 
 			/* Une fois le Scanner utilisé, il est fermé. */
 			scanner.close();
 
-		} catch (NumberFormatException e) {
+			event.commit();
+
+		} catch (IllegalArgumentException e) {
 
 			/*
 			 * Si une exception se déclenche, elle est attrapée
 			 * et un message est envoyé dans la console.
+			 * NumberFormatException en fait partie.
 			 */
 			Console.err(e, Decoder.class);
 		}
@@ -153,72 +183,52 @@ public class Decoder {
 
 	/**
 	 * Encode the world to a file.
+	 *
+	 * @see EncodeEvent
 	 */
 	public static void encode(World world, File file) {
 
+		EncodeEvent event = new EncodeEvent();
+		event.begin();
+
 		try {
 
-			/*
-			 * Cette variable contient tous les chunks existants
-			 * dans le monde.
-			 */
-			Iterator<Entry<Point, Chunk>> chunks = world.getChunks();
+			/* L'objet FileWriter permet d'écrire dans un fichier, par blocs. */
+			Writer writer = new BufferedWriter(new FileWriter(file.getAbsolutePath()));
 
-			/* L'objet FileWriter permet d'écrire dans un fichier. */
-			FileWriter writer = new FileWriter(file.getAbsolutePath());
+			/* La règle du monde est écrite avant les cellules. */
+			writer.write(RULE_HEADER + world.getRule() + "\n");
 
 			/*
-			 * Cette boucle s'exécute autant de fois
-			 * qu'il y a de chunk.
+			 * Les cellules vivantes sont écrites au fur et à mesure
+			 * de leur parcours, sans passer par une Cell ni par une
+			 * liste de toutes les cellules.
 			 */
-			while (chunks.hasNext()) {
+			try {
 
-				/*
-				 * Cette variable contient le chunk sur
-				 * lequel on travail dans ce tour de boucle.
-				 */
-				Chunk chunk = chunks.next().getValue();
-
-				/*
-				 * Cette variable contient toutes les cellules existantes
-				 * dans le chunk sur lequel on travail.
-				 */
-				Iterator<Entry<Point, Cell>> cells = chunk.getCells();
-
-				/*
-				 * Cette boucle s'exécute autant de fois qu'il y
-				 * a de cellule dans le chunk sur lequel on travail.
-				 */
-				while (cells.hasNext()) {
-
-					/*
-					 * Cette variable contient la cellule sur laquelle
-					 * on travail dans ce tour de boucle.
-					 */
-					Cell cell = cells.next().getValue();
-
-					/*
-					 * Les coordonnées de la cellule ne sont écrites
-					 * dans le fichier que si la cellule est vivante.
-					 */
-					if (cell.isAlive()) {
-
-						/*
-						 * Les coordonnées de la cellule sont écrites
-						 * dans le fichier et on rajoute un saut de
-						 * ligne avec \n.
-						 */
-						writer.write(cell.getCoordinates().toAbsolutePoint().toString() + "\n");
+				event.cells = world.forEach(world.getBounds(), (x, y) -> {
 
+					try {
+						writer.write(x + ", " + y + "\n");
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
 					}
 
-				}
+				});
 
+			} catch (UncheckedIOException e) {
+				writer.close();
+				throw e.getCause();
 			}
 
 			/* Une fois le FileWriter utilisé, il est fermé. */
 			writer.close();
 
+			if (event.shouldCommit()) {
+				event.bytes = file.length();
+				event.commit();
+			}
+
 		} catch (IOException e) {
 
 			/*
@@ -0,0 +1,449 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.decoder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * <p>
+ * A region file stores the bitboards of a square of
+ * <code>SIZE * SIZE</code> chunks.
+ * </p>
+ *
+ * <p>
+ * The file starts with a header giving its format and the
+ * size of its chunks, followed by an index of one slot
+ * number per chunk of the region, 0 if the chunk is absent.
+ * The bitboards are stored after the index, all with the same
+ * length, so a single chunk is read or overwritten in place
+ * without touching the rest of the file.
+ * </p>
+ *
+ * <p>
+ * The slot of a removed chunk is reused by the next
+ * stored chunk. The index entry of a chunk is written as
+ * soon as its slot changes, after the bitboard of a new
+ * chunk, so a file which is not closed never points to
+ * the bitboard of another chunk.
+ * </p>
+ *
+ * @see RegionStore
+ */
+public class RegionFile implements Closeable {
+
+	/**
+	 * The binary logarithm of the size of a region, in chunks.
+	 */
+	public static final int SHIFT = 5;
+
+	/**
+	 * The size of a region, in chunks.
+	 */
+	public static final int SIZE = 1 << SHIFT;
+
+	/**
+	 * The mask giving the relative coordinate of a chunk in its region.
+	 */
+	public static final int MASK = SIZE - 1;
+
+	/**
+	 * The number of chunks of a region.
+	 */
+	public static final int CHUNKS = SIZE * SIZE;
+
+	/**
+	 * The first bytes of a region file.
+	 */
+	protected static final int MAGIC = 0x4C494645;
+
+	/**
+	 * The version of the format.
+	 */
+	protected static final int VERSION = 1;
+
+	/**
+	 * The length of the header, before the index.
+	 */
+	protected static final int HEADER = 3 * Integer.BYTES;
+
+	/**
+	 * The position of the first slot, after the index.
+	 */
+	protected static final int SLOTS = HEADER + CHUNKS * Integer.BYTES;
+
+
+	/**
+	 * The channel of the file.
+	 */
+	protected FileChannel channel;
+
+	/**
+	 * The size of the stored chunks, in cells.
+	 */
+	protected int chunkSize;
+
+	/**
+	 * The number of words of a stored bitboard.
+	 */
+	protected int words;
+
+	/**
+	 * The slot number of each chunk, 0 if the chunk is absent.
+	 */
+	protected int[] index = new int[CHUNKS];
+
+	/**
+	 * The slot numbers in use.
+	 */
+	protected BitSet used = new BitSet();
+
+	/**
+	 * The buffer used to read and write a bitboard.
+	 */
+	protected ByteBuffer buffer;
+
+
+	/**
+	 * <p>
+	 * Opens a region file, creating it if it does not exist.
+	 * </p>
+	 *
+	 * <p>
+	 * The chunk size of a new file is the specified one, while
+	 * an existing file keeps its own chunk size.
+	 * </p>
+	 *
+	 * @param file The region file.
+	 * @param chunkSize The size of the chunks of a new file.
+	 *
+	 * @throws IOException If the file can not be opened, or is
+	 * not a region file.
+	 */
+	public RegionFile(File file, int chunkSize) throws IOException {
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+
+			if (channel.size() == 0) {
+				create(chunkSize);
+			}
+
+			else {
+				open();
+			}
+
+		} catch (IOException e) {
+
+			channel.close();
+			throw e;
+
+		}
+
+		words = this.chunkSize * this.chunkSize / Long.SIZE;
+		buffer = ByteBuffer.allocate(words * Long.BYTES);
+
+	}
+
+
+	/**
+	 * Writes the header and the empty index of a new file.
+	 *
+	 * @param chunkSize The size of the chunks.
+	 *
+	 * @throws IOException If the file can not be written.
+	 */
+	protected void create(int chunkSize) throws IOException {
+
+		this.chunkSize = chunkSize;
+
+		ByteBuffer header = ByteBuffer.allocate(SLOTS);
+
+		header.putInt(MAGIC).putInt(VERSION).putInt(chunkSize);
+		header.rewind();
+
+		writeFully(header, 0);
+
+	}
+
+	/**
+	 * Reads the header and the index of an existing file.
+	 *
+	 * @throws IOException If the file is not a region file.
+	 */
+	protected void open() throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(SLOTS);
+
+		readFully(header, 0);
+		header.flip();
+
+		if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+			throw new IOException("Not a region file");
+		}
+
+		chunkSize = header.getInt();
+
+		if (chunkSize <= 0 || chunkSize * chunkSize % Long.SIZE != 0) {
+			throw new IOException("Invalid chunk size " + chunkSize);
+		}
+
+		for (int i = 0; i < CHUNKS; i++) {
+
+			index[i] = header.getInt();
+
+			if (index[i] < 0) {
+				throw new IOException("Invalid slot " + index[i]);
+			}
+
+			if (index[i] > 0) {
+				used.set(index[i]);
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Returns the size of the stored chunks, in cells.
+	 *
+	 * @return The chunk size.
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Indicates if a chunk is stored.
+	 *
+	 * @param chunk The index of the chunk in the region.
+	 *
+	 * @return true if the chunk is stored; false otherwise.
+	 *
+	 * @see #indexOf(int, int)
+	 */
+	public boolean contains(int chunk) {
+		return index[chunk] != 0;
+	}
+
+	/**
+	 * Indicates if the region stores no chunk.
+	 *
+	 * @return true if the region is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return used.isEmpty();
+	}
+
+
+	/**
+	 * Reads the bitboard of a stored chunk.
+	 *
+	 * @param chunk The index of the chunk in the region.
+	 * @param board The bitboard receiving the cells.
+	 *
+	 * @return true if the chunk is stored; false otherwise.
+	 *
+	 * @throws IOException If the file can not be read.
+	 */
+	public boolean read(int chunk, long[] board) throws IOException {
+
+		if (index[chunk] == 0) {
+			return false;
+		}
+
+		buffer.clear();
+		readFully(buffer, positionOf(index[chunk]));
+		buffer.flip();
+
+		buffer.asLongBuffer().get(board, 0, words);
+
+		return true;
+	}
+
+	/**
+	 * Stores the bitboard of a chunk, in place of the
+	 * previous one if the chunk is already stored.
+	 *
+	 * @param chunk The index of the chunk in the region.
+	 * @param board The bitboard giving the cells.
+	 *
+	 * @throws IOException If the file can not be written.
+	 */
+	public void write(int chunk, long[] board) throws IOException {
+
+		buffer.clear();
+		buffer.asLongBuffer().put(board, 0, words);
+
+		if (index[chunk] != 0) {
+			writeFully(buffer, positionOf(index[chunk]));
+			return;
+		}
+
+		/* The bitboard is written before the index points to it. */
+		int slot = used.nextClearBit(1);
+
+		writeFully(buffer, positionOf(slot));
+
+		used.set(slot);
+		setSlot(chunk, slot);
+
+	}
+
+	/**
+	 * Removes a stored chunk, freeing its slot.
+	 *
+	 * @param chunk The index of the chunk in the region.
+	 *
+	 * @throws IOException If the file can not be written.
+	 */
+	public void remove(int chunk) throws IOException {
+
+		if (index[chunk] == 0) {
+			return;
+		}
+
+		/* The slot is only reused once the index no longer points to it. */
+		int slot = index[chunk];
+
+		setSlot(chunk, 0);
+		used.clear(slot);
+
+	}
+
+
+	/**
+	 * Closes the file, dropping the slots left free at the
+	 * end of the file.
+	 *
+	 * @throws IOException If the file can not be closed.
+	 */
+	public void close() throws IOException {
+
+		try {
+			channel.truncate(positionOf(used.length()));
+		}
+
+		finally {
+			channel.close();
+		}
+
+	}
+
+
+	/**
+	 * Changes the slot of a chunk in the index, and writes
+	 * the entry in the file.
+	 *
+	 * @param chunk The index of the chunk in the region.
+	 * @param slot The slot number, 0 if the chunk is absent.
+	 *
+	 * @throws IOException If the file can not be written.
+	 */
+	protected void setSlot(int chunk, int slot) throws IOException {
+
+		ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES);
+
+		entry.putInt(slot);
+		entry.flip();
+
+		writeFully(entry, HEADER + (long) chunk * Integer.BYTES);
+
+		index[chunk] = slot;
+
+	}
+
+	/**
+	 * Returns the position of a slot in the file.
+	 *
+	 * @param slot The slot number, starting at 1.
+	 *
+	 * @return The position of the slot.
+	 */
+	protected long positionOf(int slot) {
+		return SLOTS + (long) Math.max(slot - 1, 0) * words * Long.BYTES;
+	}
+
+	/**
+	 * Reads bytes until the buffer is full.
+	 *
+	 * @param buffer The buffer to fill.
+	 * @param position The position of the first byte.
+	 *
+	 * @throws IOException If the file is too short.
+	 */
+	protected void readFully(ByteBuffer buffer, long position) throws IOException {
+
+		while (buffer.hasRemaining()) {
+
+			int read = channel.read(buffer, position);
+
+			if (read < 0) {
+				throw new IOException("Truncated region file");
+			}
+
+			position += read;
+
+		}
+
+	}
+
+	/**
+	 * Writes all remaining bytes of a buffer.
+	 *
+	 * @param buffer The buffer to write.
+	 * @param position The position of the first byte.
+	 *
+	 * @throws IOException If the file can not be written.
+	 */
+	protected void writeFully(ByteBuffer buffer, long position) throws IOException {
+
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+
+	}
+
+
+	/**
+	 * Returns the index of a chunk in its region.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The index of the chunk.
+	 */
+	public static int indexOf(int x, int y) {
+		return ((y & MASK) << SHIFT) | (x & MASK);
+	}
+
+}
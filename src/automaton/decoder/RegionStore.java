@@ -0,0 +1,543 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.decoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import automaton.grid.Chunk;
+import automaton.grid.ChunkTable;
+import automaton.grid.Rule;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
+
+/**
+ * <p>
+ * A region store saves a world in a directory, as one
+ * region file per square of chunks and a life file
+ * giving the rule.
+ * </p>
+ *
+ * <p>
+ * The store marks the world at each save or load, so
+ * saving it again only writes the chunks which changed
+ * since, and leaves the other regions untouched. Only
+ * the coordinates of the stored chunks are kept, to
+ * remove the ones which are gone. The first save of a
+ * store rewrites the whole directory.
+ * </p>
+ *
+ * @see RegionFile
+ * @see Decoder
+ */
+public class RegionStore {
+
+	/**
+	 * The name of the life file giving the rule of the world.
+	 */
+	public static final String WORLD_FILE = "world.life";
+
+	/**
+	 * The pattern of the name of a region file.
+	 */
+	protected static final Pattern REGION_NAME = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.region");
+
+
+	/**
+	 * The directory of the store.
+	 */
+	protected File directory;
+
+	/**
+	 * The packed chunk format coordinates of the chunks stored
+	 * in the directory, sorted.
+	 */
+	protected long[] keys = new long[0];
+
+	/**
+	 * The world saved or loaded last.
+	 */
+	protected World world;
+
+	/**
+	 * The mark of the world at the last save or load.
+	 *
+	 * @see World#mark()
+	 */
+	protected long mark = 0;
+
+	/**
+	 * The rule stored in the directory.
+	 */
+	protected Rule rule;
+
+	/**
+	 * Indicates if the coordinates describe the content of the directory.
+	 */
+	protected boolean known = false;
+
+
+	/**
+	 * Creates a store in a directory.
+	 *
+	 * @param directory The directory of the store.
+	 */
+	public RegionStore(File directory) {
+		this.directory = directory;
+	}
+
+
+	/**
+	 * Saves the living cells and the rule of a world,
+	 * writing only the chunks changed since the last save
+	 * or load.
+	 *
+	 * @param world The world to save.
+	 *
+	 * @return The number of region files written.
+	 *
+	 * @throws IOException If the directory can not be written.
+	 */
+	public int save(World world) throws IOException {
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Can not create the directory " + directory);
+		}
+
+		if (!known) {
+
+			for (File file : listRegionFiles()) {
+				delete(file);
+			}
+
+			keys = new long[0];
+			this.world = null;
+			rule = null;
+			known = true;
+
+		}
+
+		if (!world.getRule().equals(rule)) {
+			Files.write(new File(directory, WORLD_FILE).toPath(), (Decoder.RULE_HEADER + world.getRule() + "\n").getBytes(StandardCharsets.UTF_8));
+			rule = world.getRule();
+		}
+
+		Map<Long, List<Change>> regions = new HashMap<>();
+		List<Long> written = new ArrayList<>();
+		List<Long> removed = new ArrayList<>();
+
+		/* All chunks are visited the first time a world is saved. */
+		long since = world == this.world ? mark : 0;
+
+		world.forEachChangedChunk(since, (x, y, board) -> {
+
+			long key = ChunkTable.key(x, y);
+
+			if (!isEmpty(board)) {
+				addChange(regions, key, board.clone());
+				written.add(key);
+			}
+
+			else if (Arrays.binarySearch(keys, key) >= 0) {
+				addChange(regions, key, null);
+				removed.add(key);
+			}
+
+		});
+
+		/* The chunks emptied then removed are not visited. */
+		for (long key : keys) {
+
+			if (!world.containsChunk(PackedCoordinates.getX(key), PackedCoordinates.getY(key))) {
+				addChange(regions, key, null);
+				removed.add(key);
+			}
+
+		}
+
+		try {
+
+			for (Entry<Long, List<Change>> region : regions.entrySet()) {
+				write(region.getKey(), region.getValue());
+			}
+
+		} catch (IOException e) {
+
+			/* The content of the directory is unknown, the next save rewrites it. */
+			known = false;
+			throw e;
+
+		}
+
+		keys = update(keys, written, removed);
+
+		this.world = world;
+		mark = world.mark();
+
+		return regions.size();
+	}
+
+	/**
+	 * Applies the changes of a region to its file, deleting
+	 * the file if the region becomes empty.
+	 *
+	 * @param region The packed coordinates of the region.
+	 * @param changes The changed chunks of the region.
+	 *
+	 * @throws IOException If the file can not be written.
+	 */
+	protected void write(long region, List<Change> changes) throws IOException {
+
+		File file = getRegionFile(PackedCoordinates.getX(region), PackedCoordinates.getY(region));
+		boolean empty;
+
+		try (RegionFile regionFile = new RegionFile(file, Chunk.SIZE)) {
+
+			if (regionFile.getChunkSize() != Chunk.SIZE) {
+				throw new IOException("Unexpected chunk size in " + file);
+			}
+
+			for (Change change : changes) {
+
+				if (change.board == null) {
+					regionFile.remove(change.chunk);
+				}
+
+				else {
+					regionFile.write(change.chunk, change.board);
+				}
+
+			}
+
+			empty = regionFile.isEmpty();
+
+		}
+
+		if (empty) {
+			delete(file);
+		}
+
+	}
+
+
+	/**
+	 * <p>
+	 * Loads the living cells and the rule stored in the
+	 * directory into a world.
+	 * </p>
+	 *
+	 * <p>
+	 * Regions saved with another chunk size are loaded
+	 * cell by cell, and are rewritten by the next save.
+	 * The cells of the world before the load are only
+	 * saved once they change, so the world should be
+	 * cleared first.
+	 * </p>
+	 *
+	 * @param world The world receiving the cells.
+	 *
+	 * @throws IOException If a region file can not be read.
+	 */
+	public void load(World world) throws IOException {
+
+		File worldFile = new File(directory, WORLD_FILE);
+
+		List<Long> loaded = new ArrayList<>();
+
+		rule = null;
+		known = true;
+
+		if (worldFile.isFile()) {
+			Decoder.decode(worldFile, world);
+			rule = world.getRule();
+		}
+
+		for (File file : listRegionFiles()) {
+
+			Matcher matcher = REGION_NAME.matcher(file.getName());
+
+			matcher.matches();
+
+			int regionX = Integer.parseInt(matcher.group(1));
+			int regionY = Integer.parseInt(matcher.group(2));
+
+			try (RegionFile regionFile = new RegionFile(file, Chunk.SIZE)) {
+
+				int size = regionFile.getChunkSize();
+				long[] board = new long[size * size / Long.SIZE];
+
+				for (int i = 0; i < RegionFile.CHUNKS; i++) {
+
+					if (!regionFile.read(i, board) || isEmpty(board)) {
+						continue;
+					}
+
+					int x = (regionX << RegionFile.SHIFT) | (i & RegionFile.MASK);
+					int y = (regionY << RegionFile.SHIFT) | (i >>> RegionFile.SHIFT);
+
+					if (size == Chunk.SIZE) {
+
+						world.getChunkAt(new Coordinates(x << Chunk.SHIFT, y << Chunk.SHIFT), true).writeState(board);
+						loaded.add(ChunkTable.key(x, y));
+
+					}
+
+					else {
+
+						load(world, board, size, x, y);
+						known = false;
+
+					}
+
+				}
+
+			}
+
+		}
+
+		keys = sort(loaded);
+
+		this.world = world;
+		mark = world.mark();
+
+	}
+
+	/**
+	 * Activates one by one the living cells of a bitboard
+	 * with another chunk size.
+	 *
+	 * @param world The world receiving the cells.
+	 * @param board The bitboard giving the cells.
+	 * @param size The chunk size of the bitboard.
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 */
+	protected void load(World world, long[] board, int size, int x, int y) {
+
+		int shift = Integer.numberOfTrailingZeros(size);
+
+		for (int word = 0; word < board.length; word++) {
+
+			for (long bits = board[word]; bits != 0; bits &= bits - 1) {
+
+				int index = (word << 6) | Long.numberOfTrailingZeros(bits);
+
+				world.active(PackedCoordinates.pack((x << shift) + (index & (size - 1)), (y << shift) + (index >>> shift)));
+
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Returns the directory of the store.
+	 *
+	 * @return The directory.
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns the file of a region.
+	 *
+	 * @param x The abscissa of the region.
+	 * @param y The ordinate of the region.
+	 *
+	 * @return The region file.
+	 */
+	public File getRegionFile(int x, int y) {
+		return new File(directory, "r." + x + "." + y + ".region");
+	}
+
+	/**
+	 * Returns the region files of the directory.
+	 *
+	 * @return The region files.
+	 */
+	protected List<File> listRegionFiles() {
+
+		List<File> files = new ArrayList<>();
+		File[] content = directory.listFiles();
+
+		if (content != null) {
+
+			for (File file : content) {
+
+				if (file.isFile() && REGION_NAME.matcher(file.getName()).matches()) {
+					files.add(file);
+				}
+
+			}
+
+		}
+
+		return files;
+	}
+
+
+	/**
+	 * Records a changed chunk in the changes of its region.
+	 *
+	 * @param regions The changes by packed region coordinates.
+	 * @param key The packed chunk format coordinates.
+	 * @param board The new bitboard, or null if the chunk is removed.
+	 */
+	protected static void addChange(Map<Long, List<Change>> regions, long key, long[] board) {
+
+		int x = PackedCoordinates.getX(key);
+		int y = PackedCoordinates.getY(key);
+
+		long region = ChunkTable.key(x >> RegionFile.SHIFT, y >> RegionFile.SHIFT);
+
+		regions.computeIfAbsent(region, r -> new ArrayList<>()).add(new Change(RegionFile.indexOf(x, y), board));
+
+	}
+
+	/**
+	 * Returns the coordinates of the stored chunks after
+	 * the changes of a save.
+	 *
+	 * @param keys The coordinates stored before, sorted.
+	 * @param written The coordinates of the chunks written.
+	 * @param removed The coordinates of the chunks removed.
+	 *
+	 * @return The coordinates stored after, sorted.
+	 */
+	protected static long[] update(long[] keys, List<Long> written, List<Long> removed) {
+
+		long[] sortedWritten = sort(written);
+		long[] sortedRemoved = sort(removed);
+
+		long[] updated = Arrays.copyOf(sortedWritten, keys.length + sortedWritten.length);
+		int size = sortedWritten.length;
+
+		for (long key : keys) {
+
+			if (Arrays.binarySearch(sortedWritten, key) < 0 && Arrays.binarySearch(sortedRemoved, key) < 0) {
+				updated[size++] = key;
+			}
+
+		}
+
+		updated = Arrays.copyOf(updated, size);
+		Arrays.sort(updated);
+
+		return updated;
+	}
+
+	/**
+	 * Returns sorted packed coordinates.
+	 *
+	 * @param keys The packed coordinates.
+	 *
+	 * @return The sorted packed coordinates.
+	 */
+	protected static long[] sort(List<Long> keys) {
+
+		long[] sorted = new long[keys.size()];
+
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = keys.get(i);
+		}
+
+		Arrays.sort(sorted);
+
+		return sorted;
+	}
+
+	/**
+	 * Deletes a file.
+	 *
+	 * @param file The file to delete.
+	 *
+	 * @throws IOException If the file can not be deleted.
+	 */
+	protected static void delete(File file) throws IOException {
+
+		if (!file.delete()) {
+			throw new IOException("Can not delete " + file);
+		}
+
+	}
+
+	/**
+	 * Indicates if a bitboard has no living cell.
+	 *
+	 * @param board The bitboard.
+	 *
+	 * @return true if the bitboard is empty; false otherwise.
+	 */
+	protected static boolean isEmpty(long[] board) {
+
+		for (long word : board) {
+
+			if (word != 0) {
+				return false;
+			}
+
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * A chunk to store or remove in a region file.
+	 */
+	protected static class Change {
+
+		/**
+		 * The index of the chunk in its region.
+		 */
+		protected int chunk;
+
+		/**
+		 * The new bitboard, or null if the chunk is removed.
+		 */
+		protected long[] board;
+
+
+		protected Change(int chunk, long[] board) {
+			this.chunk = chunk;
+			this.board = board;
+		}
+
+	}
+
+}
@@ -25,6 +25,7 @@
 package automaton.grid;
 
 import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
 
 /**
  * <p>
@@ -33,6 +34,11 @@ import automaton.maths.Coordinates;
  * <p>
  * 
  * <p>
+ * A cell does not hold its state: it is a view on
+ * the bitboard of the chunk containing it.
+ * </p>
+ * 
+ * <p>
  * In the grid system, a world contains chunks, a chunk
  * contains cells.
  * </p>
@@ -71,17 +77,6 @@ public class Cell {
 	protected Coordinates coordinates;
 
 
-	/**
-	 * The current state of the cell.
-	 */
-	protected int state = NOTHING;
-
-	/**
-	 * The current next planned sate of the cell.
-	 */
-	protected int nextState = NOTHING;
-
-
 	/**
 	 * <p>
 	 * The cell class represent the smallest unity
@@ -106,29 +101,12 @@ public class Cell {
 
 
 	/**
-	 * Updates the next state of the cell.
+	 * Updates the next state of the cell, according to
+	 * the rule of the world.
 	 */
 	public void update() {
 
-		/* If the cell is alive and isolated, it disappears. */
-		if (isAlive() && isIsolated())
-			nextState = NOTHING;
-
-		/* If the cell is alive and overpopulated, it disappears. */
-		else if (isAlive() && isOverpopulated())
-			nextState = NOTHING;
-
-		/* If the cell possesses 3 alive neighbors, it becomes alive. */
-		else if (getNumberOfNeighbors() == 3)
-			nextState = ALIVE;
-
-		/* If the cell possesses 2 alive neighbors, it keeps its current state. */
-		else if (getNumberOfNeighbors() == 2)
-			nextState = state;
-
-		/* If the cell is not alive and is alone, it dies. */
-		else if (!isAlive() && getNumberOfNeighbors() == 0)
-			nextState = DEAD;
+		chunk.setNextStateAt(coordinates, chunk.world.getRule().next(isAlive(), getNumberOfNeighbors()));
 
 	}
 
@@ -137,31 +115,35 @@ public class Cell {
 	 * Makes the cell alive.
 	 */
 	public void appear() {
+		chunk.active(coordinates, true);
+	}
 
-		state = ALIVE;
-
-		Coordinates[] influence = getInfluenceArea();
-
-		for (int i = 0; i < influence.length; i++) {
 
-			if (chunk.hasCellAt(influence[i]) && chunk.getCellAt(influence[i]).nextState != DEAD) {
-				continue;
-			}
+	/**
+	 * Returns the current state of the cell.
+	 * 
+	 * @return The current state of the cell.
+	 */
+	public int getState() {
 
-			chunk.active(influence[i]);
+		if (isAlive()) {
+			return ALIVE;
+		}
 
+		if (isDead()) {
+			return DEAD;
 		}
 
+		return NOTHING;
 	}
 
-
 	/**
 	 * Indicates if the cell is alive.
 	 * 
 	 * @return true if the cell is alive; false otherwise.
 	 */
 	public boolean isAlive() {
-		return state == ALIVE;
+		return chunk.isAliveAt(coordinates);
 	}
 
 	/**
@@ -172,7 +154,7 @@ public class Cell {
 	 * @return true if the cell is dead; false otherwise.
 	 */
 	public boolean isDead() {
-		return state == DEAD;
+		return !isAlive() && getNumberOfNeighbors() == 0;
 	}
 
 
@@ -205,23 +187,17 @@ public class Cell {
 	 */
 	public int getNumberOfNeighbors() {
 
-		Coordinates[] influence = getInfluenceArea();
-		Cell cell;
-
+		long cell = coordinates.toPacked();
 		int number = 0;
 
-		for (int i = 0; i < influence.length; i++) {
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
 
-			cell = chunk.getCellAt(influence[i]);
+				if ((dx != 0 || dy != 0) && chunk.isAliveAt(PackedCoordinates.add(cell, dx, dy))) {
+					number++;
+				}
 
-			if (cell == null) {
-				continue;
 			}
-
-			if (cell.isAlive()) {
-				number++;
-			}
-
 		}
 
 		return number;
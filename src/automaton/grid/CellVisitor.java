@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.grid;
+
+/**
+ * <p>
+ * A cell visitor receives the living cells found by a
+ * rectangle query, one call per cell.
+ * </p>
+ *
+ * <p>
+ * The cells are given by their absolute coordinates, so
+ * that a query never creates a cell for its results.
+ * </p>
+ *
+ * @see World#forEach(java.awt.Rectangle, CellVisitor)
+ * @see Snapshot#forEach(java.awt.Rectangle, CellVisitor)
+ */
+public interface CellVisitor {
+
+	/**
+	 * Visits a living cell.
+	 *
+	 * @param x The absolute abscissa of the cell.
+	 * @param y The absolute ordinate of the cell.
+	 */
+	void visit(int x, int y);
+
+}
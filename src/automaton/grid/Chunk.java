@@ -24,20 +24,32 @@
 
 package automaton.grid;
 
+import java.awt.Rectangle;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.NoSuchElementException;
 
 import automaton.config.Conf;
+import automaton.io.Console;
 import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
 import automaton.maths.Point;
 import automaton.render.RenderingContext;
 
 /**
  * <p>
  * The chunk class represents a fragment of the grid
- * containing some cells. A chunk is a square of 16x16 cells.
+ * containing some cells. A chunk is a square of cells whose
+ * size is a power of two, 32x32 cells by default.
+ * </p>
+ * 
+ * <p>
+ * The cells are stored as a bitboard, one bit per cell,
+ * row after row. With 32x32 cells, the whole chunk fits in
+ * sixteen longs, each of them holding two rows. From 64x64
+ * cells, each row is stored in one or more longs.
  * </p>
  * 
  * <p>
@@ -51,13 +63,223 @@ import automaton.render.RenderingContext;
  */
 public class Chunk {
 
-	public static final int SIZE = 16;
+	/**
+	 * The number of cells on each side of a chunk.
+	 *
+	 * @see Conf#ENGINE_CHUNK_SIZE
+	 */
+	public static final int SIZE = size(Conf.ENGINE_CHUNK_SIZE);
+
+	/**
+	 * The shift converting a number of chunks into a number of cells.
+	 */
+	public static final int SHIFT = Integer.numberOfTrailingZeros(SIZE);
+
+	/**
+	 * The mask giving the position of a cell inside its chunk.
+	 */
+	public static final int MASK = SIZE - 1;
+
+	/**
+	 * The smallest and largest supported sizes.
+	 */
+	public static final int MINIMUM_SIZE = 16, MAXIMUM_SIZE = 128;
+
+	/**
+	 * The size used if the configured one is not supported,
+	 * the fastest one on the presets, see {@code Benchmark}.
+	 */
+	public static final int DEFAULT_SIZE = 32;
+
+
+	/**
+	 * The number of longs needed to store the state of every cell.
+	 */
+	protected static final int WORDS = SIZE * SIZE / Long.SIZE;
+
+	/**
+	 * The number of cells of a row stored in a single long.
+	 */
+	protected static final int WIDTH = Math.min(SIZE, Long.SIZE);
+
+	/**
+	 * The number of longs storing each row.
+	 */
+	protected static final int ROW_WORDS = SIZE / WIDTH;
+
+	/**
+	 * The bits of the first column of each row stored in a long.
+	 */
+	protected static final long FIRST_COLUMN = firstColumn();
+
+	/**
+	 * The bits of the last column of each row stored in a long.
+	 */
+	protected static final long LAST_COLUMN = FIRST_COLUMN << (WIDTH - 1);
+
+	/**
+	 * The bits of the first row stored in a long.
+	 */
+	protected static final long FIRST_ROW = -1L >>> (Long.SIZE - WIDTH);
+
+	/**
+	 * The bits of the last row stored in a long.
+	 */
+	protected static final long LAST_ROW = FIRST_ROW << (Long.SIZE - WIDTH);
+
+	/**
+	 * An empty bitboard, used in place of a missing neighbor.
+	 */
+	protected static final long[] EMPTY = new long[WORDS];
+
+	/**
+	 * The key of each cell relative to the origin of its chunk.
+	 *
+	 * @see CycleDetector#key(long, long)
+	 */
+	protected static final long[] KEYS = keys();
+
+
+	/**
+	 * The bitboard of the living cells, one bit per cell.
+	 */
+	protected long[] state = new long[WORDS];
+
+	/**
+	 * The bitboard of the living cells for the next generation.
+	 * Between two generations, it holds the living cells of
+	 * two generations ago.
+	 */
+	protected long[] nextState = new long[WORDS];
+
+	/**
+	 * The bitboard of the living cells at the previous generation.
+	 */
+	protected long[] previousState = new long[WORDS];
+
+	/**
+	 * The bitboard of the cells registered without being alive.
+	 * They are forgotten at the next generation.
+	 */
+	protected long[] placeholders = new long[WORDS];
+
+	/**
+	 * Indicates if the cells are the same as two generations
+	 * ago, which is true for still lifes and period 2 oscillators.
+	 */
+	protected boolean stable = false;
+
+	/**
+	 * The number of generations the chunk must still be computed
+	 * whatever happens, after a change made outside of the
+	 * evolution.
+	 *
+	 * @see #wake()
+	 */
+	protected int awake = 2;
+
+	/**
+	 * Indicates if the chunk has been skipped at the last generation.
+	 */
+	protected boolean sleeping = false;
+
+	/**
+	 * The number of generations the chunk has been sleeping in a row.
+	 *
+	 * @see World#evict()
+	 */
+	protected int idle = 0;
+
+	/**
+	 * The copy of the living cells given to the last
+	 * snapshot, shared with the next ones while the
+	 * chunk does not change.
+	 *
+	 * @see Snapshot
+	 */
+	protected long[] published;
+
+	/**
+	 * The stamp of the world when the living cells last
+	 * changed, or when the chunk has been created.
+	 *
+	 * @see World#mark()
+	 */
+	protected long stamp;
+
+	/**
+	 * The missing neighbors found without births by the last
+	 * expansion, one bit per neighbor in the order of the
+	 * neighbors array.
+	 *
+	 * @see World#expand()
+	 */
+	protected int barren = 0;
+
+	/**
+	 * The stamp of the world when the missing neighbors
+	 * have last been checked for births.
+	 *
+	 * @see #barren
+	 */
+	protected long checked = 0;
+
+	/**
+	 * The number of living cells, kept up to date at each
+	 * generation and at each change of a cell.
+	 *
+	 * @see #bound()
+	 */
+	protected long population = 0;
+
+	/**
+	 * The bounds of the living cells in relative coordinates:
+	 * the minimum abscissa, the minimum ordinate, the maximum
+	 * abscissa and the maximum ordinate. The minimums are
+	 * greater than the maximums if there is no living cell.
+	 *
+	 * @see #bound()
+	 */
+	protected int[] bounds = {SIZE, SIZE, -1, -1};
+
+	/**
+	 * The sums of the relative coordinates of the living cells,
+	 * only counted while the world detects cycles.
+	 *
+	 * @see World#census()
+	 */
+	protected long sumX = 0, sumY = 0;
+
+	/**
+	 * The sum of the relative keys of the living cells.
+	 *
+	 * @see #KEYS
+	 */
+	protected long hash = 0;
+
+	/**
+	 * The key of the origin of the chunk, turning the relative
+	 * keys of its cells into their keys in the world.
+	 */
+	protected long origin;
 
+	/**
+	 * The neighboring chunks, row after row from the south
+	 * west one, with this chunk at the center. A missing
+	 * chunk is null.
+	 * 
+	 * @see World#register(Chunk)
+	 * @see World#remove(Chunk)
+	 */
+	protected Chunk[] neighbors = new Chunk[9];
 
 	/**
-	 * The map where all cells contained by this chunk are stored with their relative coordinates.
+	 * The bitboards of the chunk and its neighboring chunks,
+	 * given to the kernel computing the next state.
+	 * 
+	 * @see Kernel
 	 */
-	protected Map<Point, Cell> cells = new ConcurrentHashMap<>();
+	protected long[][] boards = new long[9][];
 
 	/**
 	 * The world containing this chunk.
@@ -69,11 +291,21 @@ public class Chunk {
 	 */
 	protected Coordinates coordinates;
 
+	/**
+	 * The abscissa of this chunk, in chunk format.
+	 */
+	protected int x;
+
+	/**
+	 * The ordinate of this chunk, in chunk format.
+	 */
+	protected int y;
+
 
 	/**
 	 * <p>
 	 * The chunk class represent a fragment of the grid
-	 * containing some cells. A chunk is a square of 16x16 cells.
+	 * containing some cells. A chunk is a square of SIZE x SIZE cells.
 	 * </p>
 	 * 
 	 * <p>
@@ -90,22 +322,71 @@ public class Chunk {
 	public Chunk(World world, Coordinates coordinates) {
 		this.world = world;
 		this.coordinates = coordinates;
+		this.x = coordinates.getChunkX();
+		this.y = coordinates.getChunkY();
+		this.neighbors[4] = this;
+		this.origin = CycleDetector.key((long) x << SHIFT, (long) y << SHIFT);
+
+		/* The marker of the removed slots of a chunk table has no world. */
+		if (world != null) {
+			this.stamp = world.stamp;
+		}
+
 	}
 
 
 	/**
+	 * <p>
 	 * Updates the next state of all contained cells.
+	 * </p>
+	 * 
+	 * <p>
+	 * The next state is computed by the kernel of the world,
+	 * from the bitboards of this chunk and its neighbors.
+	 * </p>
+	 * 
+	 * <p>
+	 * If the chunk and its neighbors are the same as two
+	 * generations ago, the chunk is sleeping: it is not
+	 * computed, as its next state is its previous state.
+	 * </p>
 	 */
 	public void updateNextState() {
 
-		Iterator<Entry<Point, Cell>> iterator = getCells();
+		sleeping = isQuiet() && areNeighborsQuiet();
+
+		if (sleeping) {
+
+			for (int i = 0; i < WORDS; i++) {
+				nextState[i] = previousState[i];
+			}
+
+			return;
+		}
+
+		computeNextState(nextState);
+
+	}
+
+	/**
+	 * Computes the next state of all contained cells
+	 * into a bitboard.
+	 * 
+	 * @param target The bitboard receiving the next state.
+	 */
+	protected void computeNextState(long[] target) {
+
+		Chunk chunk;
 
-		while (iterator.hasNext()) {
+		for (int i = 0; i < neighbors.length; i++) {
 
-			iterator.next().getValue().update();
+			chunk = neighbors[i];
+			boards[i] = chunk == null ? EMPTY : chunk.state;
 
 		}
 
+		world.getKernel().evolve(world.getRule(), boards, target);
+
 	}
 
 	/**
@@ -113,22 +394,40 @@ public class Chunk {
 	 */
 	public void updateState() {
 
-		Iterator<Entry<Point, Cell>> iterator = getCells();
+		long[] swap = previousState;
+
+		previousState = state;
+		state = nextState;
+		nextState = swap;
+
+		stable = true;
+
+		boolean changed = false;
+
+		for (int i = 0; i < WORDS; i++) {
 
-		while (iterator.hasNext()) {
+			/* The next state now holds the cells of two generations ago. */
+			stable &= state[i] == nextState[i];
+			changed |= state[i] != previousState[i];
 
-			Cell cell = iterator.next().getValue();
+			placeholders[i] = 0;
 
-			cell.state = cell.nextState;
+		}
+
+		if (changed) {
+			stamp = world.stamp;
+		}
+
+		if (awake > 0) {
+			awake--;
+		}
 
-			/* If the cell is alive, it appears. */
-			if (cell.isAlive())
-				cell.appear();
+		idle = sleeping ? idle + 1 : 0;
 
-			/* If the cell is dead, it is deleted. */
-			if (cell.isDead())
-				remove(cell);
+		bound();
 
+		if (world.counting) {
+			count(previousState, state);
 		}
 
 	}
@@ -140,24 +439,81 @@ public class Chunk {
 	 */
 	public void render(RenderingContext context) {
 
-		Iterator<Entry<Point, Cell>> iterator = getCells();
-
 		if (Conf.CANVAS_ACTIVE_CHUNK_BORDERS) {
 			context.drawChunkBorder(this);
 		}
 
-		while (iterator.hasNext()) {
+		long[] survivors = state;
+
+		if (Conf.CANVAS_ACTIVE_COLORED_CELLS) {
+
+			/* The cells which are not surviving are drawn as dying. */
+			survivors = new long[WORDS];
+			computeNextState(survivors);
+
+		}
+
+		for (int i = 0; i < WORDS; i++) {
+
+			long word = state[i];
 
-			Cell cell = iterator.next().getValue();
+			while (word != 0) {
+
+				int bit = Long.numberOfTrailingZeros(word);
+				int index = i * Long.SIZE + bit;
+
+				context.drawCell(
+					coordinates.getAbsoluteX() + (index & MASK),
+					coordinates.getAbsoluteY() + (index >>> SHIFT),
+					(survivors[i] & state[i] & (1L << bit)) == 0
+				);
+
+				word &= word - 1;
 
-			if (!cell.isAlive()) {
-				continue;
 			}
 
-			context.drawCell(cell);
+		}
+
+	}
+
+
+	/**
+	 * Returns a copy of the living cells for a snapshot,
+	 * the same as for the last snapshot if they have not
+	 * changed since.
+	 *
+	 * @return The living cells, never written afterwards.
+	 *
+	 * @see World#publish()
+	 */
+	protected long[] publish() {
+
+		if (published == null || !Arrays.equals(published, state)) {
+			published = state.clone();
+		}
+
+		return published;
+	}
+
+	/**
+	 * Returns the living cells dying at the next generation,
+	 * computed from the current state of the neighboring chunks.
+	 *
+	 * @return The dying cells, or null if no cell is dying.
+	 */
+	protected long[] getDyingCells() {
+
+		long[] dying = new long[WORDS];
+		boolean any = false;
 
+		computeNextState(dying);
+
+		for (int i = 0; i < WORDS; i++) {
+			dying[i] = state[i] & ~dying[i];
+			any |= dying[i] != 0;
 		}
 
+		return any ? dying : null;
 	}
 
 
@@ -200,21 +556,64 @@ public class Chunk {
 	 * @see #active(Coordinates)
 	 */
 	public void active(Coordinates coordinates, boolean appear) {
+		active(coordinates.toPacked(), appear);
+	}
 
-		if (!getCoordinates().isInTheSameChunkOf(coordinates)) {
+	/**
+	 * Creates a new cell on the chunk from its packed
+	 * coordinates, alive if the appear argument is true.
+	 *
+	 * @param cell The packed coordinates of the cell.
+	 * @param appear Make the cell alive if it is true.
+	 *
+	 * @see PackedCoordinates
+	 */
+	public void active(long cell, boolean appear) {
+
+		Chunk chunk = getChunkOf(cell);
 
-			world.getChunkAt(coordinates, true).active(coordinates, appear);
+		if (chunk != this) {
+
+			if (chunk == null) {
+				chunk = world.getChunkAt(PackedCoordinates.toCoordinates(cell), true);
+			}
+
+			chunk.active(cell, appear);
 			return;
 
 		}
 
-		Cell cell = new Cell(this, coordinates);
+		int index = indexOf(cell);
+		boolean changed = get(state, index) != appear;
+
+		if (world.counting && changed) {
+			count(index, appear ? 1 : -1);
+		}
+
+		wake();
 
 		if (appear) {
-			cell.appear();
+			set(state, index);
+			clear(placeholders, index);
+		}
+
+		else {
+			clear(state, index);
+			set(placeholders, index);
+		}
+
+		if (changed) {
+			stamp = world.stamp;
+		}
+
+		if (changed && appear) {
+			born(index);
+		}
+
+		else if (changed) {
+			died(index);
 		}
 
-		cells.put(coordinates.toRelativePoint(), cell);
 	}
 
 
@@ -224,7 +623,24 @@ public class Chunk {
 	 * @param cell The cell to remove.
 	 */
 	public void remove(Cell cell) {
-		cells.remove(cell.getCoordinates().toRelativePoint());
+
+		int index = indexOf(cell.getCoordinates());
+		boolean changed = get(state, index);
+
+		if (world.counting && changed) {
+			count(index, -1);
+		}
+
+		wake();
+
+		clear(state, index);
+		clear(placeholders, index);
+
+		if (changed) {
+			stamp = world.stamp;
+			died(index);
+		}
+
 	}
 
 
@@ -237,27 +653,15 @@ public class Chunk {
 	 */
 	public boolean hasCellAt(Coordinates coordinates) {
 
-		if (!world.hasChunkAt(coordinates)) {
-			return false;
-		}
+		Chunk chunk = getChunkOf(coordinates);
 
-		if (!getCoordinates().isInTheSameChunkOf(coordinates)) {
-			return world.getChunkAt(coordinates).hasCellAt(coordinates);
+		if (chunk != this) {
+			return chunk != null && chunk.hasCellAt(coordinates);
 		}
 
-		return cells.containsKey(coordinates.toRelativePoint());
-
-
-		/*if (!getCoordinates().isInTheSameChunkOf(coordinates)) {
-
-			if (!world.hasChunkAt(coordinates)) {
-				return false;
-			}
-
-			return world.getChunkAt(coordinates).hasCellAt(coordinates);
-		}
+		int index = indexOf(coordinates);
 
-		return cells.containsKey(coordinates.toRelativePoint());/**/
+		return get(state, index) || get(placeholders, index);
 	}
 
 
@@ -273,48 +677,981 @@ public class Chunk {
 	 */
 	public Cell getCellAt(Coordinates coordinates) {
 
-		if (!hasCellAt(coordinates)) {
+		Chunk chunk = getChunkOf(coordinates);
+
+		if (chunk == null || !chunk.hasCellAt(coordinates)) {
 			return null;
 		}
 
-		if (!getCoordinates().isInTheSameChunkOf(coordinates)) {
-			return world.getChunkAt(coordinates).getCellAt(coordinates);
-		}
+		return new Cell(chunk, coordinates);
+	}
+
 
-		return cells.get(coordinates.toRelativePoint());
+	/**
+	 * Indicates if the cell at the specified location is alive.
+	 * 
+	 * @param coordinates The cell coordinates.
+	 * 
+	 * @return true if the cell is alive; false otherwise.
+	 */
+	protected boolean isAliveAt(Coordinates coordinates) {
+		return isAliveAt(coordinates.toPacked());
 	}
 
+	/**
+	 * Indicates if the cell at the specified packed location
+	 * is alive.
+	 *
+	 * @param cell The packed coordinates of the cell.
+	 *
+	 * @return true if the cell is alive; false otherwise.
+	 */
+	protected boolean isAliveAt(long cell) {
+
+		Chunk chunk = getChunkOf(cell);
+
+		if (chunk != this) {
+			return chunk != null && chunk.isAliveAt(cell);
+		}
+
+		return get(state, indexOf(cell));
+	}
 
 	/**
-	 * Indicates if the chunk contains cells or not.
+	 * Plans the next state of the cell at the specified location.
 	 * 
-	 * @return true if the chunk is empty; false otherwise.
+	 * @param coordinates The cell coordinates.
+	 * @param alive The next state of the cell.
 	 */
-	public boolean isEmpty() {
-		return cells.isEmpty();
+	protected void setNextStateAt(Coordinates coordinates, boolean alive) {
+
+		if (alive) {
+			set(nextState, indexOf(coordinates));
+		}
+
+		else {
+			clear(nextState, indexOf(coordinates));
+		}
+
 	}
 
 
 	/**
-	 * Returns an iterator of all contained cells coupled with
-	 * their relative coordinates.
+	 * <p>
+	 * Indicates if the border of the chunk in the specified
+	 * direction contains living cells.
+	 * </p>
 	 * 
-	 * @return An iterator of all contained cells.
+	 * <p>
+	 * If so, the chunk in this direction may see cells
+	 * born at the next generation.
+	 * </p>
 	 * 
-	 * @see Cell
-	 * @see Point
+	 * @param dx The horizontal direction, between -1 and 1.
+	 * @param dy The vertical direction, between -1 and 1.
+	 * 
+	 * @return true if the border contains living cells; false otherwise.
 	 */
-	public Iterator<Entry<Point, Cell>> getCells() {
-		return cells.entrySet().iterator();
+	protected boolean hasLivingBorder(int dx, int dy) {
+		return hasLivingBorder(state, dx, dy);
 	}
 
 	/**
-	 * Returns the coordinates of the chunk.
+	 * Indicates if the border of a bitboard in the specified
+	 * direction contains living cells.
 	 * 
-	 * @return The coordinates of the chunk.
+	 * @param board The bitboard.
+	 * @param dx The horizontal direction, between -1 and 1.
+	 * @param dy The vertical direction, between -1 and 1.
+	 * 
+	 * @return true if the border contains living cells; false otherwise.
+	 * 
+	 * @see #hasLivingBorder(int, int)
 	 */
-	public Coordinates getCoordinates() {
-		return coordinates;
+	protected static boolean hasLivingBorder(long[] board, int dx, int dy) {
+
+		int from = 0;
+		int to = WORDS;
+		long rows = -1L;
+
+		/* Only the first row of the first longs, or the last row of the last longs. */
+		if (dy < 0) {
+			to = ROW_WORDS;
+			rows = FIRST_ROW;
+		}
+
+		else if (dy > 0) {
+			from = WORDS - ROW_WORDS;
+			rows = LAST_ROW;
+		}
+
+		for (int i = from; i < to; i++) {
+
+			long columns = -1L;
+
+			/* Only the longs starting or ending a row hold a border column. */
+			if (dx < 0) {
+				columns = isRowStart(i) ? FIRST_COLUMN : 0;
+			}
+
+			else if (dx > 0) {
+				columns = isRowEnd(i) ? LAST_COLUMN : 0;
+			}
+
+			if ((board[i] & rows & columns) != 0) {
+				return true;
+			}
+
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * <p>
+	 * Forces the chunk to be computed for the next two
+	 * generations.
+	 * </p>
+	 * 
+	 * <p>
+	 * Must be called when the chunk, or the chunks around,
+	 * are changed outside of the evolution.
+	 * </p>
+	 */
+	protected void wake() {
+		awake = 2;
+		sleeping = false;
+		idle = 0;
+	}
+
+	/**
+	 * Indicates if the cells are the same as two generations
+	 * ago, without change made outside of the evolution.
+	 * 
+	 * @return true if the chunk is quiet; false otherwise.
+	 */
+	protected boolean isQuiet() {
+		return stable && awake == 0;
+	}
+
+	/**
+	 * Indicates if all neighboring chunks are quiet. A missing
+	 * chunk is empty, so it is quiet.
+	 * 
+	 * @return true if the neighboring chunks are quiet; false otherwise.
+	 * 
+	 * @see #isQuiet()
+	 */
+	protected boolean areNeighborsQuiet() {
+
+		Chunk chunk;
+
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+
+				if (dx == 0 && dy == 0) {
+					continue;
+				}
+
+				chunk = getNeighbor(dx, dy);
+
+				if (chunk != null && !chunk.isQuiet()) {
+					return false;
+				}
+
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Indicates if the chunk has been skipped at the last
+	 * generation, because nothing changed around it.
+	 * 
+	 * @return true if the chunk is sleeping; false otherwise.
+	 */
+	public boolean isSleeping() {
+		return sleeping;
+	}
+
+
+	/**
+	 * Returns the number of living cells of the chunk,
+	 * without counting them.
+	 *
+	 * @return The population of the chunk.
+	 */
+	public long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Returns the smallest rectangle holding the living cells
+	 * of the chunk, in absolute coordinates, without searching
+	 * them. The location of the rectangle is its south west
+	 * cell.
+	 *
+	 * @return The bounds, empty if there is no living cell.
+	 */
+	public Rectangle getBounds() {
+
+		if (population == 0) {
+			return new Rectangle();
+		}
+
+		return new Rectangle(
+			(x << SHIFT) + bounds[0],
+			(y << SHIFT) + bounds[1],
+			bounds[2] - bounds[0] + 1,
+			bounds[3] - bounds[1] + 1
+		);
+	}
+
+	/**
+	 * <p>
+	 * Counts the living cells of the chunk inside a rectangle,
+	 * and gives them to a visitor if there is one.
+	 * </p>
+	 *
+	 * <p>
+	 * Without a visitor, a rectangle holding the bounds of the
+	 * living cells is answered with the population.
+	 * </p>
+	 *
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 *
+	 * @see World#count(Rectangle)
+	 */
+	protected long query(Rectangle area, CellVisitor visitor) {
+
+		if (population == 0) {
+			return 0;
+		}
+
+		long left = ((long) x << SHIFT) - area.x;
+		long bottom = ((long) y << SHIFT) - area.y;
+
+		if (visitor == null && left + bounds[0] >= 0 && bottom + bounds[1] >= 0 && left + bounds[2] < area.width && bottom + bounds[3] < area.height) {
+			return population;
+		}
+
+		return query(state, x, y, area, visitor);
+	}
+
+	/**
+	 * Indicates if the chunk contains cells or not.
+	 * 
+	 * @return true if the chunk is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+
+		for (int i = 0; i < WORDS; i++) {
+
+			if ((state[i] | placeholders[i]) != 0) {
+				return false;
+			}
+
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * <p>
+	 * Copies the living cells of the chunk into a bitboard,
+	 * the bit of a cell being <code>(y &lt;&lt; SHIFT) | x</code>
+	 * for its relative coordinates.
+	 * </p>
+	 *
+	 * @param board The bitboard receiving the cells, of
+	 * <code>SIZE * SIZE / 64</code> words.
+	 *
+	 * @see #writeState(long[])
+	 */
+	public void readState(long[] board) {
+		System.arraycopy(state, 0, board, 0, WORDS);
+	}
+
+	/**
+	 * Replaces all cells of the chunk by the living cells
+	 * of a bitboard, laid out as by {@link #readState(long[])}.
+	 *
+	 * @param board The bitboard giving the cells.
+	 */
+	public void writeState(long[] board) {
+
+		wake();
+
+		System.arraycopy(board, 0, state, 0, WORDS);
+		stamp = world.stamp;
+
+		for (int i = 0; i < WORDS; i++) {
+			placeholders[i] = 0;
+		}
+
+		long before = population;
+
+		bound();
+		world.population += population - before;
+		world.outdatedBounds = true;
+
+		if (world.counting) {
+			recount();
+		}
+
+	}
+
+
+	/**
+	 * Counts the cells born and dead between two bitboards.
+	 *
+	 * @param before The living cells before.
+	 * @param after The living cells after.
+	 *
+	 * @see World#census()
+	 */
+	protected void count(long[] before, long[] after) {
+
+		for (int i = 0; i < WORDS; i++) {
+
+			for (long born = after[i] & ~before[i]; born != 0; born &= born - 1) {
+				count(i * Long.SIZE + Long.numberOfTrailingZeros(born), 1);
+			}
+
+			for (long dead = before[i] & ~after[i]; dead != 0; dead &= dead - 1) {
+				count(i * Long.SIZE + Long.numberOfTrailingZeros(dead), -1);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Counts a cell born or dead in the census.
+	 *
+	 * @param index The index of the cell.
+	 * @param sign 1 if the cell is born, -1 if it is dead.
+	 */
+	protected void count(int index, int sign) {
+		sumX += sign * (index & MASK);
+		sumY += sign * (index >>> SHIFT);
+		hash += sign * KEYS[index];
+	}
+
+	/**
+	 * Takes the census of all living cells again.
+	 */
+	protected void recount() {
+
+		sumX = 0;
+		sumY = 0;
+		hash = 0;
+
+		count(EMPTY, state);
+
+	}
+
+
+	/**
+	 * Counts a cell just brought to life by an edit, in this
+	 * chunk and in its world, and extends their bounds.
+	 *
+	 * @param index The index of the cell.
+	 */
+	protected void born(int index) {
+
+		int x = index & MASK;
+		int y = index >>> SHIFT;
+
+		population++;
+
+		bounds[0] = Math.min(bounds[0], x);
+		bounds[1] = Math.min(bounds[1], y);
+		bounds[2] = Math.max(bounds[2], x);
+		bounds[3] = Math.max(bounds[3], y);
+
+		world.born((this.x << SHIFT) + x, (this.y << SHIFT) + y);
+
+	}
+
+	/**
+	 * Counts a cell just killed by an edit, in this chunk and
+	 * in its world. The bounds are only searched again if the
+	 * cell was on one of their sides.
+	 *
+	 * @param index The index of the cell.
+	 */
+	protected void died(int index) {
+
+		int x = index & MASK;
+		int y = index >>> SHIFT;
+
+		population--;
+
+		if (x == bounds[0] || y == bounds[1] || x == bounds[2] || y == bounds[3]) {
+			bound();
+		}
+
+		world.died((this.x << SHIFT) + x, (this.y << SHIFT) + y);
+
+	}
+
+	/**
+	 * Counts the living cells and searches their bounds again.
+	 *
+	 * @see #bound(long[], int[])
+	 */
+	protected void bound() {
+
+		bounds[0] = SIZE;
+		bounds[1] = SIZE;
+		bounds[2] = -1;
+		bounds[3] = -1;
+
+		population = bound(state, bounds);
+
+	}
+
+	/**
+	 * <p>
+	 * Extends bounds, in relative coordinates, to the living
+	 * cells of a bitboard.
+	 * </p>
+	 *
+	 * <p>
+	 * The words holding the same columns are merged, and the
+	 * rows held by a single word are folded onto the first
+	 * one, so the columns are found without going through
+	 * the cells one by one.
+	 * </p>
+	 *
+	 * @param board The bitboard.
+	 * @param bounds The minimum abscissa, the minimum ordinate,
+	 * the maximum abscissa and the maximum ordinate.
+	 *
+	 * @return The number of living cells of the bitboard.
+	 */
+	protected static long bound(long[] board, int[] bounds) {
+
+		long population = 0;
+
+		for (int k = 0; k < ROW_WORDS; k++) {
+
+			long columns = 0;
+
+			for (int i = k; i < WORDS; i += ROW_WORDS) {
+
+				long word = board[i];
+
+				if (word == 0) {
+					continue;
+				}
+
+				columns |= word;
+				population += Long.bitCount(word);
+
+				bounds[1] = Math.min(bounds[1], (i * Long.SIZE + Long.numberOfTrailingZeros(word)) >>> SHIFT);
+				bounds[3] = Math.max(bounds[3], (i * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(word)) >>> SHIFT);
+
+			}
+
+			for (int shift = Long.SIZE / 2; shift >= WIDTH; shift >>>= 1) {
+				columns |= columns >>> shift;
+			}
+
+			columns &= FIRST_ROW;
+
+			if (columns != 0) {
+				bounds[0] = Math.min(bounds[0], k * WIDTH + Long.numberOfTrailingZeros(columns));
+				bounds[2] = Math.max(bounds[2], k * WIDTH + Long.SIZE - 1 - Long.numberOfLeadingZeros(columns));
+			}
+
+		}
+
+		return population;
+	}
+
+	/**
+	 * <p>
+	 * Counts the living cells of a bitboard inside a rectangle,
+	 * and gives them to a visitor if there is one.
+	 * </p>
+	 *
+	 * <p>
+	 * Each row is masked to the columns of the rectangle and
+	 * counted with a popcount, and a bitboard fully covered is
+	 * counted word by word without masking.
+	 * </p>
+	 *
+	 * @param board The bitboard.
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 */
+	protected static long query(long[] board, int x, int y, Rectangle area, CellVisitor visitor) {
+
+		int left = x << SHIFT;
+		int bottom = y << SHIFT;
+
+		int minX = (int) Math.max((long) area.x - left, 0);
+		int minY = (int) Math.max((long) area.y - bottom, 0);
+		int maxX = (int) Math.min((long) area.x + area.width - 1 - left, MASK);
+		int maxY = (int) Math.min((long) area.y + area.height - 1 - bottom, MASK);
+
+		if (minX > maxX || minY > maxY) {
+			return 0;
+		}
+
+		long count = 0;
+
+		if (visitor == null && minX == 0 && minY == 0 && maxX == MASK && maxY == MASK) {
+
+			for (long word : board) {
+				count += Long.bitCount(word);
+			}
+
+			return count;
+		}
+
+		for (int row = minY; row <= maxY; row++) {
+
+			for (int k = 0; k < ROW_WORDS; k++) {
+
+				int from = Math.max(minX - k * WIDTH, 0);
+				int to = Math.min(maxX - k * WIDTH, WIDTH - 1);
+
+				if (from > to) {
+					continue;
+				}
+
+				int index = (row << SHIFT) + k * WIDTH;
+				long word = board[index >>> 6] & (((-1L >>> (Long.SIZE - 1 - to)) & (-1L << from)) << index);
+
+				count += Long.bitCount(word);
+
+				for (; visitor != null && word != 0; word &= word - 1) {
+
+					int cell = (index & -Long.SIZE) + Long.numberOfTrailingZeros(word);
+
+					visitor.visit(left + (cell & MASK), bottom + (cell >>> SHIFT));
+
+				}
+
+			}
+
+		}
+
+		return count;
+	}
+
+	/**
+	 * Adds the census of the cells of a bitboard, at the
+	 * location of this chunk, to the census of a world.
+	 *
+	 * @param board The bitboard.
+	 * @param census The number of cells, the sums of their
+	 * coordinates and of their keys, in this order.
+	 * @param offset The index of the number of cells in the census.
+	 *
+	 * @see World#census()
+	 */
+	protected void census(long[] board, long[] census, int offset) {
+
+		for (int i = 0; i < WORDS; i++) {
+
+			for (long word = board[i]; word != 0; word &= word - 1) {
+
+				int index = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+				census[offset]++;
+				census[offset + 1] += ((long) x << SHIFT) + (index & MASK);
+				census[offset + 2] += ((long) y << SHIFT) + (index >>> SHIFT);
+				census[offset + 3] += origin * KEYS[index];
+
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Returns an iterator of all contained cells coupled with
+	 * their relative coordinates.
+	 * 
+	 * @return An iterator of all contained cells.
+	 * 
+	 * @see Cell
+	 * @see Point
+	 */
+	public Iterator<Entry<Point, Cell>> getCells() {
+		return new CellIterator();
+	}
+
+	/**
+	 * Returns the coordinates of the chunk.
+	 * 
+	 * @return The coordinates of the chunk.
+	 */
+	public Coordinates getCoordinates() {
+		return coordinates;
+	}
+
+
+	/**
+	 * Returns a neighboring chunk, or null if there is no
+	 * chunk in this direction.
+	 * 
+	 * @param dx The horizontal direction, between -1 and 1.
+	 * @param dy The vertical direction, between -1 and 1.
+	 * 
+	 * @return The neighboring chunk or null.
+	 */
+	protected Chunk getNeighbor(int dx, int dy) {
+		return neighbors[(dy + 1) * 3 + dx + 1];
+	}
+
+	/**
+	 * Defines a neighboring chunk.
+	 * 
+	 * @param dx The horizontal direction, between -1 and 1.
+	 * @param dy The vertical direction, between -1 and 1.
+	 * @param chunk The neighboring chunk, or null if there is no more chunk.
+	 */
+	protected void setNeighbor(int dx, int dy, Chunk chunk) {
+		neighbors[(dy + 1) * 3 + dx + 1] = chunk;
+	}
+
+	/**
+	 * <p>
+	 * Returns the chunk containing the specified location,
+	 * or null if it does not exist.
+	 * </p>
+	 * 
+	 * <p>
+	 * The neighboring chunks are found through their links,
+	 * the world is only searched for the farther ones.
+	 * </p>
+	 * 
+	 * @param coordinates The cell coordinates.
+	 * 
+	 * @return A chunk or null.
+	 */
+	protected Chunk getChunkOf(Coordinates coordinates) {
+		return getChunkOf(coordinates.toPacked());
+	}
+
+	/**
+	 * Returns the chunk containing the specified packed
+	 * location, or null if it does not exist.
+	 *
+	 * @param cell The packed coordinates of the cell.
+	 *
+	 * @return A chunk or null.
+	 *
+	 * @see #getChunkOf(Coordinates)
+	 */
+	protected Chunk getChunkOf(long cell) {
+
+		int dx = PackedCoordinates.getChunkX(cell) - x;
+		int dy = PackedCoordinates.getChunkY(cell) - y;
+
+		if (dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1) {
+			return getNeighbor(dx, dy);
+		}
+
+		return world.getChunkAt(x + dx, y + dy);
+	}
+
+	/**
+	 * Returns the index of the bit of a cell in the bitboard.
+	 * 
+	 * @param coordinates The cell coordinates.
+	 * 
+	 * @return The index of the bit.
+	 */
+	protected static int indexOf(Coordinates coordinates) {
+		return (coordinates.getRelativeY() << SHIFT) | coordinates.getRelativeX();
+	}
+
+	/**
+	 * Returns the index of the bit of a cell in the bitboard.
+	 *
+	 * @param cell The packed coordinates of the cell.
+	 *
+	 * @return The index of the bit.
+	 */
+	protected static int indexOf(long cell) {
+		return PackedCoordinates.getIndex(cell);
+	}
+
+	protected static boolean get(long[] board, int index) {
+		return (board[index >>> 6] & (1L << index)) != 0;
+	}
+
+	protected static void set(long[] board, int index) {
+		board[index >>> 6] |= 1L << index;
+	}
+
+	protected static void clear(long[] board, int index) {
+		board[index >>> 6] &= ~(1L << index);
+	}
+
+
+	/**
+	 * Returns the long where each row holds the row above
+	 * it in the bitboard.
+	 * 
+	 * @param board The bitboard.
+	 * @param north The bitboard of the chunk above.
+	 * @param i The index of the long.
+	 * 
+	 * @return The long of the rows above.
+	 */
+	protected static long up(long[] board, long[] north, int i) {
+
+		if (SIZE >= Long.SIZE) {
+
+			/* The row above is stored in whole longs. */
+			int j = i + ROW_WORDS;
+
+			return j < WORDS ? board[j] : north[j - WORDS];
+		}
+
+		long next = i + 1 < WORDS ? board[i + 1] : north[0];
+
+		return (board[i] >>> SIZE) | (next << (Long.SIZE - SIZE));
+	}
+
+	/**
+	 * Returns the long where each row holds the row below
+	 * it in the bitboard.
+	 * 
+	 * @param board The bitboard.
+	 * @param south The bitboard of the chunk below.
+	 * @param i The index of the long.
+	 * 
+	 * @return The long of the rows below.
+	 */
+	protected static long down(long[] board, long[] south, int i) {
+
+		if (SIZE >= Long.SIZE) {
+
+			/* The row below is stored in whole longs. */
+			int j = i - ROW_WORDS;
+
+			return j >= 0 ? board[j] : south[j + WORDS];
+		}
+
+		long previous = i > 0 ? board[i - 1] : south[WORDS - 1];
+
+		return (board[i] << SIZE) | (previous >>> (Long.SIZE - SIZE));
+	}
+
+	/**
+	 * Returns the long where each cell holds its left neighbor.
+	 * 
+	 * @param center The rows of the chunk.
+	 * @param west The long on the left of the rows, see {@link #westOf(int)}.
+	 * 
+	 * @return The long of the left neighbors.
+	 */
+	protected static long left(long center, long west) {
+		return ((center << 1) & ~FIRST_COLUMN) | ((west >>> (WIDTH - 1)) & FIRST_COLUMN);
+	}
+
+	/**
+	 * Returns the long where each cell holds its right neighbor.
+	 * 
+	 * @param center The rows of the chunk.
+	 * @param east The long on the right of the rows, see {@link #eastOf(int)}.
+	 * 
+	 * @return The long of the right neighbors.
+	 */
+	protected static long right(long center, long east) {
+		return ((center >>> 1) & ~LAST_COLUMN) | ((east << (WIDTH - 1)) & LAST_COLUMN);
+	}
+
+	/**
+	 * <p>
+	 * Returns the index of the long on the left of a long.
+	 * </p>
+	 * 
+	 * <p>
+	 * If the long starts its rows, the long on its left is
+	 * the one ending the same rows in the chunk on the left.
+	 * Otherwise, it is the previous long of the same chunk.
+	 * </p>
+	 * 
+	 * @param i The index of the long.
+	 * 
+	 * @return The index of the long on the left.
+	 * 
+	 * @see #isRowStart(int)
+	 */
+	protected static int westOf(int i) {
+		return isRowStart(i) ? i + ROW_WORDS - 1 : i - 1;
+	}
+
+	/**
+	 * <p>
+	 * Returns the index of the long on the right of a long.
+	 * </p>
+	 * 
+	 * <p>
+	 * If the long ends its rows, the long on its right is
+	 * the one starting the same rows in the chunk on the right.
+	 * Otherwise, it is the next long of the same chunk.
+	 * </p>
+	 * 
+	 * @param i The index of the long.
+	 * 
+	 * @return The index of the long on the right.
+	 * 
+	 * @see #isRowEnd(int)
+	 */
+	protected static int eastOf(int i) {
+		return isRowEnd(i) ? i - ROW_WORDS + 1 : i + 1;
+	}
+
+	/**
+	 * Indicates if a long holds the first column of its rows.
+	 * 
+	 * @param i The index of the long.
+	 * 
+	 * @return true if the long starts its rows; false otherwise.
+	 */
+	protected static boolean isRowStart(int i) {
+		return (i & (ROW_WORDS - 1)) == 0;
+	}
+
+	/**
+	 * Indicates if a long holds the last column of its rows.
+	 * 
+	 * @param i The index of the long.
+	 * 
+	 * @return true if the long ends its rows; false otherwise.
+	 */
+	protected static boolean isRowEnd(int i) {
+		return (i & (ROW_WORDS - 1)) == ROW_WORDS - 1;
+	}
+
+
+	/**
+	 * Checks that a chunk size is a supported power of two.
+	 * 
+	 * @param size The requested size.
+	 * 
+	 * @return The size, or the default size if it is not supported.
+	 */
+	private static int size(int size) {
+
+		if (size < MINIMUM_SIZE || size > MAXIMUM_SIZE || Integer.bitCount(size) != 1) {
+			Console.err("Unsupported chunk size " + size + ", using " + DEFAULT_SIZE + ".", Chunk.class);
+			return DEFAULT_SIZE;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Builds the relative keys of the cells of a chunk.
+	 * 
+	 * @return The key of each cell.
+	 */
+	private static long[] keys() {
+
+		long[] keys = new long[SIZE * SIZE];
+
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = CycleDetector.key(i & MASK, i >>> SHIFT);
+		}
+
+		return keys;
+	}
+
+	/**
+	 * Builds the bits of the first column of each row stored in a long.
+	 * 
+	 * @return The bits of the first column.
+	 */
+	private static long firstColumn() {
+
+		long column = 0;
+
+		for (int i = 0; i < Long.SIZE; i += WIDTH) {
+			column |= 1L << i;
+		}
+
+		return column;
+	}
+
+
+	/**
+	 * Iterator of the cells contained in the chunk, coupled
+	 * with their relative coordinates.
+	 */
+	protected class CellIterator implements Iterator<Entry<Point, Cell>> {
+
+		/**
+		 * The cells not yet returned by the iterator.
+		 */
+		protected long[] remaining = new long[WORDS];
+
+		/**
+		 * The index of the current long.
+		 */
+		protected int word = 0;
+
+
+		protected CellIterator() {
+
+			for (int i = 0; i < WORDS; i++) {
+				remaining[i] = state[i] | placeholders[i];
+			}
+
+		}
+
+
+		public boolean hasNext() {
+
+			while (word < WORDS && remaining[word] == 0) {
+				word++;
+			}
+
+			return word < WORDS;
+		}
+
+		public Entry<Point, Cell> next() {
+
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			int bit = Long.numberOfTrailingZeros(remaining[word]);
+			int index = word * Long.SIZE + bit;
+
+			remaining[word] &= remaining[word] - 1;
+
+			Point point = new Point(index & MASK, index >>> SHIFT);
+
+			Cell cell = new Cell(Chunk.this, new Coordinates(
+				coordinates.getAbsoluteX() + point.getX(),
+				coordinates.getAbsoluteY() + point.getY()
+			));
+
+			return new SimpleImmutableEntry<>(point, cell);
+		}
+
 	}
 
 }
@@ -0,0 +1,520 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.grid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import automaton.maths.PackedCoordinates;
+
+/**
+ * <p>
+ * The chunk arena stores the bitboards of chunks outside
+ * of the heap, with a small index of their coordinates.
+ * </p>
+ *
+ * <p>
+ * The memory is allocated by slabs, each of them cut in
+ * blocks of the same size, one block per chunk. A freed
+ * block is reused by the next chunk, and the slabs are
+ * only released with the whole arena, see {@link #clear()}.
+ * </p>
+ *
+ * <p>
+ * On the heap, a chunk only costs its slot in the index,
+ * which is an open addressing table like the chunk table,
+ * and its packed coordinates: a few tens of bytes, whatever
+ * the size of the chunks.
+ * </p>
+ *
+ * <p>
+ * The slabs can also be mapped from a file, so the
+ * system writes them to the disk instead of keeping
+ * them in memory when it runs short of it.
+ * </p>
+ *
+ * @see OffHeapWorld
+ * @see ChunkPager
+ * @see ChunkTable
+ */
+public class ChunkArena {
+
+	/**
+	 * The number of blocks of each slab.
+	 */
+	protected static final int SLAB_BLOCKS = 1024;
+
+	/**
+	 * The initial number of slots of the index, always a power of two.
+	 */
+	protected static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * The marker of a free slot of the index.
+	 */
+	protected static final int FREE = -1;
+
+	/**
+	 * The marker of a slot of the index whose block has been freed.
+	 */
+	protected static final int REMOVED = -2;
+
+
+	/**
+	 * The number of longs of each block.
+	 */
+	protected final int blockSize;
+
+	/**
+	 * The file where the slabs are mapped, or null if the
+	 * slabs are only in memory.
+	 */
+	protected FileChannel channel;
+
+	/**
+	 * The slabs of memory, outside of the heap.
+	 */
+	protected List<LongBuffer> slabs = new ArrayList<>();
+
+	/**
+	 * The packed coordinates of the chunk stored in each block.
+	 */
+	protected long[] blockKeys = new long[0];
+
+	/**
+	 * Indicates if each block is used by a chunk.
+	 */
+	protected boolean[] used = new boolean[0];
+
+	/**
+	 * The number of blocks given at least once.
+	 */
+	protected int blocks = 0;
+
+	/**
+	 * The freed blocks, waiting to be reused.
+	 */
+	protected int[] freed = new int[16];
+
+	/**
+	 * The number of freed blocks.
+	 */
+	protected int numberOfFreed = 0;
+
+	/**
+	 * The packed coordinates of the chunk in each slot of the index.
+	 */
+	protected long[] keys = new long[DEFAULT_CAPACITY];
+
+	/**
+	 * The block of the chunk in each slot of the index.
+	 */
+	protected int[] values = newValues(DEFAULT_CAPACITY);
+
+	/**
+	 * The number of chunks stored.
+	 */
+	protected int size = 0;
+
+	/**
+	 * The number of slots of the index holding a removed chunk.
+	 */
+	protected int removed = 0;
+
+
+	/**
+	 * Creates an empty arena.
+	 *
+	 * @param blockSize The number of longs stored for each chunk.
+	 */
+	public ChunkArena(int blockSize) {
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Creates an empty arena whose slabs are mapped from a
+	 * file, one after the other.
+	 *
+	 * @param blockSize The number of longs stored for each chunk.
+	 * @param channel The file, opened for reading and writing.
+	 */
+	public ChunkArena(int blockSize, FileChannel channel) {
+		this.blockSize = blockSize;
+		this.channel = channel;
+	}
+
+
+	/**
+	 * Returns the block of the chunk present at the specified
+	 * chunk format location.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The block of the chunk, or -1 if there is no chunk.
+	 */
+	public int find(int x, int y) {
+
+		long key = ChunkTable.key(x, y);
+		int mask = values.length - 1;
+
+		for (int i = ChunkTable.hash(key) & mask; values[i] != FREE; i = (i + 1) & mask) {
+
+			if (keys[i] == key && values[i] != REMOVED) {
+				return values[i];
+			}
+
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Gives a block filled with zeros to a new chunk.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The block of the chunk, or the existing one if
+	 * there is already a chunk at this location.
+	 */
+	public int allocate(int x, int y) {
+
+		int block = find(x, y);
+
+		if (block >= 0) {
+			return block;
+		}
+
+		if (numberOfFreed > 0) {
+			block = freed[--numberOfFreed];
+		}
+
+		else {
+			block = blocks++;
+			grow();
+		}
+
+		long key = ChunkTable.key(x, y);
+
+		blockKeys[block] = key;
+		used[block] = true;
+		fill(block, 0, blockSize, 0);
+
+		if ((size + removed + 1) * 4 > values.length * 3) {
+			rehash(size * 2 >= values.length ? values.length * 2 : values.length);
+		}
+
+		insert(key, block);
+		size++;
+
+		return block;
+	}
+
+	/**
+	 * Frees the block of a chunk, so it can be given to another chunk.
+	 *
+	 * @param block The block of the chunk.
+	 */
+	public void free(int block) {
+
+		long key = blockKeys[block];
+		int mask = values.length - 1;
+
+		for (int i = ChunkTable.hash(key) & mask; values[i] != FREE; i = (i + 1) & mask) {
+
+			if (values[i] == block) {
+
+				values[i] = REMOVED;
+				size--;
+				removed++;
+
+				break;
+			}
+
+		}
+
+		used[block] = false;
+
+		if (numberOfFreed == freed.length) {
+			freed = Arrays.copyOf(freed, freed.length * 2);
+		}
+
+		freed[numberOfFreed++] = block;
+	}
+
+	/**
+	 * Removes all chunks and releases the memory.
+	 */
+	public void clear() {
+		slabs = new ArrayList<>();
+		blockKeys = new long[0];
+		used = new boolean[0];
+		blocks = 0;
+		numberOfFreed = 0;
+		keys = new long[DEFAULT_CAPACITY];
+		values = newValues(DEFAULT_CAPACITY);
+		size = 0;
+		removed = 0;
+	}
+
+
+	/**
+	 * Returns the number of blocks given at least once, the
+	 * blocks of all chunks being below this number.
+	 *
+	 * @return The number of blocks.
+	 *
+	 * @see #isUsed(int)
+	 */
+	public int getNumberOfBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * Indicates if a block is used by a chunk.
+	 *
+	 * @param block The block.
+	 *
+	 * @return true if the block is used; false otherwise.
+	 */
+	public boolean isUsed(int block) {
+		return used[block];
+	}
+
+	/**
+	 * Returns the abscissa of the chunk of a block.
+	 *
+	 * @param block The block of the chunk.
+	 *
+	 * @return The abscissa of the chunk, in chunk format.
+	 */
+	public int getX(int block) {
+		return PackedCoordinates.getX(blockKeys[block]);
+	}
+
+	/**
+	 * Returns the ordinate of the chunk of a block.
+	 *
+	 * @param block The block of the chunk.
+	 *
+	 * @return The ordinate of the chunk, in chunk format.
+	 */
+	public int getY(int block) {
+		return PackedCoordinates.getY(blockKeys[block]);
+	}
+
+	/**
+	 * Returns the number of chunks stored.
+	 *
+	 * @return The number of chunks.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the memory allocated outside of the heap.
+	 *
+	 * @return The allocated memory, in bytes.
+	 */
+	public long getAllocatedMemory() {
+		return (long) slabs.size() * SLAB_BLOCKS * blockSize * Long.BYTES;
+	}
+
+
+	/**
+	 * Returns a long of a block.
+	 *
+	 * @param block The block.
+	 * @param index The index of the long in the block.
+	 *
+	 * @return The long.
+	 */
+	public long get(int block, int index) {
+		return slabs.get(block / SLAB_BLOCKS).get((block % SLAB_BLOCKS) * blockSize + index);
+	}
+
+	/**
+	 * Changes a long of a block.
+	 *
+	 * @param block The block.
+	 * @param index The index of the long in the block.
+	 * @param value The new long.
+	 */
+	public void set(int block, int index, long value) {
+		slabs.get(block / SLAB_BLOCKS).put((block % SLAB_BLOCKS) * blockSize + index, value);
+	}
+
+	/**
+	 * Copies longs of a block into an array.
+	 *
+	 * @param block The block.
+	 * @param index The index of the first long in the block.
+	 * @param target The array receiving the longs, filled entirely.
+	 */
+	public void read(int block, int index, long[] target) {
+		slabs.get(block / SLAB_BLOCKS).get((block % SLAB_BLOCKS) * blockSize + index, target);
+	}
+
+	/**
+	 * Copies an array into longs of a block.
+	 *
+	 * @param block The block.
+	 * @param index The index of the first long in the block.
+	 * @param source The array to copy entirely.
+	 */
+	public void write(int block, int index, long[] source) {
+		slabs.get(block / SLAB_BLOCKS).put((block % SLAB_BLOCKS) * blockSize + index, source);
+	}
+
+	/**
+	 * Sets longs of a block to the same value.
+	 *
+	 * @param block The block.
+	 * @param index The index of the first long in the block.
+	 * @param length The number of longs.
+	 * @param value The value of the longs.
+	 */
+	public void fill(int block, int index, int length, long value) {
+
+		LongBuffer slab = slabs.get(block / SLAB_BLOCKS);
+		int offset = (block % SLAB_BLOCKS) * blockSize + index;
+
+		for (int i = 0; i < length; i++) {
+			slab.put(offset + i, value);
+		}
+
+	}
+
+
+	/**
+	 * Makes room for a new block, allocating a slab if needed.
+	 */
+	protected void grow() {
+
+		if (blocks > used.length) {
+			used = Arrays.copyOf(used, Math.max(used.length * 2, SLAB_BLOCKS));
+			blockKeys = Arrays.copyOf(blockKeys, used.length);
+		}
+
+		if (blocks > slabs.size() * SLAB_BLOCKS) {
+			slabs.add(allocateSlab().order(ByteOrder.nativeOrder()).asLongBuffer());
+		}
+
+	}
+
+	/**
+	 * Allocates the memory of a new slab, outside of the heap
+	 * or at the end of the file of the arena.
+	 *
+	 * @return The memory of the slab.
+	 */
+	protected ByteBuffer allocateSlab() {
+
+		long length = (long) SLAB_BLOCKS * blockSize * Long.BYTES;
+
+		if (channel == null) {
+			return ByteBuffer.allocateDirect((int) length);
+		}
+
+		try {
+
+			return channel.map(FileChannel.MapMode.READ_WRITE, slabs.size() * length, length);
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+	}
+
+	/**
+	 * Moves all chunks to new slots of the index, dropping the removed ones.
+	 *
+	 * @param capacity The new number of slots, a power of two.
+	 */
+	protected void rehash(int capacity) {
+
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+
+		keys = new long[capacity];
+		values = newValues(capacity);
+		removed = 0;
+
+		for (int i = 0; i < oldValues.length; i++) {
+
+			if (oldValues[i] >= 0) {
+				insert(oldKeys[i], oldValues[i]);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Stores a block in the first free slot of its probe sequence.
+	 *
+	 * @param key The packed coordinates of the chunk.
+	 * @param block The block of the chunk.
+	 */
+	protected void insert(long key, int block) {
+
+		int mask = values.length - 1;
+		int i = ChunkTable.hash(key) & mask;
+
+		while (values[i] != FREE) {
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = block;
+	}
+
+	/**
+	 * Creates the blocks of the slots of an empty index.
+	 *
+	 * @param capacity The number of slots.
+	 *
+	 * @return The blocks, all free.
+	 */
+	private static int[] newValues(int capacity) {
+
+		int[] values = new int[capacity];
+
+		Arrays.fill(values, FREE);
+
+		return values;
+	}
+
+}
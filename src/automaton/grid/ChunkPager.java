@@ -0,0 +1,737 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.grid;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import automaton.config.Conf;
+import automaton.io.Console;
+import automaton.maths.Coordinates;
+import automaton.render.RenderingContext;
+
+/**
+ * <p>
+ * The chunk pager keeps the chunks spilled out of a world,
+ * in a chunk arena mapped from a temporary file.
+ * </p>
+ *
+ * <p>
+ * Only the chunks which are sleeping, and so repeat the
+ * same two states, are spilled: the pager stores both
+ * states and the parity of the generation, so a chunk
+ * brought back any number of generations later is in the
+ * right phase, as if it had been sleeping in the world.
+ * </p>
+ *
+ * <p>
+ * The pager also remembers the living borders of each
+ * spilled chunk, so the world knows which chunks are
+ * needed around it without reading it back, and the
+ * census of the spilled cells in both phases.
+ * </p>
+ *
+ * @see World#evict()
+ * @see World#faultIn()
+ * @see ChunkArena
+ */
+public class ChunkPager {
+
+	/**
+	 * The bit of the flags giving the parity of the
+	 * generation of the first stored state.
+	 */
+	protected static final int PARITY = 1 << 9;
+
+	/**
+	 * The bit of the flags set if the two stored states
+	 * differ, the chunk changing at each generation.
+	 */
+	protected static final int PERIOD = 1 << 10;
+
+	/**
+	 * The index of the census of the two phases in a block,
+	 * after the two states.
+	 */
+	protected static final int CENSUS = 2 * Chunk.WORDS;
+
+
+	/**
+	 * The arena storing the two states of the spilled chunks,
+	 * created with its file by the first eviction.
+	 */
+	protected ChunkArena arena;
+
+	/**
+	 * The file of the arena.
+	 */
+	protected File file;
+
+	/**
+	 * The channel of the file of the arena.
+	 */
+	protected FileChannel channel;
+
+	/**
+	 * The living borders and the parity of each block of the arena.
+	 *
+	 * @see #PARITY
+	 */
+	protected int[] flags = new int[0];
+
+	/**
+	 * The stamp of the last change of each block, kept from
+	 * the chunk spilled in it.
+	 *
+	 * @see World#mark()
+	 */
+	protected long[] stamps = new long[0];
+
+	/**
+	 * The copies of the two states of each block given to
+	 * the snapshots, the state at the beginning of the block
+	 * first. They are shared by all snapshots while the chunk
+	 * is spilled, as its states do not change.
+	 */
+	protected long[][] published = new long[0][];
+
+	/**
+	 * The number of generations computed by the world.
+	 */
+	protected long generation = 0;
+
+	/**
+	 * The number of chunks found in the world when requested.
+	 */
+	protected long hits = 0;
+
+	/**
+	 * The number of chunks brought back from the file.
+	 */
+	protected long misses = 0;
+
+	/**
+	 * The number of chunks spilled to the file.
+	 */
+	protected long evictions = 0;
+
+	/**
+	 * The bitboard used to render or visit a spilled chunk.
+	 */
+	protected long[] board = new long[Chunk.WORDS];
+
+	/**
+	 * The census of all spilled cells, at the even generations
+	 * then at the odd ones.
+	 *
+	 * @see World#census()
+	 */
+	protected long[] census = new long[8];
+
+	/**
+	 * The census of the two phases of a spilled chunk.
+	 */
+	protected long[] phases = new long[8];
+
+	/**
+	 * The bounds of the living cells of each block, in both
+	 * phases, in absolute coordinates: the minimum abscissa,
+	 * the minimum ordinate, the maximum abscissa and the
+	 * maximum ordinate.
+	 */
+	protected int[] extents = new int[0];
+
+	/**
+	 * The bounds of the living cells of all blocks, in the
+	 * same order.
+	 */
+	protected int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+
+	/**
+	 * Indicates if a chunk has been brought back since the
+	 * bounds of all blocks have been searched.
+	 */
+	protected boolean outdatedBounds = false;
+
+
+	/**
+	 * Counts a computed generation.
+	 */
+	public void tick() {
+		generation++;
+	}
+
+	/**
+	 * Counts generations skipped by the world.
+	 *
+	 * @param generations The number of generations.
+	 */
+	public void tick(long generations) {
+		generation += generations;
+	}
+
+	/**
+	 * Spills a sleeping chunk to the file. The chunk still
+	 * needs to be removed from the world.
+	 *
+	 * @param chunk The chunk to spill.
+	 *
+	 * @return true if the chunk has been spilled; false otherwise.
+	 */
+	public boolean evict(Chunk chunk) {
+
+		try {
+
+			if (arena == null) {
+				open();
+			}
+
+			int block = arena.allocate(chunk.x, chunk.y);
+
+			arena.write(block, 0, chunk.state);
+			arena.write(block, Chunk.WORDS, chunk.previousState);
+
+			if (block >= flags.length) {
+				flags = Arrays.copyOf(flags, Math.max(flags.length * 2, block + 1));
+				stamps = Arrays.copyOf(stamps, flags.length);
+				published = Arrays.copyOf(published, 2 * flags.length);
+				extents = Arrays.copyOf(extents, 4 * flags.length);
+			}
+
+			flags[block] = (generation & 1) == 0 ? 0 : PARITY;
+			stamps[block] = chunk.stamp;
+
+			/* The copy given to the snapshots by the chunk is still right. */
+			published[2 * block] = chunk.published != null && Arrays.equals(chunk.published, chunk.state) ? chunk.published : null;
+			published[2 * block + 1] = null;
+
+			if (!Arrays.equals(chunk.state, chunk.previousState)) {
+				flags[block] |= PERIOD;
+			}
+
+			int phase = (int) (generation & 1);
+
+			Arrays.fill(phases, 0);
+			chunk.census(chunk.state, phases, 4 * phase);
+			chunk.census(chunk.previousState, phases, 4 - 4 * phase);
+
+			arena.write(block, CENSUS, phases);
+
+			for (int i = 0; i < census.length; i++) {
+				census[i] += phases[i];
+			}
+
+			int[] extent = {Chunk.SIZE, Chunk.SIZE, -1, -1};
+
+			Chunk.bound(chunk.state, extent);
+			Chunk.bound(chunk.previousState, extent);
+
+			for (int i = 0; i < 4; i++) {
+				extents[4 * block + i] = ((i & 1) == 0 ? chunk.x : chunk.y) * Chunk.SIZE + extent[i];
+			}
+
+			extend(bounds, extents, 4 * block);
+
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+
+					if (Chunk.hasLivingBorder(chunk.state, dx, dy) || Chunk.hasLivingBorder(chunk.previousState, dx, dy)) {
+						flags[block] |= 1 << ((dy + 1) * 3 + dx + 1);
+					}
+
+				}
+			}
+
+		} catch (IOException | UncheckedIOException e) {
+
+			Console.err(e, this);
+			return false;
+
+		}
+
+		evictions++;
+
+		return true;
+	}
+
+	/**
+	 * Brings back a spilled chunk, in the phase of the
+	 * current generation. The chunk still needs to be
+	 * registered in the world.
+	 *
+	 * @param world The world of the chunk.
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The chunk, or null if it has not been spilled.
+	 */
+	public Chunk restore(World world, int x, int y) {
+
+		int block = find(x, y);
+
+		if (block < 0) {
+			return null;
+		}
+
+		int offset = getOffsetOfState(block);
+		Chunk chunk = new Chunk(world, new Coordinates(x << Chunk.SHIFT, y << Chunk.SHIFT));
+
+		arena.read(block, offset, chunk.state);
+		arena.read(block, Chunk.WORDS - offset, chunk.previousState);
+		arena.read(block, CENSUS, phases);
+
+		for (int i = 0; i < census.length; i++) {
+			census[i] -= phases[i];
+		}
+
+		chunk.bound();
+		chunk.stamp = (flags[block] & PERIOD) != 0 ? world.stamp : stamps[block];
+		chunk.published = published[2 * block + offset / Chunk.WORDS];
+		outdatedBounds = true;
+
+		if (world.counting) {
+			chunk.recount();
+		}
+
+		/* The chunk sleeps again until something changes around it. */
+		chunk.stable = true;
+		chunk.awake = 0;
+		chunk.sleeping = true;
+
+		arena.free(block);
+		published[2 * block] = null;
+		published[2 * block + 1] = null;
+		misses++;
+
+		return chunk;
+	}
+
+
+	/**
+	 * Adds the census of the spilled cells at the current
+	 * generation to the census of the world.
+	 *
+	 * @param census The number of cells, the sums of their
+	 * coordinates and of their keys, in this order.
+	 */
+	public void addCensus(long[] census) {
+
+		int phase = (int) (generation & 1);
+
+		for (int i = 0; i < 4; i++) {
+			census[i] += this.census[4 * phase + i];
+		}
+
+	}
+
+	/**
+	 * Returns the number of living cells of the spilled
+	 * chunks at the current generation.
+	 *
+	 * @return The population.
+	 */
+	public long getPopulation() {
+		return census[4 * (int) (generation & 1)];
+	}
+
+	/**
+	 * Extends bounds, in absolute coordinates, to the living
+	 * cells of the spilled chunks in both of their phases.
+	 *
+	 * @param bounds The minimum abscissa, the minimum ordinate,
+	 * the maximum abscissa and the maximum ordinate.
+	 */
+	public void addBounds(int[] bounds) {
+
+		if (outdatedBounds) {
+
+			Arrays.fill(this.bounds, 0, 2, Integer.MAX_VALUE);
+			Arrays.fill(this.bounds, 2, 4, Integer.MIN_VALUE);
+
+			for (int block = 0; arena != null && block < arena.getNumberOfBlocks(); block++) {
+
+				if (arena.isUsed(block)) {
+					extend(this.bounds, extents, 4 * block);
+				}
+
+			}
+
+			outdatedBounds = false;
+
+		}
+
+		extend(bounds, this.bounds, 0);
+
+	}
+
+	/**
+	 * Extends bounds to other bounds.
+	 *
+	 * @param bounds The bounds extended.
+	 * @param extents The array holding the other bounds.
+	 * @param offset The index of the other bounds in the array.
+	 */
+	protected static void extend(int[] bounds, int[] extents, int offset) {
+
+		/* Empty bounds have their minimums above their maximums, and extend nothing. */
+		if (extents[offset] > extents[offset + 2]) {
+			return;
+		}
+
+		bounds[0] = Math.min(bounds[0], extents[offset]);
+		bounds[1] = Math.min(bounds[1], extents[offset + 1]);
+		bounds[2] = Math.max(bounds[2], extents[offset + 2]);
+		bounds[3] = Math.max(bounds[3], extents[offset + 3]);
+
+	}
+
+	/**
+	 * Counts the living cells of the spilled chunks inside a
+	 * rectangle, straight from the file, and gives them to a
+	 * visitor if there is one. The chunks whose extent misses
+	 * the rectangle are not read.
+	 *
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 *
+	 * @see World#count(Rectangle)
+	 */
+	public long query(Rectangle area, CellVisitor visitor) {
+
+		long count = 0;
+
+		for (int block = 0; arena != null && block < arena.getNumberOfBlocks(); block++) {
+
+			int offset = 4 * block;
+
+			if (!arena.isUsed(block) || extents[offset] > extents[offset + 2]) {
+				continue;
+			}
+
+			if (extents[offset + 2] < area.x || extents[offset + 3] < area.y || extents[offset] >= (long) area.x + area.width || extents[offset + 1] >= (long) area.y + area.height) {
+				continue;
+			}
+
+			arena.read(block, getOffsetOfState(block), board);
+
+			count += Chunk.query(board, arena.getX(block), arena.getY(block), area, visitor);
+
+		}
+
+		return count;
+	}
+
+	/**
+	 * Indicates if a chunk has been spilled.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return true if the chunk is spilled; false otherwise.
+	 */
+	public boolean contains(int x, int y) {
+		return find(x, y) >= 0;
+	}
+
+	/**
+	 * Indicates if a spilled chunk has a living border,
+	 * in one of its two states.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 * @param dx The horizontal direction of the border, between -1 and 1.
+	 * @param dy The vertical direction of the border, between -1 and 1.
+	 *
+	 * @return true if the chunk is spilled with a living border; false otherwise.
+	 */
+	public boolean hasLivingBorder(int x, int y, int dx, int dy) {
+
+		int block = find(x, y);
+
+		return block >= 0 && (flags[block] & (1 << ((dy + 1) * 3 + dx + 1))) != 0;
+	}
+
+	/**
+	 * Returns the packed coordinates of all spilled chunks.
+	 *
+	 * @return The packed coordinates.
+	 *
+	 * @see ChunkTable#key(int, int)
+	 */
+	public long[] getSpilledChunks() {
+
+		long[] keys = new long[size()];
+		int size = 0;
+
+		for (int block = 0; arena != null && block < arena.getNumberOfBlocks(); block++) {
+
+			if (arena.isUsed(block)) {
+				keys[size++] = ChunkTable.key(arena.getX(block), arena.getY(block));
+			}
+
+		}
+
+		return keys;
+	}
+
+
+	/**
+	 * Visits the spilled chunks whose living cells have
+	 * changed since a mark, in the phase of the current
+	 * generation. A chunk whose two states differ changes
+	 * at each generation, so it is always visited.
+	 *
+	 * @param since The mark, or 0 to visit all chunks.
+	 * @param visitor The visitor of the chunks.
+	 *
+	 * @see World#forEachChangedChunk(long, ChunkVisitor)
+	 */
+	public void forEachChangedChunk(long since, ChunkVisitor visitor) {
+
+		for (int block = 0; arena != null && block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block) || (stamps[block] <= since && (flags[block] & PERIOD) == 0)) {
+				continue;
+			}
+
+			arena.read(block, getOffsetOfState(block), board);
+			visitor.visit(arena.getX(block), arena.getY(block), board);
+
+		}
+
+	}
+
+	/**
+	 * Gives the living cells of the spilled chunks to a
+	 * snapshot, copied from the file the first time only.
+	 *
+	 * @param xs The abscissa of each chunk, in chunk format.
+	 * @param ys The ordinate of each chunk, in chunk format.
+	 * @param boards The living cells of each chunk.
+	 * @param index The index of the first spilled chunk.
+	 *
+	 * @see World#createSnapshot()
+	 */
+	public void publish(int[] xs, int[] ys, long[][] boards, int index) {
+
+		for (int block = 0; arena != null && block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			int offset = getOffsetOfState(block);
+			int copy = 2 * block + offset / Chunk.WORDS;
+
+			if (published[copy] == null) {
+				published[copy] = new long[Chunk.WORDS];
+				arena.read(block, offset, published[copy]);
+			}
+
+			xs[index] = arena.getX(block);
+			ys[index] = arena.getY(block);
+			boards[index] = published[copy];
+
+			index++;
+
+		}
+
+	}
+
+	/**
+	 * Renders the spilled chunks visible on a canvas,
+	 * straight from the file.
+	 *
+	 * @param context The rendering context.
+	 */
+	public void render(RenderingContext context) {
+
+		for (int block = 0; arena != null && block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			int x = arena.getX(block) << Chunk.SHIFT;
+			int y = arena.getY(block) << Chunk.SHIFT;
+
+			if (!context.isAreaVisible(x, y, Chunk.SIZE)) {
+				continue;
+			}
+
+			if (Conf.CANVAS_ACTIVE_CHUNK_BORDERS) {
+				context.drawChunkBorder(x, y);
+			}
+
+			arena.read(block, getOffsetOfState(block), board);
+
+			for (int i = 0; i < Chunk.WORDS; i++) {
+
+				long word = board[i];
+
+				while (word != 0) {
+
+					int index = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+					context.drawCell(x + (index & Chunk.MASK), y + (index >>> Chunk.SHIFT), false);
+
+					word &= word - 1;
+
+				}
+
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Forgets all spilled chunks and deletes the file.
+	 */
+	public void clear() {
+
+		if (arena == null) {
+			return;
+		}
+
+		arena = null;
+		flags = new int[0];
+		stamps = new long[0];
+		published = new long[0][];
+		extents = new int[0];
+		outdatedBounds = true;
+		Arrays.fill(census, 0);
+
+		try {
+			channel.close();
+		} catch (IOException e) {
+			Console.err(e, this);
+		}
+
+		/* The mapped slabs may keep the file until they are collected. */
+		if (!file.delete()) {
+			file.deleteOnExit();
+		}
+
+	}
+
+	/**
+	 * Indicates if no chunk is spilled.
+	 *
+	 * @return true if the pager is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return arena == null || arena.size() == 0;
+	}
+
+	/**
+	 * Returns the number of spilled chunks.
+	 *
+	 * @return The number of chunks.
+	 */
+	public int size() {
+		return arena == null ? 0 : arena.size();
+	}
+
+	/**
+	 * Returns the number of chunks requested from the world
+	 * and found in memory.
+	 *
+	 * @return The number of hits.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of chunks brought back from the file.
+	 *
+	 * @return The number of misses.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of chunks spilled to the file.
+	 *
+	 * @return The number of evictions.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+
+	/**
+	 * Creates the file and the arena.
+	 *
+	 * @throws IOException If the file can not be created.
+	 */
+	protected void open() throws IOException {
+
+		file = File.createTempFile("automaton", ".spill");
+		file.deleteOnExit();
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		arena = new ChunkArena(CENSUS + phases.length, channel);
+
+	}
+
+	/**
+	 * Returns the block of a spilled chunk.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The block, or -1 if the chunk is not spilled.
+	 */
+	protected int find(int x, int y) {
+		return arena == null ? -1 : arena.find(x, y);
+	}
+
+	/**
+	 * Returns where the state of the current generation
+	 * is stored in the block of a spilled chunk.
+	 *
+	 * @param block The block of the chunk.
+	 *
+	 * @return The index of the first long of the state.
+	 */
+	protected int getOffsetOfState(int block) {
+
+		boolean odd = (flags[block] & PARITY) != 0;
+
+		return odd == ((generation & 1) != 0) ? 0 : Chunk.WORDS;
+	}
+
+}
@@ -0,0 +1,397 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.grid;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
+
+/**
+ * <p>
+ * The chunk table stores the chunks of a world with
+ * their chunk format coordinates packed in a long.
+ * </p>
+ *
+ * <p>
+ * The table uses open addressing with linear probing,
+ * so a lookup neither allocates nor boxes its key.
+ * Removed chunks leave a tombstone until the next
+ * rehash, which means the chunks never move while
+ * iterating, even if some of them are removed.
+ * </p>
+ *
+ * <p>
+ * The iteration order only depends on the operations
+ * made on the table: two tables filled and emptied the
+ * same way are iterated in the same order.
+ * </p>
+ *
+ * @see World
+ * @see Chunk
+ */
+public class ChunkTable implements Iterable<Chunk> {
+
+	/**
+	 * The initial number of slots, always a power of two.
+	 */
+	protected static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * The marker of a slot whose chunk has been removed.
+	 */
+	protected static final Chunk REMOVED = new Chunk(null, new Coordinates(0, 0));
+
+
+	/**
+	 * The packed coordinates of the chunk stored in each slot.
+	 */
+	protected long[] keys = new long[DEFAULT_CAPACITY];
+
+	/**
+	 * The chunk stored in each slot, null if the slot is free.
+	 */
+	protected Chunk[] values = new Chunk[DEFAULT_CAPACITY];
+
+	/**
+	 * The number of chunks stored.
+	 */
+	protected int size = 0;
+
+	/**
+	 * The number of slots holding a removed chunk.
+	 */
+	protected int removed = 0;
+
+
+	/**
+	 * Returns the chunk present at the specified chunk format
+	 * location or null if it does not exist.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return A chunk or null.
+	 */
+	public Chunk get(int x, int y) {
+
+		long key = key(x, y);
+		int mask = values.length - 1;
+
+		for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+
+			if (keys[i] == key && values[i] != REMOVED) {
+				return values[i];
+			}
+
+		}
+
+		return null;
+	}
+
+	/**
+	 * Indicates if a chunk is present at the specified chunk
+	 * format location.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return true if there is a chunk; false otherwise.
+	 */
+	public boolean contains(int x, int y) {
+		return get(x, y) != null;
+	}
+
+
+	/**
+	 * Stores a chunk if there is not already a chunk
+	 * at the same location.
+	 *
+	 * @param chunk The chunk to store.
+	 *
+	 * @return true if the chunk has been stored; false otherwise.
+	 */
+	public boolean put(Chunk chunk) {
+
+		if (contains(chunk.x, chunk.y)) {
+			return false;
+		}
+
+		if ((size + removed + 1) * 4 > values.length * 3) {
+			rehash(size * 2 >= values.length ? values.length * 2 : values.length);
+		}
+
+		insert(key(chunk.x, chunk.y), chunk);
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * Removes the chunk present at the specified chunk
+	 * format location.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The removed chunk or null.
+	 */
+	public Chunk remove(int x, int y) {
+
+		long key = key(x, y);
+		int mask = values.length - 1;
+
+		for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+
+			if (keys[i] == key && values[i] != REMOVED) {
+
+				Chunk chunk = values[i];
+
+				values[i] = REMOVED;
+				size--;
+				removed++;
+
+				return chunk;
+			}
+
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Removes all chunks.
+	 */
+	public void clear() {
+		keys = new long[DEFAULT_CAPACITY];
+		values = new Chunk[DEFAULT_CAPACITY];
+		size = 0;
+		removed = 0;
+	}
+
+	/**
+	 * Indicates if the table contains chunks or not.
+	 *
+	 * @return true if the table is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of chunks stored.
+	 *
+	 * @return The number of chunks.
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Returns the number of slots of the table.
+	 *
+	 * @return The number of slots.
+	 *
+	 * @see #getChunkInSlot(int)
+	 */
+	public int getNumberOfSlots() {
+		return values.length;
+	}
+
+	/**
+	 * <p>
+	 * Returns the chunk stored in a slot, or null if the
+	 * slot is free.
+	 * </p>
+	 *
+	 * <p>
+	 * Going through the slots is the same as iterating over
+	 * the table, without allocating an iterator.
+	 * </p>
+	 *
+	 * @param slot The index of the slot.
+	 *
+	 * @return A chunk or null.
+	 *
+	 * @see #getNumberOfSlots()
+	 */
+	public Chunk getChunkInSlot(int slot) {
+
+		Chunk chunk = values[slot];
+
+		if (chunk == REMOVED) {
+			return null;
+		}
+
+		return chunk;
+	}
+
+
+	/**
+	 * <p>
+	 * Returns an iterator of all stored chunks.
+	 * </p>
+	 *
+	 * <p>
+	 * The iterator never fails if the table is modified:
+	 * the removed chunks are skipped, and the chunks stored
+	 * after a rehash may not be returned.
+	 * </p>
+	 *
+	 * @return An iterator of all chunks.
+	 */
+	public Iterator<Chunk> iterator() {
+		return new ChunkIterator();
+	}
+
+
+	/**
+	 * Moves all chunks to new slots, dropping the removed ones.
+	 *
+	 * @param capacity The new number of slots, a power of two.
+	 */
+	protected void rehash(int capacity) {
+
+		long[] oldKeys = keys;
+		Chunk[] oldValues = values;
+
+		keys = new long[capacity];
+		values = new Chunk[capacity];
+		removed = 0;
+
+		for (int i = 0; i < oldValues.length; i++) {
+
+			if (oldValues[i] != null && oldValues[i] != REMOVED) {
+				insert(oldKeys[i], oldValues[i]);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Stores a chunk in the first free slot of its probe sequence.
+	 *
+	 * @param key The packed coordinates of the chunk.
+	 * @param chunk The chunk to store.
+	 */
+	protected void insert(long key, Chunk chunk) {
+
+		int mask = values.length - 1;
+		int i = hash(key) & mask;
+
+		while (values[i] != null) {
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = chunk;
+	}
+
+
+	/**
+	 * Packs the chunk format coordinates of a chunk in a long.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The packed coordinates.
+	 *
+	 * @see PackedCoordinates#pack(int, int)
+	 */
+	public static long key(int x, int y) {
+		return PackedCoordinates.pack(x, y);
+	}
+
+	/**
+	 * Spreads the bits of a packed key, so that close chunks
+	 * do not fall in close slots.
+	 *
+	 * @param key The packed coordinates.
+	 *
+	 * @return The hash of the key.
+	 */
+	protected static int hash(long key) {
+		return PackedCoordinates.hash(key);
+	}
+
+
+	/**
+	 * Iterator of the chunks stored in the table, in slot order.
+	 */
+	protected class ChunkIterator implements Iterator<Chunk> {
+
+		/**
+		 * The slots iterated, captured at creation.
+		 */
+		protected Chunk[] slots = values;
+
+		/**
+		 * The index of the next slot to look at.
+		 */
+		protected int index = 0;
+
+		/**
+		 * The last chunk returned.
+		 */
+		protected Chunk last;
+
+
+		public boolean hasNext() {
+
+			while (index < slots.length && (slots[index] == null || slots[index] == REMOVED)) {
+				index++;
+			}
+
+			return index < slots.length;
+		}
+
+		public Chunk next() {
+
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			last = slots[index++];
+
+			return last;
+		}
+
+		public void remove() {
+
+			if (last == null) {
+				throw new IllegalStateException();
+			}
+
+			ChunkTable.this.remove(last.x, last.y);
+			last = null;
+		}
+
+	}
+
+}
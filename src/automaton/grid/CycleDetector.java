@@ -0,0 +1,429 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.grid;
+
+/**
+ * <p>
+ * The cycle detector finds when a whole world repeats
+ * itself, possibly moved, from a window of its recent
+ * generations.
+ * </p>
+ *
+ * <p>
+ * Each generation is recorded with the census of its
+ * living cells: their number, the sums of their coordinates
+ * and their hash. The hash is the sum of the keys of the
+ * cells, the key of the cell (x, y) being A^x * B^y modulo
+ * 2^64. Like a Zobrist hash, it is updated by adding the key
+ * of each born cell and subtracting the key of each dead
+ * one, but moving the cells by (dx, dy) multiplies it by
+ * A^dx * B^dy, so a spaceship is recognized wherever it is.
+ * </p>
+ *
+ * <p>
+ * A generation matches the one a period earlier if it has
+ * the same number of cells, the sums of coordinates give a
+ * whole move, and the hash is the earlier one moved. The
+ * period is confirmed once a whole period has matched,
+ * and dropped as soon as a generation does not match.
+ * </p>
+ *
+ * @see World#fastForward(long)
+ */
+public class CycleDetector {
+
+	/**
+	 * The base of the keys along the abscissa, odd so it can be inverted.
+	 */
+	public static final long A = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The base of the keys along the ordinate, odd so it can be inverted.
+	 */
+	public static final long B = 0xC2B2AE3D27D4EB4FL;
+
+	/**
+	 * The inverses of the bases, modulo 2^64.
+	 */
+	protected static final long INVERSE_A = inverse(A), INVERSE_B = inverse(B);
+
+
+	/**
+	 * The number of generations recorded.
+	 */
+	protected int window;
+
+	/**
+	 * The hash of each recorded generation, by generation modulo the window.
+	 */
+	protected long[] hashes;
+
+	/**
+	 * The number of living cells of each recorded generation.
+	 */
+	protected long[] populations;
+
+	/**
+	 * The sum of the abscissas of each recorded generation.
+	 */
+	protected long[] sumsX;
+
+	/**
+	 * The sum of the ordinates of each recorded generation.
+	 */
+	protected long[] sumsY;
+
+	/**
+	 * The number of consecutive generations recorded,
+	 * up to the last one.
+	 */
+	protected long recorded = 0;
+
+	/**
+	 * The last recorded generation.
+	 */
+	protected long generation = 0;
+
+	/**
+	 * The period being checked or confirmed, 0 if there is none.
+	 */
+	protected int period = 0;
+
+	/**
+	 * The move of the cells over a period.
+	 */
+	protected long dx = 0, dy = 0;
+
+	/**
+	 * The number of consecutive generations matching the period.
+	 */
+	protected long matches = 0;
+
+
+	/**
+	 * Creates a detector of the periods shorter than a window.
+	 *
+	 * @param window The number of generations recorded.
+	 */
+	public CycleDetector(int window) {
+		this.window = Math.max(window, 2);
+		this.hashes = new long[this.window];
+		this.populations = new long[this.window];
+		this.sumsX = new long[this.window];
+		this.sumsY = new long[this.window];
+	}
+
+
+	/**
+	 * Records a generation, and checks if the world is periodic.
+	 *
+	 * @param generation The generation, following the last recorded one.
+	 * @param hash The hash of the living cells.
+	 * @param population The number of living cells.
+	 * @param sumX The sum of the abscissas of the living cells.
+	 * @param sumY The sum of the ordinates of the living cells.
+	 */
+	public void record(long generation, long hash, long population, long sumX, long sumY) {
+
+		if (recorded > 0 && generation != this.generation + 1) {
+			reset();
+		}
+
+		int slot = (int) Math.floorMod(generation, (long) window);
+
+		hashes[slot] = hash;
+		populations[slot] = population;
+		sumsX[slot] = sumX;
+		sumsY[slot] = sumY;
+
+		this.generation = generation;
+		recorded = Math.min(recorded + 1, window);
+
+		if (period != 0 && matches(period) && getMoveX(period) == dx && getMoveY(period) == dy) {
+			matches++;
+			return;
+		}
+
+		period = 0;
+		matches = 0;
+
+		for (int p = 1; p < recorded; p++) {
+
+			if (matches(p)) {
+
+				period = p;
+				dx = getMoveX(p);
+				dy = getMoveY(p);
+				matches = 1;
+
+				return;
+			}
+
+		}
+
+	}
+
+	/**
+	 * Forgets all recorded generations and the period.
+	 */
+	public void reset() {
+		recorded = 0;
+		period = 0;
+		matches = 0;
+	}
+
+	/**
+	 * <p>
+	 * Moves the recorded generations forward by a number
+	 * of periods, as if they had been computed.
+	 * </p>
+	 *
+	 * <p>
+	 * The cells of each generation are moved by the move of
+	 * the period, so the period stays confirmed.
+	 * </p>
+	 *
+	 * @param periods The number of periods.
+	 */
+	public void skip(long periods) {
+
+		if (!isPeriodic() || periods <= 0) {
+			return;
+		}
+
+		long distance = periods * period;
+		long moveX = periods * dx;
+		long moveY = periods * dy;
+		long factor = power(A, moveX) * power(B, moveY);
+
+		long[] hashes = new long[window];
+		long[] populations = new long[window];
+		long[] sumsX = new long[window];
+		long[] sumsY = new long[window];
+
+		for (long g = generation - recorded + 1; g <= generation; g++) {
+
+			int from = (int) Math.floorMod(g, (long) window);
+			int to = (int) Math.floorMod(g + distance, (long) window);
+
+			hashes[to] = this.hashes[from] * factor;
+			populations[to] = this.populations[from];
+			sumsX[to] = this.sumsX[from] + this.populations[from] * moveX;
+			sumsY[to] = this.sumsY[from] + this.populations[from] * moveY;
+
+		}
+
+		this.hashes = hashes;
+		this.populations = populations;
+		this.sumsX = sumsX;
+		this.sumsY = sumsY;
+
+		generation += distance;
+
+	}
+
+
+	/**
+	 * Indicates if a whole period has matched.
+	 *
+	 * @return true if the world is periodic; false otherwise.
+	 */
+	public boolean isPeriodic() {
+		return period != 0 && matches >= period;
+	}
+
+	/**
+	 * Returns the period of the world.
+	 *
+	 * @return The period, or 0 if the world is not periodic.
+	 */
+	public int getPeriod() {
+		return isPeriodic() ? period : 0;
+	}
+
+	/**
+	 * Returns the horizontal move of the cells over a period.
+	 *
+	 * @return The move, 0 if the world is not periodic.
+	 */
+	public long getDisplacementX() {
+		return isPeriodic() ? dx : 0;
+	}
+
+	/**
+	 * Returns the vertical move of the cells over a period.
+	 *
+	 * @return The move, 0 if the world is not periodic.
+	 */
+	public long getDisplacementY() {
+		return isPeriodic() ? dy : 0;
+	}
+
+	/**
+	 * Returns the last recorded generation.
+	 *
+	 * @return The generation.
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+
+	/**
+	 * Indicates if the last generation is the one a period
+	 * earlier, possibly moved.
+	 *
+	 * @param p The period.
+	 *
+	 * @return true if the generations match; false otherwise.
+	 */
+	protected boolean matches(int p) {
+
+		int now = slot(0);
+		int then = slot(p);
+
+		long population = populations[now];
+
+		if (population != populations[then]) {
+			return false;
+		}
+
+		if (population == 0) {
+			return true;
+		}
+
+		long x = sumsX[now] - sumsX[then];
+		long y = sumsY[now] - sumsY[then];
+
+		if (x % population != 0 || y % population != 0) {
+			return false;
+		}
+
+		return hashes[now] == hashes[then] * power(A, x / population) * power(B, y / population);
+	}
+
+	/**
+	 * Returns the horizontal move since the generation a period
+	 * earlier, known to match the last one.
+	 *
+	 * @param p The period.
+	 *
+	 * @return The move.
+	 */
+	protected long getMoveX(int p) {
+
+		long population = populations[slot(0)];
+
+		return population == 0 ? 0 : (sumsX[slot(0)] - sumsX[slot(p)]) / population;
+	}
+
+	/**
+	 * Returns the vertical move since the generation a period
+	 * earlier, known to match the last one.
+	 *
+	 * @param p The period.
+	 *
+	 * @return The move.
+	 */
+	protected long getMoveY(int p) {
+
+		long population = populations[slot(0)];
+
+		return population == 0 ? 0 : (sumsY[slot(0)] - sumsY[slot(p)]) / population;
+	}
+
+	/**
+	 * Returns the slot of a recorded generation.
+	 *
+	 * @param age The number of generations before the last one.
+	 *
+	 * @return The slot.
+	 */
+	protected int slot(int age) {
+		return (int) Math.floorMod(generation - age, (long) window);
+	}
+
+
+	/**
+	 * Returns the key of a cell.
+	 *
+	 * @param x The abscissa of the cell.
+	 * @param y The ordinate of the cell.
+	 *
+	 * @return The key, A^x * B^y modulo 2^64.
+	 */
+	public static long key(long x, long y) {
+		return power(A, x) * power(B, y);
+	}
+
+	/**
+	 * Raises a base to a power modulo 2^64, a negative power
+	 * using the inverse of the base.
+	 *
+	 * @param base One of the bases A and B.
+	 * @param exponent The power.
+	 *
+	 * @return The base raised to the power.
+	 */
+	protected static long power(long base, long exponent) {
+
+		if (exponent < 0) {
+			base = base == A ? INVERSE_A : base == B ? INVERSE_B : inverse(base);
+			exponent = -exponent;
+		}
+
+		long result = 1;
+
+		for (; exponent != 0; exponent >>>= 1, base *= base) {
+
+			if ((exponent & 1) != 0) {
+				result *= base;
+			}
+
+		}
+
+		return result;
+	}
+
+	/**
+	 * Inverts an odd number modulo 2^64, with Newton's method.
+	 *
+	 * @param value The odd number.
+	 *
+	 * @return The inverse.
+	 */
+	protected static long inverse(long value) {
+
+		long inverse = value;
+
+		/* Each step doubles the number of correct low bits, starting from 3. */
+		for (int i = 0; i < 5; i++) {
+			inverse *= 2 - value * inverse;
+		}
+
+		return inverse;
+	}
+
+}
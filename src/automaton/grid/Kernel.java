@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.grid;
+
+import automaton.io.Console;
+
+/**
+ * <p>
+ * A kernel computes the next state of the cells of a chunk,
+ * from the bitboards of the chunk and its eight neighbors.
+ * </p>
+ *
+ * <p>
+ * The bitboards are given row after row, from the south
+ * west one to the north east one, so that the chunk itself
+ * is at the index {@link #CENTER}. A missing neighbor is
+ * given as an empty bitboard.
+ * </p>
+ *
+ * @see Chunk
+ * @see ScalarKernel
+ */
+public interface Kernel {
+
+	/**
+	 * The index of the south west bitboard.
+	 */
+	int SOUTH_WEST = 0;
+
+	/**
+	 * The index of the south bitboard.
+	 */
+	int SOUTH = 1;
+
+	/**
+	 * The index of the south east bitboard.
+	 */
+	int SOUTH_EAST = 2;
+
+	/**
+	 * The index of the west bitboard.
+	 */
+	int WEST = 3;
+
+	/**
+	 * The index of the bitboard of the chunk itself.
+	 */
+	int CENTER = 4;
+
+	/**
+	 * The index of the east bitboard.
+	 */
+	int EAST = 5;
+
+	/**
+	 * The index of the north west bitboard.
+	 */
+	int NORTH_WEST = 6;
+
+	/**
+	 * The index of the north bitboard.
+	 */
+	int NORTH = 7;
+
+	/**
+	 * The index of the north east bitboard.
+	 */
+	int NORTH_EAST = 8;
+
+
+	/**
+	 * Computes the next state of the cells of a chunk.
+	 *
+	 * @param rule The rule making the cells born and survive.
+	 * @param boards The nine bitboards of the neighborhood.
+	 * @param target The bitboard receiving the next state.
+	 */
+	void evolve(Rule rule, long[][] boards, long[] target);
+
+
+	/**
+	 * <p>
+	 * Creates the kernel matching a name: "vector" for the
+	 * {@code VectorKernel}, anything else for the scalar one.
+	 * </p>
+	 *
+	 * <p>
+	 * The vector kernel needs the incubating Vector API, so it
+	 * is loaded by reflection. If it has not been built or the
+	 * module is not available, the scalar kernel is used.
+	 * </p>
+	 *
+	 * @param name The name of the kernel.
+	 *
+	 * @return A kernel.
+	 */
+	static Kernel create(String name) {
+
+		if ("vector".equals(name)) {
+
+			try {
+				return (Kernel) Class.forName("automaton.grid.VectorKernel").getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				Console.err("Vector kernel unavailable, using the scalar kernel.", Kernel.class);
+			}
+
+		}
+
+		return new ScalarKernel();
+	}
+
+}
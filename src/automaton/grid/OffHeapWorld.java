@@ -0,0 +1,905 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.grid;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import automaton.config.Conf;
+import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
+import automaton.maths.Point;
+import automaton.metrics.UpdateEvent;
+import automaton.render.RenderingContext;
+
+/**
+ * <p>
+ * The off heap world is a world whose bitboards are stored
+ * outside of the heap, in a chunk arena.
+ * </p>
+ *
+ * <p>
+ * Each block of the arena holds two bitboards: the living
+ * cells of the current generation and the ones of the next
+ * generation, which take turns. No object is created for a
+ * chunk, so the heap stays almost the same as the pattern
+ * grows, and the garbage collector has nothing to scan.
+ * </p>
+ *
+ * <p>
+ * As for the HashLife world, the chunks of the world are
+ * only a copy of the arena, built again when they are
+ * accessed after an update. A change made to the chunks is
+ * sent back to the arena before the next update. Rendering
+ * and editing cells work directly on the arena.
+ * </p>
+ *
+ * @see ChunkArena
+ * @see World
+ */
+public class OffHeapWorld extends World {
+
+	/**
+	 * The bitboards of all chunks, outside of the heap.
+	 */
+	protected ChunkArena arena = new ChunkArena(2 * Chunk.WORDS);
+
+	/**
+	 * The bitboard of each block holding the current generation,
+	 * 0 or 1, the other one receiving the next generation.
+	 */
+	protected int current = 0;
+
+	/**
+	 * The bitboards of the neighborhood given to the kernel.
+	 */
+	protected long[][] boards = new long[9][];
+
+	/**
+	 * The copies of the bitboards of the neighborhood.
+	 */
+	protected long[][] neighborhood = new long[9][Chunk.WORDS];
+
+	/**
+	 * The bitboard receiving the next generation of a chunk.
+	 */
+	protected long[] target = new long[Chunk.WORDS];
+
+	/**
+	 * The packed coordinates of the chunks to create, kept
+	 * between generations to avoid allocating.
+	 */
+	protected long[] pending = new long[16];
+
+	/**
+	 * The stamp of the last change of each block.
+	 *
+	 * @see World#mark()
+	 */
+	protected long[] stamps = new long[0];
+
+	/**
+	 * Indicates if the chunks are older than the arena.
+	 */
+	protected boolean outdatedChunks = false;
+
+	/**
+	 * Indicates if the arena is older than the chunks.
+	 */
+	protected boolean outdatedArena = false;
+
+	/**
+	 * The bitboard of each block given to the last snapshot,
+	 * shared with the next ones while the block does not change,
+	 * and forgotten when the block is freed.
+	 */
+	protected long[][] published = new long[0][];
+
+	/**
+	 * The mark taken by the last snapshot, the blocks stamped
+	 * after it having changed since.
+	 *
+	 * @see #createSnapshot()
+	 */
+	protected long publishedMark = 0;
+
+
+	/**
+	 * <p>
+	 * Updates all chunks of the arena.
+	 * </p>
+	 *
+	 * <p>
+	 * The neighborhood of each chunk is copied on the heap
+	 * to be given to the kernel, then its next generation is
+	 * copied back to the arena. The chunks are updated one
+	 * after the other, ENGINE_THREADS is not used.
+	 * </p>
+	 */
+	public void update() {
+
+		UpdateEvent event = new UpdateEvent();
+		event.begin();
+
+		if (outdatedArena) {
+			load();
+		}
+
+		expand();
+
+		int state = current * Chunk.WORDS;
+		int next = (current ^ 1) * Chunk.WORDS;
+		int computed = 0;
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			computed++;
+
+			int x = arena.getX(block);
+			int y = arena.getY(block);
+
+			for (int i = 0; i < boards.length; i++) {
+
+				int neighbor = i == Kernel.CENTER ? block : arena.find(x + i % 3 - 1, y + i / 3 - 1);
+
+				if (neighbor < 0) {
+					boards[i] = Chunk.EMPTY;
+				}
+
+				else {
+					arena.read(neighbor, state, neighborhood[i]);
+					boards[i] = neighborhood[i];
+				}
+
+			}
+
+			kernel.evolve(rule, boards, target);
+			arena.write(block, next, target);
+
+			if (!Arrays.equals(target, boards[Kernel.CENTER])) {
+				stamps[block] = stamp;
+			}
+
+		}
+
+		current ^= 1;
+		generation++;
+
+		shrink();
+
+		outdatedChunks = true;
+
+		if (event.shouldCommit()) {
+			event.generation = generation;
+			event.population = getPopulation();
+			event.chunks = computed;
+			event.commit();
+		}
+
+	}
+
+	/**
+	 * Creates the missing chunks around the living borders.
+	 */
+	protected void expand() {
+
+		int state = current * Chunk.WORDS;
+		int numberOfPending = 0;
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			int x = arena.getX(block);
+			int y = arena.getY(block);
+
+			arena.read(block, state, target);
+
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+
+					if ((dx != 0 || dy != 0) && Chunk.hasLivingBorder(target, dx, dy) && arena.find(x + dx, y + dy) < 0 && hasBirths(x + dx, y + dy)) {
+
+						if (numberOfPending == pending.length) {
+							pending = Arrays.copyOf(pending, pending.length * 2);
+						}
+
+						pending[numberOfPending++] = PackedCoordinates.pack(x + dx, y + dy);
+					}
+
+				}
+			}
+
+		}
+
+		/* Created after the loop, a new chunk could take a block not visited yet. */
+		for (int i = 0; i < numberOfPending; i++) {
+			allocate(PackedCoordinates.getX(pending[i]), PackedCoordinates.getY(pending[i]));
+		}
+
+	}
+
+	/**
+	 * Frees the empty chunks which will not see cells born
+	 * at the next generation.
+	 */
+	protected void shrink() {
+
+		int state = current * Chunk.WORDS;
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			arena.read(block, state, target);
+
+			if (!isEmpty(target) || isNeededByNeighbors(arena.getX(block), arena.getY(block))) {
+				continue;
+			}
+
+			arena.free(block);
+
+			if (block < published.length) {
+				published[block] = null;
+			}
+
+		}
+
+	}
+
+	/**
+	 * Indicates if the neighbors of a chunk will make cells
+	 * born in it, which needs a living border facing it.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return true if the chunk is needed; false otherwise.
+	 */
+	protected boolean isNeededByNeighbors(int x, int y) {
+
+		int state = current * Chunk.WORDS;
+		long[] board = neighborhood[0];
+
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+
+				int neighbor = dx != 0 || dy != 0 ? arena.find(x + dx, y + dy) : -1;
+
+				if (neighbor < 0) {
+					continue;
+				}
+
+				arena.read(neighbor, state, board);
+
+				if (Chunk.hasLivingBorder(board, -dx, -dy)) {
+					return hasBirths(x, y);
+				}
+
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Indicates if cells will be born at the next generation
+	 * in a missing or empty chunk, from the neighborhood read
+	 * in the arena.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return true if cells will be born; false otherwise.
+	 */
+	protected boolean hasBirths(int x, int y) {
+
+		int state = current * Chunk.WORDS;
+
+		for (int i = 0; i < boards.length; i++) {
+
+			int neighbor = i == Kernel.CENTER ? -1 : arena.find(x + i % 3 - 1, y + i / 3 - 1);
+
+			if (neighbor < 0) {
+				boards[i] = Chunk.EMPTY;
+			}
+
+			else {
+				arena.read(neighbor, state, neighborhood[i]);
+				boards[i] = neighborhood[i];
+			}
+
+		}
+
+		kernel.evolve(rule, boards, births);
+
+		return !isEmpty(births);
+	}
+
+
+	/**
+	 * Returns the number of living cells, counted straight
+	 * from the arena.
+	 *
+	 * @return The population of the world.
+	 */
+	public long getPopulation() {
+
+		if (outdatedArena) {
+			return super.getPopulation();
+		}
+
+		long population = 0;
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			arena.read(block, current * Chunk.WORDS, target);
+
+			for (long word : target) {
+				population += Long.bitCount(word);
+			}
+
+		}
+
+		return population;
+	}
+
+	/**
+	 * Counts the living cells inside a rectangle, from the
+	 * chunks built again from the arena if needed.
+	 *
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 */
+	protected long query(Rectangle area, CellVisitor visitor) {
+		synchronize(false);
+		return super.query(area, visitor);
+	}
+
+	/**
+	 * Returns the bounds of the living cells, from the chunks
+	 * built again from the arena if needed.
+	 *
+	 * @return The bounds, empty if there is no living cell.
+	 */
+	public Rectangle getBounds() {
+		synchronize(false);
+		return super.getBounds();
+	}
+
+	/**
+	 * Returns the number of living cells, the arena storing
+	 * no other cell.
+	 *
+	 * @return The number of cells.
+	 */
+	public long getNumberOfCells() {
+
+		if (outdatedArena) {
+			return super.getNumberOfCells();
+		}
+
+		return getPopulation();
+	}
+
+	/**
+	 * Creates a snapshot straight from the arena, without
+	 * building the chunks. Only the blocks stamped since the
+	 * last snapshot are copied again.
+	 *
+	 * @return The snapshot.
+	 */
+	protected Snapshot createSnapshot() {
+
+		if (outdatedArena) {
+			return super.createSnapshot();
+		}
+
+		int size = 0;
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (arena.isUsed(block)) {
+				size++;
+			}
+
+		}
+
+		if (published.length < arena.getNumberOfBlocks()) {
+			published = Arrays.copyOf(published, arena.getNumberOfBlocks());
+		}
+
+		int index = 0;
+		long population = 0;
+
+		int[] xs = new int[size];
+		int[] ys = new int[size];
+		long[][] boards = new long[size][];
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			if (published[block] == null || stamps[block] > publishedMark) {
+				published[block] = new long[Chunk.WORDS];
+				arena.read(block, current * Chunk.WORDS, published[block]);
+			}
+
+			for (long word : published[block]) {
+				population += Long.bitCount(word);
+			}
+
+			xs[index] = arena.getX(block);
+			ys[index] = arena.getY(block);
+			boards[index] = published[block];
+
+			index++;
+
+		}
+
+		publishedMark = mark();
+
+		return new Snapshot(generation, population, xs, ys, boards, new long[size][]);
+	}
+
+	/**
+	 * <p>
+	 * Renders all living cells on a canvas through a
+	 * rendering context.
+	 * </p>
+	 *
+	 * <p>
+	 * Only the chunks visible on the canvas are rendered,
+	 * without building them.
+	 * </p>
+	 *
+	 * @param context The rendering context.
+	 */
+	public void render(RenderingContext context) {
+
+		if (outdatedArena) {
+			super.render(context);
+			return;
+		}
+
+		long[] board = new long[Chunk.WORDS];
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			int x = arena.getX(block) << Chunk.SHIFT;
+			int y = arena.getY(block) << Chunk.SHIFT;
+
+			if (!context.isAreaVisible(x, y, Chunk.SIZE)) {
+				continue;
+			}
+
+			if (Conf.CANVAS_ACTIVE_CHUNK_BORDERS) {
+				context.drawChunkBorder(x, y);
+			}
+
+			arena.read(block, current * Chunk.WORDS, board);
+
+			for (int i = 0; i < Chunk.WORDS; i++) {
+
+				long word = board[i];
+
+				while (word != 0) {
+
+					int index = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+					context.drawCell(x + (index & Chunk.MASK), y + (index >>> Chunk.SHIFT), false);
+
+					word &= word - 1;
+
+				}
+
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Changes the state of a cell directly in the arena.
+	 *
+	 * @param cell The packed coordinates of the cell.
+	 * @param alive The new state of the cell.
+	 */
+	protected void set(long cell, boolean alive) {
+
+		int x = PackedCoordinates.getChunkX(cell);
+		int y = PackedCoordinates.getChunkY(cell);
+		int block = alive ? allocate(x, y) : arena.find(x, y);
+
+		if (block < 0) {
+			return;
+		}
+
+		int index = Chunk.indexOf(cell);
+		int word = current * Chunk.WORDS + (index >>> 6);
+
+		long before = arena.get(block, word);
+		long after = alive ? before | (1L << index) : before & ~(1L << index);
+
+		if (after != before) {
+			arena.set(block, word, after);
+			stamps[block] = stamp;
+		}
+
+	}
+
+	/**
+	 * Gives a block of the arena to a chunk, stamped as
+	 * changed if the chunk is new.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return The block of the chunk.
+	 */
+	protected int allocate(int x, int y) {
+
+		int size = arena.size();
+		int block = arena.allocate(x, y);
+
+		if (block >= stamps.length) {
+			stamps = Arrays.copyOf(stamps, Math.max(stamps.length * 2, block + 1));
+		}
+
+		if (arena.size() != size) {
+			stamps[block] = stamp;
+		}
+
+		return block;
+	}
+
+	/**
+	 * Indicates if a cell of the arena is alive.
+	 *
+	 * @param cell The packed coordinates of the cell.
+	 *
+	 * @return true if the cell is alive; false otherwise.
+	 */
+	protected boolean get(long cell) {
+
+		int block = arena.find(PackedCoordinates.getChunkX(cell), PackedCoordinates.getChunkY(cell));
+
+		if (block < 0) {
+			return false;
+		}
+
+		int index = Chunk.indexOf(cell);
+
+		return (arena.get(block, current * Chunk.WORDS + (index >>> 6)) & (1L << index)) != 0;
+	}
+
+
+	/**
+	 * Builds the arena from the living cells of the chunks,
+	 * then forgets the chunks.
+	 */
+	protected void load() {
+
+		arena.clear();
+		published = new long[0][];
+		current = 0;
+
+		Iterator<Entry<Point, Chunk>> chunks = super.getChunks();
+
+		while (chunks.hasNext()) {
+
+			Chunk chunk = chunks.next().getValue();
+
+			if (chunk.getPopulation() == 0) {
+				continue;
+			}
+
+			int block = allocate(chunk.x, chunk.y);
+
+			chunk.readState(target);
+			arena.write(block, 0, target);
+
+			stamps[block] = chunk.stamp;
+
+		}
+
+		dropChunks();
+
+		outdatedArena = false;
+		outdatedChunks = true;
+
+	}
+
+	/**
+	 * Builds the chunks from the living cells of the arena.
+	 */
+	protected void unload() {
+
+		/* Must be done first, building the chunks uses the world. */
+		outdatedChunks = false;
+
+		dropChunks();
+
+		long[] board = new long[Chunk.WORDS];
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block)) {
+				continue;
+			}
+
+			int x = arena.getX(block) << Chunk.SHIFT;
+			int y = arena.getY(block) << Chunk.SHIFT;
+
+			arena.read(block, current * Chunk.WORDS, board);
+
+			for (int i = 0; i < Chunk.WORDS; i++) {
+
+				long word = board[i];
+
+				while (word != 0) {
+
+					int index = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+					super.active(PackedCoordinates.pack(x + (index & Chunk.MASK), y + (index >>> Chunk.SHIFT)));
+
+					word &= word - 1;
+
+				}
+
+			}
+
+			/* Building the chunk is not a change of its cells. */
+			Chunk chunk = chunks.get(arena.getX(block), arena.getY(block));
+
+			if (chunk != null) {
+				chunk.stamp = stamps[block];
+			}
+
+		}
+
+		outdatedArena = false;
+
+	}
+
+	/**
+	 * <p>
+	 * Builds the chunks if they are older than the arena.
+	 * </p>
+	 *
+	 * <p>
+	 * The chunks may be changed by the caller, so the arena
+	 * will be built again before the next update if the
+	 * modify argument is true.
+	 * </p>
+	 *
+	 * @param modify Indicates if the chunks may be changed.
+	 */
+	protected void synchronize(boolean modify) {
+
+		if (outdatedChunks) {
+			unload();
+		}
+
+		if (modify) {
+			outdatedArena = true;
+		}
+
+	}
+
+
+	public void active(long cell) {
+
+		if (outdatedArena) {
+			super.active(cell);
+			return;
+		}
+
+		set(cell, true);
+		outdatedChunks = true;
+
+	}
+
+	public void toogle(Coordinates coordinates) {
+
+		if (outdatedArena) {
+			super.toogle(coordinates);
+			return;
+		}
+
+		long cell = coordinates.toPacked();
+
+		set(cell, !get(cell));
+		outdatedChunks = true;
+
+	}
+
+	public boolean hasChunkAt(Coordinates coordinates) {
+		synchronize(false);
+		return super.hasChunkAt(coordinates);
+	}
+
+	public Chunk getChunkAt(Coordinates coordinates, boolean force) {
+		synchronize(true);
+		return super.getChunkAt(coordinates, force);
+	}
+
+	public Chunk getChunkAt(int x, int y) {
+		synchronize(true);
+		return super.getChunkAt(x, y);
+	}
+
+	public void register(Chunk chunk) {
+		synchronize(true);
+		super.register(chunk);
+	}
+
+	public void remove(Chunk chunk) {
+		synchronize(true);
+		super.remove(chunk);
+	}
+
+	public Iterator<Entry<Point, Chunk>> getChunks() {
+		synchronize(true);
+		return super.getChunks();
+	}
+
+	/**
+	 * Visits the chunks changed since a mark straight from
+	 * the arena, or from the chunks if they are newer.
+	 *
+	 * @param since The mark, or 0 to visit all chunks.
+	 * @param visitor The visitor of the chunks.
+	 */
+	public void forEachChangedChunk(long since, ChunkVisitor visitor) {
+
+		if (outdatedArena) {
+			super.forEachChangedChunk(since, visitor);
+			return;
+		}
+
+		for (int block = 0; block < arena.getNumberOfBlocks(); block++) {
+
+			if (!arena.isUsed(block) || stamps[block] <= since) {
+				continue;
+			}
+
+			arena.read(block, current * Chunk.WORDS, target);
+			visitor.visit(arena.getX(block), arena.getY(block), target);
+
+		}
+
+	}
+
+	public boolean containsChunk(int x, int y) {
+
+		if (outdatedArena) {
+			return super.containsChunk(x, y);
+		}
+
+		return arena.find(x, y) >= 0;
+	}
+
+	public int getNumberOfChunks() {
+
+		if (outdatedArena) {
+			return super.getNumberOfChunks();
+		}
+
+		return arena.size();
+	}
+
+	public int getNumberOfSleepingChunks() {
+		return 0;
+	}
+
+	public int getNumberOfActiveChunks() {
+		return getNumberOfChunks();
+	}
+
+
+	/**
+	 * Clears the entire world by remove all chunks and
+	 * releasing the arena.
+	 */
+	public void clear() {
+
+		super.clear();
+
+		arena.clear();
+		stamps = new long[0];
+		published = new long[0][];
+		current = 0;
+
+		outdatedChunks = false;
+		outdatedArena = false;
+
+	}
+
+	/**
+	 * Indicates if the world contains chunks or not.
+	 *
+	 * @return true if the world is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return getNumberOfChunks() == 0;
+	}
+
+	/**
+	 * Returns the memory allocated outside of the heap for
+	 * the bitboards.
+	 *
+	 * @return The allocated memory, in bytes.
+	 */
+	public long getAllocatedMemory() {
+		return arena.getAllocatedMemory();
+	}
+
+
+	/**
+	 * Indicates if a bitboard holds no living cell.
+	 *
+	 * @param board The bitboard.
+	 *
+	 * @return true if the bitboard is empty; false otherwise.
+	 */
+	protected static boolean isEmpty(long[] board) {
+
+		for (int i = 0; i < board.length; i++) {
+
+			if (board[i] != 0) {
+				return false;
+			}
+
+		}
+
+		return true;
+	}
+
+}
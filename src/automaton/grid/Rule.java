@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.grid;
+
+/**
+ * <p>
+ * A rule tells which cells are born and which cells survive
+ * according to their number of living neighbors, like the
+ * rules of the Game of Life.
+ * </p>
+ *
+ * <p>
+ * A rule is written as a rulestring, such as "B3/S23" for
+ * the Game of Life or "B36/S23" for HighLife: the digits
+ * after B are the numbers of neighbors making a dead cell
+ * born, the digits after S are the numbers of neighbors
+ * keeping a living cell alive. The older "23/3" notation,
+ * survival first, is also accepted.
+ * </p>
+ *
+ * <p>
+ * The rulestring is compiled once into lookup tables, so
+ * the next state of a cell is found with a single index.
+ * </p>
+ *
+ * @see World#getRule()
+ * @see Kernel
+ */
+public class Rule {
+
+	/**
+	 * The rule of the Game of Life.
+	 */
+	public static final Rule LIFE = parse("B3/S23");
+
+	/**
+	 * The rule of HighLife, where cells are also born with 6 neighbors.
+	 */
+	public static final Rule HIGHLIFE = parse("B36/S23");
+
+
+	/**
+	 * The next state of a cell, indexed by its number of living
+	 * neighbors, plus 9 if the cell is alive.
+	 */
+	protected final boolean[] table = new boolean[18];
+
+	/**
+	 * For each number of neighbors, all bits set if a dead
+	 * cell is born, no bit set otherwise.
+	 */
+	protected final long[] births = new long[9];
+
+	/**
+	 * For each number of neighbors, all bits set if a living
+	 * cell survives, no bit set otherwise.
+	 */
+	protected final long[] survivals = new long[9];
+
+	/**
+	 * The normalized rulestring.
+	 */
+	protected final String rulestring;
+
+
+	/**
+	 * Creates a rule from the numbers of neighbors making a
+	 * cell born, and keeping a cell alive.
+	 *
+	 * @param birth One bit for each number of neighbors making a cell born.
+	 * @param survival One bit for each number of neighbors keeping a cell alive.
+	 */
+	protected Rule(int birth, int survival) {
+
+		StringBuilder born = new StringBuilder("B");
+		StringBuilder survive = new StringBuilder("S");
+
+		for (int n = 0; n <= 8; n++) {
+
+			if ((birth & (1 << n)) != 0) {
+				table[n] = true;
+				births[n] = -1L;
+				born.append(n);
+			}
+
+			if ((survival & (1 << n)) != 0) {
+				table[n + 9] = true;
+				survivals[n] = -1L;
+				survive.append(n);
+			}
+
+		}
+
+		this.rulestring = born + "/" + survive;
+	}
+
+
+	/**
+	 * <p>
+	 * Compiles a rulestring, such as "B3/S23".
+	 * </p>
+	 *
+	 * <p>
+	 * The rules making cells born without neighbors are not
+	 * supported, as they would fill the infinite grid.
+	 * </p>
+	 *
+	 * @param rulestring The rulestring, in B/S or S/B notation.
+	 *
+	 * @return The compiled rule.
+	 *
+	 * @throws IllegalArgumentException If the rulestring is not valid.
+	 */
+	public static Rule parse(String rulestring) {
+
+		String[] parts = rulestring.trim().toUpperCase().split("/", -1);
+
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Invalid rulestring: " + rulestring);
+		}
+
+		int birth;
+		int survival;
+
+		/* Without letters, the survival comes first: "23/3". */
+		if (parts[0].startsWith("B") || parts[1].startsWith("S")) {
+			birth = digits(parts[0], 'B', rulestring);
+			survival = digits(parts[1], 'S', rulestring);
+		}
+
+		else {
+			birth = digits(parts[1], 'B', rulestring);
+			survival = digits(parts[0], 'S', rulestring);
+		}
+
+		if ((birth & 1) != 0) {
+			throw new IllegalArgumentException("Rules with B0 are not supported: " + rulestring);
+		}
+
+		return new Rule(birth, survival);
+	}
+
+	/**
+	 * Reads the numbers of neighbors of a part of a rulestring.
+	 *
+	 * @param part The part, with or without its letter.
+	 * @param letter The letter expected before the digits.
+	 * @param rulestring The whole rulestring, for the error message.
+	 *
+	 * @return One bit for each number of neighbors.
+	 */
+	private static int digits(String part, char letter, String rulestring) {
+
+		if (!part.isEmpty() && part.charAt(0) == letter) {
+			part = part.substring(1);
+		}
+
+		int bits = 0;
+
+		for (int i = 0; i < part.length(); i++) {
+
+			char digit = part.charAt(i);
+
+			if (digit < '0' || digit > '8') {
+				throw new IllegalArgumentException("Invalid rulestring: " + rulestring);
+			}
+
+			bits |= 1 << (digit - '0');
+		}
+
+		return bits;
+	}
+
+
+	/**
+	 * Returns the next state of a cell.
+	 *
+	 * @param alive The current state of the cell.
+	 * @param neighbors The number of living neighbors of the cell.
+	 *
+	 * @return true if the cell is alive at the next generation; false otherwise.
+	 */
+	public boolean next(boolean alive, int neighbors) {
+		return table[alive ? neighbors + 9 : neighbors];
+	}
+
+	/**
+	 * Returns the mask of the cells born with a number of neighbors.
+	 *
+	 * @param neighbors The number of living neighbors.
+	 *
+	 * @return All bits set if dead cells are born; no bit set otherwise.
+	 */
+	public long getBirthMask(int neighbors) {
+		return births[neighbors];
+	}
+
+	/**
+	 * Returns the mask of the cells surviving with a number of neighbors.
+	 *
+	 * @param neighbors The number of living neighbors.
+	 *
+	 * @return All bits set if living cells survive; no bit set otherwise.
+	 */
+	public long getSurvivalMask(int neighbors) {
+		return survivals[neighbors];
+	}
+
+
+	/**
+	 * Returns the normalized rulestring, such as "B3/S23".
+	 */
+	public String toString() {
+		return rulestring;
+	}
+
+	/**
+	 * Returns the hash code of the rulestring.
+	 *
+	 * @see #toString()
+	 */
+	public int hashCode() {
+		return rulestring.hashCode();
+	}
+
+	/**
+	 * Indicates if two rules make the same cells born and survive.
+	 */
+	public boolean equals(Object object) {
+		return object instanceof Rule && rulestring.equals(((Rule) object).rulestring);
+	}
+
+}
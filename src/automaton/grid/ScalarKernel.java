@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.grid;
+
+import static automaton.grid.Chunk.WORDS;
+import static automaton.grid.Chunk.down;
+import static automaton.grid.Chunk.eastOf;
+import static automaton.grid.Chunk.isRowEnd;
+import static automaton.grid.Chunk.isRowStart;
+import static automaton.grid.Chunk.left;
+import static automaton.grid.Chunk.right;
+import static automaton.grid.Chunk.up;
+import static automaton.grid.Chunk.westOf;
+
+/**
+ * <p>
+ * The scalar kernel computes the next state of a chunk one
+ * long of its bitboard at a time.
+ * </p>
+ *
+ * <p>
+ * The eight neighbors of every cell of a long are aligned on
+ * the cell bit by shifting, then added with bitwise full
+ * adders, so that 64 cells are updated at once. Rules
+ * never making cells born without neighbors are supported.
+ * </p>
+ *
+ * @see Kernel
+ */
+public class ScalarKernel implements Kernel {
+
+	public void evolve(Rule rule, long[][] boards, long[] target) {
+
+		long[] center = boards[CENTER];
+		long[] north = boards[NORTH];
+		long[] south = boards[SOUTH];
+
+		for (int i = 0; i < WORDS; i++) {
+
+			/* The longs on the sides come from the same chunk, unless the rows start or end there. */
+			int w = westOf(i);
+			int e = eastOf(i);
+
+			boolean start = isRowStart(i);
+			boolean end = isRowEnd(i);
+
+			long[] west = start ? boards[WEST] : center;
+			long[] east = end ? boards[EAST] : center;
+
+			target[i] = evolve(
+				rule,
+				center[i],
+				up(center, north, i),
+				down(center, south, i),
+				west[w],
+				up(west, start ? boards[NORTH_WEST] : north, w),
+				down(west, start ? boards[SOUTH_WEST] : south, w),
+				east[e],
+				up(east, end ? boards[NORTH_EAST] : north, e),
+				down(east, end ? boards[SOUTH_EAST] : south, e)
+			);
+
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Computes the next state of the cells stored in a long
+	 * according to a rule.
+	 * </p>
+	 * 
+	 * <p>
+	 * The number of neighbors of every cell is counted at
+	 * once with full adders, one bit plane per power of two.
+	 * The cells having each number of neighbors are then
+	 * born or kept alive according to the masks of the rule.
+	 * </p>
+	 * 
+	 * @return The next state of the cells.
+	 */
+	protected static long evolve(Rule rule, long center, long north, long south, long west, long northWest, long southWest, long east, long northEast, long southEast) {
+
+		long nw = left(north, northWest);
+		long ne = right(north, northEast);
+		long w = left(center, west);
+		long e = right(center, east);
+		long sw = left(south, southWest);
+		long se = right(south, southEast);
+
+		/* Sum of each row of neighbors, on two bits. */
+		long north0 = nw ^ north ^ ne;
+		long north1 = (nw & north) | (ne & (nw ^ north));
+		long middle0 = w ^ e;
+		long middle1 = w & e;
+		long south0 = sw ^ south ^ se;
+		long south1 = (sw & south) | (se & (sw ^ south));
+
+		/* Sum of the three rows. */
+		long ones = north0 ^ middle0 ^ south0;
+		long carry = (north0 & middle0) | (south0 & (north0 ^ middle0));
+
+		long pairs0 = north1 ^ middle1 ^ south1;
+		long pairs1 = (north1 & middle1) | (south1 & (north1 ^ middle1));
+
+		long twos = pairs0 ^ carry;
+		carry = pairs0 & carry;
+
+		long fours = pairs1 ^ carry;
+		long eights = pairs1 & carry;
+
+		/* The cells having 0 to 3, 4 to 7 and 8 neighbors, then 0 to 3 neighbors more. */
+		long low = ~fours & ~eights;
+
+		long count0 = ~ones & ~twos;
+		long count1 = ones & ~twos;
+		long count2 = ~ones & twos;
+		long count3 = ones & twos;
+
+		long born = (count1 & low & rule.births[1])
+			| (count2 & low & rule.births[2])
+			| (count3 & low & rule.births[3])
+			| (count0 & fours & rule.births[4])
+			| (count1 & fours & rule.births[5])
+			| (count2 & fours & rule.births[6])
+			| (count3 & fours & rule.births[7])
+			| (eights & rule.births[8]);
+
+		long survive = (count0 & low & rule.survivals[0])
+			| (count1 & low & rule.survivals[1])
+			| (count2 & low & rule.survivals[2])
+			| (count3 & low & rule.survivals[3])
+			| (count0 & fours & rule.survivals[4])
+			| (count1 & fours & rule.survivals[5])
+			| (count2 & fours & rule.survivals[6])
+			| (count3 & fours & rule.survivals[7])
+			| (eights & rule.survivals[8]);
+
+		return (born & ~center) | (survive & center);
+	}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.grid;
+
+import java.awt.Rectangle;
+
+import automaton.config.Conf;
+import automaton.render.RenderingContext;
+
+/**
+ * <p>
+ * A snapshot is an immutable copy of the living cells of
+ * a world at a generation, published by the simulation so
+ * that the canvas renders it without locking the world.
+ * </p>
+ *
+ * <p>
+ * The snapshot holds a bitboard per chunk. The bitboard of
+ * a chunk which has not changed since the previous snapshot
+ * is shared with it rather than copied again, and is never
+ * written after being published.
+ * </p>
+ *
+ * @see World#publish()
+ * @see World#getSnapshot()
+ */
+public class Snapshot {
+
+	/**
+	 * The snapshot of an empty world.
+	 */
+	public static final Snapshot EMPTY = new Snapshot(0, 0, new int[0], new int[0], new long[0][], new long[0][]);
+
+
+	/**
+	 * The generation of the world.
+	 */
+	protected final long generation;
+
+	/**
+	 * The number of living cells.
+	 */
+	protected final long population;
+
+	/**
+	 * The abscissa of each chunk, in chunk format.
+	 */
+	protected final int[] xs;
+
+	/**
+	 * The ordinate of each chunk, in chunk format.
+	 */
+	protected final int[] ys;
+
+	/**
+	 * The living cells of each chunk.
+	 */
+	protected final long[][] boards;
+
+	/**
+	 * The living cells of each chunk dying at the next
+	 * generation, null if they are not colored or if no
+	 * cell is dying.
+	 */
+	protected final long[][] dying;
+
+
+	/**
+	 * Creates a snapshot from the bitboards of the chunks,
+	 * which must not be written afterwards.
+	 *
+	 * @param generation The generation of the world.
+	 * @param population The number of living cells.
+	 * @param xs The abscissa of each chunk, in chunk format.
+	 * @param ys The ordinate of each chunk, in chunk format.
+	 * @param boards The living cells of each chunk.
+	 * @param dying The dying cells of each chunk, or null.
+	 */
+	public Snapshot(long generation, long population, int[] xs, int[] ys, long[][] boards, long[][] dying) {
+		this.generation = generation;
+		this.population = population;
+		this.xs = xs;
+		this.ys = ys;
+		this.boards = boards;
+		this.dying = dying;
+	}
+
+
+	/**
+	 * Renders the living cells visible on a canvas through
+	 * a rendering context.
+	 *
+	 * @param context The rendering context.
+	 */
+	public void render(RenderingContext context) {
+
+		for (int i = 0; i < boards.length; i++) {
+
+			int x = xs[i] << Chunk.SHIFT;
+			int y = ys[i] << Chunk.SHIFT;
+
+			if (!context.isAreaVisible(x, y, Chunk.SIZE)) {
+				continue;
+			}
+
+			if (Conf.CANVAS_ACTIVE_CHUNK_BORDERS) {
+				context.drawChunkBorder(x, y);
+			}
+
+			long[] board = boards[i];
+			long[] dying = this.dying[i];
+
+			for (int j = 0; j < Chunk.WORDS; j++) {
+
+				long word = board[j];
+
+				while (word != 0) {
+
+					int bit = Long.numberOfTrailingZeros(word);
+					int index = j * Long.SIZE + bit;
+
+					context.drawCell(x + (index & Chunk.MASK), y + (index >>> Chunk.SHIFT), dying != null && (dying[j] & (1L << bit)) != 0);
+
+					word &= word - 1;
+
+				}
+
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Indicates if a cell was living.
+	 *
+	 * @param x The absolute abscissa of the cell.
+	 * @param y The absolute ordinate of the cell.
+	 *
+	 * @return true if the cell was living; false otherwise.
+	 */
+	public boolean isAlive(int x, int y) {
+
+		int index = ((y & Chunk.MASK) << Chunk.SHIFT) | (x & Chunk.MASK);
+
+		for (int i = 0; i < boards.length; i++) {
+
+			if (xs[i] == x >> Chunk.SHIFT && ys[i] == y >> Chunk.SHIFT) {
+				return (boards[i][index >>> 6] & (1L << index)) != 0;
+			}
+
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the number of living cells inside a rectangle.
+	 *
+	 * @param area The rectangle, in absolute coordinates, its
+	 * location being its south west cell.
+	 *
+	 * @return The number of living cells.
+	 *
+	 * @see World#count(Rectangle)
+	 */
+	public long count(Rectangle area) {
+		return query(area, null);
+	}
+
+	/**
+	 * Gives the living cells inside a rectangle to a visitor.
+	 *
+	 * @param area The rectangle, in absolute coordinates, its
+	 * location being its south west cell.
+	 * @param visitor The visitor of the cells.
+	 *
+	 * @return The number of living cells visited.
+	 *
+	 * @see World#forEach(Rectangle, CellVisitor)
+	 */
+	public long forEach(Rectangle area, CellVisitor visitor) {
+		return query(area, visitor);
+	}
+
+	/**
+	 * Counts the living cells inside a rectangle, and gives
+	 * them to a visitor if there is one, skipping the chunks
+	 * outside of the rectangle.
+	 *
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 */
+	protected long query(Rectangle area, CellVisitor visitor) {
+
+		if (area.isEmpty()) {
+			return 0;
+		}
+
+		int minX = area.x >> Chunk.SHIFT;
+		int minY = area.y >> Chunk.SHIFT;
+		int maxX = (int) (((long) area.x + area.width - 1) >> Chunk.SHIFT);
+		int maxY = (int) (((long) area.y + area.height - 1) >> Chunk.SHIFT);
+
+		long count = 0;
+
+		for (int i = 0; i < boards.length; i++) {
+
+			if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+				count += Chunk.query(boards[i], xs[i], ys[i], area, visitor);
+			}
+
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the number of living cells.
+	 *
+	 * @return The population.
+	 */
+	public long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Returns the generation of the world.
+	 *
+	 * @return The generation.
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+}
@@ -0,0 +1,326 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.grid;
+
+import static automaton.grid.Chunk.FIRST_COLUMN;
+import static automaton.grid.Chunk.LAST_COLUMN;
+import static automaton.grid.Chunk.WIDTH;
+import static automaton.grid.Chunk.WORDS;
+import static automaton.grid.Chunk.down;
+import static automaton.grid.Chunk.eastOf;
+import static automaton.grid.Chunk.isRowEnd;
+import static automaton.grid.Chunk.isRowStart;
+import static automaton.grid.Chunk.up;
+import static automaton.grid.Chunk.westOf;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>
+ * The vector kernel computes the next state of a chunk with
+ * the Vector API, several longs of its bitboard at a time.
+ * </p>
+ *
+ * <p>
+ * The rows above and below each long cross the longs, so they
+ * are prepared first. The columns on the sides and the full
+ * adders only work inside a long, so they are computed on all
+ * lanes at once. The longs that do not fill a whole vector
+ * are left to the scalar kernel.
+ * </p>
+ *
+ * <p>
+ * Each step is a loop of its own over the bitboard, writing over
+ * the rows: in a single loop, the compiler stops inlining the Vector
+ * API before the end and allocates each vector on the heap.
+ * </p>
+ *
+ * <p>
+ * This kernel needs the {@code jdk.incubator.vector} module,
+ * and is only built with the {@code vector} option.
+ * </p>
+ *
+ * @see Kernel
+ * @see ScalarKernel
+ */
+public class VectorKernel implements Kernel {
+
+	/**
+	 * The widest species not having more lanes than a bitboard has longs.
+	 */
+	protected static final VectorSpecies<Long> SPECIES = species();
+
+	/**
+	 * The longs around each long of the chunk, one array
+	 * per thread since chunks are updated in parallel.
+	 */
+	protected static final ThreadLocal<long[][]> ROWS = ThreadLocal.withInitial(() -> new long[8][WORDS]);
+
+
+	public void evolve(Rule rule, long[][] boards, long[] target) {
+
+		long[] center = boards[CENTER];
+
+		long[][] rows = ROWS.get();
+		long[] north = rows[0];
+		long[] south = rows[1];
+		long[] west = rows[2];
+		long[] northWest = rows[3];
+		long[] southWest = rows[4];
+		long[] east = rows[5];
+		long[] northEast = rows[6];
+		long[] southEast = rows[7];
+
+		for (int i = 0; i < WORDS; i++) {
+
+			int w = westOf(i);
+			int e = eastOf(i);
+
+			boolean start = isRowStart(i);
+			boolean end = isRowEnd(i);
+
+			long[] sideWest = start ? boards[WEST] : center;
+			long[] sideEast = end ? boards[EAST] : center;
+
+			north[i] = up(center, boards[NORTH], i);
+			south[i] = down(center, boards[SOUTH], i);
+			west[i] = sideWest[w];
+			northWest[i] = up(sideWest, start ? boards[NORTH_WEST] : boards[NORTH], w);
+			southWest[i] = down(sideWest, start ? boards[SOUTH_WEST] : boards[SOUTH], w);
+			east[i] = sideEast[e];
+			northEast[i] = up(sideEast, end ? boards[NORTH_EAST] : boards[NORTH], e);
+			southEast[i] = down(sideEast, end ? boards[SOUTH_EAST] : boards[SOUTH], e);
+
+		}
+
+		int bound = SPECIES.loopBound(WORDS);
+
+		for (int i = bound; i < WORDS; i++) {
+			target[i] = ScalarKernel.evolve(rule, center[i], north[i], south[i], west[i], northWest[i], southWest[i], east[i], northEast[i], southEast[i]);
+		}
+
+		left(center, west, bound);
+		left(north, northWest, bound);
+		left(south, southWest, bound);
+		right(center, east, bound);
+		right(north, northEast, bound);
+		right(south, southEast, bound);
+
+		count(rows, bound);
+		apply(rule, center, rows, target, bound);
+
+	}
+
+
+	/**
+	 * Counts the neighbors of the cells of the longs below the bound,
+	 * writing the bits of the counts over the first four rows.
+	 *
+	 * @param rows The neighbors of the cells, once shifted.
+	 * @param bound The number of longs filling whole vectors.
+	 */
+	protected static void count(long[][] rows, int bound) {
+
+		for (int i = 0; i < bound; i += SPECIES.length()) {
+
+			LongVector n = LongVector.fromArray(SPECIES, rows[0], i);
+			LongVector s = LongVector.fromArray(SPECIES, rows[1], i);
+			LongVector w = LongVector.fromArray(SPECIES, rows[2], i);
+			LongVector nw = LongVector.fromArray(SPECIES, rows[3], i);
+			LongVector sw = LongVector.fromArray(SPECIES, rows[4], i);
+			LongVector e = LongVector.fromArray(SPECIES, rows[5], i);
+			LongVector ne = LongVector.fromArray(SPECIES, rows[6], i);
+			LongVector se = LongVector.fromArray(SPECIES, rows[7], i);
+
+			/* Sum of each row of neighbors, on two bits. */
+			LongVector north0 = xor(xor(nw, n), ne);
+			LongVector north1 = nw.and(n).or(ne.and(xor(nw, n)));
+			LongVector middle0 = xor(w, e);
+			LongVector middle1 = w.and(e);
+			LongVector south0 = xor(xor(sw, s), se);
+			LongVector south1 = sw.and(s).or(se.and(xor(sw, s)));
+
+			/* Sum of the three rows. */
+			LongVector ones = xor(xor(north0, middle0), south0);
+			LongVector carry = north0.and(middle0).or(south0.and(xor(north0, middle0)));
+
+			LongVector pairs0 = xor(xor(north1, middle1), south1);
+			LongVector pairs1 = north1.and(middle1).or(south1.and(xor(north1, middle1)));
+
+			LongVector twos = xor(pairs0, carry);
+			carry = pairs0.and(carry);
+
+			ones.intoArray(rows[0], i);
+			twos.intoArray(rows[1], i);
+			xor(pairs1, carry).intoArray(rows[2], i);
+			pairs1.and(carry).intoArray(rows[3], i);
+		}
+
+	}
+
+
+	/**
+	 * Applies the rule to the cells of the longs below the bound,
+	 * from the bits of the counts written by {@link #count}.
+	 *
+	 * @param rule The rule of the world.
+	 * @param center The bitboard of the chunk.
+	 * @param rows The bits of the counts, in the first four rows.
+	 * @param target The bitboard of the next state.
+	 * @param bound The number of longs filling whole vectors.
+	 */
+	protected static void apply(Rule rule, long[] center, long[][] rows, long[] target, int bound) {
+
+		for (int i = 0; i < bound; i += SPECIES.length()) {
+
+			LongVector c = LongVector.fromArray(SPECIES, center, i);
+			LongVector ones = LongVector.fromArray(SPECIES, rows[0], i);
+			LongVector twos = LongVector.fromArray(SPECIES, rows[1], i);
+			LongVector fours = LongVector.fromArray(SPECIES, rows[2], i);
+			LongVector eights = LongVector.fromArray(SPECIES, rows[3], i);
+
+			/* The cells having 0 to 3, 4 to 7 and 8 neighbors, then 0 to 3 neighbors more. */
+			LongVector low = fours.or(eights).not();
+
+			LongVector count0 = ones.or(twos).not();
+			LongVector count1 = ones.and(twos.not());
+			LongVector count2 = twos.and(ones.not());
+			LongVector count3 = ones.and(twos);
+
+			LongVector count4 = count0.and(fours);
+			LongVector count5 = count1.and(fours);
+			LongVector count6 = count2.and(fours);
+			LongVector count7 = count3.and(fours);
+
+			count0 = count0.and(low);
+			count1 = count1.and(low);
+			count2 = count2.and(low);
+			count3 = count3.and(low);
+
+			LongVector born = count1.and(rule.births[1])
+				.or(count2.and(rule.births[2]))
+				.or(count3.and(rule.births[3]))
+				.or(count4.and(rule.births[4]))
+				.or(count5.and(rule.births[5]))
+				.or(count6.and(rule.births[6]))
+				.or(count7.and(rule.births[7]))
+				.or(eights.and(rule.births[8]));
+
+			LongVector survive = count0.and(rule.survivals[0])
+				.or(count1.and(rule.survivals[1]))
+				.or(count2.and(rule.survivals[2]))
+				.or(count3.and(rule.survivals[3]))
+				.or(count4.and(rule.survivals[4]))
+				.or(count5.and(rule.survivals[5]))
+				.or(count6.and(rule.survivals[6]))
+				.or(count7.and(rule.survivals[7]))
+				.or(eights.and(rule.survivals[8]));
+
+			born.and(c.not()).or(survive.and(c)).intoArray(target, i);
+		}
+
+	}
+
+
+	/**
+	 * Shifts the longs below the bound one column to the east,
+	 * writing them over the longs on their west.
+	 *
+	 * @param center The longs to shift.
+	 * @param west The longs on their west.
+	 * @param bound The number of longs filling whole vectors.
+	 */
+	protected static void left(long[] center, long[] west, int bound) {
+		for (int i = 0; i < bound; i += SPECIES.length()) {
+			left(LongVector.fromArray(SPECIES, center, i), LongVector.fromArray(SPECIES, west, i)).intoArray(west, i);
+		}
+	}
+
+
+	/**
+	 * Shifts the longs below the bound one column to the west,
+	 * writing them over the longs on their east.
+	 *
+	 * @param center The longs to shift.
+	 * @param east The longs on their east.
+	 * @param bound The number of longs filling whole vectors.
+	 */
+	protected static void right(long[] center, long[] east, int bound) {
+		for (int i = 0; i < bound; i += SPECIES.length()) {
+			right(LongVector.fromArray(SPECIES, center, i), LongVector.fromArray(SPECIES, east, i)).intoArray(east, i);
+		}
+	}
+
+
+	/**
+	 * Shifts the cells of each lane one column to the east,
+	 * bringing the last column of the west lanes in.
+	 *
+	 * @see Chunk#left(long, long)
+	 */
+	protected static LongVector left(LongVector center, LongVector west) {
+		return center.lanewise(VectorOperators.LSHL, 1).and(~FIRST_COLUMN)
+			.or(west.lanewise(VectorOperators.LSHR, WIDTH - 1).and(FIRST_COLUMN));
+	}
+
+	/**
+	 * Shifts the cells of each lane one column to the west,
+	 * bringing the first column of the east lanes in.
+	 *
+	 * @see Chunk#right(long, long)
+	 */
+	protected static LongVector right(LongVector center, LongVector east) {
+		return center.lanewise(VectorOperators.LSHR, 1).and(~LAST_COLUMN)
+			.or(east.lanewise(VectorOperators.LSHL, WIDTH - 1).and(LAST_COLUMN));
+	}
+
+	/**
+	 * Computes the exclusive or of two vectors.
+	 */
+	protected static LongVector xor(LongVector a, LongVector b) {
+		return a.lanewise(VectorOperators.XOR, b);
+	}
+
+	/**
+	 * Finds the widest species whose lanes fit in a bitboard.
+	 *
+	 * @return A species of longs.
+	 */
+	private static VectorSpecies<Long> species() {
+
+		VectorSpecies<Long> species = LongVector.SPECIES_PREFERRED;
+
+		while (species.length() > WORDS && species.vectorBitSize() > Long.SIZE) {
+			species = VectorSpecies.of(long.class, VectorShape.forBitSize(species.vectorBitSize() / 2));
+		}
+
+		return species;
+	}
+
+}
@@ -24,13 +24,26 @@
 
 package automaton.grid;
 
+import java.awt.Rectangle;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.LongStream;
+
+import automaton.config.Conf;
 
 import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
 import automaton.maths.Point;
+import automaton.metrics.ChunkCreatedEvent;
+import automaton.metrics.ChunkRemovedEvent;
+import automaton.metrics.UpdateEvent;
 import automaton.render.RenderingContext;
 
 /**
@@ -44,6 +57,13 @@ import automaton.render.RenderingContext;
  * contains cells.
  * </p>
  *
+ * <p>
+ * If ENGINE_PAGING_IDLE is greater than 0, the chunks
+ * sleeping for this number of generations are spilled to
+ * a file by a {@link ChunkPager}, and brought back as soon
+ * as something changes around them or they are requested.
+ * </p>
+ *
  * @author Adrien Belminksy
  * @see Chunk
  * @see Cell
@@ -51,227 +71,1929 @@ import automaton.render.RenderingContext;
 public class World {
 
 	/**
-	 * The map where all chunks are stored with their coordinates.
+	 * The table where all chunks are stored with their coordinates.
 	 */
-	protected Map<Point, Chunk> chunks = new ConcurrentHashMap<>();
+	protected ChunkTable chunks = new ChunkTable();
 
+	/**
+	 * The chunks created by the last expansion, kept between
+	 * generations to avoid allocating a new list each time.
+	 *
+	 * @see #expand()
+	 */
+	protected List<Chunk> created = new ArrayList<>();
 
 	/**
-	 * Updates all chunks.
+	 * The bitboards of the neighborhood of a missing chunk,
+	 * given to the kernel to find its births.
+	 *
+	 * @see #hasBirths(int, int)
 	 */
-	public void update() {
+	protected long[][] surroundings = new long[9][];
 
-		Iterator<Entry<Point, Chunk>> iterator = getChunks();
-		Chunk chunk;
+	/**
+	 * The bitboard receiving the births of a missing chunk.
+	 *
+	 * @see #hasBirths(int, int)
+	 */
+	protected long[] births = new long[Chunk.WORDS];
 
-		while (iterator.hasNext()) {
+	/**
+	 * The pool of threads updating the chunks in parallel,
+	 * shared by all worlds.
+	 *
+	 * @see #getPool()
+	 */
+	protected static ForkJoinPool pool;
 
-			iterator.next().getValue().updateNextState();
+	/**
+	 * The number of chunks skipped at the last generation.
+	 *
+	 * @see Chunk#isSleeping()
+	 */
+	protected int sleeping = 0;
 
-		}
+	/**
+	 * The kernel computing the next state of the chunks.
+	 *
+	 * @see Conf#ENGINE_KERNEL
+	 */
+	protected Kernel kernel = Kernel.create(Conf.ENGINE_KERNEL);
 
-		iterator = getChunks();
+	/**
+	 * The rule making the cells born and survive.
+	 */
+	protected Rule rule = Rule.LIFE;
 
-		while (iterator.hasNext()) {
+	/**
+	 * The pager keeping the chunks spilled out of the world.
+	 *
+	 * @see Conf#ENGINE_PAGING_IDLE
+	 */
+	protected ChunkPager pager = new ChunkPager();
 
-			chunk = iterator.next().getValue();
+	/**
+	 * The chunks idle for long enough to be spilled, collected
+	 * by the last shrink.
+	 *
+	 * @see #evict()
+	 */
+	protected List<Chunk> idle = new ArrayList<>();
 
-			chunk.updateState();
+	/**
+	 * The chunks computed at this generation whose missing
+	 * neighbors are checked.
+	 *
+	 * @see #faultIn()
+	 */
+	protected List<Chunk> pending = new ArrayList<>();
 
-			if (chunk.isEmpty()) {
-				remove(chunk);
-				iterator.remove();
-			}
+	/**
+	 * Sorts the chunks from the longest sleeping one.
+	 */
+	protected static final Comparator<Chunk> LEAST_RECENTLY_ACTIVE = (a, b) -> Integer.compare(b.idle, a.idle);
 
-		}
+	/**
+	 * The number of generations computed or skipped since
+	 * the world has been cleared.
+	 */
+	protected volatile long generation = 0;
 
-	}
+	/**
+	 * The stamp given to the chunks whose living cells change,
+	 * greater than the ones given before the last mark and
+	 * advanced at each generation.
+	 *
+	 * @see #mark()
+	 */
+	protected long stamp = 1;
 
 	/**
-	 * Renders all chunks on a canvas through a rendering context.
+	 * The stamp of the last removal of a chunk or change of
+	 * rule, before which the missing chunks found without
+	 * births must be checked again.
 	 *
-	 * @param context The rendering context.
+	 * @see #isUnchanged(Chunk, int, int)
 	 */
-	public void render(RenderingContext context) {
+	protected long invalidated = 0;
 
-		Iterator<Entry<Point, Chunk>> iterator = getChunks();
+	/**
+	 * Indicates if the chunks count their living cells
+	 * for the cycle detector.
+	 *
+	 * @see Chunk#count(long[], long[])
+	 */
+	protected boolean counting = false;
 
-		while (iterator.hasNext()) {
+	/**
+	 * The detector of the periods of the world.
+	 */
+	protected CycleDetector cycles = new CycleDetector(Conf.ENGINE_CYCLES_WINDOW);
 
-			iterator.next().getValue().render(context);
+	/**
+	 * The census of the world being taken.
+	 *
+	 * @see #census()
+	 */
+	protected long[] census = new long[4];
 
-		}
+	/**
+	 * The number of living cells, including the spilled ones,
+	 * kept up to date at each generation and at each edit.
+	 *
+	 * @see #bound()
+	 */
+	protected long population = 0;
 
-	}
+	/**
+	 * The bounds of the living cells in absolute coordinates:
+	 * the minimum abscissa, the minimum ordinate, the maximum
+	 * abscissa and the maximum ordinate.
+	 *
+	 * @see #getBounds()
+	 */
+	protected int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
 
+	/**
+	 * Indicates if a cell on a side of the bounds has been
+	 * killed since they were last searched.
+	 */
+	protected boolean outdatedBounds = false;
 
 	/**
-	 * Creates a new living cell at the specified location.
-	 * If a chunk does not exist at the location, it will
-	 * be automatically added.
-	 *
-	 * @param coordinates The cell coordinates.
+	 * The last snapshot published for the renderer.
 	 *
-	 * @see #toogle(Coordinates)
+	 * @see #publish()
 	 */
-	public void active(Coordinates coordinates) {
-		getChunkAt(coordinates, true).active(coordinates, true);
-	}
+	protected volatile Snapshot snapshot = Snapshot.EMPTY;
+
 
 	/**
 	 * <p>
-	 * Creates a new living cell at the specified location
-	 * if there is not already a living cell. If a chunk
-	 * does not exist at the location, it will be
-	 * automatically added.
+	 * Updates all chunks.
 	 * </p>
 	 *
 	 * <p>
-	 * Removes the cell at the specified location if there
-	 * is a living cell.
+	 * Once no chunk needs to be created, this method does
+	 * not allocate anything: the chunks are walked through
+	 * the slots of the table instead of an iterator.
 	 * </p>
 	 *
-	 * @param coordinates The cell coordinates.
+	 * <p>
+	 * If ENGINE_THREADS is greater than 1, the chunks are
+	 * updated in parallel, see {@link UpdateTask}.
+	 * </p>
 	 *
-	 * @see #active(Coordinates)
+	 * @see UpdateEvent
 	 */
-	public void toogle(Coordinates coordinates) {
+	public void update() {
+
+		UpdateEvent event = new UpdateEvent();
+		event.begin();
+
+		updateCounting();
+
+		/* The changes made from now on come after the births checked by the expansion. */
+		stamp++;
+
+		expand();
+		faultIn();
+
+		if (Conf.ENGINE_THREADS > 1) {
+
+			/* Each invocation waits for all chunks, the second phase never starts early. */
+			getPool().invoke(new UpdateTask(chunks, 0, chunks.getNumberOfSlots(), true));
+			getPool().invoke(new UpdateTask(chunks, 0, chunks.getNumberOfSlots(), false));
+
+		} else {
+
+			Chunk chunk;
+
+			for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+				chunk = chunks.getChunkInSlot(i);
+
+				if (chunk != null) {
+					chunk.updateNextState();
+				}
+
+			}
+
+			for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+				chunk = chunks.getChunkInSlot(i);
+
+				if (chunk != null) {
+					chunk.updateState();
+				}
+
+			}
 
-		if (!hasChunkAt(coordinates)) {
-			active(coordinates);
-			return;
 		}
 
-		Chunk chunk = getChunkAt(coordinates);
+		generation++;
+		pager.tick();
+		shrink();
+		bound();
 
-		if (!chunk.hasCellAt(coordinates)) {
-			active(coordinates);
-			return;
+		if (counting) {
+			census();
 		}
 
-		Cell cell = chunk.getCellAt(coordinates);
+		if (event.shouldCommit()) {
+			event.generation = generation;
+			event.population = getPopulation();
+			event.chunks = getNumberOfActiveChunks();
+			event.commit();
+		}
 
-		if (!cell.isAlive()) {
+	}
 
-			/* Need to remove the current cell whatever his state. */
-			chunk.remove(cell);
-			active(coordinates);
+	/**
+	 * Starts or stops counting the living cells, depending
+	 * on the configuration. The chunks count all their cells
+	 * again when it starts.
+	 */
+	protected void updateCounting() {
 
+		boolean enabled = Conf.ENGINE_CYCLES || Conf.ENGINE_CYCLES_PAUSE;
+
+		if (enabled == counting) {
 			return;
+		}
 
+		counting = enabled;
+		cycles.reset();
+
+		if (!counting) {
+			return;
 		}
 
-		chunk.remove(cell);
+		Chunk chunk;
 
-	}
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			chunk = chunks.getChunkInSlot(i);
+
+			if (chunk != null) {
+				chunk.recount();
+			}
+
+		}
 
+	}
 
 	/**
-	 * Indicates if a chunk is present at the specified location.
-	 *
-	 * @param coordinates The chunk coordinates.
+	 * Takes the census of the living cells, from the counts
+	 * of the chunks and of the pager, and records it in the
+	 * cycle detector.
 	 *
-	 * @return true if there is a chunk; false otherwise.
+	 * @see CycleDetector#record(long, long, long, long, long)
 	 */
-	public boolean hasChunkAt(Coordinates coordinates) {
-		return chunks.containsKey(coordinates.toChunkPoint());
-	}
+	protected void census() {
+
+		Chunk chunk;
+
+		Arrays.fill(census, 0);
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			chunk = chunks.getChunkInSlot(i);
+
+			if (chunk == null || chunk.population == 0) {
+				continue;
+			}
+
+			census[0] += chunk.population;
+			census[1] += chunk.sumX + chunk.population * ((long) chunk.x << Chunk.SHIFT);
+			census[2] += chunk.sumY + chunk.population * ((long) chunk.y << Chunk.SHIFT);
+			census[3] += chunk.origin * chunk.hash;
+
+		}
+
+		pager.addCensus(census);
 
+		cycles.record(generation, census[3], census[0], census[1], census[2]);
+
+	}
 
 	/**
-	 * Returns the chunk present at the specified location or null
-	 * if it does not exist.
+	 * <p>
+	 * Computes a number of generations as fast as possible,
+	 * without waiting for the ticks of the application.
+	 * The periods are skipped once the world is known to
+	 * be periodic, see {@link #fastForward(long)}.
+	 * </p>
 	 *
-	 * @param coordinates The chunk coordinates.
+	 * <p>
+	 * The computation stops early if the current thread is
+	 * interrupted, and can be resumed by calling the method
+	 * again with the remaining generations.
+	 * </p>
 	 *
-	 * @return A chunk or null.
+	 * @param generations The number of generations.
 	 *
-	 * @see #getChunkAt(Coordinates, boolean)
-	 * @see Chunk
+	 * @return The number of generations computed.
 	 */
-	public Chunk getChunkAt(Coordinates coordinates) {
-		return getChunkAt(coordinates, false);
+	public long stepGenerations(long generations) {
+
+		long start = generation;
+		long target = start + generations;
+
+		while (generation < target && !Thread.currentThread().isInterrupted()) {
+
+			if (fastForward(target)) {
+				break;
+			}
+
+			update();
+
+		}
+
+		return generation - start;
 	}
 
 	/**
 	 * <p>
-	 * Returns the chunk present at the specified location.
-	 * <p>
+	 * Brings the world to a later generation. If the world
+	 * is periodic, the whole periods are skipped by moving
+	 * the living cells at once, and only the remaining
+	 * generations are computed.
+	 * </p>
 	 *
 	 * <p>
-	 * This method can force the creation of the chunk if it
-	 * does not exist.
+	 * Nothing is done if the world is not known to be
+	 * periodic, so the caller can compute the generations
+	 * itself instead.
 	 * </p>
 	 *
-	 * @param coordinates The chunk coordinates.
-	 * @param force Precise if the chunk is forced to be created.
+	 * @param target The generation to reach.
 	 *
-	 * @return A chunk or null.
+	 * @return true if the target has been reached; false otherwise.
 	 *
-	 * @see #getChunkAt(Coordinates)
-	 * @see Chunk
+	 * @see CycleDetector
 	 */
-	public Chunk getChunkAt(Coordinates coordinates, boolean force) {
+	public boolean fastForward(long target) {
 
-		if (!hasChunkAt(coordinates) && !force) {
-			return null;
+		if (!counting || !cycles.isPeriodic() || cycles.getGeneration() != generation || target < generation) {
+			return false;
 		}
 
-		if (!hasChunkAt(coordinates)) {
-			register(new Chunk(this, coordinates.clone().normalizeForChunk()));
+		long period = cycles.getPeriod();
+		long periods = (target - generation) / period;
+
+		if (periods > 0) {
+
+			long moveX = periods * cycles.getDisplacementX();
+			long moveY = periods * cycles.getDisplacementY();
+
+			if (moveX != (int) moveX || moveY != (int) moveY) {
+				return false;
+			}
+
+			translate((int) moveX, (int) moveY);
+
+			cycles.skip(periods);
+			generation += periods * period;
+			pager.tick(periods * period);
+
 		}
 
-		return chunks.get(coordinates.toChunkPoint());
-	}
+		while (generation < target) {
+			update();
+		}
 
+		return true;
+	}
 
 	/**
-	 * Registers a new chunk on the map.
+	 * Moves all living cells of the world, keeping the
+	 * recorded generations of the cycle detector.
 	 *
-	 * @param chunk The chunk to register.
+	 * @param dx The horizontal move.
+	 * @param dy The vertical move.
 	 */
-	public void register(Chunk chunk) {
-		chunks.putIfAbsent(chunk.getCoordinates().toChunkPoint(), chunk);
+	protected void translate(int dx, int dy) {
+
+		if (dx == 0 && dy == 0) {
+			return;
+		}
+
+		restoreAll();
+
+		long[] cells = new long[Chunk.WORDS];
+		int size = 0;
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			Chunk chunk = chunks.getChunkInSlot(i);
+
+			if (chunk == null) {
+				continue;
+			}
+
+			int x = (chunk.x << Chunk.SHIFT) + dx;
+			int y = (chunk.y << Chunk.SHIFT) + dy;
+
+			for (int j = 0; j < Chunk.WORDS; j++) {
+
+				for (long word = chunk.state[j]; word != 0; word &= word - 1) {
+
+					int index = j * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+					if (size == cells.length) {
+						cells = Arrays.copyOf(cells, size * 2);
+					}
+
+					cells[size++] = PackedCoordinates.pack(x + (index & Chunk.MASK), y + (index >>> Chunk.SHIFT));
+
+				}
+
+			}
+
+		}
+
+		dropChunks();
+
+		for (int i = 0; i < size; i++) {
+
+			Chunk chunk = chunks.get(PackedCoordinates.getChunkX(cells[i]), PackedCoordinates.getChunkY(cells[i]));
+
+			if (chunk == null) {
+				chunk = getChunkAt(PackedCoordinates.toCoordinates(cells[i]), true);
+			}
+
+			chunk.active(cells[i], true);
+
+		}
+
 	}
 
 	/**
-	 * Removes an existing chunk on the map.
-	 *
-	 * @param chunk The chunk to remove.
+	 * Counts the living cells of the world and searches their
+	 * bounds again, from the counts and the bounds of the
+	 * chunks and of the pager.
 	 */
-	public void remove(Chunk chunk) {
-		chunks.remove(chunk.getCoordinates().toChunkPoint());
-	}
+	protected void bound() {
 
+		Chunk chunk;
+
+		population = pager.getPopulation();
+
+		bounds[0] = Integer.MAX_VALUE;
+		bounds[1] = Integer.MAX_VALUE;
+		bounds[2] = Integer.MIN_VALUE;
+		bounds[3] = Integer.MIN_VALUE;
+
+		pager.addBounds(bounds);
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			chunk = chunks.getChunkInSlot(i);
+
+			if (chunk == null || chunk.population == 0) {
+				continue;
+			}
+
+			population += chunk.population;
+
+			bounds[0] = Math.min(bounds[0], (chunk.x << Chunk.SHIFT) + chunk.bounds[0]);
+			bounds[1] = Math.min(bounds[1], (chunk.y << Chunk.SHIFT) + chunk.bounds[1]);
+			bounds[2] = Math.max(bounds[2], (chunk.x << Chunk.SHIFT) + chunk.bounds[2]);
+			bounds[3] = Math.max(bounds[3], (chunk.y << Chunk.SHIFT) + chunk.bounds[3]);
+
+		}
+
+		outdatedBounds = false;
 
-	/**
-	 * Clears the entire world by remove all chunks.
-	 */
-	public void clear() {
-		chunks.clear();
 	}
 
 	/**
-	 * Indicates if the world contains chunks or not.
+	 * Counts a cell just brought to life by an edit, and
+	 * extends the bounds to it.
 	 *
-	 * @return true if the chunk is empty; false otherwise.
+	 * @param x The absolute abscissa of the cell.
+	 * @param y The absolute ordinate of the cell.
+	 *
+	 * @see Chunk#born(int)
 	 */
-	public boolean isEmpty() {
-		return chunks.isEmpty();
-	}
+	protected void born(int x, int y) {
 
+		population++;
+
+		bounds[0] = Math.min(bounds[0], x);
+		bounds[1] = Math.min(bounds[1], y);
+		bounds[2] = Math.max(bounds[2], x);
+		bounds[3] = Math.max(bounds[3], y);
+
+	}
+
+	/**
+	 * Counts a cell just killed by an edit. The bounds are
+	 * searched again when asked for if the cell was on one
+	 * of their sides.
+	 *
+	 * @param x The absolute abscissa of the cell.
+	 * @param y The absolute ordinate of the cell.
+	 *
+	 * @see Chunk#died(int)
+	 */
+	protected void died(int x, int y) {
+
+		population--;
+
+		if (x == bounds[0] || y == bounds[1] || x == bounds[2] || y == bounds[3]) {
+			outdatedBounds = true;
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Creates the missing chunks next to a living border.
+	 * </p>
+	 * 
+	 * <p>
+	 * Cells may be born in these chunks at the next
+	 * generation, so they need to exist before the next
+	 * state is computed.
+	 * </p>
+	 *
+	 * <p>
+	 * The missing chunks found without births are remembered
+	 * by the chunk facing them, and are not given to the kernel
+	 * again while nothing changes around them, as next to a
+	 * still life.
+	 * </p>
+	 */
+	protected void expand() {
+
+		Chunk chunk;
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			chunk = chunks.getChunkInSlot(i);
+
+			if (chunk == null) {
+				continue;
+			}
+
+			int barren = 0;
+
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+
+					if (dx == 0 && dy == 0) {
+						continue;
+					}
+
+					if (!chunk.hasLivingBorder(dx, dy) || chunk.getNeighbor(dx, dy) != null) {
+						continue;
+					}
+
+					/* A spilled chunk is brought back if needed, see faultIn(). */
+					if (!pager.isEmpty() && pager.contains(chunk.x + dx, chunk.y + dy)) {
+						continue;
+					}
+
+					int bit = 1 << ((dy + 1) * 3 + dx + 1);
+
+					if ((chunk.barren & bit) != 0 && isUnchanged(chunk, dx, dy)) {
+						barren |= bit;
+						continue;
+					}
+
+					if (!hasBirths(chunk.x + dx, chunk.y + dy)) {
+						barren |= bit;
+						continue;
+					}
+
+					created.add(new Chunk(this, new Coordinates((chunk.x + dx) << Chunk.SHIFT, (chunk.y + dy) << Chunk.SHIFT)));
+
+				}
+			}
+
+			chunk.barren = barren;
+			chunk.checked = stamp;
+
+		}
+
+		for (int i = 0; i < created.size(); i++) {
+			register(created.get(i));
+		}
+
+		created.clear();
+
+	}
+
+	/**
+	 * <p>
+	 * Removes the empty chunks, and counts the sleeping ones.
+	 * </p>
+	 *
+	 * <p>
+	 * An empty chunk next to a living border is kept, as
+	 * it would be created again by the next expansion.
+	 * </p>
+	 *
+	 * @see #expand()
+	 */
+	protected void shrink() {
+
+		Chunk chunk;
+
+		sleeping = 0;
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			chunk = chunks.getChunkInSlot(i);
+
+			if (chunk == null) {
+				continue;
+			}
+
+			if (chunk.isEmpty() && !isNeededByNeighbors(chunk)) {
+				remove(chunk);
+				continue;
+			}
+
+			if (chunk.isSleeping()) {
+				sleeping++;
+			}
+
+			if (Conf.ENGINE_PAGING_IDLE > 0 && chunk.idle >= Conf.ENGINE_PAGING_IDLE) {
+				idle.add(chunk);
+			}
+
+		}
+
+		evict();
+
+	}
+
+	/**
+	 * <p>
+	 * Brings back the spilled chunks needed by the chunks
+	 * computed at this generation.
+	 * </p>
+	 *
+	 * <p>
+	 * A computed chunk reads all its neighbors, and a spilled
+	 * chunk brought back next to a changing chunk is computed
+	 * too. The missing neighbors of the chunks brought back are
+	 * checked the same way, and created next to a living border
+	 * like in {@link #expand()}.
+	 * </p>
+	 */
+	protected void faultIn() {
+
+		if (pager.isEmpty()) {
+			return;
+		}
+
+		Chunk chunk;
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			chunk = chunks.getChunkInSlot(i);
+
+			if (chunk != null && !(chunk.isQuiet() && chunk.areNeighborsQuiet())) {
+				pending.add(chunk);
+			}
+
+		}
+
+		while (!pending.isEmpty()) {
+
+			chunk = pending.remove(pending.size() - 1);
+
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+
+					if ((dx == 0 && dy == 0) || chunk.getNeighbor(dx, dy) != null) {
+						continue;
+					}
+
+					Chunk neighbor = pager.restore(this, chunk.x + dx, chunk.y + dy);
+
+					if (neighbor != null) {
+
+						register(neighbor);
+
+						if (!neighbor.areNeighborsQuiet()) {
+							pending.add(neighbor);
+						}
+
+					}
+
+					else if (chunk.hasLivingBorder(dx, dy)) {
+
+						neighbor = new Chunk(this, new Coordinates((chunk.x + dx) << Chunk.SHIFT, (chunk.y + dy) << Chunk.SHIFT));
+						register(neighbor);
+
+						/* A new chunk is awake, so all the chunks around it are computed. */
+						for (Chunk computed : neighbor.neighbors) {
+
+							if (computed != null) {
+								pending.add(computed);
+							}
+
+						}
+
+					}
+
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Spills the chunks idle for ENGINE_PAGING_IDLE generations,
+	 * from the longest sleeping one, until the number of chunks
+	 * left in the world is within ENGINE_PAGING_BUDGET.
+	 * </p>
+	 *
+	 * <p>
+	 * With a budget of 0, all idle chunks are spilled.
+	 * </p>
+	 */
+	protected void evict() {
+
+		if (idle.isEmpty()) {
+			return;
+		}
+
+		int excess = Conf.ENGINE_PAGING_BUDGET > 0 ? chunks.size() - Conf.ENGINE_PAGING_BUDGET : idle.size();
+
+		if (excess > 0 && excess < idle.size()) {
+			idle.sort(LEAST_RECENTLY_ACTIVE);
+		}
+
+		for (int i = 0; i < excess && i < idle.size(); i++) {
+
+			Chunk chunk = idle.get(i);
+
+			if (pager.evict(chunk)) {
+				remove(chunk, false);
+				sleeping--;
+			}
+
+		}
+
+		idle.clear();
+
+	}
+
+	/**
+	 * Indicates if the neighboring chunks will make cells born
+	 * in a chunk, which needs a living border facing it.
+	 *
+	 * @param chunk The chunk.
+	 *
+	 * @return true if cells will be born; false otherwise.
+	 */
+	protected boolean isNeededByNeighbors(Chunk chunk) {
+
+		Chunk neighbor;
+
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+
+				if (dx == 0 && dy == 0) {
+					continue;
+				}
+
+				neighbor = chunk.getNeighbor(dx, dy);
+
+				if (neighbor != null && neighbor.hasLivingBorder(-dx, -dy)) {
+					return hasBirths(chunk.x, chunk.y);
+				}
+
+				if (neighbor == null && !pager.isEmpty() && pager.hasLivingBorder(chunk.x + dx, chunk.y + dy, -dx, -dy)) {
+					return true;
+				}
+
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Indicates if the neighborhood of a missing chunk is the
+	 * same as when the chunk facing it has last checked it:
+	 * no chunk around has changed or been created since, and
+	 * no chunk has been removed.
+	 *
+	 * @param chunk The chunk facing the missing chunk.
+	 * @param dx The abscissa of the missing chunk, relative to the chunk.
+	 * @param dy The ordinate of the missing chunk, relative to the chunk.
+	 *
+	 * @return true if the neighborhood is the same; false otherwise.
+	 */
+	protected boolean isUnchanged(Chunk chunk, int dx, int dy) {
+
+		if (chunk.checked <= invalidated) {
+			return false;
+		}
+
+		for (int x = dx - 1; x <= dx + 1; x++) {
+			for (int y = dy - 1; y <= dy + 1; y++) {
+
+				if (x == dx && y == dy) {
+					continue;
+				}
+
+				/* The chunks around both are linked to the chunk, the others are looked up. */
+				Chunk neighbor = Math.abs(x) <= 1 && Math.abs(y) <= 1 ? chunk.getNeighbor(x, y) : chunks.get(chunk.x + x, chunk.y + y);
+
+				if (neighbor != null && neighbor.stamp >= chunk.checked) {
+					return false;
+				}
+
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if cells will be born at the next generation
+	 * in a missing or empty chunk.
+	 * </p>
+	 *
+	 * <p>
+	 * A living border is not enough for a birth, so the kernel
+	 * is run on the neighborhood of the chunk with an empty
+	 * center: a chunk is neither created nor kept only to stay
+	 * empty next to a still life. A chunk next to a spilled one
+	 * is assumed to see births.
+	 * </p>
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return true if cells will be born; false otherwise.
+	 */
+	protected boolean hasBirths(int x, int y) {
+
+		for (int i = 0; i < surroundings.length; i++) {
+
+			Chunk neighbor = i == Kernel.CENTER ? null : chunks.get(x + i % 3 - 1, y + i / 3 - 1);
+
+			if (neighbor == null && i != Kernel.CENTER && !pager.isEmpty() && pager.contains(x + i % 3 - 1, y + i / 3 - 1)) {
+				return true;
+			}
+
+			surroundings[i] = neighbor == null ? Chunk.EMPTY : neighbor.state;
+
+		}
+
+		kernel.evolve(rule, surroundings, births);
+
+		for (int i = 0; i < Chunk.WORDS; i++) {
+
+			if (births[i] != 0) {
+				return true;
+			}
+
+		}
+
+		return false;
+	}
+
+	/**
+	 * Renders all chunks on a canvas through a rendering context.
+	 *
+	 * @param context The rendering context.
+	 */
+	public void render(RenderingContext context) {
+
+		for (Chunk chunk : chunks) {
+
+			chunk.render(context);
+
+		}
+
+		pager.render(context);
+
+	}
+
+	/**
+	 * <p>
+	 * Publishes a snapshot of the living cells, which can be
+	 * rendered by another thread while the world is updated.
+	 * </p>
+	 *
+	 * <p>
+	 * Must be called by the thread updating the world. The
+	 * chunks which have not changed share their bitboard
+	 * with the previous snapshot.
+	 * </p>
+	 *
+	 * @see #getSnapshot()
+	 */
+	public void publish() {
+		snapshot = createSnapshot();
+	}
+
+	/**
+	 * Returns the last published snapshot, without locking.
+	 *
+	 * @return The snapshot, empty if none has been published.
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Creates a snapshot of the chunks and of the spilled chunks.
+	 *
+	 * @return The snapshot.
+	 */
+	protected Snapshot createSnapshot() {
+
+		int size = chunks.size() + pager.size();
+		int index = 0;
+
+		int[] xs = new int[size];
+		int[] ys = new int[size];
+		long[][] boards = new long[size][];
+		long[][] dying = new long[size][];
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			Chunk chunk = chunks.getChunkInSlot(i);
+
+			if (chunk == null) {
+				continue;
+			}
+
+			xs[index] = chunk.x;
+			ys[index] = chunk.y;
+			boards[index] = chunk.publish();
+
+			if (Conf.CANVAS_ACTIVE_COLORED_CELLS) {
+				dying[index] = chunk.getDyingCells();
+			}
+
+			index++;
+
+		}
+
+		pager.publish(xs, ys, boards, index);
+
+		return new Snapshot(generation, population, xs, ys, boards, dying);
+	}
+
+
+	/**
+	 * Creates a new living cell at the specified location.
+	 * If a chunk does not exist at the location, it will
+	 * be automatically added.
+	 *
+	 * @param coordinates The cell coordinates.
+	 *
+	 * @see #toogle(Coordinates)
+	 */
+	public void active(Coordinates coordinates) {
+		active(coordinates.toPacked());
+	}
+
+	/**
+	 * Creates a new living cell at the specified packed
+	 * location, without creating coordinates unless a chunk
+	 * must be added.
+	 *
+	 * @param cell The packed coordinates of the cell.
+	 *
+	 * @see PackedCoordinates
+	 */
+	public void active(long cell) {
+
+		Chunk chunk = find(PackedCoordinates.getChunkX(cell), PackedCoordinates.getChunkY(cell));
+
+		if (chunk == null) {
+			chunk = getChunkAt(PackedCoordinates.toCoordinates(cell), true);
+		}
+
+		chunk.active(cell, true);
+		cycles.reset();
+
+	}
+
+	/**
+	 * <p>
+	 * Creates a new living cell at the specified location
+	 * if there is not already a living cell. If a chunk
+	 * does not exist at the location, it will be
+	 * automatically added.
+	 * </p>
+	 *
+	 * <p>
+	 * Removes the cell at the specified location if there
+	 * is a living cell.
+	 * </p>
+	 *
+	 * @param coordinates The cell coordinates.
+	 *
+	 * @see #active(Coordinates)
+	 */
+	public void toogle(Coordinates coordinates) {
+
+		if (!hasChunkAt(coordinates)) {
+			active(coordinates);
+			return;
+		}
+
+		Chunk chunk = getChunkAt(coordinates);
+
+		if (!chunk.hasCellAt(coordinates)) {
+			active(coordinates);
+			return;
+		}
+
+		Cell cell = chunk.getCellAt(coordinates);
+
+		if (!cell.isAlive()) {
+
+			/* Need to remove the current cell whatever his state. */
+			chunk.remove(cell);
+			active(coordinates);
+
+			return;
+
+		}
+
+		chunk.remove(cell);
+		cycles.reset();
+
+	}
+
+
+	/**
+	 * Indicates if a chunk is present at the specified location.
+	 *
+	 * @param coordinates The chunk coordinates.
+	 *
+	 * @return true if there is a chunk; false otherwise.
+	 */
+	public boolean hasChunkAt(Coordinates coordinates) {
+		return chunks.contains(coordinates.getChunkX(), coordinates.getChunkY()) || pager.contains(coordinates.getChunkX(), coordinates.getChunkY());
+	}
+
+
+	/**
+	 * Returns the chunk present at the specified location or null
+	 * if it does not exist.
+	 *
+	 * @param coordinates The chunk coordinates.
+	 *
+	 * @return A chunk or null.
+	 *
+	 * @see #getChunkAt(Coordinates, boolean)
+	 * @see Chunk
+	 */
+	public Chunk getChunkAt(Coordinates coordinates) {
+		return getChunkAt(coordinates, false);
+	}
+
+	/**
+	 * <p>
+	 * Returns the chunk present at the specified location.
+	 * <p>
+	 *
+	 * <p>
+	 * This method can force the creation of the chunk if it
+	 * does not exist.
+	 * </p>
+	 *
+	 * @param coordinates The chunk coordinates.
+	 * @param force Precise if the chunk is forced to be created.
+	 *
+	 * @return A chunk or null.
+	 *
+	 * @see #getChunkAt(Coordinates)
+	 * @see Chunk
+	 */
+	public Chunk getChunkAt(Coordinates coordinates, boolean force) {
+
+		Chunk chunk = find(coordinates.getChunkX(), coordinates.getChunkY());
+
+		if (chunk == null && force) {
+			chunk = new Chunk(this, coordinates.clone().normalizeForChunk());
+			register(chunk);
+		}
+
+		return chunk;
+	}
+
+
+	/**
+	 * Returns the chunk present at the specified chunk format
+	 * location or null if it does not exist. A spilled chunk
+	 * is brought back.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return A chunk or null.
+	 *
+	 * @see Coordinates#toChunkPoint()
+	 * @see Chunk
+	 */
+	public Chunk getChunkAt(int x, int y) {
+		return find(x, y);
+	}
+
+	/**
+	 * Returns the chunk present at the specified chunk format
+	 * location, bringing it back if it is spilled, and counts
+	 * the hits and misses of the pager.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return A chunk or null.
+	 */
+	protected Chunk find(int x, int y) {
+
+		Chunk chunk = chunks.get(x, y);
+
+		if (pager.isEmpty()) {
+			return chunk;
+		}
+
+		if (chunk != null) {
+			pager.hits++;
+			return chunk;
+		}
+
+		chunk = pager.restore(this, x, y);
+
+		if (chunk != null) {
+			register(chunk);
+		}
+
+		return chunk;
+	}
+
+
+	/**
+	 * Registers a new chunk on the map, and links it
+	 * with its neighboring chunks.
+	 *
+	 * @param chunk The chunk to register.
+	 */
+	public void register(Chunk chunk) {
+
+		if (!chunks.put(chunk)) {
+			return;
+		}
+
+		ChunkCreatedEvent event = new ChunkCreatedEvent();
+
+		if (event.shouldCommit()) {
+			event.x = chunk.x;
+			event.y = chunk.y;
+			event.chunks = chunks.size();
+			event.commit();
+		}
+
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+
+				if (dx == 0 && dy == 0) {
+					continue;
+				}
+
+				Chunk neighbor = chunks.get(chunk.x + dx, chunk.y + dy);
+
+				chunk.setNeighbor(dx, dy, neighbor);
+
+				if (neighbor != null) {
+					neighbor.setNeighbor(-dx, -dy, chunk);
+				}
+
+			}
+		}
+
+	}
+
+	/**
+	 * Removes an existing chunk on the map, and unlinks
+	 * it from its neighboring chunks.
+	 *
+	 * @param chunk The chunk to remove.
+	 */
+	public void remove(Chunk chunk) {
+		remove(chunk, true);
+	}
+
+	/**
+	 * Removes an existing chunk on the map, and unlinks
+	 * it from its neighboring chunks.
+	 *
+	 * @param chunk The chunk to remove.
+	 * @param wake Wakes the neighboring chunks, unless the
+	 * chunk is removed without changing the evolution.
+	 */
+	protected void remove(Chunk chunk, boolean wake) {
+
+		Chunk removed = chunks.remove(chunk.x, chunk.y);
+
+		if (removed == null) {
+			return;
+		}
+
+		invalidated = stamp;
+
+		/* The cells of a spilled chunk are still counted by the pager. */
+		if (wake && removed.population > 0) {
+			population -= removed.population;
+			outdatedBounds = true;
+		}
+
+		ChunkRemovedEvent event = new ChunkRemovedEvent();
+
+		if (event.shouldCommit()) {
+			event.x = removed.x;
+			event.y = removed.y;
+			event.chunks = chunks.size();
+			event.spilled = !wake;
+			event.commit();
+		}
+
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+
+				if (dx == 0 && dy == 0) {
+					continue;
+				}
+
+				Chunk neighbor = removed.getNeighbor(dx, dy);
+
+				if (neighbor == null) {
+					continue;
+				}
+
+				neighbor.setNeighbor(-dx, -dy, null);
+				removed.setNeighbor(dx, dy, null);
+
+				/* The neighboring chunk saw cells in this chunk two generations ago. */
+				if (wake) {
+					neighbor.wake();
+				}
+
+			}
+		}
+
+	}
+
+
+	/**
+	 * Returns the pool of threads updating the chunks in parallel,
+	 * created again if ENGINE_THREADS has changed.
+	 *
+	 * @return The pool of threads.
+	 */
+	protected static synchronized ForkJoinPool getPool() {
+
+		if (pool == null || pool.getParallelism() != Conf.ENGINE_THREADS) {
+
+			if (pool != null) {
+				pool.shutdown();
+			}
+
+			pool = new ForkJoinPool(Conf.ENGINE_THREADS);
+		}
+
+		return pool;
+	}
+
+
+	/**
+	 * Creates in this world the living cells of another world,
+	 * and uses the same rule.
+	 *
+	 * @param world The world to copy.
+	 */
+	public void copy(World world) {
+
+		setRule(world.getRule());
+
+		Iterator<Entry<Point, Chunk>> chunks = world.getChunks();
+
+		while (chunks.hasNext()) {
+
+			Iterator<Entry<Point, Cell>> cells = chunks.next().getValue().getCells();
+
+			while (cells.hasNext()) {
+
+				Cell cell = cells.next().getValue();
+
+				if (cell.isAlive()) {
+					active(cell.getCoordinates());
+				}
+
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Clears the entire world by remove all chunks.
+	 */
+	public void clear() {
+		dropChunks();
+		generation = 0;
+		cycles.reset();
+	}
+
+	/**
+	 * Removes all chunks, spilled ones included, but keeps
+	 * the generation and the cycle history. Used by the
+	 * engines rebuilding their chunks from another storage.
+	 */
+	protected void dropChunks() {
+		chunks.clear();
+		pager.clear();
+		sleeping = 0;
+		population = 0;
+		outdatedBounds = true;
+	}
+
+	/**
+	 * Indicates if the world contains chunks or not.
+	 *
+	 * @return true if the chunk is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return chunks.isEmpty() && pager.isEmpty();
+	}
+
+
+	/**
+	 * Returns an iterator of all chunks coupled with their
+	 * chunk format coordinates. The spilled chunks are all
+	 * brought back first.
+	 *
+	 * @return An iterator of all chunks.
+	 *
+	 * @see Chunk
+	 * @see Point
+	 */
+	public Iterator<Entry<Point, Chunk>> getChunks() {
+
+		restoreAll();
+
+		Iterator<Chunk> iterator = chunks.iterator();
+
+		return new Iterator<Entry<Point, Chunk>>() {
+
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			public Entry<Point, Chunk> next() {
+
+				Chunk chunk = iterator.next();
+
+				return new SimpleImmutableEntry<>(new Point(chunk.x, chunk.y), chunk);
+			}
+
+			public void remove() {
+				iterator.remove();
+			}
+
+		};
+
+	}
+
+	/**
+	 * Brings back all spilled chunks.
+	 */
+	protected void restoreAll() {
+
+		if (pager.isEmpty()) {
+			return;
+		}
+
+		for (long key : pager.getSpilledChunks()) {
+			register(pager.restore(this, PackedCoordinates.getX(key), PackedCoordinates.getY(key)));
+		}
+
+	}
 
 	/**
-	 * Returns an iterator of all chunks coupled with their
-	 * chunk format coordinates.
+	 * <p>
+	 * Marks the changes made so far to the living cells,
+	 * the next ones being stamped after the mark.
+	 * </p>
 	 *
-	 * @return An iterator of all chunks.
+	 * <p>
+	 * The mark is given back to {@link #forEachChangedChunk(long, ChunkVisitor)}
+	 * to find the chunks changed since, without comparing
+	 * their cells with a copy.
+	 * </p>
 	 *
-	 * @see Chunk
-	 * @see Point
+	 * @return The mark.
 	 */
-	public Iterator<Entry<Point, Chunk>> getChunks() {
-		return chunks.entrySet().iterator();
+	public long mark() {
+		return stamp++;
+	}
+
+	/**
+	 * <p>
+	 * Visits the chunks whose living cells have changed
+	 * since a mark, spilled ones included, without bringing
+	 * them back.
+	 * </p>
+	 *
+	 * <p>
+	 * A chunk emptied since is visited with an empty bitboard,
+	 * unless it has been removed: see {@link #containsChunk(int, int)}.
+	 * </p>
+	 *
+	 * @param since The mark, or 0 to visit all chunks.
+	 * @param visitor The visitor of the chunks.
+	 *
+	 * @see #mark()
+	 */
+	public void forEachChangedChunk(long since, ChunkVisitor visitor) {
+
+		Chunk chunk;
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			chunk = chunks.getChunkInSlot(i);
+
+			if (chunk != null && chunk.stamp > since) {
+				visitor.visit(chunk.x, chunk.y, chunk.state);
+			}
+
+		}
+
+		pager.forEachChangedChunk(since, visitor);
+
+	}
+
+	/**
+	 * Indicates if a chunk is kept at the specified chunk format
+	 * location, spilled or not, without bringing it back.
+	 *
+	 * @param x The abscissa of the chunk, in chunk format.
+	 * @param y The ordinate of the chunk, in chunk format.
+	 *
+	 * @return true if there is a chunk; false otherwise.
+	 */
+	public boolean containsChunk(int x, int y) {
+		return chunks.contains(x, y) || pager.contains(x, y);
+	}
+
+	/**
+	 * Returns the pager keeping the chunks spilled out of the world.
+	 *
+	 * @return The pager.
+	 */
+	public ChunkPager getPager() {
+		return pager;
+	}
+
+	/**
+	 * Returns the detector of the periods of the world,
+	 * fed while ENGINE_CYCLES or ENGINE_CYCLES_PAUSE is set.
+	 *
+	 * @return The cycle detector.
+	 */
+	public CycleDetector getCycleDetector() {
+		return cycles;
+	}
+
+	/**
+	 * Returns the number of generations computed or skipped
+	 * since the world has been cleared.
+	 *
+	 * @return The generation.
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Returns the number of living cells in the world,
+	 * including the spilled ones, without counting them.
+	 *
+	 * @return The population of the world.
+	 */
+	public long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * <p>
+	 * Returns the smallest rectangle holding the living cells
+	 * of the world, in absolute coordinates. The location of
+	 * the rectangle is its south west cell.
+	 * </p>
+	 *
+	 * <p>
+	 * The bounds are kept up to date at each generation and
+	 * each edit, and are only searched again through the
+	 * bounds of the chunks when an edit has killed a cell
+	 * on one of their sides. The spilled chunks are bounded
+	 * in both of their phases.
+	 * </p>
+	 *
+	 * @return The bounds, empty if there is no living cell.
+	 */
+	public Rectangle getBounds() {
+
+		if (outdatedBounds) {
+			bound();
+		}
+
+		if (population == 0 || bounds[0] > bounds[2]) {
+			return new Rectangle();
+		}
+
+		return new Rectangle(bounds[0], bounds[1], bounds[2] - bounds[0] + 1, bounds[3] - bounds[1] + 1);
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of living cells inside a rectangle,
+	 * including the spilled ones.
+	 * </p>
+	 *
+	 * <p>
+	 * Only the chunks overlapping the rectangle are visited,
+	 * and a chunk whose living cells all are inside is counted
+	 * from its population.
+	 * </p>
+	 *
+	 * @param area The rectangle, in absolute coordinates, its
+	 * location being its south west cell.
+	 *
+	 * @return The number of living cells.
+	 */
+	public long count(Rectangle area) {
+		return query(area, null);
+	}
+
+	/**
+	 * Gives the living cells inside a rectangle to a visitor,
+	 * including the spilled ones, without creating any cell.
+	 *
+	 * @param area The rectangle, in absolute coordinates, its
+	 * location being its south west cell.
+	 * @param visitor The visitor of the cells.
+	 *
+	 * @return The number of living cells visited.
+	 */
+	public long forEach(Rectangle area, CellVisitor visitor) {
+		return query(area, visitor);
+	}
+
+	/**
+	 * Returns the packed coordinates of the living cells inside
+	 * a rectangle, including the spilled ones.
+	 *
+	 * @param area The rectangle, in absolute coordinates, its
+	 * location being its south west cell.
+	 *
+	 * @return The packed coordinates.
+	 *
+	 * @see PackedCoordinates
+	 */
+	public long[] list(Rectangle area) {
+
+		long[] cells = new long[(int) count(area)];
+		int[] size = new int[1];
+
+		forEach(area, (x, y) -> cells[size[0]++] = PackedCoordinates.pack(x, y));
+
+		return cells;
+	}
+
+	/**
+	 * Returns a stream of the packed coordinates of the living
+	 * cells inside a rectangle, including the spilled ones.
+	 * The cells are collected when the stream is created.
+	 *
+	 * @param area The rectangle, in absolute coordinates, its
+	 * location being its south west cell.
+	 *
+	 * @return The stream of packed coordinates.
+	 *
+	 * @see #list(Rectangle)
+	 */
+	public LongStream stream(Rectangle area) {
+		return LongStream.of(list(area));
+	}
+
+	/**
+	 * <p>
+	 * Counts the living cells inside a rectangle, and gives
+	 * them to a visitor if there is one.
+	 * </p>
+	 *
+	 * <p>
+	 * The chunks are looked up one by one when the rectangle
+	 * covers fewer locations than there are chunks, otherwise
+	 * the slots of the table are walked once.
+	 * </p>
+	 *
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 */
+	protected long query(Rectangle area, CellVisitor visitor) {
+
+		if (area.isEmpty()) {
+			return 0;
+		}
+
+		int minX = area.x >> Chunk.SHIFT;
+		int minY = area.y >> Chunk.SHIFT;
+		int maxX = (int) (((long) area.x + area.width - 1) >> Chunk.SHIFT);
+		int maxY = (int) (((long) area.y + area.height - 1) >> Chunk.SHIFT);
+
+		long count = pager.query(area, visitor);
+
+		if (((long) maxX - minX + 1) * ((long) maxY - minY + 1) <= chunks.size()) {
+
+			for (int y = minY; y <= maxY; y++) {
+
+				for (int x = minX; x <= maxX; x++) {
+
+					Chunk chunk = chunks.get(x, y);
+
+					if (chunk != null) {
+						count += chunk.query(area, visitor);
+					}
+
+				}
+
+			}
+
+			return count;
+		}
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			Chunk chunk = chunks.getChunkInSlot(i);
+
+			if (chunk != null && chunk.x >= minX && chunk.x <= maxX && chunk.y >= minY && chunk.y <= maxY) {
+				count += chunk.query(area, visitor);
+			}
+
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the number of cells stored in the world, the
+	 * living ones and the ones registered without being alive,
+	 * including the spilled ones.
+	 *
+	 * @return The number of cells.
+	 */
+	public long getNumberOfCells() {
+
+		long cells = pager.getPopulation();
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			Chunk chunk = chunks.getChunkInSlot(i);
+
+			if (chunk == null) {
+				continue;
+			}
+
+			for (int j = 0; j < Chunk.WORDS; j++) {
+				cells += Long.bitCount(chunk.state[j] | chunk.placeholders[j]);
+			}
+
+		}
+
+		return cells;
+	}
+
+	/**
+	 * Returns the number of chunks in the world, including
+	 * the spilled ones.
+	 *
+	 * @return The number of chunks.
+	 */
+	public int getNumberOfChunks() {
+		return chunks.size() + pager.size();
+	}
+
+	/**
+	 * Returns the number of chunks in the world like
+	 * {@link #getNumberOfChunks()}, but only if it is known
+	 * without building the chunks.
+	 *
+	 * @return The number of chunks, or -1 if they are not built.
+	 */
+	public int peekNumberOfChunks() {
+		return getNumberOfChunks();
+	}
+
+	/**
+	 * Returns the number of chunks skipped at the last
+	 * generation, because nothing changed around them,
+	 * including the spilled ones.
+	 *
+	 * @return The number of sleeping chunks.
+	 *
+	 * @see #getNumberOfActiveChunks()
+	 */
+	public int getNumberOfSleepingChunks() {
+		return sleeping + pager.size();
+	}
+
+	/**
+	 * Returns the number of chunks computed at the last
+	 * generation.
+	 *
+	 * @return The number of active chunks.
+	 *
+	 * @see #getNumberOfSleepingChunks()
+	 */
+	public int getNumberOfActiveChunks() {
+		return chunks.size() - sleeping;
+	}
+
+	/**
+	 * Returns the kernel computing the next state of the chunks.
+	 *
+	 * @return The kernel.
+	 */
+	public Kernel getKernel() {
+		return kernel;
+	}
+
+	/**
+	 * Changes the kernel computing the next state of the chunks.
+	 *
+	 * @param kernel The new kernel.
+	 */
+	public void setKernel(Kernel kernel) {
+		this.kernel = kernel;
+	}
+
+	/**
+	 * Returns the rule making the cells born and survive.
+	 *
+	 * @return The rule.
+	 */
+	public Rule getRule() {
+		return rule;
+	}
+
+	/**
+	 * <p>
+	 * Changes the rule making the cells born and survive.
+	 * </p>
+	 *
+	 * <p>
+	 * All chunks are woken up, as the sleeping ones only
+	 * repeat what they did with the previous rule.
+	 * </p>
+	 *
+	 * @param rule The new rule.
+	 */
+	public void setRule(Rule rule) {
+
+		this.rule = rule;
+		invalidated = stamp;
+
+		restoreAll();
+
+		for (int i = 0; i < chunks.getNumberOfSlots(); i++) {
+
+			Chunk chunk = chunks.getChunkInSlot(i);
+
+			if (chunk != null) {
+				chunk.wake();
+			}
+
+		}
+
+		cycles.reset();
+
+	}
+
+
+
+	/**
+	 * <p>
+	 * The update task updates a range of slots of the table
+	 * of chunks, in parallel.
+	 * </p>
+	 *
+	 * <p>
+	 * The range is split in two until it is small enough.
+	 * The chunks are neither created nor removed while the
+	 * task is running: computing the next state only reads
+	 * the state of the neighboring chunks, and updating the
+	 * state only changes the chunk itself.
+	 * </p>
+	 */
+	protected static class UpdateTask extends RecursiveAction {
+
+		/**
+		 * The version of the serialized form, required since a
+		 * fork/join task is serializable. Tasks are never serialized.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of slots under which the range is not split.
+		 */
+		protected static final int THRESHOLD = 64;
+
+
+		/**
+		 * The table of chunks to update.
+		 */
+		protected ChunkTable chunks;
+
+		/**
+		 * The first slot of the range.
+		 */
+		protected int from;
+
+		/**
+		 * The slot after the last slot of the range.
+		 */
+		protected int to;
+
+		/**
+		 * Indicates if the task computes the next state, or
+		 * updates the state otherwise.
+		 */
+		protected boolean next;
+
+
+		/**
+		 * @param chunks The table of chunks to update.
+		 * @param from The first slot of the range.
+		 * @param to The slot after the last slot of the range.
+		 * @param next Indicates if the task computes the next state.
+		 */
+		protected UpdateTask(ChunkTable chunks, int from, int to, boolean next) {
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+			this.next = next;
+		}
+
+
+		protected void compute() {
+
+			if (to - from > THRESHOLD) {
+
+				int middle = (from + to) >>> 1;
+
+				invokeAll(
+					new UpdateTask(chunks, from, middle, next),
+					new UpdateTask(chunks, middle, to, next)
+				);
+
+				return;
+			}
+
+			Chunk chunk;
+
+			for (int i = from; i < to; i++) {
+
+				chunk = chunks.getChunkInSlot(i);
+
+				if (chunk == null) {
+					continue;
+				}
+
+				if (next) {
+					chunk.updateNextState();
+				} else {
+					chunk.updateState();
+				}
+
+			}
+
+		}
+
 	}
 
 }
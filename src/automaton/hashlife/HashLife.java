@@ -0,0 +1,470 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.hashlife;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import automaton.grid.Rule;
+
+/**
+ * <p>
+ * The HashLife engine computes the evolution of a
+ * quadtree of canonical nodes.
+ * </p>
+ *
+ * <p>
+ * Every node is stored once in a table of canonical
+ * nodes, and remembers the result of its evolution, so a
+ * pattern made of repeated parts is computed only once per
+ * part. A node of level k can be moved forward by up to
+ * 2^(k-2) generations at once, which allows to reach very
+ * far generations in a few steps.
+ * </p>
+ *
+ * @see Node
+ * @see HashLifeWorld
+ */
+public class HashLife {
+
+	/**
+	 * The table where all canonical nodes are stored.
+	 */
+	protected Map<Node, Node> nodes = new HashMap<>();
+
+	/**
+	 * The canonical empty node of each level.
+	 */
+	protected Node[] empty = new Node[Long.SIZE];
+
+	/**
+	 * The rule making the cells born and survive.
+	 */
+	protected final Rule rule;
+
+
+	/**
+	 * Creates an engine following the rules of the Game of Life.
+	 */
+	public HashLife() {
+		this(Rule.LIFE);
+	}
+
+	/**
+	 * <p>
+	 * Creates an engine following a rule.
+	 * </p>
+	 *
+	 * <p>
+	 * The nodes remember their evolution under the rule of
+	 * the engine, so a new engine is needed for another rule.
+	 * </p>
+	 *
+	 * @param rule The rule making the cells born and survive.
+	 */
+	public HashLife(Rule rule) {
+		this.rule = rule;
+	}
+
+
+	/**
+	 * Returns the canonical node made of four quarters.
+	 *
+	 * @param nw The north west quarter.
+	 * @param ne The north east quarter.
+	 * @param sw The south west quarter.
+	 * @param se The south east quarter.
+	 *
+	 * @return The canonical node.
+	 */
+	public Node join(Node nw, Node ne, Node sw, Node se) {
+
+		Node node = new Node(nw, ne, sw, se);
+		Node canonical = nodes.putIfAbsent(node, node);
+
+		if (canonical != null) {
+			return canonical;
+		}
+
+		return node;
+	}
+
+	/**
+	 * Returns the canonical empty node of a level.
+	 *
+	 * @param level The level of the node.
+	 *
+	 * @return The empty node.
+	 */
+	public Node empty(int level) {
+
+		if (level == 0) {
+			return Node.DEAD;
+		}
+
+		if (empty[level] == null) {
+			Node quarter = empty(level - 1);
+			empty[level] = join(quarter, quarter, quarter, quarter);
+		}
+
+		return empty[level];
+	}
+
+
+	/**
+	 * Returns a node twice as large, with the node at
+	 * its center and empty cells around.
+	 *
+	 * @param node The node to expand.
+	 *
+	 * @return The expanded node.
+	 */
+	public Node expand(Node node) {
+
+		Node border = empty(node.level - 1);
+
+		return join(
+			join(border, border, border, node.nw),
+			join(border, border, node.ne, border),
+			join(border, node.sw, border, border),
+			join(node.se, border, border, border)
+		);
+
+	}
+
+	/**
+	 * Returns the node twice as small at the center of a node.
+	 *
+	 * @param node The node.
+	 *
+	 * @return The center of the node.
+	 */
+	public Node center(Node node) {
+		return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+	}
+
+	/**
+	 * Indicates if all living cells of a node are in its
+	 * center area, four times as small as the node.
+	 *
+	 * @param node The node.
+	 *
+	 * @return true if the cells are in the center; false otherwise.
+	 */
+	public boolean isPadded(Node node) {
+
+		if (node.level < 3) {
+			return node.isEmpty();
+		}
+
+		return node.population == node.nw.se.se.population
+			+ node.ne.sw.sw.population
+			+ node.sw.ne.ne.population
+			+ node.se.nw.nw.population;
+	}
+
+
+	/**
+	 * Returns a copy of a node with a cell changed.
+	 *
+	 * @param node The node.
+	 * @param x The abscissa of the cell, from the south west corner of the node.
+	 * @param y The ordinate of the cell, from the south west corner of the node.
+	 * @param alive The new state of the cell.
+	 *
+	 * @return The changed node.
+	 */
+	public Node set(Node node, long x, long y, boolean alive) {
+
+		if (node.level == 0) {
+			return alive ? Node.ALIVE : Node.DEAD;
+		}
+
+		long half = 1L << (node.level - 1);
+
+		if (y >= half) {
+
+			if (x < half) {
+				return join(set(node.nw, x, y - half, alive), node.ne, node.sw, node.se);
+			}
+
+			return join(node.nw, set(node.ne, x - half, y - half, alive), node.sw, node.se);
+		}
+
+		if (x < half) {
+			return join(node.nw, node.ne, set(node.sw, x, y, alive), node.se);
+		}
+
+		return join(node.nw, node.ne, node.sw, set(node.se, x - half, y, alive));
+	}
+
+	/**
+	 * Indicates if a cell of a node is alive.
+	 *
+	 * @param node The node.
+	 * @param x The abscissa of the cell, from the south west corner of the node.
+	 * @param y The ordinate of the cell, from the south west corner of the node.
+	 *
+	 * @return true if the cell is alive; false otherwise.
+	 */
+	public boolean get(Node node, long x, long y) {
+
+		while (node.level > 0 && !node.isEmpty()) {
+
+			long half = 1L << (node.level - 1);
+
+			if (y >= half) {
+				node = x < half ? node.nw : node.ne;
+			} else {
+				node = x < half ? node.sw : node.se;
+			}
+
+			x %= half;
+			y %= half;
+
+		}
+
+		return node == Node.ALIVE;
+	}
+
+
+	/**
+	 * <p>
+	 * Returns the center of a node after 2^step generations.
+	 * </p>
+	 *
+	 * <p>
+	 * The step can not exceed the level of the node minus 2,
+	 * a larger step is reduced to this value. The result is
+	 * remembered by the node for the next calls.
+	 * </p>
+	 *
+	 * @param node The node, with a level of 2 at least.
+	 * @param step The number of generations, as a power of two.
+	 *
+	 * @return The center of the node, in the future.
+	 */
+	public Node step(Node node, int step) {
+
+		step = Math.min(step, node.level - 2);
+
+		if (node.isEmpty()) {
+			return node.nw;
+		}
+
+		if (node.step == step) {
+			return node.next;
+		}
+
+		Node result;
+
+		if (node.level == 2) {
+			result = evolve(node);
+		}
+
+		else {
+
+			/* The nine overlapping nodes, half as large, covering the node. */
+			Node n00 = node.nw;
+			Node n01 = join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+			Node n02 = node.ne;
+			Node n10 = join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+			Node n11 = join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+			Node n12 = join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+			Node n20 = node.sw;
+			Node n21 = join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+			Node n22 = node.se;
+
+			if (step == node.level - 2) {
+
+				/* Each stage moves forward by half of the generations. */
+				n00 = step(n00, step);
+				n01 = step(n01, step);
+				n02 = step(n02, step);
+				n10 = step(n10, step);
+				n11 = step(n11, step);
+				n12 = step(n12, step);
+				n20 = step(n20, step);
+				n21 = step(n21, step);
+				n22 = step(n22, step);
+
+				result = join(
+					step(join(n00, n01, n10, n11), step),
+					step(join(n01, n02, n11, n12), step),
+					step(join(n10, n11, n20, n21), step),
+					step(join(n11, n12, n21, n22), step)
+				);
+
+			}
+
+			else {
+
+				/* The first stage only moves to the center, the second one moves forward. */
+				n00 = center(n00);
+				n01 = center(n01);
+				n02 = center(n02);
+				n10 = center(n10);
+				n11 = center(n11);
+				n12 = center(n12);
+				n20 = center(n20);
+				n21 = center(n21);
+				n22 = center(n22);
+
+				result = join(
+					step(join(n00, n01, n10, n11), step),
+					step(join(n01, n02, n11, n12), step),
+					step(join(n10, n11, n20, n21), step),
+					step(join(n11, n12, n21, n22), step)
+				);
+
+			}
+
+		}
+
+		node.next = result;
+		node.step = step;
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the center of a node of level 2 after one
+	 * generation, according to the rule of the engine.
+	 * </p>
+	 *
+	 * @param node The node of 4x4 cells.
+	 *
+	 * @return The node of the 2x2 center cells.
+	 */
+	protected Node evolve(Node node) {
+
+		/* The 16 cells, one bit per cell, row after row from the south. */
+		int cells = 0;
+
+		for (int y = 0; y < 4; y++) {
+			for (int x = 0; x < 4; x++) {
+
+				if (get(node, x, y)) {
+					cells |= 1 << (y * 4 + x);
+				}
+
+			}
+		}
+
+		return join(
+			evolve(cells, 1, 2) ? Node.ALIVE : Node.DEAD,
+			evolve(cells, 2, 2) ? Node.ALIVE : Node.DEAD,
+			evolve(cells, 1, 1) ? Node.ALIVE : Node.DEAD,
+			evolve(cells, 2, 1) ? Node.ALIVE : Node.DEAD
+		);
+
+	}
+
+	/**
+	 * Computes the next state of a cell of a 4x4 square.
+	 *
+	 * @param cells The cells of the square, one bit per cell.
+	 * @param x The abscissa of the cell, between 1 and 2.
+	 * @param y The ordinate of the cell, between 1 and 2.
+	 *
+	 * @return true if the cell is alive at the next generation; false otherwise.
+	 */
+	protected boolean evolve(int cells, int x, int y) {
+
+		int neighbors = 0;
+
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+
+				if ((dx != 0 || dy != 0) && (cells & (1 << ((y + dy) * 4 + x + dx))) != 0) {
+					neighbors++;
+				}
+
+			}
+		}
+
+		return rule.next((cells & (1 << (y * 4 + x))) != 0, neighbors);
+	}
+
+
+	/**
+	 * Returns the number of canonical nodes stored.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getNumberOfNodes() {
+		return nodes.size();
+	}
+
+	/**
+	 * <p>
+	 * Forgets all nodes which are not part of a node,
+	 * with the results of the evolution of all nodes.
+	 * </p>
+	 *
+	 * <p>
+	 * The nodes given to the engine before are no longer
+	 * canonical, the returned node must be used instead.
+	 * </p>
+	 *
+	 * @param root The node to keep.
+	 *
+	 * @return The canonical copy of the node.
+	 */
+	public Node collect(Node root) {
+
+		nodes = new HashMap<>();
+		empty = new Node[Long.SIZE];
+
+		return copy(root, new IdentityHashMap<>());
+	}
+
+	/**
+	 * Copies a node in the table of canonical nodes.
+	 *
+	 * @param node The node to copy.
+	 * @param copies The nodes already copied.
+	 *
+	 * @return The canonical copy of the node.
+	 */
+	protected Node copy(Node node, Map<Node, Node> copies) {
+
+		if (node.level == 0) {
+			return node;
+		}
+
+		Node copy = copies.get(node);
+
+		if (copy == null) {
+			copy = join(copy(node.nw, copies), copy(node.ne, copies), copy(node.sw, copies), copy(node.se, copies));
+			copies.put(node, copy);
+		}
+
+		return copy;
+	}
+
+}
@@ -0,0 +1,891 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.hashlife;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import automaton.config.Conf;
+import automaton.grid.CellVisitor;
+import automaton.grid.Chunk;
+import automaton.grid.ChunkVisitor;
+import automaton.grid.Rule;
+import automaton.grid.Snapshot;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
+import automaton.maths.Point;
+import automaton.metrics.UpdateEvent;
+import automaton.render.RenderingContext;
+
+/**
+ * <p>
+ * The HashLife world is a world whose evolution is
+ * computed by the HashLife engine, which allows to
+ * move forward by a power of two generations at once.
+ * </p>
+ *
+ * <p>
+ * The cells are stored in a quadtree centered on the
+ * origin. The chunks of the world are only a copy of
+ * the quadtree, built again when they are accessed
+ * after an update. A change made to the chunks is sent
+ * back to the quadtree before the next update.
+ * </p>
+ *
+ * @see HashLife
+ * @see World
+ */
+public class HashLifeWorld extends World {
+
+	/**
+	 * The smallest level of the quadtree.
+	 */
+	protected static final int MINIMUM_LEVEL = 3;
+
+
+	/**
+	 * The engine computing the evolution of the quadtree.
+	 */
+	protected HashLife engine = new HashLife();
+
+	/**
+	 * The quadtree of the cells, centered on the origin.
+	 */
+	protected Node root = engine.empty(MINIMUM_LEVEL);
+
+	/**
+	 * The quadtree at the last mark, or null if its nodes
+	 * have been copied into another engine since.
+	 *
+	 * @see #mark()
+	 */
+	protected Node marked;
+
+	/**
+	 * The last mark.
+	 */
+	protected long lastMark = -1;
+
+	/**
+	 * Indicates if the chunks are older than the quadtree.
+	 */
+	protected boolean outdatedChunks = false;
+
+	/**
+	 * Indicates if the quadtree is older than the chunks.
+	 */
+	protected boolean outdatedTree = false;
+
+
+	/**
+	 * <p>
+	 * Updates the world by 2^ENGINE_HASHLIFE_STEP generations.
+	 * </p>
+	 *
+	 * @see #advance(long)
+	 * @see UpdateEvent
+	 */
+	public void update() {
+
+		UpdateEvent event = new UpdateEvent();
+		event.begin();
+
+		advance(1L << Conf.ENGINE_HASHLIFE_STEP);
+
+		if (event.shouldCommit()) {
+			event.generation = generation;
+			event.population = getPopulation();
+			event.commit();
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Moves the world forward by a number of generations.
+	 * </p>
+	 *
+	 * <p>
+	 * The number of generations is split in powers of two,
+	 * each of them computed at once by the engine.
+	 * </p>
+	 *
+	 * @param generations The number of generations.
+	 */
+	public void advance(long generations) {
+
+		if (outdatedTree) {
+			load();
+		}
+
+		for (int step = 0; generations > 0; step++, generations >>>= 1) {
+
+			if ((generations & 1) != 0) {
+				step(step);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Moves the world forward by a number of generations,
+	 * like {@link #advance(long)}, stopping between two
+	 * powers of two if the current thread is interrupted.
+	 *
+	 * @param generations The number of generations.
+	 *
+	 * @return The number of generations computed.
+	 */
+	public long stepGenerations(long generations) {
+
+		if (outdatedTree) {
+			load();
+		}
+
+		long start = generation;
+
+		for (int step = 0; generations > 0 && !Thread.currentThread().isInterrupted(); step++, generations >>>= 1) {
+
+			if ((generations & 1) != 0) {
+				step(step);
+			}
+
+		}
+
+		return generation - start;
+	}
+
+	/**
+	 * Moves the quadtree forward by 2^step generations.
+	 *
+	 * @param step The number of generations, as a power of two.
+	 */
+	protected void step(int step) {
+
+		if (engine.getNumberOfNodes() > Conf.ENGINE_HASHLIFE_MAXIMUM_NODES) {
+			root = engine.collect(root);
+			marked = null;
+		}
+
+		/*
+		 * A node moves forward by 2^(level-2) generations at most, and
+		 * its living cells must stay in the center while doing so.
+		 */
+		while (root.getLevel() < step + 3 || !engine.isPadded(root)) {
+			root = engine.expand(root);
+		}
+
+		root = engine.step(root, step);
+
+		/* The center must keep all living cells, and still pad them. */
+		while (root.getLevel() > MINIMUM_LEVEL && engine.isPadded(root) && engine.isPadded(engine.center(root))) {
+			root = engine.center(root);
+		}
+
+		generation += 1L << step;
+		outdatedChunks = true;
+
+	}
+
+
+	/**
+	 * <p>
+	 * Renders all living cells on a canvas through a
+	 * rendering context.
+	 * </p>
+	 *
+	 * <p>
+	 * Only the parts of the quadtree visible on the canvas
+	 * are rendered, without building the chunks.
+	 * </p>
+	 *
+	 * @param context The rendering context.
+	 */
+	public void render(RenderingContext context) {
+
+		if (outdatedTree) {
+			super.render(context);
+			return;
+		}
+
+		long half = root.getSize() / 2;
+
+		render(context, root, -half, -half);
+
+	}
+
+	/**
+	 * Creates a snapshot sharing the quadtree, whose nodes
+	 * are never modified.
+	 *
+	 * @return The snapshot.
+	 */
+	protected Snapshot createSnapshot() {
+
+		if (outdatedTree) {
+			return super.createSnapshot();
+		}
+
+		return new TreeSnapshot(generation, root);
+	}
+
+	/**
+	 * Renders the living cells of a node.
+	 *
+	 * @param context The rendering context.
+	 * @param node The node.
+	 * @param x The abscissa of the south west corner of the node.
+	 * @param y The ordinate of the south west corner of the node.
+	 */
+	protected static void render(RenderingContext context, Node node, long x, long y) {
+
+		if (node.isEmpty() || !context.isAreaVisible(x, y, node.getSize())) {
+			return;
+		}
+
+		if (node.getLevel() == 0) {
+			context.drawCell((int) x, (int) y, false);
+			return;
+		}
+
+		long half = node.getSize() / 2;
+
+		render(context, node.nw, x, y + half);
+		render(context, node.ne, x + half, y + half);
+		render(context, node.sw, x, y);
+		render(context, node.se, x + half, y);
+
+	}
+
+	/**
+	 * Counts the living cells of a node inside a rectangle,
+	 * and gives them to a visitor if there is one. A node
+	 * fully inside the rectangle is counted from its
+	 * population when there is no visitor.
+	 *
+	 * @param node The node.
+	 * @param x The abscissa of the south west cell of the node.
+	 * @param y The ordinate of the south west cell of the node.
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 */
+	protected static long query(Node node, long x, long y, Rectangle area, CellVisitor visitor) {
+
+		long size = node.getSize();
+
+		if (node.isEmpty() || x >= (long) area.x + area.width || y >= (long) area.y + area.height || x + size <= area.x || y + size <= area.y) {
+			return 0;
+		}
+
+		if (node.getLevel() == 0) {
+
+			if (visitor != null) {
+				visitor.visit((int) x, (int) y);
+			}
+
+			return 1;
+		}
+
+		if (visitor == null && x >= area.x && y >= area.y && x + size <= (long) area.x + area.width && y + size <= (long) area.y + area.height) {
+			return node.getPopulation();
+		}
+
+		long half = size / 2;
+
+		return query(node.sw, x, y, area, visitor)
+			+ query(node.se, x + half, y, area, visitor)
+			+ query(node.nw, x, y + half, area, visitor)
+			+ query(node.ne, x + half, y + half, area, visitor);
+	}
+
+
+	/**
+	 * Extends bounds with the living cells of a node. A node
+	 * already inside the bounds can not extend them, so it is
+	 * skipped without going down into it.
+	 *
+	 * @param node The node.
+	 * @param x The abscissa of the south west cell of the node.
+	 * @param y The ordinate of the south west cell of the node.
+	 * @param bounds The smallest and the largest abscissa and ordinate, in this order.
+	 */
+	protected static void bound(Node node, long x, long y, long[] bounds) {
+
+		long size = node.getSize();
+
+		if (node.isEmpty() || (x >= bounds[0] && y >= bounds[1] && x + size - 1 <= bounds[2] && y + size - 1 <= bounds[3])) {
+			return;
+		}
+
+		if (node.getLevel() == 0) {
+			bounds[0] = Math.min(bounds[0], x);
+			bounds[1] = Math.min(bounds[1], y);
+			bounds[2] = Math.max(bounds[2], x);
+			bounds[3] = Math.max(bounds[3], y);
+			return;
+		}
+
+		long half = size / 2;
+
+		bound(node.sw, x, y, bounds);
+		bound(node.se, x + half, y, bounds);
+		bound(node.nw, x, y + half, bounds);
+		bound(node.ne, x + half, y + half, bounds);
+
+	}
+
+
+	/**
+	 * Builds the quadtree from the living cells of the chunks.
+	 */
+	protected void load() {
+
+		root = engine.empty(MINIMUM_LEVEL);
+
+		Iterator<Entry<Point, Chunk>> chunks = super.getChunks();
+		long[] board = new long[Chunk.SIZE * Chunk.SIZE / Long.SIZE];
+
+		while (chunks.hasNext()) {
+
+			Chunk chunk = chunks.next().getValue();
+			Coordinates origin = chunk.getCoordinates();
+
+			chunk.readState(board);
+
+			for (int i = 0; i < board.length; i++) {
+
+				for (long word = board[i]; word != 0; word &= word - 1) {
+
+					int index = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+					set(origin.getAbsoluteX() + (index & Chunk.MASK), origin.getAbsoluteY() + (index >>> Chunk.SHIFT));
+
+				}
+
+			}
+
+		}
+
+		outdatedTree = false;
+
+	}
+
+	/**
+	 * Makes a cell of the quadtree alive.
+	 *
+	 * @param x The absolute abscissa of the cell.
+	 * @param y The absolute ordinate of the cell.
+	 */
+	protected void set(long x, long y) {
+
+		long half = root.getSize() / 2;
+
+		while (x < -half || x >= half || y < -half || y >= half) {
+			root = engine.expand(root);
+			half = root.getSize() / 2;
+		}
+
+		root = engine.set(root, x + half, y + half, true);
+
+	}
+
+	/**
+	 * Builds the chunks from the living cells of the quadtree.
+	 */
+	protected void unload() {
+
+		/* Must be done first, building the chunks uses the world. */
+		outdatedChunks = false;
+
+		dropChunks();
+
+		long half = root.getSize() / 2;
+
+		unload(root, -half, -half);
+
+		outdatedTree = false;
+
+	}
+
+	/**
+	 * Creates the living cells of a node in the chunks.
+	 *
+	 * @param node The node.
+	 * @param x The abscissa of the south west corner of the node.
+	 * @param y The ordinate of the south west corner of the node.
+	 */
+	protected void unload(Node node, long x, long y) {
+
+		if (node.isEmpty()) {
+			return;
+		}
+
+		if (node.getLevel() == 0) {
+			super.active(PackedCoordinates.pack((int) x, (int) y));
+			return;
+		}
+
+		long half = node.getSize() / 2;
+
+		unload(node.nw, x, y + half);
+		unload(node.ne, x + half, y + half);
+		unload(node.sw, x, y);
+		unload(node.se, x + half, y);
+
+	}
+
+	/**
+	 * <p>
+	 * Builds the chunks if they are older than the quadtree.
+	 * </p>
+	 *
+	 * <p>
+	 * The chunks may be changed by the caller, so the
+	 * quadtree will be built again before the next update
+	 * if the modify argument is true.
+	 * </p>
+	 *
+	 * @param modify Indicates if the chunks may be changed.
+	 */
+	protected void synchronize(boolean modify) {
+
+		if (outdatedChunks) {
+			unload();
+		}
+
+		if (modify) {
+			outdatedTree = true;
+		}
+
+	}
+
+
+	public void active(long cell) {
+		synchronize(true);
+		super.active(cell);
+	}
+
+	public void toogle(Coordinates coordinates) {
+		synchronize(true);
+		super.toogle(coordinates);
+	}
+
+	public boolean hasChunkAt(Coordinates coordinates) {
+		synchronize(false);
+		return super.hasChunkAt(coordinates);
+	}
+
+	/*
+	 * The lookups only read the chunks, unless a chunk is
+	 * created: the cells are changed through active and
+	 * toogle, which mark the quadtree as outdated.
+	 */
+
+	public Chunk getChunkAt(Coordinates coordinates, boolean force) {
+		synchronize(force);
+		return super.getChunkAt(coordinates, force);
+	}
+
+	public Chunk getChunkAt(int x, int y) {
+		synchronize(false);
+		return super.getChunkAt(x, y);
+	}
+
+	public void register(Chunk chunk) {
+		synchronize(true);
+		super.register(chunk);
+	}
+
+	public void remove(Chunk chunk) {
+		synchronize(true);
+		super.remove(chunk);
+	}
+
+	public Iterator<Entry<Point, Chunk>> getChunks() {
+		synchronize(true);
+		return super.getChunks();
+	}
+
+	/**
+	 * Marks the changes made so far, and keeps the quadtree
+	 * to be compared with the next ones: the nodes being
+	 * canonical, the parts which have not changed are the
+	 * same nodes.
+	 *
+	 * @return The mark.
+	 */
+	public long mark() {
+
+		if (outdatedTree) {
+			load();
+		}
+
+		marked = root;
+		lastMark = super.mark();
+
+		return lastMark;
+	}
+
+	/**
+	 * Visits the chunks changed since a mark, comparing the
+	 * quadtree with the one kept by the mark, without building
+	 * the chunks. All chunks are visited if the quadtree of the
+	 * mark is not known.
+	 *
+	 * @param since The mark, or 0 to visit all chunks.
+	 * @param visitor The visitor of the chunks.
+	 */
+	public void forEachChangedChunk(long since, ChunkVisitor visitor) {
+
+		if (outdatedTree) {
+			load();
+		}
+
+		Node previous = since == lastMark ? marked : null;
+
+		/* The quadtrees are compared on the same grid of chunks. */
+		int level = Math.max(root.getLevel(), Chunk.SHIFT + 1);
+
+		if (previous != null) {
+			level = Math.max(level, previous.getLevel());
+		}
+
+		Node node = expand(root, level);
+		long half = node.getSize() / 2;
+
+		previous = previous == null ? engine.empty(level) : expand(previous, level);
+
+		compare(node, previous, -half, -half, new long[Chunk.SIZE * Chunk.SIZE / Long.SIZE], visitor);
+
+	}
+
+	public boolean containsChunk(int x, int y) {
+
+		if (outdatedTree) {
+			return super.containsChunk(x, y);
+		}
+
+		long half = root.getSize() / 2;
+
+		return query(root, -half, -half, new Rectangle(x << Chunk.SHIFT, y << Chunk.SHIFT, Chunk.SIZE, Chunk.SIZE), null) > 0;
+	}
+
+	/**
+	 * Returns a node expanded up to a level.
+	 *
+	 * @param node The node.
+	 * @param level The level, not lower than the one of the node.
+	 *
+	 * @return The expanded node.
+	 */
+	protected Node expand(Node node, int level) {
+
+		while (node.getLevel() < level) {
+			node = engine.expand(node);
+		}
+
+		return node;
+	}
+
+	/**
+	 * Visits the chunks of a node whose cells differ from the
+	 * ones of another node, at the same level and location.
+	 *
+	 * @param node The node.
+	 * @param previous The other node.
+	 * @param x The abscissa of the south west cell of the nodes.
+	 * @param y The ordinate of the south west cell of the nodes.
+	 * @param board The bitboard receiving the cells of a chunk.
+	 * @param visitor The visitor of the chunks.
+	 */
+	protected static void compare(Node node, Node previous, long x, long y, long[] board, ChunkVisitor visitor) {
+
+		if (node == previous) {
+			return;
+		}
+
+		if (node.getLevel() == Chunk.SHIFT) {
+
+			Arrays.fill(board, 0);
+			read(node, 0, 0, board);
+
+			visitor.visit((int) (x >> Chunk.SHIFT), (int) (y >> Chunk.SHIFT), board);
+
+			return;
+		}
+
+		long half = node.getSize() / 2;
+
+		compare(node.sw, previous.sw, x, y, board, visitor);
+		compare(node.se, previous.se, x + half, y, board, visitor);
+		compare(node.nw, previous.nw, x, y + half, board, visitor);
+		compare(node.ne, previous.ne, x + half, y + half, board, visitor);
+
+	}
+
+	/**
+	 * Sets the bits of the living cells of a node in the
+	 * bitboard of the chunk holding it.
+	 *
+	 * @param node The node.
+	 * @param x The abscissa of the south west cell of the node, in the chunk.
+	 * @param y The ordinate of the south west cell of the node, in the chunk.
+	 * @param board The bitboard of the chunk.
+	 */
+	protected static void read(Node node, int x, int y, long[] board) {
+
+		if (node.isEmpty()) {
+			return;
+		}
+
+		if (node.getLevel() == 0) {
+			int index = (y << Chunk.SHIFT) | x;
+			board[index >>> 6] |= 1L << index;
+			return;
+		}
+
+		int half = (int) (node.getSize() / 2);
+
+		read(node.sw, x, y, board);
+		read(node.se, x + half, y, board);
+		read(node.nw, x, y + half, board);
+		read(node.ne, x + half, y + half, board);
+
+	}
+
+	public int getNumberOfChunks() {
+		synchronize(false);
+		return super.getNumberOfChunks();
+	}
+
+	public int peekNumberOfChunks() {
+
+		if (outdatedChunks) {
+			return -1;
+		}
+
+		return super.getNumberOfChunks();
+	}
+
+
+	/**
+	 * <p>
+	 * Changes the rule making the cells born and survive.
+	 * </p>
+	 *
+	 * <p>
+	 * The nodes remember their evolution under the previous
+	 * rule, so they are copied into a new engine.
+	 * </p>
+	 *
+	 * @param rule The new rule.
+	 */
+	public void setRule(Rule rule) {
+
+		super.setRule(rule);
+
+		engine = new HashLife(rule);
+		root = engine.collect(root);
+		marked = null;
+
+	}
+
+
+	/**
+	 * Clears the entire world by remove all chunks and
+	 * all nodes.
+	 */
+	public void clear() {
+
+		super.clear();
+
+		engine = new HashLife(rule);
+		root = engine.empty(MINIMUM_LEVEL);
+		marked = null;
+
+		outdatedChunks = false;
+		outdatedTree = false;
+
+	}
+
+	/**
+	 * Indicates if the world contains living cells or not.
+	 *
+	 * @return true if the world is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+
+		if (outdatedTree) {
+			return super.isEmpty();
+		}
+
+		return root.isEmpty();
+	}
+
+
+	/**
+	 * Returns the number of living cells in the world, from
+	 * the chunks if they are newer than the quadtree.
+	 *
+	 * @return The population of the world.
+	 */
+	public long getPopulation() {
+
+		if (outdatedTree) {
+			return super.getPopulation();
+		}
+
+		return root.getPopulation();
+	}
+
+	/**
+	 * Counts the living cells inside a rectangle straight from
+	 * the quadtree, or from the chunks if they are newer, and
+	 * gives them to a visitor if there is one.
+	 *
+	 * @param area The rectangle, in absolute coordinates.
+	 * @param visitor The visitor of the cells, or null.
+	 *
+	 * @return The number of living cells inside the rectangle.
+	 */
+	protected long query(Rectangle area, CellVisitor visitor) {
+
+		if (outdatedTree) {
+			return super.query(area, visitor);
+		}
+
+		long half = root.getSize() / 2;
+
+		return area.isEmpty() ? 0 : query(root, -half, -half, area, visitor);
+	}
+
+	/**
+	 * Returns the bounds of the living cells, straight from
+	 * the quadtree, or from the chunks if they are newer.
+	 *
+	 * @return The bounds, empty if there is no living cell.
+	 */
+	public Rectangle getBounds() {
+
+		if (outdatedTree) {
+			return super.getBounds();
+		}
+
+		if (root.isEmpty()) {
+			return new Rectangle();
+		}
+
+		long half = root.getSize() / 2;
+		long[] bounds = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE };
+
+		bound(root, -half, -half, bounds);
+
+		return new Rectangle((int) bounds[0], (int) bounds[1], (int) (bounds[2] - bounds[0] + 1), (int) (bounds[3] - bounds[1] + 1));
+	}
+
+	/**
+	 * Returns the number of living cells, the tree storing
+	 * no other cell.
+	 *
+	 * @return The number of cells.
+	 */
+	public long getNumberOfCells() {
+		return getPopulation();
+	}
+
+
+
+	/**
+	 * The snapshot of a HashLife world, holding the root
+	 * of its quadtree at a generation.
+	 */
+	protected static class TreeSnapshot extends Snapshot {
+
+		/**
+		 * The root of the quadtree, centered on the origin.
+		 */
+		protected final Node root;
+
+
+		/**
+		 * @param generation The generation of the world.
+		 * @param root The root of the quadtree.
+		 */
+		protected TreeSnapshot(long generation, Node root) {
+			super(generation, root.getPopulation(), new int[0], new int[0], new long[0][], new long[0][]);
+			this.root = root;
+		}
+
+
+		public void render(RenderingContext context) {
+
+			long half = root.getSize() / 2;
+
+			HashLifeWorld.render(context, root, -half, -half);
+
+		}
+
+		public boolean isAlive(int x, int y) {
+
+			Node node = root;
+			long half = root.getSize() / 2;
+			long left = -half, bottom = -half;
+
+			if (x < -half || x >= half || y < -half || y >= half) {
+				return false;
+			}
+
+			while (node.getLevel() > 0) {
+
+				half = node.getSize() / 2;
+
+				boolean east = x >= left + half;
+				boolean north = y >= bottom + half;
+
+				node = north ? (east ? node.ne : node.nw) : (east ? node.se : node.sw);
+				left += east ? half : 0;
+				bottom += north ? half : 0;
+
+			}
+
+			return node.getPopulation() != 0;
+		}
+
+		protected long query(Rectangle area, CellVisitor visitor) {
+
+			long half = root.getSize() / 2;
+
+			return area.isEmpty() ? 0 : HashLifeWorld.query(root, -half, -half, area, visitor);
+		}
+
+	}
+
+}
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.hashlife;
+
+/**
+ * <p>
+ * The node class represents a square of the grid of
+ * 2^level cells per side, as a quadtree.
+ * </p>
+ *
+ * <p>
+ * A node is immutable and canonical: two nodes holding
+ * the same cells are the same instance, which allows to
+ * compare nodes by reference and to remember the result
+ * of their evolution. Nodes are created by the HashLife
+ * engine, never directly.
+ * </p>
+ *
+ * <p>
+ * The ordinates increase to the north, like in the
+ * grid system.
+ * </p>
+ *
+ * @see HashLife
+ */
+public class Node {
+
+	/**
+	 * The single cell node of a living cell.
+	 */
+	public static final Node ALIVE = new Node(1);
+
+	/**
+	 * The single cell node of a dead cell.
+	 */
+	public static final Node DEAD = new Node(0);
+
+
+	/**
+	 * The level of the node, 2^level being the size of a side.
+	 */
+	protected final int level;
+
+	/**
+	 * The north west quarter of the node.
+	 */
+	protected final Node nw;
+
+	/**
+	 * The north east quarter of the node.
+	 */
+	protected final Node ne;
+
+	/**
+	 * The south west quarter of the node.
+	 */
+	protected final Node sw;
+
+	/**
+	 * The south east quarter of the node.
+	 */
+	protected final Node se;
+
+	/**
+	 * The number of living cells in the node.
+	 */
+	protected final long population;
+
+	/**
+	 * The hash code of the node, computed from its quarters.
+	 */
+	protected final int hash;
+
+
+	/**
+	 * The center of the node after 2^step generations,
+	 * or null if it has not been computed yet.
+	 *
+	 * @see HashLife#step(Node, int)
+	 */
+	protected Node next;
+
+	/**
+	 * The number of generations of the next node, as a
+	 * power of two.
+	 */
+	protected int step = -1;
+
+
+	/**
+	 * Creates a single cell node.
+	 *
+	 * @param population 1 if the cell is alive; 0 otherwise.
+	 */
+	protected Node(long population) {
+		this.level = 0;
+		this.nw = null;
+		this.ne = null;
+		this.sw = null;
+		this.se = null;
+		this.population = population;
+		this.hash = (int) population;
+	}
+
+	/**
+	 * Creates a node from its four quarters.
+	 *
+	 * @param nw The north west quarter.
+	 * @param ne The north east quarter.
+	 * @param sw The south west quarter.
+	 * @param se The south east quarter.
+	 */
+	protected Node(Node nw, Node ne, Node sw, Node se) {
+		this.level = nw.level + 1;
+		this.nw = nw;
+		this.ne = ne;
+		this.sw = sw;
+		this.se = se;
+		this.population = nw.population + ne.population + sw.population + se.population;
+		this.hash = 31 * (31 * (31 * System.identityHashCode(nw) + System.identityHashCode(ne)) + System.identityHashCode(sw)) + System.identityHashCode(se);
+	}
+
+
+	/**
+	 * Returns the level of the node.
+	 *
+	 * @return The level of the node.
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Returns the number of cells per side of the node.
+	 *
+	 * @return The size of the node.
+	 */
+	public long getSize() {
+		return 1L << level;
+	}
+
+	/**
+	 * Returns the number of living cells in the node.
+	 *
+	 * @return The population of the node.
+	 */
+	public long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Indicates if the node contains living cells or not.
+	 *
+	 * @return true if the node is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return population == 0;
+	}
+
+
+	/**
+	 * Returns a hash code value for the node, computed
+	 * from the identity of its quarters.
+	 *
+	 * @return A hash code value for the node.
+	 */
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * <p>
+	 * Indicates whether some object is equal to
+	 * this node.
+	 * </p>
+	 *
+	 * <p>
+	 * Two nodes are equal if they have the same quarters.
+	 * This method is used internally by the HashLife engine
+	 * to find the canonical instance of a node.
+	 * </p>
+	 *
+	 * @return true if this node is the same as the object argument; false otherwise.
+	 */
+	public boolean equals(Object object) {
+
+		if (object == this) {
+			return true;
+		}
+
+		if (object == null || object.getClass() != getClass()) {
+			return false;
+		}
+
+		Node node = (Node) object;
+
+		if (level == 0 || node.level == 0) {
+			return false;
+		}
+
+		return node.nw == nw && node.ne == ne && node.sw == sw && node.se == se;
+	}
+
+}
@@ -30,13 +30,19 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 import automaton.config.Conf;
 import automaton.decoder.Decoder;
+import automaton.grid.CycleDetector;
+import automaton.grid.OffHeapWorld;
 import automaton.grid.World;
+import automaton.hashlife.HashLifeWorld;
 import automaton.io.Console;
 import automaton.io.Resource;
+import automaton.metrics.Metrics;
+import automaton.ui.widget.StepDialog;
 import automaton.ui.widget.Window;
 
 /**
@@ -47,10 +53,20 @@ import automaton.ui.widget.Window;
 public class Automaton {
 
 	protected boolean running = false;
-	protected boolean playing = false;
 
-	public World world = new World();
-	protected Window window = new Window();
+	public volatile World world = createWorld();
+	protected Window window;
+
+	/**
+	 * The scheduler of the simulation and render threads.
+	 */
+	protected Scheduler scheduler = new Scheduler(this);
+
+	/**
+	 * The metrics of the application, published over JMX
+	 * if the ENGINE_METRICS configuration is true.
+	 */
+	protected Metrics metrics = new Metrics();
 
 	/**
 	 * The AWT toolkit, used to force display buffer
@@ -84,6 +100,7 @@ public class Automaton {
 			Console.err(e, this);
 		}
 
+		window = new Window();
 		window.start();
 
 		window.addWindowListener(new WindowAdapter() {
@@ -97,20 +114,20 @@ public class Automaton {
 		window.getPlayButton().addActionListener(new ActionListener() {
 
 			public void actionPerformed(ActionEvent e) {
-
 				toggle();
-
-				if (playing) {
-					window.getPlayButton().setText("Pause");
-				} else {
-					window.getPlayButton().setText("Play");
-				}
-
 			}
 
 		});
 
 		window.getCanvas().setWorld(world);
+		window.getCanvas().setScheduler(scheduler);
+		window.getCanvas().setMetrics(metrics);
+
+		metrics.setWorld(world);
+
+		if (Conf.ENGINE_METRICS) {
+			metrics.register();
+		}
 
 
 		Decoder.decode(Resource.getRes("res/presets/guns/glider_gun.life"), world);
@@ -133,7 +150,6 @@ public class Automaton {
 		Console.write("Started", this);
 
 		running = true;
-		playing = false;
 
 	}
 
@@ -146,7 +162,8 @@ public class Automaton {
 	 * @see #toggle()
 	 */
 	public void play() {
-		playing = true;
+		scheduler.play();
+		updatePlayButton();
 	}
 
 	/**
@@ -158,7 +175,8 @@ public class Automaton {
 	 * @see #toggle()
 	 */
 	public void pause() {
-		playing = false;
+		scheduler.pause();
+		updatePlayButton();
 	}
 
 	/**
@@ -170,7 +188,67 @@ public class Automaton {
 	 * @see #pause()
 	 */
 	public void toggle() {
-		playing = !playing;
+
+		if (isPlaying()) {
+			pause();
+		} else {
+			play();
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Updates the world once, while paused.
+	 * </p>
+	 * 
+	 * @see Scheduler#step()
+	 */
+	public void step() {
+		scheduler.step();
+	}
+
+	/**
+	 * <p>
+	 * Plays the application until a generation is reached,
+	 * at the usual rate.
+	 * </p>
+	 * 
+	 * @param generation The generation after which the application pauses.
+	 * 
+	 * @see #runToGeneration(long)
+	 */
+	public void runUntil(long generation) {
+		scheduler.runUntil(generation);
+		updatePlayButton();
+	}
+
+	/**
+	 * Indicates if the world is updated at each tick.
+	 * 
+	 * @return true if the application is playing; false otherwise.
+	 */
+	public boolean isPlaying() {
+		return scheduler.isPlaying();
+	}
+
+	/**
+	 * Changes the world on the simulation thread, then
+	 * renders it.
+	 * 
+	 * @param task The change.
+	 * 
+	 * @see Scheduler#execute(Runnable)
+	 */
+	public void execute(Runnable task) {
+		scheduler.execute(task);
+	}
+
+	/**
+	 * Shows on the play / pause button what it would do.
+	 */
+	protected void updatePlayButton() {
+		SwingUtilities.invokeLater(() -> window.getPlayButton().setText(isPlaying() ? "Pause" : "Play"));
 	}
 
 	/**
@@ -186,9 +264,13 @@ public class Automaton {
 	 */
 	public void stop() {
 		running = false;
-		playing = false;
 
+		scheduler.stop();
 		window.dispose();
+
+		if (Conf.ENGINE_METRICS) {
+			metrics.unregister();
+		}
 	}
 
 	/**
@@ -203,50 +285,77 @@ public class Automaton {
 
 	/**
 	 * <p>
-	 * Loop phase of the application life cycle.
+	 * Replaces the world by a new one, keeping the
+	 * living cells.
 	 * </p>
 	 * 
 	 * <p>
-	 * Calls at regular interval the update and the render
-	 * method. The time between interval is defined in
-	 * the configuration by ENGINE_TPS and ENGINE_FPS.
+	 * The new world is created according to the
+	 * engine configuration, see {@link #createWorld()}.
 	 * </p>
+	 * 
+	 * @see HashLifeWorld
+	 * @see OffHeapWorld
 	 */
-	public void loop() {
+	public void changeEngine() {
 
-		long lastTick = System.nanoTime();
-		long lastFrame = System.nanoTime();
+		execute(() -> {
 
-		double tickTime = 1000000000.0 / Conf.ENGINE_TPS;
-		double frameTime = 1000000000.0 / Conf.ENGINE_FPS;
+			World world = createWorld();
 
-		while (running) {
+			world.copy(this.world);
+			world.publish();
 
-			if (System.nanoTime() - lastTick > tickTime) {
+			this.world = world;
+			window.getCanvas().setWorld(world);
+			metrics.setWorld(world);
 
-				update();
+		});
 
-				lastTick += tickTime;
-				tickTime = 1000000000.0 / Conf.ENGINE_TPS;
-			}
+	}
+
+	/**
+	 * Creates an empty world: a HashLife world if the
+	 * ENGINE_HASHLIFE configuration is true, an off heap
+	 * world if the ENGINE_OFF_HEAP configuration is true,
+	 * a world of chunks otherwise.
+	 * 
+	 * @return A new world.
+	 */
+	public static World createWorld() {
 
-			else if (System.nanoTime() - lastFrame > frameTime) {
+		if (Conf.ENGINE_HASHLIFE) {
+			return new HashLifeWorld();
+		}
 
-				render();
+		if (Conf.ENGINE_OFF_HEAP) {
+			return new OffHeapWorld();
+		}
 
-				lastFrame += frameTime;
-			}
+		return new World();
+	}
 
-			else {
-				try {
-					Thread.sleep(1);
-				} catch (Exception e) {
-					Console.err(e, this);
-				}
-			}
 
+	/**
+	 * <p>
+	 * Loop phase of the application life cycle.
+	 * </p>
+	 * 
+	 * <p>
+	 * Hands the update and the render methods over to the
+	 * scheduler, which calls them on their own threads at
+	 * the rates defined in the configuration by ENGINE_TPS
+	 * and ENGINE_FPS, and waits for the application to be
+	 * stopped.
+	 * </p>
+	 * 
+	 * @see Scheduler
+	 */
+	public void loop() {
 
-		}
+		/* Renders the world loaded during the initialization. */
+		scheduler.execute(() -> {});
+		scheduler.awaitTermination();
 
 		exit();
 
@@ -259,19 +368,89 @@ public class Automaton {
 	 * </p>
 	 * 
 	 * <p>
-	 * Updates the localization of the cells.
+	 * Updates the localization of the cells, on the
+	 * simulation thread.
 	 * </p>
 	 * 
 	 * @see #loop()
 	 * @see #render()
 	 */
-	public void update() {
+	public synchronized void update() {
+
+		boolean periodic = world.getCycleDetector().isPeriodic();
+		long start = System.nanoTime();
+
+		world.update();
+		metrics.recordTick(start);
+
+		CycleDetector cycles = world.getCycleDetector();
+
+		/* The world only repeats itself from now on. */
+		if (Conf.ENGINE_CYCLES_PAUSE && !periodic && cycles.isPeriodic()) {
+
+			pause();
+
+			Console.write("Period " + cycles.getPeriod() + " reached, moving by (" + cycles.getDisplacementX() + ", " + cycles.getDisplacementY() + ")", this);
+
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Computes a number of generations as fast as possible,
+	 * outside of the loop, which waits for the computation
+	 * to end before updating the world again.
+	 * </p>
+	 * 
+	 * <p>
+	 * The computation stops early if the current thread
+	 * is interrupted.
+	 * </p>
+	 * 
+	 * @param generations The number of generations.
+	 * 
+	 * @return The number of generations computed.
+	 * 
+	 * @see World#stepGenerations(long)
+	 */
+	public synchronized long stepGenerations(long generations) {
+
+		pause();
+
+		return world.stepGenerations(generations);
+	}
+
+	/**
+	 * <p>
+	 * Brings the world to a later generation on a worker
+	 * thread, showing the progress in a dialog.
+	 * </p>
+	 * 
+	 * <p>
+	 * The canvas keeps showing the last snapshot meanwhile,
+	 * and is rendered once at the end.
+	 * </p>
+	 * 
+	 * @param target The generation to reach.
+	 * 
+	 * @see StepDialog
+	 */
+	public void runToGeneration(long target) {
 
-		if (!playing) {
+		if (target <= world.getGeneration()) {
 			return;
 		}
 
-		world.update();
+		pause();
+		window.getCanvas().setFrozen(true);
+
+		try {
+			new StepDialog(window, this, target - world.getGeneration()).run();
+		} finally {
+			window.getCanvas().setFrozen(false);
+			execute(() -> {});
+		}
 
 	}
 
@@ -281,7 +460,8 @@ public class Automaton {
 	 * </p>
 	 * 
 	 * <p>
-	 * Displays cells on a canvas.
+	 * Displays cells on a canvas, on the render thread,
+	 * from the last snapshot published by the simulation.
 	 * </p>
 	 * 
 	 * @see #loop()
@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.main;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import automaton.config.Conf;
+import automaton.decoder.Decoder;
+import automaton.grid.Chunk;
+import automaton.grid.OffHeapWorld;
+import automaton.grid.World;
+import automaton.hashlife.HashLifeWorld;
+import automaton.io.Console;
+
+/**
+ * <p>
+ * Runs a pattern for a number of generations without any
+ * window, then saves the final pattern and reports the
+ * throughput, the peak population and the peak heap.
+ * </p>
+ *
+ * <blockquote>
+ * <code>
+ * java -jar Automaton-batch.jar pattern.life generations
+ * [--engine=chunks|offheap|hashlife] [--threads=N]
+ * [--output=file.life] [--sample=N]
+ * </code>
+ * </blockquote>
+ *
+ * <p>
+ * The population is sampled every N generations, a thousand
+ * times over the run by default, so the peak population may
+ * miss a short peak between two samples.
+ * </p>
+ *
+ * @see Benchmark
+ */
+public class Batch {
+
+	/**
+	 * The number of population samples taken by default.
+	 */
+	public static final long DEFAULT_SAMPLES = 1000;
+
+	/**
+	 * The usage of the command line.
+	 */
+	public static final String USAGE = "Usage: pattern.life generations [--engine=chunks|offheap|hashlife] [--threads=N] [--output=file.life] [--sample=N]";
+
+
+	/**
+	 * The entry point of the batch runner.
+	 */
+	public static void main(String[] args) {
+
+		System.setProperty("java.awt.headless", "true");
+
+		String engine = "chunks";
+		String output = null;
+		long sample = 0;
+
+		File pattern;
+		long generations;
+
+		try {
+
+			for (int i = 2; i < args.length; i++) {
+
+				String value = args[i].substring(args[i].indexOf('=') + 1);
+
+				if (args[i].startsWith("--engine=")) {
+					engine = value;
+				} else if (args[i].startsWith("--threads=")) {
+					Conf.ENGINE_THREADS = Integer.parseInt(value);
+				} else if (args[i].startsWith("--output=")) {
+					output = value;
+				} else if (args[i].startsWith("--sample=")) {
+					sample = Long.parseLong(value);
+				} else {
+					throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+
+			}
+
+			if (args.length < 2) {
+				throw new IllegalArgumentException("Missing arguments");
+			}
+
+			pattern = new File(args[0]);
+			generations = Long.parseLong(args[1]);
+
+			if (!pattern.isFile() || generations < 0 || sample < 0 || Conf.ENGINE_THREADS < 1) {
+				throw new IllegalArgumentException("Invalid arguments");
+			}
+
+		} catch (IllegalArgumentException e) {
+
+			Console.err(e.getMessage() + ". " + USAGE, Batch.class);
+			System.exit(1);
+			return;
+
+		}
+
+		World world = createWorld(engine);
+
+		if (world == null) {
+			Console.err("Unknown engine " + engine + ". " + USAGE, Batch.class);
+			System.exit(1);
+			return;
+		}
+
+		Decoder.decode(pattern, world);
+
+		if (sample == 0) {
+			sample = Math.max(generations / DEFAULT_SAMPLES, 1);
+		}
+
+		if (output == null) {
+			output = pattern.getName().replaceFirst("\\.life$", "") + "-" + generations + ".life";
+		}
+
+		Console.write(pattern + ", " + generations + " generations, engine " + engine + ", " + Conf.ENGINE_THREADS + " threads, chunk size " + Chunk.SIZE, Batch.class);
+
+		long start = System.nanoTime();
+		long peakPopulation = run(world, generations, sample, new File(output));
+		long time = System.nanoTime() - start;
+
+		Console.write(String.format(
+			"%d generations in %.3f s, %.1f gen/s, population %d, peak population %d, peak heap %d KiB, written to %s",
+			generations,
+			time / 1e9,
+			time == 0 ? 0 : generations * 1e9 / time,
+			world.getPopulation(),
+			peakPopulation,
+			getPeakHeap() / 1024,
+			output
+		), Batch.class);
+
+	}
+
+	/**
+	 * Brings a world to a generation, sampling its population
+	 * every given number of generations, then saves it.
+	 *
+	 * @param world The world.
+	 * @param generations The generation to reach.
+	 * @param sample The number of generations between two samples.
+	 * @param output The life file receiving the final pattern.
+	 *
+	 * @return The peak population sampled.
+	 */
+	public static long run(World world, long generations, long sample, File output) {
+
+		long peakPopulation = world.getPopulation();
+
+		while (world.getGeneration() < generations) {
+
+			world.stepGenerations(Math.min(sample, generations - world.getGeneration()));
+
+			peakPopulation = Math.max(peakPopulation, world.getPopulation());
+
+		}
+
+		Decoder.encode(world, output);
+
+		return peakPopulation;
+	}
+
+	/**
+	 * Creates an empty world of an engine.
+	 *
+	 * @param engine The name of the engine: chunks, offheap or hashlife.
+	 *
+	 * @return The world, or null if the engine is unknown.
+	 */
+	public static World createWorld(String engine) {
+
+		switch (engine) {
+
+			case "chunks":
+				return new World();
+
+			case "offheap":
+				return new OffHeapWorld();
+
+			case "hashlife":
+				return new HashLifeWorld();
+
+			default:
+				return null;
+
+		}
+
+	}
+
+	/**
+	 * Returns the peak memory used by the heap since the
+	 * virtual machine started.
+	 *
+	 * @return The peak used memory, in bytes.
+	 */
+	protected static long getPeakHeap() {
+
+		long peak = 0;
+
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+
+		}
+
+		return peak;
+	}
+
+}
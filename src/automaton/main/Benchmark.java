@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import automaton.config.Conf;
+import automaton.decoder.Decoder;
+import automaton.grid.Chunk;
+import automaton.grid.World;
+import automaton.io.Console;
+import automaton.io.Resource;
+
+/**
+ * <p>
+ * Measures the throughput and the memory of the engine
+ * on the bundled presets, for each supported chunk size.
+ * </p>
+ *
+ * <p>
+ * The chunk size is fixed when the application starts, so
+ * each size is measured in a new virtual machine, launched
+ * with the {@code automaton.chunk.size} property.
+ * </p>
+ *
+ * <blockquote>
+ * <code>
+ * java -cp Automaton.jar automaton.main.Benchmark [generations]
+ * </code>
+ * </blockquote>
+ *
+ * @see Conf#ENGINE_CHUNK_SIZE
+ */
+public class Benchmark {
+
+	/**
+	 * The presets measured, from the sparsest to the densest.
+	 */
+	public static final String[] PRESETS = {
+		"res/presets/guns/glider_gun.life",
+		"res/presets/puffers/puffer_1.life",
+		"res/presets/methuselahs/r-pentomino.life",
+		"res/presets/methuselahs/acorn.life",
+		"res/presets/about/about.life",
+		"res/presets/spacefillers/max.life"
+	};
+
+	/**
+	 * The number of generations computed by default for each preset.
+	 */
+	public static final int DEFAULT_GENERATIONS = 1000;
+
+
+	/**
+	 * The entry point of the benchmark.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		int generations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GENERATIONS;
+
+		/* A child virtual machine measures its own chunk size. */
+		if (System.getProperty("automaton.chunk.size") != null) {
+			run(generations);
+			return;
+		}
+
+		for (int size = Chunk.MINIMUM_SIZE; size <= Chunk.MAXIMUM_SIZE; size *= 2) {
+			fork(size, generations);
+		}
+
+	}
+
+	/**
+	 * Measures every preset with the current chunk size.
+	 *
+	 * @param generations The number of generations to compute.
+	 */
+	public static void run(int generations) {
+
+		Console.write("Chunk size " + Chunk.SIZE + ", kernel " + Conf.ENGINE_KERNEL + ", " + generations + " generations", Benchmark.class);
+
+		for (String preset : PRESETS) {
+
+			InputStream stream = Resource.getRes(preset);
+
+			if (stream == null) {
+				Console.err("Preset " + preset + " not found.", Benchmark.class);
+				continue;
+			}
+
+			World world = new World();
+			Decoder.decode(stream, world);
+
+			/* Warms up the compiler, then starts again from the preset. */
+			World warmup = new World();
+			warmup.copy(world);
+
+			for (int i = 0; i < generations; i++) {
+				warmup.update();
+			}
+
+			long start = System.nanoTime();
+
+			for (int i = 0; i < generations; i++) {
+				world.update();
+			}
+
+			long time = System.nanoTime() - start;
+
+			/* Each chunk holds four bitboards: state, next, previous and placeholders. */
+			long bitboards = world.getNumberOfChunks() * 4L * Chunk.SIZE * Chunk.SIZE / Byte.SIZE;
+
+			Console.write(String.format(
+				"%-44s %10.1f gen/s %8d chunks %8d KiB bitboards %8d KiB heap",
+				preset,
+				generations * 1e9 / time,
+				world.getNumberOfChunks(),
+				bitboards / 1024,
+				getUsedMemory() / 1024
+			), Benchmark.class);
+
+		}
+
+	}
+
+	/**
+	 * Runs the benchmark in a new virtual machine with the
+	 * specified chunk size, on the same class path.
+	 *
+	 * @param size The chunk size.
+	 * @param generations The number of generations to compute.
+	 */
+	protected static void fork(int size, int generations) throws IOException, InterruptedException {
+
+		List<String> command = new ArrayList<>();
+
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-Dautomaton.chunk.size=" + size);
+		command.add("-Dautomaton.kernel=" + Conf.ENGINE_KERNEL);
+
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			command.add("--add-modules");
+			command.add("jdk.incubator.vector");
+		}
+
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(Benchmark.class.getName());
+		command.add(Integer.toString(generations));
+
+		new ProcessBuilder(command).inheritIO().start().waitFor();
+	}
+
+	/**
+	 * Returns the memory used by the heap after a garbage collection.
+	 *
+	 * @return The used memory, in bytes.
+	 */
+	protected static long getUsedMemory() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		System.gc();
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
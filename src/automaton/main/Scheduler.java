@@ -0,0 +1,348 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.main;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import automaton.config.Conf;
+import automaton.io.Console;
+
+/**
+ * <p>
+ * The scheduler runs the application on two threads: the
+ * simulation thread updates the world at ENGINE_TPS ticks
+ * per second, and the render thread repaints the canvas at
+ * most ENGINE_FPS times per second.
+ * </p>
+ *
+ * <p>
+ * The world is only ever modified by the simulation thread,
+ * which publishes a snapshot after each change and requests
+ * a frame. The requests are merged until the next frame is
+ * due, so a slow canvas never delays the ticks, and a slow
+ * tick never prevents a frame.
+ * </p>
+ *
+ * <p>
+ * Nothing is scheduled while the application is paused:
+ * both threads wait for a task without using the CPU.
+ * </p>
+ *
+ * @see Automaton
+ */
+public class Scheduler {
+
+	/**
+	 * The number of nanoseconds in a second.
+	 */
+	protected static final double NANOSECONDS = 1000000000.0;
+
+
+	/**
+	 * The application updated and rendered.
+	 */
+	protected Automaton automaton;
+
+	/**
+	 * The thread updating the world.
+	 */
+	protected ScheduledExecutorService simulation = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "Simulation"));
+
+	/**
+	 * The thread rendering the canvas.
+	 */
+	protected ScheduledExecutorService renderer = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "Render"));
+
+	/**
+	 * The next tick, null if the application is paused.
+	 */
+	protected ScheduledFuture<?> tick;
+
+	/**
+	 * The number of times the application has been played,
+	 * so a tick scheduled before a pause never goes on.
+	 */
+	protected long run = 0;
+
+	/**
+	 * The time the next tick is due, in nanoseconds.
+	 */
+	protected long nextTick;
+
+	/**
+	 * The generation after which the application pauses.
+	 */
+	protected long target = Long.MAX_VALUE;
+
+	/**
+	 * The time of the last frame, in nanoseconds.
+	 */
+	protected volatile long lastFrame = System.nanoTime();
+
+	/**
+	 * Indicates if a frame has been requested and not rendered yet.
+	 */
+	protected AtomicBoolean framePending = new AtomicBoolean();
+
+
+	/**
+	 * @param automaton The application updated and rendered.
+	 */
+	public Scheduler(Automaton automaton) {
+		this.automaton = automaton;
+	}
+
+
+	/**
+	 * Updates the world at each tick, until the application
+	 * is paused.
+	 *
+	 * @see #pause()
+	 */
+	public void play() {
+		runUntil(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Updates the world at each tick, until a generation is
+	 * reached or the application is paused.
+	 *
+	 * @param generation The generation after which the application pauses.
+	 */
+	public synchronized void runUntil(long generation) {
+
+		target = generation;
+
+		if (tick == null) {
+
+			long id = ++run;
+
+			nextTick = System.nanoTime();
+			tick = simulation.schedule(() -> tick(id), 0, TimeUnit.NANOSECONDS);
+
+		}
+
+	}
+
+	/**
+	 * Stops updating the world. A tick already started is
+	 * completed.
+	 */
+	public synchronized void pause() {
+
+		if (tick != null) {
+			tick.cancel(false);
+			tick = null;
+		}
+
+	}
+
+	/**
+	 * Updates the world once, after the current tick if the
+	 * application is playing.
+	 */
+	public void step() {
+		execute(automaton::update);
+	}
+
+	/**
+	 * <p>
+	 * Runs a task on the simulation thread, then publishes
+	 * the world and requests a frame.
+	 * </p>
+	 *
+	 * <p>
+	 * Any change of the world must go through this method
+	 * while the scheduler is running, so the world is never
+	 * read and written by two threads at once.
+	 * </p>
+	 *
+	 * <p>
+	 * The task holds the lock of the application, like the
+	 * updates, so it waits for a computation still running
+	 * on another thread, e.g. a cancelled
+	 * {@link Automaton#stepGenerations(long)}.
+	 * </p>
+	 *
+	 * @param task The task.
+	 */
+	public void execute(Runnable task) {
+
+		simulation.execute(() -> {
+
+			synchronized (automaton) {
+
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					Console.err(e, this);
+				}
+
+			}
+
+			publish();
+
+		});
+
+	}
+
+	/**
+	 * Indicates if the world is updated at each tick.
+	 *
+	 * @return true if the application is playing; false otherwise.
+	 */
+	public synchronized boolean isPlaying() {
+		return tick != null;
+	}
+
+
+	/**
+	 * Stops both threads, after their current task.
+	 */
+	public void stop() {
+
+		pause();
+
+		simulation.shutdown();
+		renderer.shutdown();
+
+	}
+
+	/**
+	 * Waits for both threads to be stopped.
+	 *
+	 * @see #stop()
+	 */
+	public void awaitTermination() {
+
+		try {
+
+			while (!simulation.awaitTermination(1, TimeUnit.MINUTES)) {
+				continue;
+			}
+
+			renderer.awaitTermination(1, TimeUnit.MINUTES);
+
+		} catch (InterruptedException e) {
+			Console.err(e, this);
+		}
+
+	}
+
+
+	/**
+	 * Updates the world, publishes it, and schedules the
+	 * next tick at the rate of ENGINE_TPS. A late tick is
+	 * not caught up with by updating several times in a row.
+	 *
+	 * @param id The run the tick belongs to.
+	 */
+	protected void tick(long id) {
+
+		if (!isRunning(id)) {
+			return;
+		}
+
+		automaton.update();
+		publish();
+
+		synchronized (this) {
+
+			if (!isRunning(id)) {
+				return;
+			}
+
+			if (automaton.world.getGeneration() >= target) {
+				automaton.pause();
+				return;
+			}
+
+			long now = System.nanoTime();
+			long period = (long) (NANOSECONDS / Conf.ENGINE_TPS);
+
+			nextTick = Math.max(nextTick + period, now);
+			tick = simulation.schedule(() -> tick(id), nextTick - now, TimeUnit.NANOSECONDS);
+
+		}
+
+	}
+
+	/**
+	 * Indicates if the ticks of a run must go on.
+	 *
+	 * @param id The run.
+	 *
+	 * @return true if the run has not been paused; false otherwise.
+	 */
+	protected synchronized boolean isRunning(long id) {
+		return tick != null && id == run;
+	}
+
+	/**
+	 * Publishes a snapshot of the world and requests a frame.
+	 * Called by the simulation thread only.
+	 */
+	protected void publish() {
+
+		synchronized (automaton) {
+
+			automaton.world.publish();
+
+			if (Conf.ENGINE_METRICS) {
+				automaton.metrics.recordWorld(automaton.world);
+			}
+
+		}
+
+		/* The pending frame renders this snapshot, the previous one is never shown. */
+		if (!framePending.compareAndSet(false, true)) {
+			automaton.metrics.dropFrame();
+			return;
+		}
+
+		long period = (long) (NANOSECONDS / Conf.ENGINE_FPS);
+		long delay = lastFrame + period - System.nanoTime();
+
+		renderer.schedule(this::frame, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+
+	}
+
+	/**
+	 * Renders the last published snapshot.
+	 */
+	protected void frame() {
+
+		framePending.set(false);
+		lastFrame = System.nanoTime();
+
+		automaton.render();
+
+	}
+
+}
@@ -105,7 +105,7 @@ public class Coordinates {
 	 * @see #toRelativePoint()
 	 */
 	public int getRelativeX() {
-		return Math.floorMod(x, Chunk.SIZE);
+		return x & Chunk.MASK;
 	}
 
 	/**
@@ -118,7 +118,7 @@ public class Coordinates {
 	 * @see #toRelativePoint()
 	 */
 	public int getRelativeY() {
-		return Math.floorMod(y, Chunk.SIZE);
+		return y & Chunk.MASK;
 	}
 
 
@@ -131,7 +131,7 @@ public class Coordinates {
 	 * @see #toChunkPoint()
 	 */
 	public int getChunkX() {
-		return (x - getRelativeX()) / Chunk.SIZE;
+		return x >> Chunk.SHIFT;
 	}
 
 	/**
@@ -143,7 +143,7 @@ public class Coordinates {
 	 * @see #toChunkPoint()
 	 */
 	public int getChunkY() {
-		return (y - getRelativeY()) / Chunk.SIZE;
+		return y >> Chunk.SHIFT;
 	}
 
 
@@ -186,6 +186,18 @@ public class Coordinates {
 		return new Point(getChunkX(), getChunkY());
 	}
 
+	/**
+	 * Returns the absolute abscissa and absolute ordinate
+	 * packed in a long.
+	 * 
+	 * @return The packed coordinates.
+	 * 
+	 * @see PackedCoordinates
+	 */
+	public long toPacked() {
+		return PackedCoordinates.pack(x, y);
+	}
+
 
 	/**
 	 * <p>
@@ -194,18 +206,18 @@ public class Coordinates {
 	 * </p>
 	 * 
 	 * <p>
-	 * This method returns true if the chunk point of
-	 * this coordinates and the chunk point of the
-	 * coordinates argument are equal.
+	 * This method returns true if the chunk abscissa and
+	 * ordinate of this coordinates and of the coordinates
+	 * argument are equal.
 	 * </p>
 	 * 
 	 * @return true if the same chunk contains this coordinates and the coordinates argument; false otherwise.
 	 *  
-	 * @see #toChunkPoint()
-	 * @see Point#equals(Object)
+	 * @see #getChunkX()
+	 * @see #getChunkY()
 	 */
 	public boolean isInTheSameChunkOf(Coordinates coordinates) {
-		return toChunkPoint().equals(coordinates.toChunkPoint());
+		return getChunkX() == coordinates.getChunkX() && getChunkY() == coordinates.getChunkY();
 	}
 
 	/**
@@ -225,8 +237,8 @@ public class Coordinates {
 	 * @see #clone()
 	 */
 	public Coordinates normalizeForChunk() {
-		this.x = getChunkX() * Chunk.SIZE;
-		this.y = getChunkY() * Chunk.SIZE;
+		this.x &= ~Chunk.MASK;
+		this.y &= ~Chunk.MASK;
 
 		return this;
 	}
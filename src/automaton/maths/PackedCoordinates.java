@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.maths;
+
+import automaton.grid.Chunk;
+
+/**
+ * <p>
+ * The packed coordinates class gathers the helpers of
+ * the coordinates packed in a long: the abscissa in the
+ * high 32 bits, the ordinate in the low 32 bits.
+ * </p>
+ *
+ * <p>
+ * Packed coordinates are plain values: they are used on
+ * the hot paths of the grid, the renderer and the decoder
+ * instead of coordinates or points, which are objects
+ * created on the heap and changed in place.
+ * </p>
+ *
+ * <p>
+ * The same packing is used for the location of a cell
+ * and the location of a chunk, in chunk format.
+ * </p>
+ *
+ * @see Coordinates
+ * @see Point
+ */
+public class PackedCoordinates {
+
+	/**
+	 * The mask of the low 32 bits, holding the ordinate.
+	 */
+	protected static final long LOW = 0xFFFFFFFFL;
+
+
+	/**
+	 * Packs an abscissa and an ordinate in a long.
+	 *
+	 * @param x The abscissa.
+	 * @param y The ordinate.
+	 *
+	 * @return The packed coordinates.
+	 */
+	public static long pack(int x, int y) {
+		return ((long) x << 32) | (y & LOW);
+	}
+
+	/**
+	 * Returns the abscissa of packed coordinates.
+	 *
+	 * @param packed The packed coordinates.
+	 *
+	 * @return The abscissa.
+	 */
+	public static int getX(long packed) {
+		return (int) (packed >> 32);
+	}
+
+	/**
+	 * Returns the ordinate of packed coordinates.
+	 *
+	 * @param packed The packed coordinates.
+	 *
+	 * @return The ordinate.
+	 */
+	public static int getY(long packed) {
+		return (int) packed;
+	}
+
+
+	/**
+	 * Returns the relative abscissa of a cell, defined
+	 * from the origin of its chunk.
+	 *
+	 * @param packed The packed coordinates of the cell.
+	 *
+	 * @return The relative abscissa.
+	 *
+	 * @see Coordinates#getRelativeX()
+	 */
+	public static int getRelativeX(long packed) {
+		return (int) (packed >> 32) & Chunk.MASK;
+	}
+
+	/**
+	 * Returns the relative ordinate of a cell, defined
+	 * from the origin of its chunk.
+	 *
+	 * @param packed The packed coordinates of the cell.
+	 *
+	 * @return The relative ordinate.
+	 *
+	 * @see Coordinates#getRelativeY()
+	 */
+	public static int getRelativeY(long packed) {
+		return (int) packed & Chunk.MASK;
+	}
+
+	/**
+	 * Returns the abscissa of the chunk of a cell, in
+	 * chunk format.
+	 *
+	 * @param packed The packed coordinates of the cell.
+	 *
+	 * @return The abscissa of the chunk.
+	 *
+	 * @see Coordinates#getChunkX()
+	 */
+	public static int getChunkX(long packed) {
+		return (int) (packed >> 32) >> Chunk.SHIFT;
+	}
+
+	/**
+	 * Returns the ordinate of the chunk of a cell, in
+	 * chunk format.
+	 *
+	 * @param packed The packed coordinates of the cell.
+	 *
+	 * @return The ordinate of the chunk.
+	 *
+	 * @see Coordinates#getChunkY()
+	 */
+	public static int getChunkY(long packed) {
+		return (int) packed >> Chunk.SHIFT;
+	}
+
+	/**
+	 * Returns the packed coordinates of the chunk of a cell,
+	 * in chunk format.
+	 *
+	 * @param packed The packed coordinates of the cell.
+	 *
+	 * @return The packed coordinates of the chunk.
+	 */
+	public static long toChunk(long packed) {
+		return pack(getChunkX(packed), getChunkY(packed));
+	}
+
+	/**
+	 * Returns the index of the bit of a cell in the
+	 * bitboard of its chunk.
+	 *
+	 * @param packed The packed coordinates of the cell.
+	 *
+	 * @return The index of the bit.
+	 */
+	public static int getIndex(long packed) {
+		return (getRelativeY(packed) << Chunk.SHIFT) | getRelativeX(packed);
+	}
+
+
+	/**
+	 * Returns packed coordinates moved by a translation,
+	 * each component wrapping around as an int does.
+	 *
+	 * @param packed The packed coordinates.
+	 * @param dx The value to add to the abscissa.
+	 * @param dy The value to add to the ordinate.
+	 *
+	 * @return The moved packed coordinates.
+	 */
+	public static long add(long packed, int dx, int dy) {
+		return pack(getX(packed) + dx, getY(packed) + dy);
+	}
+
+	/**
+	 * Spreads the bits of packed coordinates, so that close
+	 * locations do not get close hash codes.
+	 *
+	 * @param packed The packed coordinates.
+	 *
+	 * @return The hash code.
+	 */
+	public static int hash(long packed) {
+
+		packed ^= packed >>> 33;
+		packed *= 0xFF51AFD7ED558CCDL;
+		packed ^= packed >>> 33;
+
+		return (int) packed;
+	}
+
+	/**
+	 * Creates coordinates from packed coordinates.
+	 *
+	 * @param packed The packed coordinates.
+	 *
+	 * @return New coordinates.
+	 */
+	public static Coordinates toCoordinates(long packed) {
+		return new Coordinates(getX(packed), getY(packed));
+	}
+
+}
@@ -141,11 +141,22 @@ public class Point {
 		return x + ", " + y;
 	}
 
+	/**
+	 * Returns the abscissa and the ordinate packed in a long.
+	 * 
+	 * @return The packed coordinates.
+	 * 
+	 * @see PackedCoordinates
+	 */
+	public long toPacked() {
+		return PackedCoordinates.pack(x, y);
+	}
+
 	/**
 	 * <p>
 	 * Returns a hash code value for the point.
-	 * The hash code is generated from the string
-	 * representation of the point.
+	 * The hash code is generated from the packed
+	 * coordinates of the point.
 	 * </p>
 	 * 
 	 * <p>
@@ -155,10 +166,10 @@ public class Point {
 	 * 
 	 * @return A hash code value for the point.
 	 * 
-	 * @see #toString()
+	 * @see PackedCoordinates#hash(long)
 	 */
 	public int hashCode() {
-		return toString().hashCode();
+		return PackedCoordinates.hash(toPacked());
 	}
 
 
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * The flight recorder event of a chunk removed from the
+ * world, because it was empty or because it was spilled.
+ * </p>
+ *
+ * <p>
+ * Like {@link ChunkCreatedEvent}, the event is disabled
+ * unless enabled by the settings of the recording.
+ * </p>
+ *
+ * @see automaton.grid.World#remove(automaton.grid.Chunk)
+ */
+@Name("automaton.ChunkRemoved")
+@Label("Chunk Removed")
+@Category({"Automaton", "Engine"})
+@Description("A chunk removed from the world")
+@Enabled(false)
+@StackTrace(false)
+public class ChunkRemovedEvent extends Event {
+
+	@Label("X")
+	@Description("The abscissa of the chunk, in chunk format")
+	public int x;
+
+	@Label("Y")
+	@Description("The ordinate of the chunk, in chunk format")
+	public int y;
+
+	@Label("Chunks")
+	@Description("The number of chunks left in the world")
+	public int chunks;
+
+	@Label("Spilled")
+	@Description("Indicates if the chunk has been spilled to the pager rather than dropped")
+	public boolean spilled;
+
+}
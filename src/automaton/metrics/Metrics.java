@@ -0,0 +1,274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import automaton.config.Conf;
+import automaton.grid.World;
+import automaton.io.Console;
+
+/**
+ * <p>
+ * The metrics of the running application, published as a
+ * platform MBean so that a long run can be watched from
+ * JConsole or from a monitoring agent.
+ * </p>
+ *
+ * <p>
+ * The simulation thread records the ticks and the size of
+ * the world after each change, the render thread records
+ * the frames. The readers never touch the world itself:
+ * the population is read from the last published snapshot.
+ * </p>
+ *
+ * @see MetricsMBean
+ * @see automaton.main.Scheduler
+ */
+public class Metrics implements MetricsMBean {
+
+	/**
+	 * The object name of the MBean.
+	 */
+	public static final String NAME = "automaton:type=Metrics";
+
+	/**
+	 * The number of nanoseconds in a millisecond.
+	 */
+	protected static final double MILLISECONDS = 1000000.0;
+
+
+	/**
+	 * The world measured.
+	 */
+	protected volatile World world;
+
+	/**
+	 * The durations of the ticks.
+	 */
+	protected Sampler ticks = new Sampler(Conf.ENGINE_METRICS_WINDOW);
+
+	/**
+	 * The durations of the frames.
+	 */
+	protected Sampler frames = new Sampler(Conf.ENGINE_METRICS_WINDOW);
+
+	/**
+	 * The number of snapshots replaced before being rendered.
+	 */
+	protected AtomicLong droppedFrames = new AtomicLong();
+
+	/**
+	 * The number of chunks after the last change of the world.
+	 */
+	protected volatile int chunks = 0;
+
+	/**
+	 * The number of living cells after the last change of the world.
+	 */
+	protected volatile long cells = 0;
+
+
+	/**
+	 * Registers the metrics in the platform MBean server.
+	 * A failure is reported without stopping the application.
+	 */
+	public void register() {
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(NAME));
+		} catch (JMException e) {
+			Console.err(e, this);
+		}
+
+	}
+
+	/**
+	 * Removes the metrics from the platform MBean server.
+	 */
+	public void unregister() {
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(NAME));
+		} catch (JMException e) {
+			Console.err(e, this);
+		}
+
+	}
+
+
+	/**
+	 * Defines the world measured.
+	 *
+	 * @param world The world.
+	 */
+	public void setWorld(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * <p>
+	 * Records the size of the world, after a change. Called
+	 * by the thread modifying the world only.
+	 * </p>
+	 *
+	 * <p>
+	 * Called at each tick, it only reads the counts kept by
+	 * the world: the chunks of the HashLife engine are not
+	 * built to be counted.
+	 * </p>
+	 *
+	 * @param world The world, which must not be modified meanwhile.
+	 */
+	public void recordWorld(World world) {
+		chunks = world.peekNumberOfChunks();
+		cells = world.getPopulation();
+	}
+
+	/**
+	 * Records a tick which has just ended.
+	 *
+	 * @param start The time the tick started, in nanoseconds.
+	 */
+	public void recordTick(long start) {
+
+		long now = System.nanoTime();
+
+		ticks.record(now, now - start);
+
+	}
+
+	/**
+	 * Records a frame which has just been rendered.
+	 *
+	 * @param start The time the frame started, in nanoseconds.
+	 */
+	public void recordFrame(long start) {
+
+		long now = System.nanoTime();
+
+		frames.record(now, now - start);
+
+	}
+
+	/**
+	 * Records a snapshot replaced before being rendered.
+	 */
+	public void dropFrame() {
+		droppedFrames.incrementAndGet();
+	}
+
+
+	public long getGeneration() {
+		return world == null ? 0 : world.getGeneration();
+	}
+
+	public long getPopulation() {
+		return world == null ? 0 : world.getSnapshot().getPopulation();
+	}
+
+	public int getNumberOfChunks() {
+		return chunks;
+	}
+
+	public long getNumberOfCells() {
+		return cells;
+	}
+
+
+	public long getTicks() {
+		return ticks.getCount();
+	}
+
+	public double getTickLatencyP50() {
+		return ticks.getPercentile(50) / MILLISECONDS;
+	}
+
+	public double getTickLatencyP95() {
+		return ticks.getPercentile(95) / MILLISECONDS;
+	}
+
+	public double getTickLatencyP99() {
+		return ticks.getPercentile(99) / MILLISECONDS;
+	}
+
+	public double getTickLatencyMax() {
+		return ticks.getPercentile(100) / MILLISECONDS;
+	}
+
+
+	public long getFrames() {
+		return frames.getCount();
+	}
+
+	public double getRenderLatencyP50() {
+		return frames.getPercentile(50) / MILLISECONDS;
+	}
+
+	public double getRenderLatencyP95() {
+		return frames.getPercentile(95) / MILLISECONDS;
+	}
+
+	public double getRenderLatencyP99() {
+		return frames.getPercentile(99) / MILLISECONDS;
+	}
+
+	public double getRenderLatencyMax() {
+		return frames.getPercentile(100) / MILLISECONDS;
+	}
+
+	public long getDroppedFrames() {
+		return droppedFrames.get();
+	}
+
+
+	public double getTargetTps() {
+		return Conf.ENGINE_TPS;
+	}
+
+	public double getAchievedTps() {
+		return ticks.getRate(System.nanoTime());
+	}
+
+	public double getTargetFps() {
+		return Conf.ENGINE_FPS;
+	}
+
+	public double getAchievedFps() {
+		return frames.getRate(System.nanoTime());
+	}
+
+
+	public void reset() {
+		ticks.reset();
+		frames.reset();
+		droppedFrames.set(0);
+	}
+
+}
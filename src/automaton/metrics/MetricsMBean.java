@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.metrics;
+
+/**
+ * <p>
+ * The management interface of the metrics, as shown by
+ * JConsole or any JMX client under the name
+ * {@value Metrics#NAME}.
+ * </p>
+ *
+ * <p>
+ * The latencies are in milliseconds, over the last samples
+ * kept, see {@link automaton.config.Conf#ENGINE_METRICS_WINDOW}.
+ * The rates are in events per second, over the last second.
+ * </p>
+ *
+ * @see Metrics
+ */
+public interface MetricsMBean {
+
+	/**
+	 * @return The generation of the world.
+	 */
+	public long getGeneration();
+
+	/**
+	 * @return The number of living cells, in the last published snapshot.
+	 */
+	public long getPopulation();
+
+	/**
+	 * @return The number of chunks, after the last change of the world, or -1 if the engine has not built them.
+	 */
+	public int getNumberOfChunks();
+
+	/**
+	 * @return The number of living cells, after the last change of the world.
+	 */
+	public long getNumberOfCells();
+
+
+	/**
+	 * @return The number of ticks since the last reset.
+	 */
+	public long getTicks();
+
+	/**
+	 * @return The median duration of a tick.
+	 */
+	public double getTickLatencyP50();
+
+	/**
+	 * @return The 95th percentile of the duration of a tick.
+	 */
+	public double getTickLatencyP95();
+
+	/**
+	 * @return The 99th percentile of the duration of a tick.
+	 */
+	public double getTickLatencyP99();
+
+	/**
+	 * @return The maximum duration of a tick.
+	 */
+	public double getTickLatencyMax();
+
+
+	/**
+	 * @return The number of frames since the last reset.
+	 */
+	public long getFrames();
+
+	/**
+	 * @return The median duration of a frame.
+	 */
+	public double getRenderLatencyP50();
+
+	/**
+	 * @return The 95th percentile of the duration of a frame.
+	 */
+	public double getRenderLatencyP95();
+
+	/**
+	 * @return The 99th percentile of the duration of a frame.
+	 */
+	public double getRenderLatencyP99();
+
+	/**
+	 * @return The maximum duration of a frame.
+	 */
+	public double getRenderLatencyMax();
+
+	/**
+	 * @return The number of snapshots published and never rendered since the last reset.
+	 */
+	public long getDroppedFrames();
+
+
+	/**
+	 * @return The number of ticks per second asked for.
+	 */
+	public double getTargetTps();
+
+	/**
+	 * @return The number of ticks per second reached.
+	 */
+	public double getAchievedTps();
+
+	/**
+	 * @return The maximum number of frames per second.
+	 */
+	public double getTargetFps();
+
+	/**
+	 * @return The number of frames per second reached.
+	 */
+	public double getAchievedFps();
+
+
+	/**
+	 * Forgets the latencies and the counters.
+	 */
+	public void reset();
+
+}
@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.metrics;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The sampler keeps the durations of the last recorded
+ * events, such as the ticks or the frames, to compute
+ * their percentiles and their rate.
+ * </p>
+ *
+ * <p>
+ * The samples are stored in a ring: once full, each new
+ * sample replaces the oldest one, so recording never
+ * allocates and the percentiles follow the recent events.
+ * </p>
+ *
+ * @see Metrics
+ */
+public class Sampler {
+
+	/**
+	 * The number of nanoseconds in a second.
+	 */
+	public static final long SECOND = 1000000000L;
+
+
+	/**
+	 * The time each sample ended, in nanoseconds.
+	 */
+	protected long[] times;
+
+	/**
+	 * The duration of each sample, in nanoseconds.
+	 */
+	protected long[] durations;
+
+	/**
+	 * The index of the slot of the next sample.
+	 */
+	protected int next = 0;
+
+	/**
+	 * The number of samples stored.
+	 */
+	protected int size = 0;
+
+	/**
+	 * The number of samples recorded since the last reset.
+	 */
+	protected long count = 0;
+
+
+	/**
+	 * @param capacity The number of samples kept.
+	 */
+	public Sampler(int capacity) {
+		times = new long[capacity];
+		durations = new long[capacity];
+	}
+
+
+	/**
+	 * Records an event.
+	 *
+	 * @param time The time the event ended, in nanoseconds.
+	 * @param duration The duration of the event, in nanoseconds.
+	 */
+	public synchronized void record(long time, long duration) {
+
+		times[next] = time;
+		durations[next] = duration;
+
+		next = (next + 1) % times.length;
+		size = Math.min(size + 1, times.length);
+		count++;
+
+	}
+
+	/**
+	 * Forgets all samples.
+	 */
+	public synchronized void reset() {
+		next = 0;
+		size = 0;
+		count = 0;
+	}
+
+
+	/**
+	 * Returns the duration under which fall a percentage of
+	 * the samples kept, by the nearest rank method.
+	 *
+	 * @param percentile The percentage, between 0 and 100.
+	 *
+	 * @return The duration in nanoseconds, 0 if there is no sample.
+	 */
+	public synchronized long getPercentile(double percentile) {
+
+		if (size == 0) {
+			return 0;
+		}
+
+		long[] sorted = Arrays.copyOf(durations, size);
+		Arrays.sort(sorted);
+
+		int rank = (int) Math.ceil(percentile / 100 * size);
+
+		return sorted[Math.min(Math.max(rank, 1), size) - 1];
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of events per second, over the
+	 * last second.
+	 * </p>
+	 *
+	 * <p>
+	 * If all the samples kept are more recent than a second,
+	 * some events of the last second may have been replaced,
+	 * so the rate is measured since the oldest sample instead.
+	 * </p>
+	 *
+	 * @param now The current time, in nanoseconds.
+	 *
+	 * @return The rate, in events per second.
+	 */
+	public synchronized double getRate(long now) {
+
+		int recent = 0;
+
+		for (int i = 0; i < size; i++) {
+
+			if (now - times[i] < SECOND) {
+				recent++;
+			}
+
+		}
+
+		if (recent < times.length) {
+			return recent;
+		}
+
+		long oldest = times[next];
+
+		return (double) recent * SECOND / Math.max(now - oldest, 1);
+	}
+
+	/**
+	 * Returns the number of samples recorded since the last
+	 * reset, including the ones no longer kept.
+	 *
+	 * @return The number of samples.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * The flight recorder event of an update of the world,
+ * from the first step of the update to the last one.
+ * </p>
+ *
+ * <p>
+ * The population is only counted if the event is recorded,
+ * so disabling the event makes the update as fast as
+ * without flight recorder.
+ * </p>
+ *
+ * @see automaton.grid.World#update()
+ */
+@Name("automaton.Update")
+@Label("World Update")
+@Category({"Automaton", "Engine"})
+@Description("An update of the world")
+@StackTrace(false)
+public class UpdateEvent extends Event {
+
+	@Label("Generation")
+	@Description("The generation reached by the update")
+	public long generation;
+
+	@Label("Population")
+	@Description("The number of living cells after the update")
+	public long population;
+
+	@Label("Chunks")
+	@Description("The number of chunks computed by the update, 0 for HashLife")
+	public int chunks;
+
+}
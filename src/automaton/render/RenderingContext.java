@@ -25,6 +25,7 @@
 package automaton.render;
 
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 import automaton.config.Conf;
 import automaton.grid.Cell;
@@ -50,12 +51,29 @@ public class RenderingContext {
 	 */
 	protected int zoom = Conf.CANVAS_DEFAULT_ZOOM;
 
+	/**
+	 * The number of cells drawn since the graphics were defined.
+	 */
+	protected int cells = 0;
+
 
 	/**
-	 * Defines the graphics that renders on the canvas.
+	 * Defines the graphics that renders on the canvas,
+	 * and starts counting the cells drawn again.
 	 */
 	public void setGraphics(Graphics graphics) {
 		this.graphics = graphics;
+		this.cells = 0;
+	}
+
+	/**
+	 * Returns the number of cells drawn since the graphics
+	 * were defined.
+	 *
+	 * @return The number of cells.
+	 */
+	public int getNumberOfCellsDrawn() {
+		return cells;
 	}
 
 
@@ -76,15 +94,41 @@ public class RenderingContext {
 	 */
 	public void drawCell(Cell cell) {
 
+		Coordinates coordinates = cell.getCoordinates();
+
+		drawCell(
+			coordinates.getAbsoluteX(),
+			coordinates.getAbsoluteY(),
+			cell.isIsolated() || cell.isOverpopulated()
+		);
+
+	}
+
+	/**
+	 * <p>
+	 * Draws a filled cell from its absolute coordinates.
+	 * <p>
+	 * 
+	 * <p>
+	 * The dying argument is only used if the color is
+	 * activated, see {@link #drawCell(Cell)}.
+	 * </p>
+	 * 
+	 * @param x The absolute abscissa of the cell.
+	 * @param y The absolute ordinate of the cell.
+	 * @param dying Indicates if the cell is dying in the next state.
+	 */
+	public void drawCell(int x, int y, boolean dying) {
+
 		if (graphics == null) {
 			return;
 		}
 
-		Coordinates coordinates = cell.getCoordinates();
+		cells++;
 
 		if (Conf.CANVAS_ACTIVE_COLORED_CELLS) {
 
-			if (cell.isIsolated() || cell.isOverpopulated()) {
+			if (dying) {
 				graphics.setColor(Conf.CANVAS_DYING_CELL_COLOR);
 			}
 
@@ -103,8 +147,8 @@ public class RenderingContext {
 		 * par rapport à la position des pixels sur l'écran.
 		 */
 		graphics.fillRect(
-			coordinates.getAbsoluteX() * zoom,
-			-coordinates.getAbsoluteY() * zoom - zoom,
+			x * zoom,
+			-y * zoom - zoom,
 			zoom,
 			zoom
 		);
@@ -116,12 +160,22 @@ public class RenderingContext {
 	 */
 	public void drawChunkBorder(Chunk chunk) {
 
+		Coordinates coordinates = chunk.getCoordinates();
+
+		drawChunkBorder(coordinates.getAbsoluteX(), coordinates.getAbsoluteY());
+
+	}
+
+	/**
+	 * Draws the border of a chunk from the absolute
+	 * coordinates of its origin.
+	 */
+	public void drawChunkBorder(int x, int y) {
+
 		if (graphics == null) {
 			return;
 		}
 
-		Coordinates coordinates = chunk.getCoordinates();
-
 		graphics.setColor(Conf.CANVAS_CHUNK_BORDERS_COLOR);
 
 		/*
@@ -129,8 +183,8 @@ public class RenderingContext {
 		 * par rapport à la position des pixels sur l'écran.
 		 */
 		graphics.drawRect(
-			coordinates.getAbsoluteX() * zoom,
-			-coordinates.getAbsoluteY() * zoom - (Chunk.SIZE * zoom),
+			x * zoom,
+			-y * zoom - (Chunk.SIZE * zoom),
 			Chunk.SIZE * zoom,
 			Chunk.SIZE * zoom
 		);
@@ -138,6 +192,45 @@ public class RenderingContext {
 	}
 
 
+	/**
+	 * <p>
+	 * Indicates if a square area of the grid is visible
+	 * on the canvas.
+	 * </p>
+	 * 
+	 * <p>
+	 * The area is visible if it crosses the clip of the
+	 * graphics, or if the graphics has no clip.
+	 * </p>
+	 * 
+	 * @param x The absolute abscissa of the south west corner of the area.
+	 * @param y The absolute ordinate of the south west corner of the area.
+	 * @param size The number of cells per side of the area.
+	 * 
+	 * @return true if the area is visible; false otherwise.
+	 */
+	public boolean isAreaVisible(long x, long y, long size) {
+
+		if (graphics == null) {
+			return false;
+		}
+
+		Rectangle clip = graphics.getClipBounds();
+
+		if (clip == null) {
+			return true;
+		}
+
+		/* Computed with doubles, the area may be too large for a long in pixels. */
+		double left = (double) x * zoom;
+		double right = ((double) x + size) * zoom;
+		double top = -((double) y + size) * zoom;
+		double bottom = -(double) y * zoom;
+
+		return left < clip.getMaxX() && right > clip.getMinX() && top < clip.getMaxY() && bottom > clip.getMinY();
+	}
+
+
 	/**
 	 * Zoom on the canvas
 	 * 
@@ -24,12 +24,29 @@
 
 package automaton.tests;
 
+import automaton.tests.decoder.RegionFileTest;
+import automaton.tests.decoder.RegionStoreTest;
+import automaton.tests.grid.AllocationTest;
 import automaton.tests.grid.CellTest;
+import automaton.tests.grid.ChunkArenaTest;
+import automaton.tests.grid.ChunkPagerTest;
+import automaton.tests.grid.ChunkTableTest;
 import automaton.tests.grid.ChunkTest;
+import automaton.tests.grid.CycleDetectorTest;
 import automaton.tests.grid.EvolutionTest;
+import automaton.tests.grid.OffHeapWorldTest;
+import automaton.tests.grid.RuleTest;
+import automaton.tests.grid.SnapshotTest;
 import automaton.tests.grid.WorldTest;
+import automaton.tests.hashlife.HashLifeWorldTest;
+import automaton.tests.main.BatchTest;
+import automaton.tests.main.SchedulerTest;
 import automaton.tests.maths.CoordinatesTest;
+import automaton.tests.maths.PackedCoordinatesTest;
 import automaton.tests.maths.PointTest;
+import automaton.tests.metrics.FlightRecorderTest;
+import automaton.tests.metrics.MetricsTest;
+import automaton.tests.metrics.SamplerTest;
 
 /**
  * Unit tests of an implementation of the Conway's Game of Life.
@@ -46,12 +63,33 @@ public class MainTest {
 		TestSuite suite = new TestSuite();
 
 		suite.append(CoordinatesTest.class);
+		suite.append(PackedCoordinatesTest.class);
 		suite.append(PointTest.class);
 
 		suite.append(WorldTest.class);
 		suite.append(ChunkTest.class);
+		suite.append(CycleDetectorTest.class);
+		suite.append(ChunkTableTest.class);
 		suite.append(CellTest.class);
 		suite.append(EvolutionTest.class);
+		suite.append(RuleTest.class);
+		suite.append(SnapshotTest.class);
+		suite.append(AllocationTest.class);
+		suite.append(ChunkArenaTest.class);
+		suite.append(OffHeapWorldTest.class);
+		suite.append(ChunkPagerTest.class);
+
+		suite.append(HashLifeWorldTest.class);
+
+		suite.append(RegionFileTest.class);
+		suite.append(RegionStoreTest.class);
+
+		suite.append(SamplerTest.class);
+		suite.append(MetricsTest.class);
+		suite.append(FlightRecorderTest.class);
+
+		suite.append(SchedulerTest.class);
+		suite.append(BatchTest.class);
 
 		suite.run();
 
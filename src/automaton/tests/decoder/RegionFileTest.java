@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.decoder;
+
+import java.io.File;
+import java.io.IOException;
+
+import automaton.decoder.RegionFile;
+import automaton.tests.TestCase;
+
+public class RegionFileTest extends TestCase {
+
+	public void testReadWrite() throws IOException {
+
+		File file = File.createTempFile("automaton", ".region");
+		long[] board = new long[16];
+		long[] read = new long[16];
+
+		try {
+
+			try (RegionFile region = new RegionFile(file, 32)) {
+
+				assertTrue(region.isEmpty());
+
+				board[3] = 42;
+				region.write(RegionFile.indexOf(-1, 2), board);
+
+				board[15] = -1L;
+				region.write(RegionFile.indexOf(5, 5), board);
+
+			}
+
+			long length = file.length();
+
+			try (RegionFile region = new RegionFile(file, 64)) {
+
+				/* An existing file keeps its chunk size. */
+				assertSame(region.getChunkSize(), 32);
+
+				assertTrue(region.contains(RegionFile.indexOf(31, 2)));
+				assertFalse(region.contains(RegionFile.indexOf(0, 0)));
+				assertFalse(region.read(RegionFile.indexOf(0, 0), read));
+
+				assertTrue(region.read(RegionFile.indexOf(-1, 2), read));
+				assertTrue(read[3] == 42 && read[15] == 0);
+
+				/* Overwriting a chunk does not grow the file. */
+				board[0] = 7;
+				region.write(RegionFile.indexOf(-1, 2), board);
+
+			}
+
+			assertTrue(file.length() == length);
+
+			try (RegionFile region = new RegionFile(file, 32)) {
+
+				assertTrue(region.read(RegionFile.indexOf(-1, 2), read));
+				assertTrue(read[0] == 7 && read[15] == -1L);
+
+				region.remove(RegionFile.indexOf(5, 5));
+				region.remove(RegionFile.indexOf(-1, 2));
+
+				assertTrue(region.isEmpty());
+
+			}
+
+			assertTrue(file.length() < length);
+
+		} finally {
+			file.delete();
+		}
+
+	}
+
+	public void testWithoutClosing() throws IOException {
+
+		File file = File.createTempFile("automaton", ".region");
+		long[] board = new long[16];
+		long[] read = new long[16];
+
+		try (RegionFile region = new RegionFile(file, 32)) {
+
+			board[0] = 1;
+			region.write(RegionFile.indexOf(0, 0), board);
+			region.remove(RegionFile.indexOf(0, 0));
+
+			/* The freed slot is reused by another chunk. */
+			board[0] = 2;
+			region.write(RegionFile.indexOf(1, 0), board);
+
+			try (RegionFile copy = new RegionFile(file, 32)) {
+
+				assertFalse(copy.read(RegionFile.indexOf(0, 0), read));
+				assertTrue(copy.read(RegionFile.indexOf(1, 0), read));
+				assertTrue(read[0] == 2);
+
+			}
+
+		} finally {
+			file.delete();
+		}
+
+	}
+
+	public void testInvalid() throws IOException {
+
+		File file = File.createTempFile("automaton", ".region");
+
+		try {
+
+			java.nio.file.Files.write(file.toPath(), "0,0\n".getBytes());
+
+			try {
+				new RegionFile(file, 32).close();
+				fail("A life file is not a region file");
+			} catch (IOException e) {
+				assertNotNull(e.getMessage());
+			}
+
+		} finally {
+			file.delete();
+		}
+
+	}
+
+}
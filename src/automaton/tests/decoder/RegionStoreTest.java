@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.decoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import automaton.config.Conf;
+import automaton.decoder.RegionStore;
+import automaton.grid.Chunk;
+import automaton.grid.ChunkPager;
+import automaton.grid.OffHeapWorld;
+import automaton.grid.Rule;
+import automaton.grid.World;
+import automaton.hashlife.HashLifeWorld;
+import automaton.maths.Coordinates;
+import automaton.tests.TestCase;
+
+public class RegionStoreTest extends TestCase {
+
+	public void testSaveLoad() throws IOException {
+
+		File directory = Files.createTempDirectory("automaton").toFile();
+		int region = Chunk.SIZE * 32;
+
+		World world = new World();
+
+		world.setRule(Rule.HIGHLIFE);
+		world.active(new Coordinates(1, 1));
+		world.active(new Coordinates(-1, 5));
+		world.active(new Coordinates(region * 3 + 7, -region));
+
+		try {
+
+			RegionStore store = new RegionStore(directory);
+
+			assertSame(store.save(world), 3);
+			assertTrue(store.getRegionFile(0, 0).isFile());
+			assertTrue(store.getRegionFile(-1, 0).isFile());
+			assertTrue(store.getRegionFile(3, -1).isFile());
+
+			World copy = new HashLifeWorld();
+
+			new RegionStore(directory).load(copy);
+
+			assertEquals(copy.getRule(), Rule.HIGHLIFE);
+			assertTrue(copy.getChunkAt(new Coordinates(1, 1)).getCellAt(new Coordinates(1, 1)).isAlive());
+			assertTrue(copy.getChunkAt(new Coordinates(-1, 5)).getCellAt(new Coordinates(-1, 5)).isAlive());
+			assertTrue(copy.getChunkAt(new Coordinates(region * 3 + 7, -region)).getCellAt(new Coordinates(region * 3 + 7, -region)).isAlive());
+			assertFalse(copy.getChunkAt(new Coordinates(1, 1)).hasCellAt(new Coordinates(2, 1)));
+
+		} finally {
+			delete(directory);
+		}
+
+	}
+
+	public void testIncrementalSave() throws IOException {
+
+		File directory = Files.createTempDirectory("automaton").toFile();
+		int region = Chunk.SIZE * 32;
+
+		World world = new World();
+
+		world.active(new Coordinates(1, 1));
+		world.active(new Coordinates(region + 1, 1));
+
+		try {
+
+			RegionStore store = new RegionStore(directory);
+
+			assertSame(store.save(world), 2);
+
+			/* Nothing changed, nothing is written. */
+			assertSame(store.save(world), 0);
+
+			world.active(new Coordinates(region + 2, 1));
+
+			assertSame(store.save(world), 1);
+
+			/* The region emptied is deleted. */
+			world.toogle(new Coordinates(1, 1));
+
+			assertSame(store.save(world), 1);
+			assertFalse(store.getRegionFile(0, 0).exists());
+
+			/* A store loaded from the directory saves incrementally. */
+			World copy = new World();
+			RegionStore other = new RegionStore(directory);
+
+			other.load(copy);
+
+			assertSame(other.save(copy), 0);
+			assertTrue(copy.getChunkAt(new Coordinates(region + 2, 1)).getCellAt(new Coordinates(region + 2, 1)).isAlive());
+
+		} finally {
+			delete(directory);
+		}
+
+	}
+
+	public void testIncrementalSaveOfEngines() throws IOException {
+
+		int region = Chunk.SIZE * 32;
+		int center = region / 2;
+
+		for (World world : new World[] {new World(), new OffHeapWorld(), new HashLifeWorld()}) {
+
+			File directory = Files.createTempDirectory("automaton").toFile();
+
+			/* A R-pentomino, and a block in another region. */
+			activeAll(world, center + 1, center, center + 2, center, center, center + 1, center + 1, center + 1, center + 1, center + 2);
+			activeAll(world, region * 3 + 5, 5, region * 3 + 6, 5, region * 3 + 5, 6, region * 3 + 6, 6);
+
+			try {
+
+				RegionStore store = new RegionStore(directory);
+
+				assertSame(store.save(world), 2);
+
+				world.stepGenerations(200);
+
+				/* Only the region of the R-pentomino changed, found without building the chunks. */
+				assertSame(store.save(world), 1);
+				assertSame(store.save(world), 0);
+
+				if (world instanceof HashLifeWorld) {
+					assertSame(world.peekNumberOfChunks(), -1);
+				}
+
+				assertSameCells(world, directory);
+
+				world.toogle(new Coordinates(region * 3 + 5, 5));
+
+				assertSame(store.save(world), 1);
+				assertSameCells(world, directory);
+
+			} finally {
+				delete(directory);
+			}
+
+		}
+
+	}
+
+	public void testSaveSpilledChunks() throws IOException {
+
+		File directory = Files.createTempDirectory("automaton").toFile();
+		int region = Chunk.SIZE * 32;
+
+		Conf.ENGINE_PAGING_IDLE = 2;
+
+		try {
+
+			World world = new World();
+			ChunkPager pager = world.getPager();
+
+			/* A block and a blinker, in two regions. */
+			activeAll(world, 5, 5, 6, 5, 5, 6, 6, 6);
+			activeAll(world, region + 5, 6, region + 6, 6, region + 7, 6);
+
+			for (int i = 0; i < 6; i++) {
+				world.update();
+			}
+
+			RegionStore store = new RegionStore(directory);
+
+			assertSame(store.save(world), 2);
+			assertSame(pager.size(), world.getNumberOfChunks());
+			assertTrue(pager.getMisses() == 0);
+
+			/* The blinker changes while it is spilled, the block does not. */
+			world.update();
+
+			assertSame(store.save(world), 1);
+			assertTrue(pager.getMisses() == 0);
+
+			assertSameCells(world, directory);
+
+		} finally {
+			Conf.ENGINE_PAGING_IDLE = 0;
+			delete(directory);
+		}
+
+	}
+
+	protected static void activeAll(World world, int... coordinates) {
+
+		for (int i = 0; i < coordinates.length; i += 2) {
+			world.active(new Coordinates(coordinates[i], coordinates[i + 1]));
+		}
+
+	}
+
+	protected void assertSameCells(World world, File directory) throws IOException {
+
+		World copy = new World();
+
+		new RegionStore(directory).load(copy);
+
+		long[] cells = world.list(world.getBounds());
+		long[] copied = copy.list(copy.getBounds());
+
+		Arrays.sort(cells);
+		Arrays.sort(copied);
+
+		assertTrue(Arrays.equals(cells, copied));
+
+	}
+
+	protected static void delete(File directory) {
+
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+
+		directory.delete();
+
+	}
+
+}
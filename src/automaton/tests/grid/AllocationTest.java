@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.grid;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.tests.TestCase;
+
+/**
+ * Checks that the generation step of a warmed up world
+ * does not allocate, on sleeping and active chunks.
+ */
+public class AllocationTest extends TestCase {
+
+	/**
+	 * The maximum number of bytes allocated per generation
+	 * once the world is warmed up.
+	 */
+	public static final long THRESHOLD = 64;
+
+	/**
+	 * The maximum number of rounds of a thousand generations
+	 * run to warm up the world.
+	 */
+	public static final int ROUNDS = 20;
+
+
+	public void testUpdate() {
+
+		if (!(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean)) {
+			return;
+		}
+
+		ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+			return;
+		}
+
+		World world = new World();
+
+		/* Blinkers and blocks across the borders of the chunks. */
+		for (int x = -64; x < 64; x += 16) {
+			for (int y = -64; y < 64; y += 16) {
+
+				world.active(new Coordinates(x - 1, y));
+				world.active(new Coordinates(x, y));
+				world.active(new Coordinates(x + 1, y));
+
+				world.active(new Coordinates(x + 7, y + 7));
+				world.active(new Coordinates(x + 8, y + 7));
+				world.active(new Coordinates(x + 7, y + 8));
+				world.active(new Coordinates(x + 8, y + 8));
+
+			}
+		}
+
+		/*
+		 * Pulsars and pentadecathlons, whose periods of 3 and 15
+		 * generations keep their chunks awake, across the borders.
+		 */
+		for (int i = 0; i < 4; i++) {
+
+			int x = 128 + i * 32;
+
+			for (int d = 2; d <= 4; d++) {
+				for (int side : new int[] { -1, 1 }) {
+
+					world.active(new Coordinates(x + side * d, 1));
+					world.active(new Coordinates(x + side * d, -1));
+					world.active(new Coordinates(x + side * d, 6));
+					world.active(new Coordinates(x + side * d, -6));
+
+					world.active(new Coordinates(x + 1, side * d));
+					world.active(new Coordinates(x - 1, side * d));
+					world.active(new Coordinates(x + 6, side * d));
+					world.active(new Coordinates(x - 6, side * d));
+
+				}
+			}
+
+			for (int d = -5; d < 5; d++) {
+				world.active(new Coordinates(x + d, 64));
+			}
+
+		}
+
+		long thread = Thread.currentThread().getId();
+		int generations = 1000;
+		long allocated = Long.MAX_VALUE;
+
+		/*
+		 * The kernels are only compiled after some time, later on
+		 * a single processor, so the world is warmed up until its
+		 * generations stop allocating or the rounds run out.
+		 */
+		for (int round = 0; round < ROUNDS && allocated > THRESHOLD; round++) {
+
+			long before = bean.getThreadAllocatedBytes(thread);
+
+			for (int i = 0; i < generations; i++) {
+				world.update();
+			}
+
+			allocated = (bean.getThreadAllocatedBytes(thread) - before) / generations;
+		}
+
+		assertTrue(
+			allocated <= THRESHOLD,
+			"Failed asserting that a generation allocates at most " + THRESHOLD + " bytes, " + allocated + " bytes allocated."
+		);
+
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.tests.grid;
+
+import automaton.grid.ChunkArena;
+import automaton.tests.TestCase;
+
+public class ChunkArenaTest extends TestCase {
+
+	public void testAllocate() {
+
+		ChunkArena arena = new ChunkArena(8);
+
+		int block = arena.allocate(-2, 3);
+
+		assertSame(arena.find(-2, 3), block);
+		assertSame(arena.find(3, -2), -1);
+		assertSame(arena.allocate(-2, 3), block);
+
+		assertSame(arena.getX(block), -2);
+		assertSame(arena.getY(block), 3);
+		assertSame(arena.size(), 1);
+
+		/* Enough chunks to fill several slabs and force several rehashes. */
+		for (int x = -40; x < 40; x++) {
+			for (int y = -40; y < 40; y++) {
+				arena.allocate(x, y);
+			}
+		}
+
+		assertSame(arena.size(), 6400);
+		assertTrue(arena.isUsed(arena.find(-40, 39)));
+		assertTrue(arena.getAllocatedMemory() >= 6400L * 8 * Long.BYTES);
+
+	}
+
+	public void testFree() {
+
+		ChunkArena arena = new ChunkArena(8);
+
+		int first = arena.allocate(0, 0);
+		int second = arena.allocate(1, 0);
+
+		arena.set(first, 7, 42L);
+		arena.free(first);
+
+		assertSame(arena.find(0, 0), -1);
+		assertFalse(arena.isUsed(first));
+		assertSame(arena.find(1, 0), second);
+		assertSame(arena.size(), 1);
+
+		/* The freed block is reused, filled with zeros. */
+		assertSame(arena.allocate(5, 5), first);
+		assertTrue(arena.get(first, 7) == 0);
+
+		arena.clear();
+
+		assertSame(arena.size(), 0);
+		assertSame(arena.find(1, 0), -1);
+		assertTrue(arena.getAllocatedMemory() == 0);
+
+	}
+
+	public void testReadWrite() {
+
+		ChunkArena arena = new ChunkArena(8);
+
+		int block = arena.allocate(0, 0);
+		long[] source = { 1, 2, 3, 4 };
+		long[] target = new long[4];
+
+		arena.write(block, 4, source);
+		arena.read(block, 4, target);
+
+		for (int i = 0; i < source.length; i++) {
+			assertTrue(target[i] == source[i]);
+		}
+
+		assertTrue(arena.get(block, 0) == 0);
+		assertTrue(arena.get(block, 5) == 2);
+
+		arena.fill(block, 4, 4, -1L);
+
+		assertTrue(arena.get(block, 7) == -1L);
+
+	}
+
+}
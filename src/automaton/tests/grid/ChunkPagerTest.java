@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.grid;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import automaton.config.Conf;
+import automaton.grid.Cell;
+import automaton.grid.Chunk;
+import automaton.grid.ChunkPager;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.maths.Point;
+import automaton.tests.TestCase;
+
+public class ChunkPagerTest extends TestCase {
+
+	public void testEvict() {
+
+		Conf.ENGINE_PAGING_IDLE = 2;
+
+		try {
+
+			World world = new World();
+			ChunkPager pager = world.getPager();
+
+			/* A block and a blinker, far from each other. */
+			activeAll(world, 5, 5, 6, 5, 5, 6, 6, 6);
+			activeAll(world, Chunk.SIZE * 4 + 5, 6, Chunk.SIZE * 4 + 6, 6, Chunk.SIZE * 4 + 7, 6);
+
+			int chunks = world.getNumberOfChunks();
+
+			for (int i = 0; i < 6; i++) {
+				world.update();
+			}
+
+			assertSame(pager.size(), chunks);
+			assertSame(world.getNumberOfChunks(), chunks);
+			assertSame(world.getNumberOfSleepingChunks(), chunks);
+			assertFalse(world.isEmpty());
+			assertTrue(pager.getEvictions() == chunks);
+
+			/* The blinker comes back in the phase of the current generation. */
+			world.update();
+
+			assertTrue(world.hasChunkAt(new Coordinates(Chunk.SIZE * 4 + 6, 5)));
+			assertTrue(world.getChunkAt(new Coordinates(Chunk.SIZE * 4 + 6, 5)).getCellAt(new Coordinates(Chunk.SIZE * 4 + 6, 5)).isAlive());
+			assertFalse(world.getChunkAt(new Coordinates(Chunk.SIZE * 4 + 5, 6)).hasCellAt(new Coordinates(Chunk.SIZE * 4 + 5, 6)));
+			assertTrue(pager.getMisses() == 1);
+
+			long hits = pager.getHits();
+
+			world.getChunkAt(new Coordinates(Chunk.SIZE * 4 + 6, 5));
+
+			assertTrue(pager.getHits() == hits + 1);
+			assertTrue(pager.getMisses() == 1);
+
+			world.clear();
+
+			assertTrue(world.isEmpty());
+			assertSame(pager.size(), 0);
+
+		} finally {
+			Conf.ENGINE_PAGING_IDLE = 0;
+		}
+
+	}
+
+	public void testPublish() {
+
+		Conf.ENGINE_PAGING_IDLE = 2;
+
+		try {
+
+			World world = new World();
+			ChunkPager pager = world.getPager();
+
+			/* A block and a blinker, far from each other. */
+			activeAll(world, 5, 5, 6, 5, 5, 6, 6, 6);
+			activeAll(world, Chunk.SIZE * 4 + 5, 6, Chunk.SIZE * 4 + 6, 6, Chunk.SIZE * 4 + 7, 6);
+
+			for (int i = 0; i < 6; i++) {
+				world.update();
+			}
+
+			int size = pager.size();
+			long[][] first = publish(pager, size);
+
+			/* The spilled chunks do not change, they share their copies. */
+			assertTrue(Arrays.equals(publish(pager, size), first));
+
+			Conf.ENGINE_PAGING_IDLE = 0;
+
+			/* The blinker shows its other phase, then the first one again. */
+			world.update();
+
+			assertFalse(Arrays.equals(publish(pager, size), first));
+
+			world.update();
+
+			assertTrue(Arrays.equals(publish(pager, size), first));
+			assertSame(pager.size(), size);
+
+		} finally {
+			Conf.ENGINE_PAGING_IDLE = 0;
+		}
+
+	}
+
+	public void testFaultIn() {
+
+		World world = new World();
+		World paged = new World();
+
+		int far = Chunk.SIZE * 2;
+
+		/* A glider heading to a block, and a blinker on a chunk border. */
+		for (World w : new World[] { world, paged }) {
+			activeAll(w, 1, 0, 2, 1, 0, 2, 1, 2, 2, 2);
+			activeAll(w, far + 10, far + 10, far + 11, far + 10, far + 10, far + 11, far + 11, far + 11);
+			activeAll(w, -far - 1, -far - 1, -far - 1, -far - 2, -far - 1, -far - 3);
+		}
+
+		for (int i = 0; i < far * 6; i++) {
+
+			world.update();
+
+			Conf.ENGINE_PAGING_IDLE = 1;
+			Conf.ENGINE_PAGING_BUDGET = i % 2;
+
+			try {
+				paged.update();
+			} finally {
+				Conf.ENGINE_PAGING_IDLE = 0;
+				Conf.ENGINE_PAGING_BUDGET = 0;
+			}
+
+		}
+
+		assertTrue(paged.getPager().getEvictions() > 0);
+		assertTrue(paged.getPager().getMisses() > 0);
+		assertEquals(getLivingCells(paged), getLivingCells(world));
+
+	}
+
+	protected static long[][] publish(ChunkPager pager, int size) {
+
+		long[][] boards = new long[size][];
+
+		pager.publish(new int[size], new int[size], boards, 0);
+
+		return boards;
+	}
+
+	protected static void activeAll(World world, int... coordinates) {
+
+		for (int i = 0; i < coordinates.length; i += 2) {
+			world.active(new Coordinates(coordinates[i], coordinates[i + 1]));
+		}
+
+	}
+
+	protected static HashSet<Point> getLivingCells(World world) {
+
+		HashSet<Point> cells = new HashSet<>();
+		Iterator<Entry<Point, Chunk>> chunks = world.getChunks();
+
+		while (chunks.hasNext()) {
+
+			Iterator<Entry<Point, Cell>> iterator = chunks.next().getValue().getCells();
+
+			while (iterator.hasNext()) {
+
+				Cell cell = iterator.next().getValue();
+
+				if (cell.isAlive()) {
+					cells.add(cell.getCoordinates().toAbsolutePoint());
+				}
+
+			}
+
+		}
+
+		return cells;
+	}
+
+}
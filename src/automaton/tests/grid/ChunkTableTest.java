@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.grid;
+
+import java.util.Iterator;
+
+import automaton.grid.Chunk;
+import automaton.grid.ChunkTable;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.tests.TestCase;
+
+public class ChunkTableTest extends TestCase {
+
+	public void testGet() {
+
+		World world = new World();
+		ChunkTable table = new ChunkTable();
+		Chunk chunk = new Chunk(world, new Coordinates(-2 * Chunk.SIZE, 3 * Chunk.SIZE));
+
+		table.put(chunk);
+
+		assertSame(table.get(-2, 3), chunk);
+		assertNull(table.get(3, -2));
+
+		assertTrue(table.contains(-2, 3));
+		assertFalse(table.contains(3, -2));
+
+	}
+
+	public void testPut() {
+
+		World world = new World();
+		ChunkTable table = new ChunkTable();
+
+		assertTrue(table.put(new Chunk(world, new Coordinates(0, 0))));
+		assertFalse(table.put(new Chunk(world, new Coordinates(5, 5))));
+
+		assertSame(table.size(), 1);
+
+		/* Enough chunks to force several rehashes. */
+		for (int x = -20; x < 20; x++) {
+			for (int y = -20; y < 20; y++) {
+				table.put(new Chunk(world, new Coordinates(x * Chunk.SIZE, y * Chunk.SIZE)));
+			}
+		}
+
+		assertSame(table.size(), 1600);
+		assertTrue(table.contains(-20, 19));
+		assertTrue(table.contains(19, -20));
+
+	}
+
+	public void testRemove() {
+
+		World world = new World();
+		ChunkTable table = new ChunkTable();
+
+		for (int x = 0; x < 10; x++) {
+			table.put(new Chunk(world, new Coordinates(x * Chunk.SIZE, 0)));
+		}
+
+		assertNotNull(table.remove(4, 0));
+		assertNull(table.remove(4, 0));
+
+		assertFalse(table.contains(4, 0));
+		assertTrue(table.contains(5, 0));
+		assertSame(table.size(), 9);
+
+		table.clear();
+
+		assertTrue(table.isEmpty());
+
+	}
+
+	public void testIterator() {
+
+		World world = new World();
+		ChunkTable table = new ChunkTable();
+
+		for (int x = 0; x < 10; x++) {
+			table.put(new Chunk(world, new Coordinates(x * Chunk.SIZE, 0)));
+		}
+
+		int count = 0;
+		Iterator<Chunk> iterator = table.iterator();
+
+		/* Removing while iterating must not skip any chunk. */
+		while (iterator.hasNext()) {
+
+			iterator.next();
+			iterator.remove();
+
+			count++;
+
+		}
+
+		assertSame(count, 10);
+		assertTrue(table.isEmpty());
+
+	}
+
+}
@@ -24,6 +24,8 @@
 
 package automaton.tests.grid;
 
+import java.awt.Rectangle;
+
 import automaton.grid.Cell;
 import automaton.grid.Chunk;
 import automaton.grid.World;
@@ -85,6 +87,30 @@ public class ChunkTest extends TestCase {
 
 	}
 
+	public void testNeighbors() {
+
+		World world = new World();
+		Chunk chunk = new Chunk(world, new Coordinates(0, 0));
+		Chunk neighbor = new Chunk(world, new Coordinates(Chunk.SIZE, Chunk.SIZE));
+
+		world.register(chunk);
+		world.register(neighbor);
+
+		neighbor.active(new Coordinates(Chunk.SIZE, Chunk.SIZE), true);
+
+		assertTrue(chunk.hasCellAt(new Coordinates(Chunk.SIZE, Chunk.SIZE)));
+
+		world.remove(neighbor);
+
+		assertFalse(chunk.hasCellAt(new Coordinates(Chunk.SIZE, Chunk.SIZE)));
+
+		chunk.active(new Coordinates(Chunk.SIZE + 1, Chunk.SIZE + 1), true);
+
+		assertTrue(chunk.hasCellAt(new Coordinates(Chunk.SIZE + 1, Chunk.SIZE + 1)));
+		assertSame(world.getChunkAt(new Coordinates(Chunk.SIZE + 1, Chunk.SIZE + 1)).getCellAt(new Coordinates(Chunk.SIZE + 1, Chunk.SIZE + 1)).getChunk(), world.getChunkAt(new Coordinates(Chunk.SIZE + 1, Chunk.SIZE + 1)));
+
+	}
+
 	public void testRemove() {
 
 		World world = new World();
@@ -112,4 +138,50 @@ public class ChunkTest extends TestCase {
 
 	}
 
+
+	public void testUpdate() {
+
+		World world = new World();
+
+		/* A blinker across the border of four chunks. */
+		world.active(new Coordinates(-1, 0));
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+
+		world.update();
+
+		Chunk chunk = world.getChunkAt(new Coordinates(0, 0));
+
+		assertTrue(chunk.getCellAt(new Coordinates(0, 1)).isAlive());
+		assertTrue(chunk.getCellAt(new Coordinates(0, 0)).isAlive());
+		assertTrue(chunk.getCellAt(new Coordinates(0, -1)).isAlive());
+
+		assertFalse(chunk.hasCellAt(new Coordinates(-1, 0)));
+		assertFalse(chunk.hasCellAt(new Coordinates(1, 0)));
+
+	}
+
+
+	public void testGetBounds() {
+
+		World world = new World();
+		Chunk chunk = new Chunk(world, new Coordinates(0, 0));
+
+		world.register(chunk);
+
+		assertTrue(chunk.getBounds().isEmpty());
+
+		chunk.active(new Coordinates(3, 5), true);
+		chunk.active(new Coordinates(Chunk.SIZE - 1, 2), true);
+
+		assertEquals(2L, chunk.getPopulation());
+		assertEquals(new Rectangle(3, 2, Chunk.SIZE - 3, 4), chunk.getBounds());
+
+		chunk.active(new Coordinates(Chunk.SIZE - 1, 2), false);
+
+		assertEquals(1L, chunk.getPopulation());
+		assertEquals(new Rectangle(3, 5, 1, 1), chunk.getBounds());
+
+	}
+
 }
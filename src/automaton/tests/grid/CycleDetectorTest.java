@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.grid;
+
+import automaton.config.Conf;
+import automaton.grid.Chunk;
+import automaton.grid.CycleDetector;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.tests.TestCase;
+
+public class CycleDetectorTest extends TestCase {
+
+	public void testKey() {
+
+		assertTrue(CycleDetector.key(0, 0) == 1);
+		assertTrue(CycleDetector.key(1, 0) == CycleDetector.A);
+		assertTrue(CycleDetector.key(0, 1) == CycleDetector.B);
+		assertTrue(CycleDetector.key(-3, 5) * CycleDetector.key(3, -5) == 1);
+		assertTrue(CycleDetector.key(7, -2) * CycleDetector.key(-4, 9) == CycleDetector.key(3, 7));
+
+	}
+
+	public void testBlinker() {
+
+		Conf.ENGINE_CYCLES = true;
+
+		try {
+
+			World world = new World();
+			CycleDetector cycles = world.getCycleDetector();
+
+			ChunkPagerTest.activeAll(world, 5, 6, 6, 6, 7, 6);
+			update(world, 4);
+
+			assertTrue(cycles.isPeriodic());
+			assertSame(cycles.getPeriod(), 2);
+			assertTrue(cycles.getDisplacementX() == 0);
+			assertTrue(cycles.getDisplacementY() == 0);
+
+			world.active(new Coordinates(20, 20));
+
+			assertFalse(cycles.isPeriodic());
+
+		} finally {
+			Conf.ENGINE_CYCLES = false;
+		}
+
+	}
+
+	public void testStillLife() {
+
+		Conf.ENGINE_CYCLES = true;
+
+		try {
+
+			World world = new World();
+
+			ChunkPagerTest.activeAll(world, 5, 5, 6, 5, 5, 6, 6, 6);
+			update(world, 2);
+
+			assertTrue(world.getCycleDetector().isPeriodic());
+			assertSame(world.getCycleDetector().getPeriod(), 1);
+
+		} finally {
+			Conf.ENGINE_CYCLES = false;
+		}
+
+	}
+
+	public void testGlider() {
+
+		Conf.ENGINE_CYCLES = true;
+
+		try {
+
+			World world = new World();
+			CycleDetector cycles = world.getCycleDetector();
+			int border = Chunk.SIZE;
+
+			/* A glider crossing the chunk borders, heading down right. */
+			ChunkPagerTest.activeAll(world, border - 2, border - 3, border - 1, border - 2, border - 3, border - 1, border - 2, border - 1, border - 1, border - 1);
+			update(world, 5);
+
+			assertFalse(cycles.isPeriodic());
+
+			update(world, 3);
+
+			assertTrue(cycles.isPeriodic());
+			assertSame(cycles.getPeriod(), 4);
+			assertTrue(cycles.getDisplacementX() == 1);
+			assertTrue(cycles.getDisplacementY() == 1);
+
+		} finally {
+			Conf.ENGINE_CYCLES = false;
+		}
+
+	}
+
+	public void testFastForward() {
+
+		Conf.ENGINE_CYCLES = true;
+
+		try {
+
+			World world = new World();
+			World computed = new World();
+
+			for (World w : new World[] { world, computed }) {
+				ChunkPagerTest.activeAll(w, 1, 0, 2, 1, 0, 2, 1, 2, 2, 2);
+			}
+
+			assertFalse(world.fastForward(1000));
+
+			update(world, 10);
+
+			assertTrue(world.fastForward(1003));
+			assertTrue(world.getGeneration() == 1003);
+			assertTrue(world.getCycleDetector().isPeriodic());
+
+			update(computed, 1003);
+
+			assertEquals(ChunkPagerTest.getLivingCells(world), ChunkPagerTest.getLivingCells(computed));
+
+			/* The detector goes on after the jump. */
+			update(world, 4);
+			update(computed, 4);
+
+			assertTrue(world.getCycleDetector().isPeriodic());
+			assertEquals(ChunkPagerTest.getLivingCells(world), ChunkPagerTest.getLivingCells(computed));
+			assertFalse(world.fastForward(10));
+
+		} finally {
+			Conf.ENGINE_CYCLES = false;
+		}
+
+	}
+
+	public void testPagedCensus() {
+
+		Conf.ENGINE_CYCLES = true;
+
+		try {
+
+			World world = new World();
+			World paged = new World();
+
+			for (World w : new World[] { world, paged }) {
+				ChunkPagerTest.activeAll(w, 5, 5, 6, 5, 5, 6, 6, 6);
+				ChunkPagerTest.activeAll(w, Chunk.SIZE * 4 + 5, 6, Chunk.SIZE * 4 + 6, 6, Chunk.SIZE * 4 + 7, 6);
+			}
+
+			update(world, 12);
+
+			Conf.ENGINE_PAGING_IDLE = 2;
+
+			try {
+				update(paged, 12);
+			} finally {
+				Conf.ENGINE_PAGING_IDLE = 0;
+			}
+
+			assertTrue(paged.getPager().size() > 0);
+			assertTrue(paged.getCycleDetector().isPeriodic());
+			assertSame(paged.getCycleDetector().getPeriod(), 2);
+
+			/* The spilled chunks come back with their counts. */
+			update(paged, 2);
+
+			assertTrue(paged.getCycleDetector().isPeriodic());
+
+		} finally {
+			Conf.ENGINE_CYCLES = false;
+		}
+
+	}
+
+	protected static void update(World world, int generations) {
+
+		for (int i = 0; i < generations; i++) {
+			world.update();
+		}
+
+	}
+
+}
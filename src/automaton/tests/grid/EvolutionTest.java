@@ -25,11 +25,15 @@
 package automaton.tests.grid;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.Random;
 
 import automaton.grid.Cell;
 import automaton.grid.Chunk;
+import automaton.grid.Kernel;
+import automaton.grid.Rule;
 import automaton.grid.World;
 import automaton.maths.Coordinates;
 import automaton.maths.Point;
@@ -97,4 +101,130 @@ public class EvolutionTest extends TestCase {
 
 	}
 
+	public void testKernels() {
+
+		Class<?> kernel;
+
+		/* The vector kernel is only built with the vector option, skipped otherwise. */
+		try {
+			kernel = Class.forName("automaton.grid.VectorKernel");
+		} catch (ClassNotFoundException | LinkageError e) {
+			return;
+		}
+
+		World scalar = new World();
+		World vector = new World();
+
+		scalar.setKernel(Kernel.create("scalar"));
+		vector.setKernel(Kernel.create("vector"));
+
+		assertSame(kernel, vector.getKernel().getClass());
+
+		Random random = new Random(42);
+		HashSet<Point> seeds = new HashSet<>();
+
+		for (int i = 0; i < 2000; i++) {
+
+			Coordinates coordinates = new Coordinates(random.nextInt(64) - 32, random.nextInt(64) - 32);
+
+			if (seeds.add(coordinates.toAbsolutePoint())) {
+				scalar.active(coordinates);
+				vector.active(coordinates);
+			}
+
+		}
+
+		for (int i = 0; i < 100; i++) {
+
+			scalar.update();
+			vector.update();
+
+			assertTrue(getLivingCells(scalar).equals(getLivingCells(vector)));
+		}
+
+	}
+
+	public void testRule() {
+
+		World world = new World();
+		Rule rule = Rule.HIGHLIFE;
+
+		world.setRule(rule);
+
+		Random random = new Random(7);
+		HashSet<Point> expected = new HashSet<>();
+
+		for (int i = 0; i < 600; i++) {
+
+			Coordinates coordinates = new Coordinates(random.nextInt(40) - 20, random.nextInt(40) - 20);
+
+			if (expected.add(coordinates.toAbsolutePoint())) {
+				world.active(coordinates);
+			}
+
+		}
+
+		for (int i = 0; i < 60; i++) {
+
+			world.update();
+
+			/* The expected cells, computed one by one from the lookup table. */
+			HashSet<Point> next = new HashSet<>();
+
+			for (Point point : expected) {
+				for (int dx = -1; dx <= 1; dx++) {
+					for (int dy = -1; dy <= 1; dy++) {
+
+						Point cell = new Point(point.getX() + dx, point.getY() + dy);
+						int neighbors = 0;
+
+						for (int nx = -1; nx <= 1; nx++) {
+							for (int ny = -1; ny <= 1; ny++) {
+
+								if ((nx != 0 || ny != 0) && expected.contains(new Point(cell.getX() + nx, cell.getY() + ny))) {
+									neighbors++;
+								}
+
+							}
+						}
+
+						if (rule.next(expected.contains(cell), neighbors)) {
+							next.add(cell);
+						}
+
+					}
+				}
+			}
+
+			expected = next;
+
+			assertTrue(getLivingCells(world).equals(expected));
+		}
+
+	}
+
+	protected HashSet<Point> getLivingCells(World world) {
+
+		HashSet<Point> points = new HashSet<>();
+		Iterator<Entry<Point, Chunk>> chunks = world.getChunks();
+
+		while (chunks.hasNext()) {
+
+			Iterator<Entry<Point, Cell>> cells = chunks.next().getValue().getCells();
+
+			while (cells.hasNext()) {
+
+				Cell cell = cells.next().getValue();
+
+				if (cell.isAlive()) {
+					points.add(cell.getCoordinates().toAbsolutePoint());
+				}
+
+			}
+
+		}
+
+		return points;
+	}
+
 }
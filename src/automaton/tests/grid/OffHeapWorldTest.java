@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.tests.grid;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import automaton.grid.Cell;
+import automaton.grid.Chunk;
+import automaton.grid.OffHeapWorld;
+import automaton.grid.Rule;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.maths.Point;
+import automaton.tests.TestCase;
+
+public class OffHeapWorldTest extends TestCase {
+
+	public void testUpdate() {
+
+		World world = new World();
+		OffHeapWorld offHeap = new OffHeapWorld();
+
+		Random random = new Random(42);
+
+		for (int i = 0; i < 1500; i++) {
+
+			Coordinates coordinates = new Coordinates(random.nextInt(80) - 40, random.nextInt(80) - 40);
+
+			world.toogle(coordinates);
+			offHeap.toogle(coordinates);
+
+		}
+
+		for (int i = 0; i < 100; i++) {
+			world.update();
+			offHeap.update();
+		}
+
+		assertSame(offHeap.getNumberOfChunks(), world.getNumberOfChunks());
+		assertEquals(getLivingCells(offHeap), getLivingCells(world));
+
+		/* Going through the chunks, then back to the arena. */
+		for (int i = 0; i < 50; i++) {
+			world.update();
+			offHeap.update();
+		}
+
+		assertEquals(getLivingCells(offHeap), getLivingCells(world));
+
+	}
+
+	public void testRule() {
+
+		World world = new World();
+		OffHeapWorld offHeap = new OffHeapWorld();
+
+		world.setRule(Rule.HIGHLIFE);
+		offHeap.setRule(Rule.HIGHLIFE);
+
+		Random random = new Random(7);
+
+		for (int i = 0; i < 400; i++) {
+
+			Coordinates coordinates = new Coordinates(random.nextInt(30), random.nextInt(30));
+
+			world.toogle(coordinates);
+			offHeap.toogle(coordinates);
+
+		}
+
+		for (int i = 0; i < 80; i++) {
+			world.update();
+			offHeap.update();
+		}
+
+		assertEquals(getLivingCells(offHeap), getLivingCells(world));
+
+	}
+
+	public void testToogle() {
+
+		OffHeapWorld world = new OffHeapWorld();
+		Coordinates coordinates = new Coordinates(-5, 70);
+
+		world.toogle(coordinates);
+
+		assertFalse(world.isEmpty());
+		assertTrue(world.getChunkAt(coordinates).getCellAt(coordinates).isAlive());
+
+		world.toogle(coordinates);
+
+		assertSame(getLivingCells(world).size(), 0);
+
+		world.update();
+
+		assertTrue(world.isEmpty());
+
+	}
+
+	public void testGenerationKept() {
+
+		OffHeapWorld world = new OffHeapWorld();
+
+		/* A glider, the arena being rebuilt by the reads. */
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(2, 1));
+		world.active(new Coordinates(0, 2));
+		world.active(new Coordinates(1, 2));
+		world.active(new Coordinates(2, 2));
+
+		for (int i = 0; i < 100; i++) {
+			world.update();
+		}
+
+		world.getBounds();
+
+		assertTrue(world.getGeneration() == 100);
+
+		world.getNumberOfChunks();
+		world.update();
+
+		assertTrue(world.getGeneration() == 101);
+		assertTrue(world.getPopulation() == 5);
+
+	}
+
+	public void testCopy() {
+
+		World world = new World();
+
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(2, 0));
+
+		OffHeapWorld offHeap = new OffHeapWorld();
+
+		offHeap.copy(world);
+
+		world.update();
+		offHeap.update();
+
+		assertSame(offHeap.getNumberOfChunks(), world.getNumberOfChunks());
+		assertTrue(offHeap.getAllocatedMemory() > 0);
+
+		HashSet<Point> expected = new HashSet<>();
+
+		expected.add(new Point(1, -1));
+		expected.add(new Point(1, 0));
+		expected.add(new Point(1, 1));
+
+		assertEquals(getLivingCells(offHeap), expected);
+
+		offHeap.clear();
+
+		assertTrue(offHeap.isEmpty());
+		assertTrue(offHeap.getAllocatedMemory() == 0);
+
+	}
+
+	public void testPublish() {
+
+		PublishedProbe world = new PublishedProbe();
+
+		/* A block and a blinker, in two chunks. */
+		ChunkPagerTest.activeAll(world, 5, 5, 6, 5, 5, 6, 6, 6);
+		ChunkPagerTest.activeAll(world, Chunk.SIZE * 4 + 5, 6, Chunk.SIZE * 4 + 6, 6, Chunk.SIZE * 4 + 7, 6);
+
+		world.publish();
+
+		int block = world.getBlock(0, 0);
+		long[] still = world.getPublished(block);
+		long[] blinker = world.getPublished(world.getBlock(4, 0));
+
+		world.update();
+		world.publish();
+
+		/* Only the changed block is copied again. */
+		assertTrue(world.getPublished(block) == still);
+		assertFalse(world.getPublished(world.getBlock(4, 0)) == blinker);
+		assertTrue(world.getSnapshot().isAlive(Chunk.SIZE * 4 + 6, 5));
+
+		/* The copy of a freed block is forgotten. */
+		world.toogle(new Coordinates(5, 5));
+		world.toogle(new Coordinates(6, 5));
+		world.toogle(new Coordinates(5, 6));
+		world.toogle(new Coordinates(6, 6));
+		world.update();
+
+		assertTrue(world.getBlock(0, 0) < 0);
+		assertTrue(world.getPublished(block) == null);
+
+		world.clear();
+
+		assertTrue(world.getPublished(0) == null);
+
+	}
+
+	protected HashSet<Point> getLivingCells(World world) {
+
+		HashSet<Point> points = new HashSet<>();
+		Iterator<Entry<Point, Chunk>> chunks = world.getChunks();
+
+		while (chunks.hasNext()) {
+
+			Iterator<Entry<Point, Cell>> cells = chunks.next().getValue().getCells();
+
+			while (cells.hasNext()) {
+
+				Cell cell = cells.next().getValue();
+
+				if (cell.isAlive()) {
+					points.add(cell.getCoordinates().toAbsolutePoint());
+				}
+
+			}
+
+		}
+
+		return points;
+	}
+
+
+	protected static class PublishedProbe extends OffHeapWorld {
+
+		protected int getBlock(int x, int y) {
+			return arena.find(x, y);
+		}
+
+		protected long[] getPublished(int block) {
+			return block < published.length ? published[block] : null;
+		}
+
+	}
+
+}
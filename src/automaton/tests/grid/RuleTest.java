@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.tests.grid;
+
+import automaton.grid.Rule;
+import automaton.tests.TestCase;
+
+public class RuleTest extends TestCase {
+
+	public void testParse() {
+
+		assertEquals(Rule.parse("B3/S23"), Rule.LIFE);
+		assertEquals(Rule.parse("b3/s32"), Rule.LIFE);
+		assertEquals(Rule.parse("S23/B3"), Rule.LIFE);
+		assertEquals(Rule.parse("23/3"), Rule.LIFE);
+		assertEquals(Rule.parse(" B63/S23 "), Rule.HIGHLIFE);
+
+		assertEquals(Rule.parse("B2/S").toString(), "B2/S");
+		assertEquals(Rule.HIGHLIFE.toString(), "B36/S23");
+
+		assertNotEquals(Rule.LIFE, Rule.HIGHLIFE);
+
+	}
+
+	public void testInvalid() {
+
+		String[] rulestrings = { "", "B3", "B3/S23/S4", "B9/S23", "B3/Sx", "B03/S23" };
+
+		for (String rulestring : rulestrings) {
+
+			try {
+				Rule.parse(rulestring);
+				fail("Failed asserting that \"" + rulestring + "\" is not a valid rulestring.");
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+
+		}
+
+	}
+
+	public void testNext() {
+
+		for (int neighbors = 0; neighbors <= 8; neighbors++) {
+
+			assertEquals(Rule.LIFE.next(false, neighbors), neighbors == 3);
+			assertEquals(Rule.LIFE.next(true, neighbors), neighbors == 2 || neighbors == 3);
+
+			assertEquals(Rule.HIGHLIFE.next(false, neighbors), neighbors == 3 || neighbors == 6);
+			assertEquals(Rule.HIGHLIFE.next(true, neighbors), neighbors == 2 || neighbors == 3);
+
+			assertTrue(Rule.HIGHLIFE.getBirthMask(neighbors) == (Rule.HIGHLIFE.next(false, neighbors) ? -1L : 0L));
+			assertTrue(Rule.HIGHLIFE.getSurvivalMask(neighbors) == (Rule.HIGHLIFE.next(true, neighbors) ? -1L : 0L));
+		}
+
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.grid;
+
+import java.awt.Rectangle;
+
+import automaton.config.Conf;
+import automaton.grid.Chunk;
+import automaton.grid.OffHeapWorld;
+import automaton.grid.Snapshot;
+import automaton.grid.World;
+import automaton.hashlife.HashLifeWorld;
+import automaton.maths.Coordinates;
+import automaton.tests.TestCase;
+
+public class SnapshotTest extends TestCase {
+
+	public void testPublish() {
+
+		World world = new World();
+
+		assertTrue(world.getSnapshot().getPopulation() == 0);
+
+		/* A blinker, horizontal at even generations. */
+		ChunkPagerTest.activeAll(world, 5, 6, 6, 6, 7, 6);
+		world.publish();
+
+		Snapshot snapshot = world.getSnapshot();
+
+		world.update();
+
+		/* The published snapshot does not follow the world. */
+		assertTrue(snapshot.isAlive(5, 6));
+		assertFalse(snapshot.isAlive(6, 5));
+		assertTrue(snapshot.getPopulation() == 3);
+		assertTrue(snapshot.getGeneration() == 0);
+
+		world.publish();
+
+		assertFalse(world.getSnapshot().isAlive(5, 6));
+		assertTrue(world.getSnapshot().isAlive(6, 5));
+		assertTrue(world.getSnapshot().getGeneration() == 1);
+
+	}
+
+	public void testPagedChunks() {
+
+		World world = new World();
+
+		ChunkPagerTest.activeAll(world, 5, 5, 6, 5, 5, 6, 6, 6);
+		ChunkPagerTest.activeAll(world, Chunk.SIZE * 4 + 5, 6, Chunk.SIZE * 4 + 6, 6, Chunk.SIZE * 4 + 7, 6);
+
+		Conf.ENGINE_PAGING_IDLE = 2;
+
+		try {
+
+			for (int i = 0; i < 6; i++) {
+				world.update();
+			}
+
+		} finally {
+			Conf.ENGINE_PAGING_IDLE = 0;
+		}
+
+		assertTrue(world.getPager().size() > 0);
+
+		world.publish();
+
+		assertTrue(world.getSnapshot().getPopulation() == 7);
+		assertTrue(world.getSnapshot().isAlive(Chunk.SIZE * 4 + 5, 6));
+		assertTrue(world.getSnapshot().isAlive(6, 6));
+
+	}
+
+	public void testEngines() {
+
+		World world = new World();
+		World offHeap = new OffHeapWorld();
+		World hashlife = new HashLifeWorld();
+
+		/* An R-pentomino. */
+		for (World w : new World[] { world, offHeap, hashlife }) {
+
+			ChunkPagerTest.activeAll(w, 1, 0, 2, 0, 0, 1, 1, 1, 1, 2);
+
+			for (int i = 0; i < 64; i++) {
+				w.update();
+			}
+
+			w.publish();
+
+		}
+
+		boolean same = true;
+
+		for (int x = -40; x < 40; x++) {
+			for (int y = -40; y < 40; y++) {
+				same &= offHeap.getSnapshot().isAlive(x, y) == world.getSnapshot().isAlive(x, y);
+				same &= hashlife.getSnapshot().isAlive(x, y) == world.getSnapshot().isAlive(x, y);
+			}
+		}
+
+		assertTrue(same, "Failed asserting that the snapshots of the engines have the same cells.");
+		assertTrue(offHeap.getSnapshot().getPopulation() == world.getSnapshot().getPopulation());
+		assertTrue(hashlife.getSnapshot().getPopulation() == world.getSnapshot().getPopulation());
+
+		offHeap.active(new Coordinates(100, 100));
+		offHeap.publish();
+
+		assertTrue(offHeap.getSnapshot().isAlive(100, 100));
+
+	}
+
+	public void testCount() {
+
+		Rectangle area = new Rectangle(-3, -3, 6, 6);
+
+		/* An R-pentomino, partly outside of the rectangle after some generations. */
+		for (World world : new World[] { new World(), new OffHeapWorld(), new HashLifeWorld() }) {
+
+			ChunkPagerTest.activeAll(world, 1, 0, 2, 0, 0, 1, 1, 1, 1, 2);
+
+			for (int i = 0; i < 64; i++) {
+				world.update();
+			}
+
+			world.publish();
+
+			long inside = 0;
+
+			for (int x = area.x; x < area.x + area.width; x++) {
+				for (int y = area.y; y < area.y + area.height; y++) {
+					inside += world.getSnapshot().isAlive(x, y) ? 1 : 0;
+				}
+			}
+
+			assertTrue(world.getSnapshot().count(area) == inside);
+			assertTrue(world.count(area) == inside);
+			assertTrue(world.count(new Rectangle(-1000, -1000, 2000, 2000)) == world.getPopulation());
+
+		}
+
+	}
+}
@@ -24,9 +24,20 @@
 
 package automaton.tests.grid;
 
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import automaton.config.Conf;
+import automaton.grid.Cell;
 import automaton.grid.Chunk;
+import automaton.grid.Rule;
 import automaton.grid.World;
 import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
+import automaton.maths.Point;
 import automaton.tests.TestCase;
 
 /**
@@ -89,6 +100,188 @@ public class WorldTest extends TestCase {
 	}
 
 
+	public void testParallelUpdate() {
+
+		World world = new World();
+		World parallel = new World();
+		Random random = new Random(42);
+
+		/* A soup spread over many chunks. */
+		for (int i = 0; i < 20000; i++) {
+
+			Coordinates coordinates = new Coordinates(random.nextInt(200) - 100, random.nextInt(200) - 100);
+
+			world.active(coordinates);
+			parallel.active(coordinates);
+
+		}
+
+		int threads = Conf.ENGINE_THREADS;
+
+		for (int i = 0; i < 50; i++) {
+
+			Conf.ENGINE_THREADS = 1;
+			world.update();
+
+			Conf.ENGINE_THREADS = 4;
+			parallel.update();
+
+		}
+
+		Conf.ENGINE_THREADS = threads;
+
+		boolean same = world.getNumberOfChunks() == parallel.getNumberOfChunks();
+		Iterator<Entry<Point, Chunk>> chunks = world.getChunks();
+
+		while (chunks.hasNext()) {
+
+			Iterator<Entry<Point, Cell>> cells = chunks.next().getValue().getCells();
+
+			while (cells.hasNext()) {
+
+				Coordinates coordinates = cells.next().getValue().getCoordinates();
+				Chunk chunk = parallel.getChunkAt(coordinates);
+
+				same &= chunk != null && chunk.hasCellAt(coordinates);
+
+			}
+
+		}
+
+		assertTrue(same, "Failed asserting that the parallel update gives the same cells.");
+
+	}
+
+
+	public void testStepGenerations() {
+
+		World world = new World();
+		World stepped = new World();
+
+		/* An R-pentomino, still growing after a few hundred generations. */
+		for (World w : new World[] { world, stepped }) {
+			w.active(new Coordinates(1, 0));
+			w.active(new Coordinates(2, 0));
+			w.active(new Coordinates(0, 1));
+			w.active(new Coordinates(1, 1));
+			w.active(new Coordinates(1, 2));
+		}
+
+		for (int i = 0; i < 300; i++) {
+			world.update();
+		}
+
+		assertTrue(stepped.stepGenerations(300) == 300);
+		assertTrue(stepped.getGeneration() == 300);
+		assertEquals(ChunkPagerTest.getLivingCells(stepped), ChunkPagerTest.getLivingCells(world));
+
+		/* An interrupted thread computes nothing, and can resume later. */
+		Thread.currentThread().interrupt();
+
+		try {
+			assertTrue(stepped.stepGenerations(10) == 0);
+		} finally {
+			Thread.interrupted();
+		}
+
+		assertTrue(stepped.stepGenerations(10) == 10);
+
+	}
+
+	public void testSleepingChunks() {
+
+		World world = new World();
+
+		/* A block and a blinker, in two chunks. */
+		world.active(new Coordinates(5, 5));
+		world.active(new Coordinates(6, 5));
+		world.active(new Coordinates(5, 6));
+		world.active(new Coordinates(6, 6));
+
+		world.active(new Coordinates(20, 5));
+		world.active(new Coordinates(21, 5));
+		world.active(new Coordinates(22, 5));
+
+		for (int i = 0; i < 4; i++) {
+			world.update();
+		}
+
+		assertSame(world.getNumberOfActiveChunks(), 0);
+		assertSame(world.getNumberOfSleepingChunks(), world.getNumberOfChunks());
+
+		/* The blinker keeps oscillating while sleeping. */
+		assertTrue(world.getChunkAt(new Coordinates(22, 5)).hasCellAt(new Coordinates(22, 5)));
+		world.update();
+		assertTrue(world.getChunkAt(new Coordinates(21, 6)).hasCellAt(new Coordinates(21, 6)));
+
+		/* A block with a cell added becomes three cells long in a generation. */
+		world.toogle(new Coordinates(7, 5));
+		world.update();
+
+		assertTrue(world.getNumberOfActiveChunks() > 0);
+		assertTrue(world.getChunkAt(new Coordinates(6, 4)).hasCellAt(new Coordinates(6, 4)));
+
+	}
+
+
+	public void testExpand() {
+
+		World world = new World();
+
+		/* A block in the corner of a chunk makes no cell born around it. */
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(0, 1));
+		world.active(new Coordinates(1, 1));
+
+		world.update();
+
+		assertSame(world.getNumberOfChunks(), 1);
+
+		/* A blinker on the border makes cells born in the chunk below. */
+		world.active(new Coordinates(5, 0));
+		world.active(new Coordinates(6, 0));
+		world.active(new Coordinates(7, 0));
+
+		world.update();
+
+		assertSame(world.getNumberOfChunks(), 2);
+		assertTrue(world.getChunkAt(new Coordinates(6, -1)).getCellAt(new Coordinates(6, -1)).isAlive());
+
+	}
+
+	public void testExpandRemembersBarrenChunks() {
+
+		BirthsProbe world = new BirthsProbe();
+
+		/* A block in the corner of a chunk, facing three missing chunks. */
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(0, 1));
+		world.active(new Coordinates(1, 1));
+
+		world.update();
+
+		assertTrue(world.checks > 0);
+
+		world.checks = 0;
+
+		for (int i = 0; i < 10; i++) {
+			world.update();
+		}
+
+		assertSame(world.checks, 0);
+		assertSame(world.getNumberOfChunks(), 1);
+
+		/* Two neighbors make a cell born with this rule, the missing chunks are checked again. */
+		world.setRule(Rule.parse("B2/S23"));
+		world.update();
+
+		assertTrue(world.checks > 0);
+		assertTrue(world.getChunkAt(new Coordinates(-1, 0)).hasCellAt(new Coordinates(-1, 0)));
+
+	}
+
 	public void testRemove() {
 
 		World world = new World();
@@ -128,4 +321,111 @@ public class WorldTest extends TestCase {
 
 	}
 
+
+	public void testPopulation() {
+
+		World world = new World();
+
+		world.active(new Coordinates(50, -25));
+		world.active(new Coordinates(-25, 50));
+		world.active(new Coordinates(-25, 50));
+
+		assertEquals(2L, world.getPopulation());
+
+		world.toogle(new Coordinates(50, -25));
+
+		assertEquals(1L, world.getPopulation());
+
+		world.clear();
+
+		assertEquals(0L, world.getPopulation());
+
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(2, 0));
+		world.update();
+
+		assertEquals(3L, world.getPopulation());
+
+	}
+
+	public void testGetBounds() {
+
+		World world = new World();
+
+		assertTrue(world.getBounds().isEmpty());
+
+		world.active(new Coordinates(50, -25));
+		world.active(new Coordinates(-25, 50));
+
+		assertEquals(new Rectangle(-25, -25, 76, 76), world.getBounds());
+
+		world.toogle(new Coordinates(-25, 50));
+
+		assertEquals(new Rectangle(50, -25, 1, 1), world.getBounds());
+
+		world.clear();
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(2, 0));
+		world.update();
+
+		assertEquals(new Rectangle(1, -1, 1, 3), world.getBounds());
+
+	}
+
+	public void testCount() {
+
+		World world = new World();
+
+		/* A diagonal crossing several chunks. */
+		for (int i = -Chunk.SIZE; i < Chunk.SIZE * 2; i++) {
+			world.active(new Coordinates(i, i));
+		}
+
+		assertEquals(Chunk.SIZE * 3L, world.count(new Rectangle(-Chunk.SIZE, -Chunk.SIZE, Chunk.SIZE * 3, Chunk.SIZE * 3)));
+		assertEquals(Chunk.SIZE * 1L, world.count(new Rectangle(0, 0, Chunk.SIZE, Chunk.SIZE)));
+		assertEquals(3L, world.count(new Rectangle(-1, -1, 3, 3)));
+		assertEquals(0L, world.count(new Rectangle(1, 0, 1, 1)));
+		assertEquals(0L, world.count(new Rectangle()));
+
+	}
+
+	public void testForEach() {
+
+		World world = new World();
+
+		world.active(new Coordinates(-1, -1));
+		world.active(new Coordinates(Chunk.SIZE, 3));
+		world.active(new Coordinates(Chunk.SIZE * 4, 3));
+
+		Rectangle area = new Rectangle(-1, -1, Chunk.SIZE + 2, 5);
+		long[] sum = new long[1];
+
+		assertEquals(2L, world.forEach(area, (x, y) -> sum[0] += x + y));
+		assertEquals(Chunk.SIZE + 1L, sum[0]);
+
+		long[] cells = world.list(area);
+
+		Arrays.sort(cells);
+
+		assertEquals(2, cells.length);
+		assertEquals(PackedCoordinates.pack(-1, -1), cells[0]);
+		assertEquals(PackedCoordinates.pack(Chunk.SIZE, 3), cells[1]);
+		assertEquals(2L, world.stream(area).count());
+
+	}
+
+
+	protected static class BirthsProbe extends World {
+
+		protected int checks = 0;
+
+		protected boolean hasBirths(int x, int y) {
+			checks++;
+			return super.hasBirths(x, y);
+		}
+
+	}
+
 }
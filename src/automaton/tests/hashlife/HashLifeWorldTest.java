@@ -0,0 +1,330 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.hashlife;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import automaton.grid.Cell;
+import automaton.grid.Chunk;
+import automaton.grid.Rule;
+import automaton.grid.World;
+import automaton.hashlife.HashLifeWorld;
+import automaton.maths.Coordinates;
+import automaton.maths.Point;
+import automaton.tests.TestCase;
+
+public class HashLifeWorldTest extends TestCase {
+
+	public void testAdvance() {
+
+		World world = new World();
+		HashLifeWorld hashlife = new HashLifeWorld();
+
+		/* The R-pentomino. */
+		int[][] cells = { { 0, 0 }, { 1, 0 }, { -1, -1 }, { 0, -1 }, { 0, -2 } };
+
+		for (int i = 0; i < cells.length; i++) {
+			world.active(new Coordinates(cells[i][0], cells[i][1]));
+			hashlife.active(new Coordinates(cells[i][0], cells[i][1]));
+		}
+
+		for (int i = 0; i < 200; i++) {
+			world.update();
+		}
+
+		hashlife.advance(200);
+
+		assertTrue(hashlife.getGeneration() == 200);
+		assertEquals(getLivingCells(hashlife), getLivingCells(world));
+
+	}
+
+	public void testRule() {
+
+		World world = new World();
+		HashLifeWorld hashlife = new HashLifeWorld();
+
+		/* The R-pentomino, under the rule of HighLife. */
+		int[][] cells = { { 0, 0 }, { 1, 0 }, { -1, -1 }, { 0, -1 }, { 0, -2 } };
+
+		for (int i = 0; i < cells.length; i++) {
+			world.active(new Coordinates(cells[i][0], cells[i][1]));
+			hashlife.active(new Coordinates(cells[i][0], cells[i][1]));
+		}
+
+		hashlife.advance(10);
+
+		for (int i = 0; i < 10; i++) {
+			world.update();
+		}
+
+		world.setRule(Rule.HIGHLIFE);
+		hashlife.setRule(Rule.HIGHLIFE);
+
+		for (int i = 0; i < 150; i++) {
+			world.update();
+		}
+
+		hashlife.advance(150);
+
+		assertEquals(getLivingCells(hashlife), getLivingCells(world));
+
+	}
+
+	public void testAdvanceFar() {
+
+		HashLifeWorld hashlife = new HashLifeWorld();
+
+		/* A glider, moving by one cell diagonally every four generations. */
+		hashlife.active(new Coordinates(1, 2));
+		hashlife.active(new Coordinates(0, 1));
+		hashlife.active(new Coordinates(0, 0));
+		hashlife.active(new Coordinates(1, 0));
+		hashlife.active(new Coordinates(2, 0));
+
+		List<Point> expected = new ArrayList<>();
+
+		expected.add(new Point(0 - (1 << 20), 0 - (1 << 20)));
+		expected.add(new Point(0 - (1 << 20), 1 - (1 << 20)));
+		expected.add(new Point(1 - (1 << 20), 0 - (1 << 20)));
+		expected.add(new Point(1 - (1 << 20), 2 - (1 << 20)));
+		expected.add(new Point(2 - (1 << 20), 0 - (1 << 20)));
+
+		hashlife.advance(1L << 22);
+
+		assertTrue(hashlife.getPopulation() == 5);
+		assertEquals(getLivingCells(hashlife), expected);
+
+	}
+
+	public void testAdvanceTwice() {
+
+		HashLifeWorld hashlife = new HashLifeWorld();
+		World world = new World();
+
+		/* The quadtree shrinks between the two calls. */
+		for (World w : new World[] { hashlife, world }) {
+			w.active(new Coordinates(1, 0));
+			w.active(new Coordinates(2, 1));
+			w.active(new Coordinates(0, 2));
+			w.active(new Coordinates(1, 2));
+			w.active(new Coordinates(2, 2));
+		}
+
+		hashlife.advance(100);
+		hashlife.advance(24);
+
+		for (int i = 0; i < 124; i++) {
+			world.update();
+		}
+
+		assertTrue(hashlife.getPopulation() == 5);
+		assertEquals(getLivingCells(hashlife), getLivingCells(world));
+
+	}
+
+	public void testStepGenerations() {
+
+		HashLifeWorld hashlife = new HashLifeWorld();
+		World world = new World();
+
+		for (World w : new World[] { hashlife, world }) {
+			w.active(new Coordinates(1, 0));
+			w.active(new Coordinates(2, 0));
+			w.active(new Coordinates(0, 1));
+			w.active(new Coordinates(1, 1));
+			w.active(new Coordinates(1, 2));
+		}
+
+		assertTrue(hashlife.stepGenerations(1234) == 1234);
+		assertTrue(world.stepGenerations(1234) == 1234);
+		assertTrue(hashlife.getGeneration() == 1234);
+		assertEquals(getLivingCells(hashlife), getLivingCells(world));
+
+	}
+
+	public void testGenerationKept() {
+
+		HashLifeWorld hashlife = new HashLifeWorld();
+
+		/* A glider, materialized as chunks by each read. */
+		hashlife.active(new Coordinates(1, 0));
+		hashlife.active(new Coordinates(2, 1));
+		hashlife.active(new Coordinates(0, 2));
+		hashlife.active(new Coordinates(1, 2));
+		hashlife.active(new Coordinates(2, 2));
+
+		hashlife.advance(1000);
+		hashlife.getBounds();
+
+		assertTrue(hashlife.getGeneration() == 1000);
+
+		hashlife.advance(24);
+		hashlife.getNumberOfChunks();
+
+		assertTrue(hashlife.getGeneration() == 1024);
+		assertTrue(hashlife.getPopulation() == 5);
+
+	}
+
+	public void testToogle() {
+
+		World world = new World();
+		HashLifeWorld hashlife = new HashLifeWorld();
+
+		/* A blinker, then a cell added next to it. */
+		for (int x = -1; x <= 1; x++) {
+			world.active(new Coordinates(x, 0));
+			hashlife.active(new Coordinates(x, 0));
+		}
+
+		world.update();
+		hashlife.advance(1);
+
+		world.toogle(new Coordinates(1, 1));
+		hashlife.toogle(new Coordinates(1, 1));
+
+		for (int i = 0; i < 10; i++) {
+			world.update();
+		}
+
+		hashlife.advance(10);
+
+		assertFalse(hashlife.isEmpty());
+		assertEquals(getLivingCells(hashlife), getLivingCells(world));
+
+		hashlife.clear();
+
+		assertTrue(hashlife.isEmpty());
+
+	}
+
+
+	public void testGetBounds() {
+
+		HashLifeWorld hashlife = new HashLifeWorld();
+		World world = new World();
+
+		/* A R-pentomino, sending gliders away. */
+		for (World w : new World[] { hashlife, world }) {
+			w.active(new Coordinates(1, 0));
+			w.active(new Coordinates(2, 0));
+			w.active(new Coordinates(0, 1));
+			w.active(new Coordinates(1, 1));
+			w.active(new Coordinates(1, 2));
+		}
+
+		hashlife.advance(1500);
+
+		for (int i = 0; i < 1500; i++) {
+			world.update();
+		}
+
+		/* The bounds are read from the quadtree, the chunks are not built. */
+		assertEquals(hashlife.getBounds(), world.getBounds());
+		assertSame(hashlife.peekNumberOfChunks(), -1);
+
+		hashlife.clear();
+
+		assertTrue(hashlife.getBounds().isEmpty());
+
+	}
+
+	public void testLookups() {
+
+		TreeProbe hashlife = new TreeProbe();
+
+		hashlife.active(new Coordinates(1, 0));
+		hashlife.active(new Coordinates(2, 1));
+		hashlife.active(new Coordinates(0, 2));
+		hashlife.active(new Coordinates(1, 2));
+		hashlife.active(new Coordinates(2, 2));
+
+		hashlife.advance(100);
+
+		/* Reading the chunks keeps the quadtree up to date. */
+		Rectangle bounds = hashlife.getBounds();
+		Coordinates corner = new Coordinates(bounds.x, bounds.y);
+
+		assertNotNull(hashlife.getChunkAt(corner));
+		assertFalse(hashlife.hasChunkAt(new Coordinates(bounds.x + 1000, bounds.y)));
+		assertFalse(hashlife.isTreeOutdated());
+
+		/* Reading the world after an edit does not rebuild the quadtree. */
+		hashlife.toogle(new Coordinates(100, 100));
+
+		assertTrue(hashlife.getPopulation() == 6);
+		assertTrue(hashlife.count(hashlife.getBounds()) == 6);
+		assertTrue(hashlife.isTreeOutdated());
+
+	}
+
+	/**
+	 * Returns the living cells of a world, sorted by coordinates.
+	 */
+	protected List<Point> getLivingCells(World world) {
+
+		List<Point> list = new ArrayList<>();
+		Iterator<Entry<Point, Chunk>> chunks = world.getChunks();
+
+		while (chunks.hasNext()) {
+
+			Iterator<Entry<Point, Cell>> cells = chunks.next().getValue().getCells();
+
+			while (cells.hasNext()) {
+
+				Cell cell = cells.next().getValue();
+
+				if (cell.isAlive()) {
+					list.add(cell.getCoordinates().toAbsolutePoint());
+				}
+
+			}
+
+		}
+
+		list.sort((a, b) -> a.getX() != b.getX() ? Integer.compare(a.getX(), b.getX()) : Integer.compare(a.getY(), b.getY()));
+
+		return list;
+	}
+
+
+
+	/**
+	 * A HashLife world telling if its quadtree is outdated.
+	 */
+	protected static class TreeProbe extends HashLifeWorld {
+
+		protected boolean isTreeOutdated() {
+			return outdatedTree;
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.tests.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import automaton.decoder.Decoder;
+import automaton.grid.World;
+import automaton.main.Batch;
+import automaton.tests.TestCase;
+
+public class BatchTest extends TestCase {
+
+	public void testRun() throws IOException {
+
+		File pattern = File.createTempFile("automaton", ".life");
+		File output = File.createTempFile("automaton", ".life");
+
+		try {
+
+			/* A glider. */
+			Files.write(pattern.toPath(), "1, 0\n2, 1\n0, 2\n1, 2\n2, 2\n".getBytes());
+
+			World expected = new World();
+
+			Decoder.decode(pattern, expected);
+
+			for (int i = 0; i < 100; i++) {
+				expected.update();
+			}
+
+			for (String engine : new String[] { "chunks", "offheap", "hashlife" }) {
+
+				World world = Batch.createWorld(engine);
+
+				Decoder.decode(pattern, world);
+
+				assertTrue(Batch.run(world, 100, 7, output) == 5);
+				assertTrue(world.getGeneration() == 100);
+				assertTrue(world.getPopulation() == 5);
+
+				World written = new World();
+
+				Decoder.decode(output, written);
+
+				assertTrue(Arrays.equals(getCells(written), getCells(expected)), "Failed asserting that the " + engine + " engine writes the glider moved by 25 cells.");
+
+			}
+
+		} finally {
+			pattern.delete();
+			output.delete();
+		}
+
+	}
+
+	public void testCreateWorld() {
+		assertNull(Batch.createWorld("quantum"));
+	}
+
+
+	/**
+	 * Returns the living cells of a world, as sorted packed coordinates.
+	 */
+	protected static long[] getCells(World world) {
+
+		long[] cells = world.list(world.getBounds());
+
+		Arrays.sort(cells);
+
+		return cells;
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package automaton.tests.main;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import automaton.config.Conf;
+import automaton.grid.World;
+import automaton.main.Automaton;
+import automaton.maths.Coordinates;
+import automaton.tests.TestCase;
+
+public class SchedulerTest extends TestCase {
+
+	public void testExecute() throws InterruptedException {
+
+		WindowlessAutomaton automaton = new WindowlessAutomaton();
+
+		try {
+
+			automaton.execute(() -> {
+				automaton.world.active(new Coordinates(0, 0));
+				automaton.world.active(new Coordinates(1, 0));
+				automaton.world.active(new Coordinates(2, 0));
+			});
+
+			automaton.flush();
+
+			/* The change is published, then rendered. */
+			assertTrue(automaton.world.getSnapshot().getPopulation() == 3);
+			assertTrue(automaton.rendered.await(10, TimeUnit.SECONDS));
+
+		} finally {
+			automaton.shutdown();
+		}
+
+	}
+
+	public void testRunUntil() throws InterruptedException {
+
+		double tps = Conf.ENGINE_TPS;
+		WindowlessAutomaton automaton = new WindowlessAutomaton();
+
+		Conf.ENGINE_TPS = 1000;
+
+		try {
+
+			addRPentomino(automaton.world);
+
+			automaton.runUntil(20);
+
+			for (int i = 0; i < 1000 && automaton.isPlaying(); i++) {
+				Thread.sleep(10);
+			}
+
+			automaton.flush();
+
+			assertFalse(automaton.isPlaying());
+			assertTrue(automaton.world.getGeneration() == 20);
+			assertTrue(automaton.world.getSnapshot().getGeneration() == 20);
+
+		} finally {
+			Conf.ENGINE_TPS = tps;
+			automaton.shutdown();
+		}
+
+	}
+
+	public void testExecuteWaitsForStep() throws InterruptedException {
+
+		WindowlessAutomaton automaton = new WindowlessAutomaton();
+
+		try {
+
+			addRPentomino(automaton.world);
+
+			/* A long computation, cancelled like in the step dialog. */
+			Thread worker = new Thread(() -> automaton.stepGenerations(Long.MAX_VALUE / 2));
+
+			worker.start();
+
+			while (automaton.world.getGeneration() == 0) {
+				Thread.sleep(1);
+			}
+
+			AtomicLong seen = new AtomicLong(-1);
+
+			automaton.execute(() -> seen.set(automaton.world.getGeneration()));
+
+			Thread.sleep(50);
+
+			worker.interrupt();
+			worker.join();
+
+			automaton.flush();
+
+			/* The change has waited for the computation to end. */
+			assertTrue(seen.get() == automaton.world.getGeneration());
+
+		} finally {
+			automaton.shutdown();
+		}
+
+	}
+
+
+	/**
+	 * Adds a R-pentomino, which neither dies nor repeats
+	 * itself before a thousand generations.
+	 */
+	protected static void addRPentomino(World world) {
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(2, 0));
+		world.active(new Coordinates(0, 1));
+		world.active(new Coordinates(1, 1));
+		world.active(new Coordinates(1, 2));
+	}
+
+
+	/**
+	 * An application without window, noting its first frame.
+	 */
+	protected static class WindowlessAutomaton extends Automaton {
+
+		protected CountDownLatch rendered = new CountDownLatch(1);
+
+		public void render() {
+			rendered.countDown();
+		}
+
+		protected void updatePlayButton() {
+			return;
+		}
+
+		/**
+		 * Waits for the tasks executed so far to be done.
+		 */
+		protected void flush() throws InterruptedException {
+
+			CountDownLatch done = new CountDownLatch(1);
+
+			execute(done::countDown);
+			done.await(10, TimeUnit.SECONDS);
+
+		}
+
+		protected void shutdown() {
+			scheduler.stop();
+			scheduler.awaitTermination();
+		}
+
+	}
+
+}
@@ -24,6 +24,7 @@
 
 package automaton.tests.maths;
 
+import automaton.grid.Chunk;
 import automaton.maths.Coordinates;
 import automaton.maths.Point;
 import automaton.tests.TestCase;
@@ -46,7 +47,7 @@ public class CoordinatesTest extends TestCase {
 
 	public void testRelative() {
 
-		Coordinates coordinates = new Coordinates(50, -25);
+		Coordinates coordinates = new Coordinates(3 * Chunk.SIZE + 2, -2 * Chunk.SIZE + 7);
 
 		assertSame(coordinates.getRelativeX(), 2);
 		assertSame(coordinates.getRelativeY(), 7);
@@ -57,7 +58,7 @@ public class CoordinatesTest extends TestCase {
 
 	public void testChunk() {
 
-		Coordinates coordinates = new Coordinates(50, -25);
+		Coordinates coordinates = new Coordinates(3 * Chunk.SIZE + 2, -2 * Chunk.SIZE + 7);
 
 		assertSame(coordinates.getChunkX(), 3);
 		assertSame(coordinates.getChunkY(), -2);
@@ -80,12 +81,12 @@ public class CoordinatesTest extends TestCase {
 
 	public void testNormalize() {
 
-		Coordinates coordinates = new Coordinates(50, -25);
+		Coordinates coordinates = new Coordinates(3 * Chunk.SIZE + 2, -2 * Chunk.SIZE + 7);
 
 		coordinates.normalizeForChunk();
 
-		assertSame(coordinates.getAbsoluteX(), 48);
-		assertSame(coordinates.getAbsoluteY(), -32);
+		assertSame(coordinates.getAbsoluteX(), 3 * Chunk.SIZE);
+		assertSame(coordinates.getAbsoluteY(), -2 * Chunk.SIZE);
 
 	}
 
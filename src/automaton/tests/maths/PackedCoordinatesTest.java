@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.maths;
+
+import automaton.grid.Chunk;
+import automaton.maths.Coordinates;
+import automaton.maths.PackedCoordinates;
+import automaton.maths.Point;
+import automaton.tests.TestCase;
+
+public class PackedCoordinatesTest extends TestCase {
+
+	public void testPack() {
+
+		long packed = PackedCoordinates.pack(50, -25);
+
+		assertSame(PackedCoordinates.getX(packed), 50);
+		assertSame(PackedCoordinates.getY(packed), -25);
+
+		assertTrue(PackedCoordinates.pack(Integer.MIN_VALUE, -1) != PackedCoordinates.pack(-1, Integer.MIN_VALUE));
+		assertSame(PackedCoordinates.getY(PackedCoordinates.pack(Integer.MAX_VALUE, Integer.MIN_VALUE)), Integer.MIN_VALUE);
+
+	}
+
+	public void testComponents() {
+
+		long packed = PackedCoordinates.pack(3 * Chunk.SIZE + 2, -2 * Chunk.SIZE + 7);
+
+		assertSame(PackedCoordinates.getRelativeX(packed), 2);
+		assertSame(PackedCoordinates.getRelativeY(packed), 7);
+		assertSame(PackedCoordinates.getChunkX(packed), 3);
+		assertSame(PackedCoordinates.getChunkY(packed), -2);
+
+		assertEquals(PackedCoordinates.toChunk(packed), PackedCoordinates.pack(3, -2));
+		assertSame(PackedCoordinates.getIndex(packed), 7 * Chunk.SIZE + 2);
+
+	}
+
+	public void testAdd() {
+
+		long packed = PackedCoordinates.pack(0, 0);
+
+		assertEquals(PackedCoordinates.add(packed, -1, 1), PackedCoordinates.pack(-1, 1));
+		assertEquals(PackedCoordinates.add(PackedCoordinates.pack(Integer.MAX_VALUE, 0), 1, -1), PackedCoordinates.pack(Integer.MIN_VALUE, -1));
+
+	}
+
+	public void testAdapters() {
+
+		Coordinates coordinates = new Coordinates(50, -25);
+
+		assertEquals(coordinates.toPacked(), PackedCoordinates.pack(50, -25));
+		assertEquals(PackedCoordinates.toCoordinates(coordinates.toPacked()), coordinates);
+		assertEquals(new Point(50, -25).toPacked(), coordinates.toPacked());
+		assertSame(new Point(50, -25).hashCode(), new Point(50, -25).hashCode());
+
+	}
+
+}
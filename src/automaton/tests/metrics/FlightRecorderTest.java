@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import automaton.decoder.Decoder;
+import automaton.grid.Chunk;
+import automaton.grid.World;
+import automaton.maths.Coordinates;
+import automaton.tests.TestCase;
+
+public class FlightRecorderTest extends TestCase {
+
+	public void testEvents() throws IOException {
+
+		String glider = "#rule B3/S23\n1,0\n2,1\n0,2\n1,2\n2,2\n";
+		File file = File.createTempFile("automaton", ".jfr");
+		File life = File.createTempFile("automaton", ".life");
+
+		try (Recording recording = new Recording()) {
+
+			recording.enable("automaton.Update");
+			recording.enable("automaton.Decode");
+			recording.enable("automaton.Encode");
+			recording.enable("automaton.ChunkCreated");
+			recording.enable("automaton.ChunkRemoved");
+			recording.start();
+
+			World world = new World();
+
+			Decoder.decode(new ByteArrayInputStream(glider.getBytes(StandardCharsets.UTF_8)), world);
+
+			/* The glider crosses a few chunks, which are created then removed. */
+			for (int i = 0; i < Chunk.SIZE * 8; i++) {
+				world.update();
+			}
+
+			Decoder.encode(world, life);
+
+			recording.stop();
+			recording.dump(file.toPath());
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+
+			assertSame(count(events, "automaton.Update"), Chunk.SIZE * 8);
+			assertSame(count(events, "automaton.Decode"), 1);
+			assertSame(count(events, "automaton.Encode"), 1);
+			assertTrue(count(events, "automaton.ChunkCreated") > 1);
+			assertTrue(count(events, "automaton.ChunkRemoved") > 0);
+
+			boolean constant = true;
+
+			for (RecordedEvent event : events) {
+
+				String name = event.getEventType().getName();
+
+				if (name.equals("automaton.Decode")) {
+					assertTrue(event.getLong("cells") == 5);
+					assertSame((int) event.getLong("bytes"), glider.length());
+				}
+
+				if (name.equals("automaton.Encode")) {
+					assertTrue(event.getLong("cells") == 5);
+					assertTrue(event.getLong("bytes") == life.length());
+				}
+
+				if (name.equals("automaton.Update")) {
+					constant &= event.getLong("population") == 5;
+				}
+
+			}
+
+			assertTrue(constant);
+
+		} finally {
+			file.delete();
+			life.delete();
+		}
+
+	}
+
+	public void testDisabled() throws IOException {
+
+		File file = File.createTempFile("automaton", ".jfr");
+
+		try (Recording recording = new Recording()) {
+
+			recording.enable("automaton.Update");
+			recording.start();
+
+			World world = new World();
+
+			for (int i = 0; i < 64; i++) {
+				world.active(new Coordinates(i * 64, 0));
+			}
+
+			world.update();
+
+			recording.stop();
+			recording.dump(file.toPath());
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+
+			assertSame(count(events, "automaton.Update"), 1);
+			assertSame(count(events, "automaton.ChunkCreated"), 0);
+			assertSame(count(events, "automaton.ChunkRemoved"), 0);
+
+		} finally {
+			file.delete();
+		}
+
+	}
+
+	protected static int count(List<RecordedEvent> events, String name) {
+
+		int count = 0;
+
+		for (RecordedEvent event : events) {
+
+			if (event.getEventType().getName().equals(name)) {
+				count++;
+			}
+
+		}
+
+		return count;
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import automaton.grid.World;
+import automaton.hashlife.HashLifeWorld;
+import automaton.maths.Coordinates;
+import automaton.metrics.Metrics;
+import automaton.tests.TestCase;
+
+public class MetricsTest extends TestCase {
+
+	public void testWorld() {
+
+		World world = new World();
+		Metrics metrics = new Metrics();
+
+		metrics.setWorld(world);
+
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(2, 0));
+		world.publish();
+		metrics.recordWorld(world);
+
+		assertTrue(metrics.getPopulation() == 3);
+		assertSame(metrics.getNumberOfChunks(), world.getNumberOfChunks());
+		assertTrue(metrics.getNumberOfCells() == 3);
+
+		world.update();
+		metrics.recordWorld(world);
+
+		assertTrue(metrics.getGeneration() == 1);
+		assertTrue(metrics.getPopulation() == 3);
+
+	}
+
+	public void testHashLifeWorld() {
+
+		HashLifeWorld world = new HashLifeWorld();
+		Metrics metrics = new Metrics();
+
+		metrics.setWorld(world);
+
+		world.active(new Coordinates(0, 0));
+		world.active(new Coordinates(1, 0));
+		world.active(new Coordinates(2, 0));
+		world.advance(1000);
+		metrics.recordWorld(world);
+
+		/* The chunks are not built to be counted. */
+		assertSame(metrics.getNumberOfChunks(), -1);
+		assertTrue(metrics.getNumberOfCells() == 3);
+		assertTrue(metrics.getGeneration() == 1000);
+
+	}
+
+	public void testRegister() throws JMException {
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(Metrics.NAME);
+		Metrics metrics = new Metrics();
+
+		metrics.register();
+
+		try {
+
+			metrics.recordTick(System.nanoTime());
+			metrics.dropFrame();
+
+			assertTrue(server.isRegistered(name));
+			assertEquals(server.getAttribute(name, "Ticks"), 1L);
+			assertEquals(server.getAttribute(name, "DroppedFrames"), 1L);
+
+			server.invoke(name, "reset", null, null);
+
+			assertEquals(server.getAttribute(name, "Ticks"), 0L);
+
+		} finally {
+			metrics.unregister();
+		}
+
+		assertFalse(server.isRegistered(name));
+
+	}
+
+}
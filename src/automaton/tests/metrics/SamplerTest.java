@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.tests.metrics;
+
+import automaton.metrics.Sampler;
+import automaton.tests.TestCase;
+
+public class SamplerTest extends TestCase {
+
+	public void testPercentile() {
+
+		Sampler sampler = new Sampler(100);
+
+		assertTrue(sampler.getPercentile(50) == 0);
+
+		for (int i = 100; i >= 1; i--) {
+			sampler.record(0, i);
+		}
+
+		assertTrue(sampler.getPercentile(50) == 50);
+		assertTrue(sampler.getPercentile(99) == 99);
+		assertTrue(sampler.getPercentile(100) == 100);
+		assertTrue(sampler.getPercentile(0) == 1);
+
+	}
+
+	public void testRing() {
+
+		Sampler sampler = new Sampler(4);
+
+		for (int i = 1; i <= 10; i++) {
+			sampler.record(0, i);
+		}
+
+		assertTrue(sampler.getCount() == 10);
+		assertTrue(sampler.getPercentile(0) == 7);
+		assertTrue(sampler.getPercentile(100) == 10);
+
+		sampler.reset();
+
+		assertTrue(sampler.getCount() == 0);
+		assertTrue(sampler.getPercentile(100) == 0);
+
+	}
+
+	public void testRate() {
+
+		long second = Sampler.SECOND;
+		Sampler sampler = new Sampler(8);
+
+		/* One event every 250 ms, the older ones are out of the last second. */
+		for (int i = 0; i < 8; i++) {
+			sampler.record(i * second / 4, 0);
+		}
+
+		assertTrue(sampler.getRate(2 * second) == 3);
+		assertTrue(sampler.getRate(10 * second) == 0);
+
+		/* All samples kept are recent, the rate is measured since the oldest. */
+		for (int i = 0; i < 8; i++) {
+			sampler.record(3 * second + i * second / 100, 0);
+		}
+
+		assertTrue(sampler.getRate(3 * second + second / 10) == 80);
+
+	}
+
+}
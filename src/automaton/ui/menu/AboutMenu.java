@@ -57,8 +57,10 @@ public class AboutMenu extends JMenu {
 
 			public void actionPerformed(ActionEvent e) {
 
-				Main.automaton.world.clear();
-				Decoder.decode(Resource.getRes("res/presets/about/about.life"), Main.automaton.world);
+				Main.automaton.execute(() -> {
+					Main.automaton.world.clear();
+					Decoder.decode(Resource.getRes("res/presets/about/about.life"), Main.automaton.world);
+				});
 
 			}
 
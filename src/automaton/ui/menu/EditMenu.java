@@ -27,11 +27,17 @@ package automaton.ui.menu;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
+import javax.swing.ButtonGroup;
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.JRadioButtonMenuItem;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 
 import automaton.config.Conf;
+import automaton.grid.Rule;
 import automaton.main.Main;
 
 /**
@@ -41,6 +47,17 @@ import automaton.main.Main;
  */
 public class EditMenu extends JMenu {
 
+	/**
+	 * The rules proposed in the menu, with their names.
+	 */
+	protected static final String[][] RULES = {
+		{ "Life", "B3/S23" },
+		{ "HighLife", "B36/S23" },
+		{ "Day & Night", "B3678/S34678" },
+		{ "Seeds", "B2/S" },
+		{ "Life without Death", "B3/S012345678" }
+	};
+
 	/**
 	 * Edit menu displayed in the menu bar.
 	 */
@@ -50,11 +67,20 @@ public class EditMenu extends JMenu {
 
 
 		JMenuItem playItem  = new JMenuItem("Play/Pause");
+		JMenuItem stepItem  = new JMenuItem("Step");
 		JMenuItem clearItem = new JMenuItem("Clear");
+		JMenuItem runItem   = new JMenuItem("Run to Generation...");
 
 		JCheckBoxMenuItem editingItem = new JCheckBoxMenuItem("Active Editing");
 		JCheckBoxMenuItem coloredItem = new JCheckBoxMenuItem("Active Colored Cells");
 		JCheckBoxMenuItem borderItem  = new JCheckBoxMenuItem("Show Chunk Borders");
+		JCheckBoxMenuItem hashLifeItem = new JCheckBoxMenuItem("Use HashLife");
+		JCheckBoxMenuItem offHeapItem = new JCheckBoxMenuItem("Store Chunks Off Heap");
+		JCheckBoxMenuItem cyclesItem = new JCheckBoxMenuItem("Pause on Cycles");
+
+		JMenu ruleMenu = new JMenu("Rule");
+		ButtonGroup ruleGroup = new ButtonGroup();
+		JRadioButtonMenuItem customRuleItem = new JRadioButtonMenuItem("Custom...");
 
 
 		playItem.addActionListener(new ActionListener() {
@@ -65,11 +91,40 @@ public class EditMenu extends JMenu {
 
 		});
 
+		stepItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+				Main.automaton.step();
+			}
+
+		});
+
 		clearItem.addActionListener(new ActionListener() {
 
 			public void actionPerformed(ActionEvent e) {
-				Main.automaton.world.clear();
 				Main.automaton.pause();
+				Main.automaton.execute(() -> Main.automaton.world.clear());
+			}
+
+		});
+
+
+		runItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+
+				String generation = JOptionPane.showInputDialog(EditMenu.this, "Generation (currently " + Main.automaton.world.getGeneration() + "):", Main.automaton.world.getGeneration() + 1000);
+
+				if (generation == null) {
+					return;
+				}
+
+				try {
+					Main.automaton.runToGeneration(Long.parseLong(generation.trim()));
+				} catch (NumberFormatException exception) {
+					JOptionPane.showMessageDialog(EditMenu.this, "Invalid generation: " + generation, "Run to Generation", JOptionPane.ERROR_MESSAGE);
+				}
+
 			}
 
 		});
@@ -103,12 +158,124 @@ public class EditMenu extends JMenu {
 		});
 
 
+		hashLifeItem.setState(Conf.ENGINE_HASHLIFE);
+		hashLifeItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+				Conf.ENGINE_HASHLIFE = !Conf.ENGINE_HASHLIFE;
+				Main.automaton.changeEngine();
+			}
+
+		});
+
+
+		offHeapItem.setState(Conf.ENGINE_OFF_HEAP);
+		offHeapItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+				Conf.ENGINE_OFF_HEAP = !Conf.ENGINE_OFF_HEAP;
+				Main.automaton.changeEngine();
+			}
+
+		});
+
+
+		cyclesItem.setState(Conf.ENGINE_CYCLES_PAUSE);
+		cyclesItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+				Conf.ENGINE_CYCLES_PAUSE = !Conf.ENGINE_CYCLES_PAUSE;
+			}
+
+		});
+
+
+		for (String[] rule : RULES) {
+
+			JRadioButtonMenuItem ruleItem = new JRadioButtonMenuItem(rule[0] + " (" + rule[1] + ")");
+
+			ruleItem.setActionCommand(rule[1]);
+			ruleItem.addActionListener(new ActionListener() {
+
+				public void actionPerformed(ActionEvent e) {
+					Rule rule = Rule.parse(e.getActionCommand());
+
+					Main.automaton.execute(() -> Main.automaton.world.setRule(rule));
+				}
+
+			});
+
+			ruleGroup.add(ruleItem);
+			ruleMenu.add(ruleItem);
+		}
+
+		customRuleItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+
+				String rulestring = JOptionPane.showInputDialog(EditMenu.this, "Rulestring (B/S notation):", Main.automaton.world.getRule());
+
+				if (rulestring == null) {
+					return;
+				}
+
+				try {
+
+					Rule rule = Rule.parse(rulestring);
+
+					Main.automaton.execute(() -> Main.automaton.world.setRule(rule));
+
+				} catch (IllegalArgumentException exception) {
+					JOptionPane.showMessageDialog(EditMenu.this, exception.getMessage(), "Rule", JOptionPane.ERROR_MESSAGE);
+				}
+
+			}
+
+		});
+
+		/* The rule may have been changed by opening a pattern, the selection follows it. */
+		ruleMenu.addMenuListener(new MenuListener() {
+
+			public void menuSelected(MenuEvent e) {
+
+				String rulestring = Main.automaton.world.getRule().toString();
+
+				customRuleItem.setSelected(true);
+
+				for (int i = 0; i < RULES.length; i++) {
+
+					if (RULES[i][1].equals(rulestring)) {
+						ruleMenu.getItem(i).setSelected(true);
+					}
+
+				}
+
+			}
+
+			public void menuDeselected(MenuEvent e) {}
+
+			public void menuCanceled(MenuEvent e) {}
+
+		});
+
+		ruleGroup.add(customRuleItem);
+		ruleMenu.addSeparator();
+		ruleMenu.add(customRuleItem);
+
+
 		this.add(playItem);
+		this.add(stepItem);
+		this.add(runItem);
 		this.add(clearItem);
 		this.addSeparator();
 		this.add(editingItem);
 		this.add(coloredItem);
 		this.add(borderItem);
+		this.addSeparator();
+		this.add(hashLifeItem);
+		this.add(offHeapItem);
+		this.add(cyclesItem);
+		this.add(ruleMenu);
 
 	}
 
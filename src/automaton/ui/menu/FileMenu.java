@@ -27,6 +27,7 @@ package automaton.ui.menu;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.IOException;
 
 import javax.swing.JFileChooser;
 import javax.swing.JMenu;
@@ -34,6 +35,7 @@ import javax.swing.JMenuItem;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import automaton.decoder.Decoder;
+import automaton.decoder.RegionStore;
 import automaton.io.Console;
 import automaton.main.Main;
 
@@ -44,6 +46,13 @@ import automaton.main.Main;
  */
 public class FileMenu extends JMenu {
 
+	/**
+	 * The region store last opened or saved, which saves
+	 * again only the changed regions.
+	 */
+	protected RegionStore store;
+
+
 	/**
 	 * File menu displayed in the menu bar.
 	 */
@@ -54,6 +63,8 @@ public class FileMenu extends JMenu {
 
 		JMenuItem openItem = new JMenuItem("Open");
 		JMenuItem saveItem = new JMenuItem("Save as");
+		JMenuItem openRegionsItem = new JMenuItem("Open regions");
+		JMenuItem saveRegionsItem = new JMenuItem("Save regions");
 		JMenuItem exitItem = new JMenuItem("Exit");
 
 
@@ -69,8 +80,10 @@ public class FileMenu extends JMenu {
 
 					File file = fileChooser.getSelectedFile();
 
-					Main.automaton.world.clear();
-					Decoder.decode(file, Main.automaton.world);
+					Main.automaton.execute(() -> {
+						Main.automaton.world.clear();
+						Decoder.decode(file, Main.automaton.world);
+					});
 
 				}
 
@@ -107,7 +120,85 @@ public class FileMenu extends JMenu {
 
 					}
 
-					Decoder.encode(Main.automaton.world, file);
+					File encoded = file;
+
+					Main.automaton.execute(() -> Decoder.encode(Main.automaton.world, encoded));
+
+				}
+
+			}
+
+		});
+
+		openRegionsItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+
+				JFileChooser fileChooser = new JFileChooser(System.getProperty("user.home"));
+
+				fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+
+				if (fileChooser.showOpenDialog(null) == JFileChooser.APPROVE_OPTION) {
+
+					RegionStore store = new RegionStore(fileChooser.getSelectedFile());
+
+					FileMenu.this.store = store;
+
+					Main.automaton.execute(() -> {
+
+						Main.automaton.world.clear();
+
+						try {
+
+							store.load(Main.automaton.world);
+
+						} catch (IOException exception) {
+							Console.err(exception, this);
+						}
+
+					});
+
+				}
+
+			}
+
+		});
+
+		saveRegionsItem.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+
+				JFileChooser fileChooser = new JFileChooser(store == null ? new File(System.getProperty("user.home")) : store.getDirectory());
+
+				fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+
+				if (store != null) {
+					fileChooser.setSelectedFile(store.getDirectory());
+				}
+
+				if (fileChooser.showSaveDialog(null) == JFileChooser.APPROVE_OPTION) {
+
+					File directory = fileChooser.getSelectedFile();
+
+					if (store == null || !store.getDirectory().equals(directory)) {
+						store = new RegionStore(directory);
+					}
+
+					RegionStore store = FileMenu.this.store;
+
+					Main.automaton.execute(() -> {
+
+						try {
+
+							int regions = store.save(Main.automaton.world);
+
+							Console.write(regions + " regions written to " + directory, this);
+
+						} catch (IOException exception) {
+							Console.err(exception, this);
+						}
+
+					});
 
 				}
 
@@ -128,6 +219,10 @@ public class FileMenu extends JMenu {
 
 		this.add(openItem);
 		this.add(saveItem);
+		this.addSeparator();
+		this.add(openRegionsItem);
+		this.add(saveRegionsItem);
+		this.addSeparator();
 		this.add(exitItem);
 
 	}
@@ -316,15 +316,19 @@ public class ImportMenu extends JMenu {
 	 */
 	public void openPreset(String path) {
 
-		Main.automaton.world.clear();
+		Main.automaton.execute(() -> {
 
-		try {
+			Main.automaton.world.clear();
 
-			Decoder.decode(Resource.getRes(path), Main.automaton.world);
+			try {
 
-		} catch (Exception e) {
-			Console.err("Failed to decode the preset " + path, this);
-		}
+				Decoder.decode(Resource.getRes(path), Main.automaton.world);
+
+			} catch (Exception e) {
+				Console.err("Failed to decode the preset " + path, this);
+			}
+
+		});
 
 	}
 
@@ -35,10 +35,14 @@ import java.awt.event.MouseWheelListener;
 import javax.swing.JPanel;
 
 import automaton.config.Conf;
+import automaton.grid.Snapshot;
 import automaton.grid.World;
+import automaton.main.Scheduler;
 import automaton.maths.Coordinates;
 import automaton.maths.Point;
 import automaton.maths.Vector;
+import automaton.metrics.Metrics;
+import automaton.metrics.PaintEvent;
 import automaton.render.RenderingContext;
 
 /**
@@ -53,13 +57,31 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 	/**
 	 * The world containing all chunks and all cells.
 	 */
-	protected World world;
+	protected volatile World world;
+
+	/**
+	 * The scheduler running the edits on the simulation thread.
+	 */
+	protected Scheduler scheduler;
+
+	/**
+	 * The metrics recording the time taken by each frame.
+	 */
+	protected Metrics metrics;
 
 	/**
 	 * The rendering context for displaying.
 	 */
 	protected RenderingContext context = new RenderingContext();
 
+	/**
+	 * Indicates if the world is being computed by another
+	 * thread, and must not be edited.
+	 *
+	 * @see #setFrozen(boolean)
+	 */
+	protected volatile boolean frozen = false;
+
 
 	/**
 	 * Value of the previous translation on the canvas.
@@ -100,7 +122,9 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 
 
 	/**
-	 * Update the rendering.
+	 * Update the rendering, from the last snapshot published
+	 * by the world, so the world is never read while it is
+	 * updated.
 	 */
 	public void paintComponent(Graphics g) {
 
@@ -110,7 +134,24 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 
 		
 		context.setGraphics(g);
-		world.render(context);
+
+		PaintEvent event = new PaintEvent();
+		Snapshot snapshot = world.getSnapshot();
+		long start = System.nanoTime();
+
+		event.begin();
+		snapshot.render(context);
+		event.end();
+
+		if (metrics != null) {
+			metrics.recordFrame(start);
+		}
+
+		if (event.shouldCommit()) {
+			event.generation = snapshot.getGeneration();
+			event.cells = context.getNumberOfCellsDrawn();
+			event.commit();
+		}
 
 	}
 
@@ -120,7 +161,7 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 	 */
 	public void mouseClicked(MouseEvent e) {
 
-		if (!Conf.CANVAS_ACTIVE_EDITING) {
+		if (!Conf.CANVAS_ACTIVE_EDITING || frozen) {
 			return;
 		}
 
@@ -159,7 +200,9 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 		 * La cellule est créée si il n'en n'existe pas déjà à cette position.
 		 * Sinon elle est supprimée.
 		 */
-		world.toogle(coordinates);
+		World world = this.world;
+
+		scheduler.execute(() -> world.toogle(coordinates));
 
 	}
 
@@ -193,6 +236,7 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 		translation.setY(e.getY() - source.getY() + saved.getY());
 		
 		this.setCursor(new Cursor(Cursor.MOVE_CURSOR));
+		this.repaint();
 		
 	}
 
@@ -209,6 +253,8 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 			context.unzoom();
 		}
 
+		this.repaint();
+
 	}
 
 
@@ -229,4 +275,28 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 		this.world = world;
 	}
 
+	/**
+	 * Defines the scheduler running the edits.
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Defines the metrics recording the frames.
+	 */
+	public void setMetrics(Metrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Stops or starts editing the world, while it is
+	 * computed by another thread.
+	 *
+	 * @param frozen true to stop editing; false otherwise.
+	 */
+	public void setFrozen(boolean frozen) {
+		this.frozen = frozen;
+	}
+
 }
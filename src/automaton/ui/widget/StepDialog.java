@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Adrien Belminksy and other contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package automaton.ui.widget;
+
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import automaton.io.Console;
+import automaton.main.Automaton;
+
+/**
+ * <p>
+ * Dialog computing a number of generations on a worker
+ * thread, showing the progress and allowing to cancel.
+ * </p>
+ *
+ * <p>
+ * The dialog is modal, so the world is neither edited
+ * nor replaced while it is computed.
+ * </p>
+ *
+ * @see Automaton#stepGenerations(long)
+ */
+public class StepDialog extends JDialog {
+
+	/**
+	 * The version of the serialized form, required since a
+	 * dialog is serializable. Dialogs are never serialized.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The time between two refreshes of the progress, in milliseconds.
+	 */
+	protected static final int REFRESH_DELAY = 100;
+
+	/**
+	 * The steps of the progress bar.
+	 */
+	protected static final int PROGRESS_STEPS = 1000;
+
+
+	/**
+	 * The application computing the generations.
+	 */
+	protected Automaton automaton;
+
+	/**
+	 * The first generation computed.
+	 */
+	protected long start;
+
+	/**
+	 * The number of generations to compute.
+	 */
+	protected long generations;
+
+	/**
+	 * The progress bar.
+	 */
+	protected JProgressBar progressBar = new JProgressBar(0, PROGRESS_STEPS);
+
+	/**
+	 * The label showing the current generation.
+	 */
+	protected JLabel generationLabel = new JLabel();
+
+	/**
+	 * The cancel button.
+	 */
+	protected JButton cancelButton = new JButton("Cancel");
+
+	/**
+	 * The timer refreshing the progress.
+	 */
+	protected Timer timer = new Timer(REFRESH_DELAY, e -> refresh());
+
+	/**
+	 * The worker computing the generations.
+	 */
+	protected SwingWorker<Long, Void> worker;
+
+
+	/**
+	 * Dialog computing a number of generations.
+	 *
+	 * @param window The main window.
+	 * @param automaton The application computing the generations.
+	 * @param generations The number of generations.
+	 */
+	public StepDialog(Window window, Automaton automaton, long generations) {
+
+		super(window, "Run to Generation", true);
+
+		this.automaton = automaton;
+		this.start = automaton.world.getGeneration();
+		this.generations = generations;
+
+
+		worker = new SwingWorker<Long, Void>() {
+
+			protected Long doInBackground() {
+				return StepDialog.this.automaton.stepGenerations(StepDialog.this.generations);
+			}
+
+			protected void done() {
+
+				timer.stop();
+
+				if (!isCancelled()) {
+
+					try {
+						Console.write(get() + " generations computed", StepDialog.this);
+					} catch (Exception e) {
+						Console.err(e, StepDialog.this);
+					}
+
+				}
+
+				dispose();
+
+			}
+
+		};
+
+		cancelButton.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+				worker.cancel(true);
+			}
+
+		});
+
+
+		progressBar.setStringPainted(true);
+
+		generationLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		progressBar.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+
+		this.setLayout(new BorderLayout());
+		this.add(generationLabel, BorderLayout.NORTH);
+		this.add(progressBar, BorderLayout.CENTER);
+		this.add(cancelButton, BorderLayout.SOUTH);
+
+		this.setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+		this.setResizable(false);
+
+		refresh();
+
+		this.pack();
+		this.setSize(Math.max(getWidth(), 360), getHeight());
+		this.setLocationRelativeTo(window);
+
+	}
+
+
+	/**
+	 * Starts the computation, and waits for it to end or
+	 * to be cancelled.
+	 */
+	public void run() {
+
+		worker.execute();
+		timer.start();
+
+		/* Blocks until the worker disposes the dialog. */
+		this.setVisible(true);
+
+	}
+
+	/**
+	 * Shows the generation reached.
+	 */
+	protected void refresh() {
+
+		long done = automaton.world.getGeneration() - start;
+
+		generationLabel.setText("Generation " + automaton.world.getGeneration() + " / " + (start + generations));
+		progressBar.setValue(generations == 0 ? PROGRESS_STEPS : (int) ((double) done / generations * PROGRESS_STEPS));
+
+	}
+
+}